@@ -0,0 +1,103 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.nio.file.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark state with a database that resembles the documents of the XMark benchmark.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+  /** Name of the database. */
+  public static final String NAME = "bench";
+
+  /** Number of persons, items and auctions. */
+  @Param("10000")
+  public int size;
+
+  /** Database context. */
+  public Context context;
+  /** Database. */
+  public Data data;
+  /** Database directory. */
+  private IOFile dir;
+
+  /**
+   * Creates and opens the database.
+   * @throws IOException I/O exception
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new IOFile(Files.createTempDirectory(NAME).toFile());
+    context = new Context();
+    context.soptions.set(StaticOptions.DBPATH, dir.path());
+    new XQuery("db:create('" + NAME + "', " + document(size) + ", 'site.xml', "
+        + "{ 'tokenindex': true(), 'ftindex': true() })").execute(context);
+    new Open(NAME).execute(context);
+    data = context.data();
+  }
+
+  /**
+   * Closes and deletes the database.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    dir.delete();
+  }
+
+  /**
+   * Returns a query that generates an XMark-like document.
+   * @param size number of persons, items and auctions
+   * @return query string
+   */
+  public static String document(final int size) {
+    return "let $n := " + size + "\n"
+      + "let $words := ('gold', 'silver', 'ship', 'sword', 'rose', 'stone', 'river', "
+      + "'castle', 'crown', 'horse')\n"
+      + "return <site>\n"
+      + "<regions><europe>{\n"
+      + "  for $i in 1 to $n return <item id='item{ $i }'>\n"
+      + "    <location>{ ('Germany', 'France', 'Italy', 'Spain')[$i mod 4 + 1] }</location>\n"
+      + "    <name>Item { $i }</name>\n"
+      + "    <description><text>{\n"
+      + "      string-join(for $w in 1 to 20 return $words[$i * $w mod 10 + 1], ' ')\n"
+      + "    }</text></description>\n"
+      + "  </item>\n"
+      + "}</europe></regions>\n"
+      + "<people>{\n"
+      + "  for $p in 1 to $n return <person id='person{ $p - 1 }'>\n"
+      + "    <name>Person { $p }</name>\n"
+      + "    <emailaddress>mailto:person{ $p }@example.com</emailaddress>\n"
+      + "    <profile income='{ $p * 37 mod 100000 }'>\n"
+      + "      <interest category='category{ $p mod 100 }'/>\n"
+      + "    </profile>\n"
+      + "  </person>\n"
+      + "}</people>\n"
+      + "<open_auctions>{\n"
+      + "  for $a in 1 to $n return <open_auction id='open_auction{ $a }'>\n"
+      + "    <initial>{ $a mod 200 }</initial>\n"
+      + "    <bidder><increase>{ $a mod 30 }</increase></bidder>\n"
+      + "    <itemref item='item{ $a }'/>\n"
+      + "  </open_auction>\n"
+      + "}</open_auctions>\n"
+      + "<closed_auctions>{\n"
+      + "  for $c in 1 to $n return <closed_auction>\n"
+      + "    <seller person='person{ $c - 1 }'/>\n"
+      + "    <buyer person='person{ $c * 7 mod $n }'/>\n"
+      + "    <itemref item='item{ $c }'/>\n"
+      + "    <price>{ $c mod 500 }</price>\n"
+      + "  </closed_auction>\n"
+      + "}</closed_auctions>\n"
+      + "</site>";
+  }
+}
@@ -0,0 +1,95 @@
+package org.basex.bench;
+
+import static org.basex.util.Token.*;
+
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for index lookups.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+  /** Number of lookups per invocation. */
+  private static final int LOOKUPS = 1000;
+
+  /**
+   * Looks up text values.
+   * @param db database state
+   * @return checksum
+   */
+  @Benchmark
+  public long text(final DatabaseState db) {
+    long sum = 0;
+    for(int l = 1; l <= LOOKUPS; l++) {
+      sum += lookup(db.data, new StringToken(IndexType.TEXT, token("Person " + l)));
+    }
+    return sum;
+  }
+
+  /**
+   * Looks up attribute values.
+   * @param db database state
+   * @return checksum
+   */
+  @Benchmark
+  public long attribute(final DatabaseState db) {
+    long sum = 0;
+    for(int l = 1; l <= LOOKUPS; l++) {
+      sum += lookup(db.data, new StringToken(IndexType.ATTRIBUTE, token("person" + (l - 1))));
+    }
+    return sum;
+  }
+
+  /**
+   * Looks up attribute tokens.
+   * @param db database state
+   * @return checksum
+   */
+  @Benchmark
+  public long tokens(final DatabaseState db) {
+    long sum = 0;
+    for(int l = 1; l <= LOOKUPS; l++) {
+      sum += lookup(db.data, new StringToken(IndexType.TOKEN, token("category" + l % 100)));
+    }
+    return sum;
+  }
+
+  /**
+   * Looks up full-text terms.
+   * @param db database state
+   * @return result
+   * @throws BaseXException database exception
+   */
+  @Benchmark
+  public String fulltext(final DatabaseState db) throws BaseXException {
+    return new XQuery("count(ft:search('" + DatabaseState.NAME + "', ('castle', 'crown'), "
+        + "{ 'mode': 'all' }))").execute(db.context);
+  }
+
+  /**
+   * Iterates over the results of an index lookup.
+   * @param data data reference
+   * @param search index search
+   * @return checksum
+   */
+  private static long lookup(final Data data, final IndexSearch search) {
+    final IndexIterator iter = data.iter(search);
+    long sum = 0;
+    while(iter.more()) sum += iter.pre();
+    return sum;
+  }
+}
@@ -0,0 +1,69 @@
+package org.basex.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for representative XMark-style queries.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+  /** Queries. */
+  private static final Map<String, String> QUERIES = new HashMap<>();
+
+  static {
+    final String site = "db:get('" + DatabaseState.NAME + "')/site";
+    // exact match
+    QUERIES.put("Q1", site + "/people/person[@id = 'person0']/name/text()");
+    // numeric comparisons
+    QUERIES.put("Q5", "count(" + site + "/closed_auctions/closed_auction[price >= 40])");
+    // join on attribute values
+    QUERIES.put("Q8", "for $p in " + site + "/people/person "
+        + "let $a := " + site + "/closed_auctions/closed_auction[buyer/@person = $p/@id] "
+        + "return <item person='{ $p/name }'>{ count($a) }</item>");
+    // grouping
+    QUERIES.put("Q10", "for $p in " + site + "/people/person "
+        + "group by $c := $p/profile/interest/@category "
+        + "return <category name='{ $c }'>{ count($p) }</category>");
+    // string search
+    QUERIES.put("Q14", "for $i in " + site + "//item "
+        + "where contains(string($i/description), 'gold') return $i/name/text()");
+    // sorting
+    QUERIES.put("Q19", "for $i in " + site + "/regions//item "
+        + "order by $i/location, $i/name return <item name='{ $i/name }'>{ $i/location }</item>");
+    // aggregation
+    QUERIES.put("Q20", "sum(" + site + "/people/person/profile/@income)");
+  }
+
+  /** Query. */
+  @Param({ "Q1", "Q5", "Q8", "Q10", "Q14", "Q19", "Q20" })
+  public String query;
+
+  /**
+   * Parses, compiles and evaluates a query.
+   * @param db database state
+   * @return number of results
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public long query(final DatabaseState db) throws QueryException {
+    try(QueryProcessor qp = new QueryProcessor(QUERIES.get(query), db.context)) {
+      final Iter iter = qp.iter();
+      long size = 0;
+      for(Item item; (item = iter.next()) != null;) size++;
+      return size;
+    }
+  }
+}
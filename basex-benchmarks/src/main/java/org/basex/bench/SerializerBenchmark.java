@@ -0,0 +1,40 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
+import org.basex.util.options.Options.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for serializing database nodes.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+  /** Indentation of the output. */
+  @Param({ "NO", "YES" })
+  public YesNo indent;
+
+  /**
+   * Serializes the document.
+   * @param db database state
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public void serialize(final DatabaseState db) throws IOException {
+    final SerializerOptions sopts = new SerializerOptions();
+    sopts.set(SerializerOptions.INDENT, indent);
+    try(Serializer ser = Serializer.get(OutputStream.nullOutputStream(), sopts)) {
+      ser.serialize(new DBNode(db.data, 0));
+    }
+  }
+}
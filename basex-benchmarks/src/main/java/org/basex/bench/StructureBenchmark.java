@@ -0,0 +1,123 @@
+package org.basex.bench;
+
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.array.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for maps and arrays.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructureBenchmark {
+  /** Number of entries. */
+  @Param({ "100", "10000" })
+  public int size;
+
+  /** Query context. */
+  private QueryContext qc;
+  /** Map with integer keys. */
+  private XQMap map;
+  /** Map with string keys. */
+  private XQMap strings;
+  /** Array. */
+  private XQArray array;
+
+  /**
+   * Creates the data structures.
+   * @throws QueryException query exception
+   */
+  @Setup(Level.Trial)
+  public void setup() throws QueryException {
+    qc = new QueryContext(new Context());
+    map = buildMap();
+    strings = buildStrings();
+    array = buildArray();
+  }
+
+  /**
+   * Builds a map with integer keys.
+   * @return map
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public XQMap buildMap() throws QueryException {
+    XQMap mp = XQMap.empty();
+    for(int i = 0; i < size; i++) mp = mp.put(Itr.get(i), Itr.get(i));
+    return mp;
+  }
+
+  /**
+   * Builds a map with string keys.
+   * @return map
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public XQMap buildStrings() throws QueryException {
+    XQMap mp = XQMap.empty();
+    for(int i = 0; i < size; i++) mp = mp.put(Str.get("key" + i), Itr.get(i));
+    return mp;
+  }
+
+  /**
+   * Looks up integer keys.
+   * @return checksum
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public long getMap() throws QueryException {
+    long sum = 0;
+    for(int i = 0; i < size; i++) sum += map.get(Itr.get(i)).size();
+    return sum;
+  }
+
+  /**
+   * Looks up string keys.
+   * @return checksum
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public long getStrings() throws QueryException {
+    long sum = 0;
+    for(int i = 0; i < size; i++) sum += strings.get(Str.get("key" + i)).size();
+    return sum;
+  }
+
+  /**
+   * Appends array members.
+   * @return array
+   */
+  @Benchmark
+  public XQArray buildArray() {
+    XQArray arr = XQArray.empty();
+    for(int i = 0; i < size; i++) arr = arr.appendMember(Itr.get(i), qc);
+    return arr;
+  }
+
+  /**
+   * Accesses array members.
+   * @return checksum
+   */
+  @Benchmark
+  public long getArray() {
+    long sum = 0;
+    for(int i = 0; i < size; i++) {
+      final Value value = array.valueAt(i);
+      sum += value.size();
+    }
+    return sum;
+  }
+}
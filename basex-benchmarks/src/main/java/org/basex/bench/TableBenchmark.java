@@ -0,0 +1,86 @@
+package org.basex.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.data.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for reading the database table.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+  /** Random PRE values. */
+  @State(Scope.Thread)
+  public static class Pres {
+    /** PRE values. */
+    int[] pres;
+
+    /**
+     * Chooses random PRE values.
+     * @param db database state
+     */
+    @Setup(Level.Trial)
+    public void setup(final DatabaseState db) {
+      final Random random = new Random(0);
+      final int size = db.data.meta.size;
+      pres = new int[1 << 16];
+      for(int p = 0; p < pres.length; p++) pres[p] = random.nextInt(size);
+    }
+  }
+
+  /**
+   * Reads the kind, size and parent of all nodes in document order.
+   * @param db database state
+   * @return checksum
+   */
+  @Benchmark
+  public long scan(final DatabaseState db) {
+    final Data data = db.data;
+    long sum = 0;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      sum += data.size(pre, kind) + data.parent(pre, kind);
+    }
+    return sum;
+  }
+
+  /**
+   * Reads the kind and size of nodes at random positions.
+   * @param db database state
+   * @param pres random PRE values
+   * @return checksum
+   */
+  @Benchmark
+  public long random(final DatabaseState db, final Pres pres) {
+    final Data data = db.data;
+    long sum = 0;
+    for(final int pre : pres.pres) sum += data.size(pre, data.kind(pre));
+    return sum;
+  }
+
+  /**
+   * Reads the values of all text nodes.
+   * @param db database state
+   * @return checksum
+   */
+  @Benchmark
+  public long texts(final DatabaseState db) {
+    final Data data = db.data;
+    long sum = 0;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) == Data.TEXT) sum += data.text(pre, true).length;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,72 @@
+package org.basex.build.xml;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.bench.*;
+import org.basex.build.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for scanning and parsing XML documents.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+  /** Number of persons, items and auctions. */
+  @Param("10000")
+  public int size;
+
+  /** Main options. */
+  private final MainOptions options = new MainOptions();
+  /** Document. */
+  private IOContent document;
+
+  /**
+   * Creates the document.
+   * @throws BaseXException database exception
+   */
+  @Setup(Level.Trial)
+  public void setup() throws BaseXException {
+    final Context context = new Context();
+    try {
+      document = new IOContent(new XQuery(DatabaseState.document(size)).execute(context));
+    } finally {
+      context.close();
+    }
+  }
+
+  /**
+   * Scans the document.
+   * @return number of tokens
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public long scan() throws IOException {
+    final XMLScanner scanner = new XMLScanner(document, options, false);
+    long tokens = 0;
+    while(scanner.more()) tokens++;
+    scanner.close();
+    return tokens;
+  }
+
+  /**
+   * Parses the document into a main-memory database.
+   * @return number of nodes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public int parse() throws IOException {
+    return MemBuilder.build(new XMLParser(document, options)).meta.size;
+  }
+}
@@ -6,6 +6,7 @@ import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
@@ -39,6 +40,10 @@ public final class BaseXServer extends CLI implements Runnable {
   private ServerSocket socket;
   /** Socket accept loop. */
   private Thread acceptor;
+  /** Builder for client threads. */
+  private Thread.Builder clients;
+  /** Timer for authentication timeouts. */
+  private ScheduledExecutorService timer;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -118,6 +123,10 @@ public final class BaseXServer extends CLI implements Runnable {
       throw new BaseXException(ex.getLocalizedMessage(), ex);
     }
 
+    // serve clients with platform or virtual threads
+    clients = sopts.get(StaticOptions.VIRTUALTHREADS) ? Thread.ofVirtual() :
+      Thread.ofPlatform().daemon();
+    timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
     acceptor = new Thread(this);
     acceptor.start();
 
@@ -153,15 +162,12 @@ public final class BaseXServer extends CLI implements Runnable {
         // create client listener, stop authentication after timeout
         final ClientListener cl = new ClientListener(s, context, this);
         if(ka > 0) {
-          cl.timeout.schedule(new TimerTask() {
-            @Override
-            public void run() {
-              cl.close();
-            }
-          }, ka);
-          authorizing.add(cl);
+          synchronized(authorizing) {
+            cl.timeout = timer.schedule(cl::close, ka, TimeUnit.MILLISECONDS);
+            authorizing.add(cl);
+          }
         }
-        cl.start();
+        clients.start(cl);
       } catch(final SocketException ex) {
         Util.debug(ex);
         break;
@@ -192,10 +198,15 @@ public final class BaseXServer extends CLI implements Runnable {
   public synchronized void close() {
     if(!running) return;
 
-    for(final ClientListener cl : authorizing) {
+    final ArrayList<ClientListener> clnts;
+    synchronized(authorizing) {
+      clnts = new ArrayList<>(authorizing);
+    }
+    for(final ClientListener cl : clnts) {
       remove(cl);
       cl.close();
     }
+    timer.shutdownNow();
     context.sessions.close();
 
     try {
@@ -337,7 +348,7 @@ public final class BaseXServer extends CLI implements Runnable {
    */
   public void remove(final ClientListener client) {
     synchronized(authorizing) {
-      client.timeout.cancel();
+      if(client.timeout != null) client.timeout.cancel(false);
       authorizing.remove(client);
     }
   }
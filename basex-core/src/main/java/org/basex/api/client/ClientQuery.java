@@ -1,6 +1,8 @@
 package org.basex.api.client;
 
 import java.io.*;
+import java.util.*;
+import java.util.stream.*;
 
 import org.basex.api.dom.*;
 import org.basex.core.*;
@@ -102,6 +104,36 @@ public class ClientQuery extends Query {
     return cs.exec(ServerCmd.EXEC, id, out);
   }
 
+  /**
+   * Evaluates the query and returns an iterator over the results, which are read from the
+   * socket while they are being requested (see {@link ClientResults}).
+   * @return iterator
+   * @throws IOException I/O exception
+   */
+  public ClientResults results() throws IOException {
+    cache = null;
+    return new ClientResults(this);
+  }
+
+  /**
+   * Evaluates the query and returns a stream over the results, which are read from the
+   * socket while they are being requested. The stream must be closed if not all results
+   * are consumed.
+   * @return stream
+   * @throws IOException I/O exception
+   */
+  public Stream<String> stream() throws IOException {
+    final ClientResults results = results();
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED |
+        Spliterator.NONNULL), false).onClose(() -> {
+      try {
+        results.close();
+      } catch(final IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+  }
+
   @Override
   public void close() throws IOException {
     cs.exec(ServerCmd.CLOSE, id, null);
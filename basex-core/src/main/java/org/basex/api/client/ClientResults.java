@@ -0,0 +1,107 @@
+package org.basex.api.client;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.in.*;
+import org.basex.query.value.type.*;
+import org.basex.server.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class iterates over query results that are sent by the server. In contrast to
+ * {@link Query#next()}, results are not cached: they are read from the socket while they are
+ * being requested, and the server is blocked by the network stack if the client does not
+ * consume the results fast enough.
+ *
+ * The session must not be used for other requests before all results have been retrieved
+ * or the iterator has been closed. If the iterator is closed early, the server is requested to
+ * stop the iteration, and the results that have already been sent are skipped.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientResults implements Iterator<String>, Closeable {
+  /** Client session. */
+  private final ClientSession session;
+  /** Server input. */
+  private final BufferInput input;
+  /** Buffer for the current result. */
+  private final ByteList buffer = new ByteList();
+  /** Type of the next result ({@code -1}: not read yet, {@code 0}: no more results). */
+  private int next = -1;
+  /** Type of the current result. */
+  private int type;
+
+  /**
+   * Constructor.
+   * @param query client query
+   * @throws IOException I/O exception
+   */
+  ClientResults(final ClientQuery query) throws IOException {
+    session = query.cs;
+    session.sout.write(ServerCmd.RESULTS.code);
+    session.send(query.id);
+    session.sout.flush();
+    input = BufferInput.get(session.sin);
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      if(next == -1) {
+        next = input.read();
+        if(next == 0 && !ClientSession.ok(input)) throw new BaseXException(input.readString());
+      }
+    } catch(final IOException ex) {
+      next = 0;
+      throw new UncheckedIOException(ex);
+    }
+    return next > 0;
+  }
+
+  @Override
+  public String next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    try {
+      final ServerInput si = new ServerInput(input);
+      for(int b; (b = si.read()) != -1;) buffer.add(b);
+    } catch(final IOException ex) {
+      next = 0;
+      throw new UncheckedIOException(ex);
+    }
+    type = next;
+    next = -1;
+    return Token.string(buffer.next());
+  }
+
+  /**
+   * Returns the XQuery type of the current result (must be called after {@link #next()}).
+   * @return item type
+   */
+  public Type type() {
+    return Types.type(type);
+  }
+
+  /**
+   * Cancels the iteration and skips the results that have already been sent.
+   * @throws IOException I/O exception
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if(hasNext()) {
+        session.sout.write(ServerCmd.CANCEL.code);
+        session.sout.flush();
+        do {
+          new ServerInput(input).flush();
+          next = -1;
+        } while(hasNext());
+      }
+    } catch(final UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+}
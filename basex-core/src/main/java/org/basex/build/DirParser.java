@@ -4,13 +4,18 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
+import org.basex.core.jobs.*;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -18,6 +23,9 @@ import org.basex.util.list.*;
  * This class recursively scans files and directories and parses all
  * relevant files.
  *
+ * If more than one parser thread is specified, XML files are parsed in parallel into main-memory
+ * instances, which are then added to the builder in the order of the input.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
@@ -45,6 +53,13 @@ public final class DirParser extends Parser {
   private final boolean binaryParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of threads for parsing XML files. */
+  private final int threads;
+  /** Documents that are parsed in parallel, in the order of the input. */
+  private final ArrayDeque<Parsed> parsed = new ArrayDeque<>();
+
+  /** Thread pool for parsing documents in parallel (can be {@code null}). */
+  private ExecutorService pool;
 
   /** Last source. */
   private IO lastSrc;
@@ -75,6 +90,9 @@ public final class DirParser extends Parser {
     addBinary = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     binaryParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    // source locations get lost when documents are copied
+    threads = options.get(MainOptions.RETAINLOCATION) ? 1 :
+      Math.max(1, options.get(MainOptions.PARSETHREADS));
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -83,7 +101,23 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.inputsize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads > 1) {
+      pool = Executors.newFixedThreadPool(threads, r -> {
+        final Thread thread = new Thread(r, Prop.NAME + "Parser");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    try {
+      parse(build, source);
+      add(build, 0);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+      }
+      parsed.clear();
+    }
   }
 
   /**
@@ -176,7 +210,17 @@ public final class DirParser extends Parser {
     if(include ? binaryParser : addBinary) {
       // store input in binary format if binary parser was chosen, or if file was included otherwise
       builder.binary(targ + name, source);
+    } else if(include && pool != null && source instanceof IOFile) {
+      // parse file in parallel
+      final IO in = source;
+      final String trg = targ;
+      parsed.add(new Parsed(in, pool.submit(() ->
+        MemBuilder.build("", Parser.singleParser(in, options, trg)))));
+      add(builder, threads << 2);
     } else if(include) {
+      // add documents that have been parsed before
+      add(builder, 0);
+
       // store input as XML
       boolean ok = true;
       IO in = source;
@@ -213,6 +257,36 @@ public final class DirParser extends Parser {
     if(Prop.debug && (++resources & 0x3FF) == 0) Util.err(";");
   }
 
+  /**
+   * Adds documents that have been parsed in parallel.
+   * @param builder builder instance
+   * @param max maximum number of documents that may remain unprocessed
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder, final int max) throws IOException {
+    while(parsed.size() > max) {
+      final Parsed doc = parsed.poll();
+      final MemData data;
+      try {
+        data = doc.data.get();
+      } catch(final InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new JobException(INTERRUPTED, ex);
+      } catch(final ExecutionException ex) {
+        final Throwable cause = ex.getCause();
+        if(cause instanceof final RuntimeException rex) throw rex;
+        if(cause instanceof final Error error) throw error;
+        final IOException iex = (IOException) cause;
+        if(!skipCorrupt) throw iex;
+        Util.debug(iex);
+        skipped.add(doc.input.path());
+        continue;
+      }
+      builder.checkStop();
+      new BuilderSerializer(builder).serialize(new DBNode(data, 0));
+    }
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -246,4 +320,11 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * Document that is parsed in parallel.
+   * @param input input
+   * @param data future main-memory instance
+   */
+  private record Parsed(IO input, Future<MemData> data) { }
 }
@@ -1,6 +1,8 @@
 package org.basex.core;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.query.*;
 import org.basex.query.value.*;
@@ -11,14 +13,23 @@ import org.basex.util.list.*;
 /**
  * This class provides access to main-memory caches.
  *
+ * Caches can be accessed concurrently: Entries are distributed to shards, which are locked
+ * separately. Each shard keeps its entries in the order of their last access. If the maximum
+ * number of entries is exceeded, the shard with the oldest head entry evicts this entry. As
+ * access times are taken from the system timer and shards are compared without being locked,
+ * the eviction order approximates the least recently used order across all shards.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class Caches {
+  /** Number of shards per cache (must be a power of two). */
+  private static final int SHARDS = 16;
+
   /** Caches. */
-  private final HashMap<String, Cache> caches = new HashMap<>();
+  private final ConcurrentHashMap<String, Cache> caches = new ConcurrentHashMap<>();
   /** Configurations of initialized caches. */
-  private final HashMap<String, Config> configs = new HashMap<>();
+  private final ConcurrentHashMap<String, Config> configs = new ConcurrentHashMap<>();
   /** Database context. */
   private final Context context;
 
@@ -36,7 +47,7 @@ public final class Caches {
    * @param ttl lifetime of entries in seconds (0 for unlimited lifetime)
    * @param name name of cache
    */
-  public synchronized void init(final int max, final long ttl, final String name) {
+  public void init(final int max, final long ttl, final String name) {
     final Config config = new Config(max, ttl);
     configs.put(name, config);
     final Cache cache = caches.get(name);
@@ -52,17 +63,9 @@ public final class Caches {
    * @param name name of cache
    * @return value or {@code null}
    */
-  public synchronized Value get(final String key, final String name) {
+  public Value get(final String key, final String name) {
     final Cache cache = caches.get(name);
-    if(cache == null) return null;
-    cache.cleanup();
-    final CacheEntry entry = cache.get(key);
-    if(entry == null) {
-      cache.misses++;
-      return null;
-    }
-    cache.hits++;
-    return entry.value;
+    return cache != null ? cache.get(key) : null;
   }
 
   /**
@@ -70,12 +73,17 @@ public final class Caches {
    * @param name name of cache
    * @return keys
    */
-  public synchronized TokenList keys(final String name) {
+  public TokenList keys(final String name) {
+    final TokenList list = new TokenList();
     final Cache cache = caches.get(name);
-    if(cache != null) cache.cleanup();
-    final Set<String> keys = cache != null ? cache.keySet() : Set.of();
-    final TokenList list = new TokenList(keys.size());
-    for(final String key : keys) list.add(key);
+    if(cache != null) {
+      for(final Shard shard : cache.shards) {
+        synchronized(shard) {
+          cache.cleanup(shard);
+          for(final String key : shard.keySet()) list.add(key);
+        }
+      }
+    }
     return list;
   }
 
@@ -85,15 +93,14 @@ public final class Caches {
    * @return number of entries, hits, misses, evicted and expired entries
    * @throws QueryException query exception
    */
-  public synchronized XQMap info(final String name) throws QueryException {
+  public XQMap info(final String name) throws QueryException {
     final Cache cache = caches.get(name);
-    if(cache != null) cache.cleanup();
     return new MapBuilder().
       put("entries", Itr.get(cache != null ? cache.size() : 0)).
-      put("hits", Itr.get(cache != null ? cache.hits : 0)).
-      put("misses", Itr.get(cache != null ? cache.misses : 0)).
-      put("evictions", Itr.get(cache != null ? cache.evictions : 0)).
-      put("expirations", Itr.get(cache != null ? cache.expirations : 0)).map();
+      put("hits", Itr.get(cache != null ? cache.hits.sum() : 0)).
+      put("misses", Itr.get(cache != null ? cache.misses.sum() : 0)).
+      put("evictions", Itr.get(cache != null ? cache.evictions.sum() : 0)).
+      put("expirations", Itr.get(cache != null ? cache.expirations.sum() : 0)).map();
   }
 
   /**
@@ -102,13 +109,11 @@ public final class Caches {
    * @param value value
    * @param name name of cache
    */
-  public synchronized void put(final String key, final Value value, final String name) {
+  public void put(final String key, final Value value, final String name) {
     if(value.isEmpty()) {
       remove(key, name);
     } else {
-      final Cache cache = caches.computeIfAbsent(name, this::create);
-      cache.cleanup();
-      cache.add(key, value);
+      caches.computeIfAbsent(name, this::create).add(key, value);
     }
   }
 
@@ -117,7 +122,7 @@ public final class Caches {
    * @param key key
    * @param name name of cache
    */
-  public synchronized void remove(final String key, final String name) {
+  public void remove(final String key, final String name) {
     final Cache cache = caches.get(name);
     if(cache != null) cache.remove(key);
   }
@@ -127,18 +132,16 @@ public final class Caches {
    * @param name name of cache
    * @return number of entries
    */
-  public synchronized int size(final String name) {
+  public int size(final String name) {
     final Cache cache = caches.get(name);
-    if(cache == null) return 0;
-    cache.cleanup();
-    return cache.size();
+    return cache != null ? cache.size() : 0;
   }
 
   /**
    * Deletes a cache. Its configuration is preserved.
    * @param name name of cache
    */
-  public synchronized void delete(final String name) {
+  public void delete(final String name) {
     caches.remove(name);
   }
 
@@ -146,8 +149,8 @@ public final class Caches {
    * Returns the names of all caches.
    * @return names
    */
-  public synchronized TokenList list() {
-    final TokenList list = new TokenList(caches.size());
+  public TokenList list() {
+    final TokenList list = new TokenList();
     for(final String name : caches.keySet()) {
       if(!name.isEmpty()) list.add(name);
     }
@@ -157,7 +160,7 @@ public final class Caches {
   /**
    * Clears all caches and their configurations.
    */
-  public synchronized void clear() {
+  public void clear() {
     caches.clear();
     configs.clear();
   }
@@ -175,32 +178,58 @@ public final class Caches {
   }
 
   /**
-   * Cache with LRU replacement policy.
+   * Cache with approximate LRU replacement policy.
    *
    * @author BaseX Team, BSD License
    * @author Christian Gruen
    */
-  private static final class Cache extends LinkedHashMap<String, CacheEntry> {
-    /** Configuration. */
-    private Config config;
-    /** Earliest expiration time. */
-    private long minExpires = Long.MAX_VALUE;
+  private static final class Cache {
+    /** Shards. */
+    private final Shard[] shards = new Shard[SHARDS];
+    /** Number of entries. */
+    private final AtomicInteger size = new AtomicInteger();
     /** Number of cache hits. */
-    private long hits;
+    private final LongAdder hits = new LongAdder();
     /** Number of cache misses. */
-    private long misses;
+    private final LongAdder misses = new LongAdder();
     /** Number of evicted entries. */
-    private long evictions;
+    private final LongAdder evictions = new LongAdder();
     /** Number of expired entries. */
-    private long expirations;
+    private final LongAdder expirations = new LongAdder();
+    /** Configuration. */
+    private volatile Config config;
 
     /**
      * Constructor.
      * @param config configuration
      */
     private Cache(final Config config) {
-      super(8, 0.75f, true);
       this.config = config;
+      for(int s = 0; s < SHARDS; s++) shards[s] = new Shard();
+    }
+
+    /**
+     * Returns a value.
+     * @param key key
+     * @return value or {@code null}
+     */
+    private Value get(final String key) {
+      final Shard shard = shard(key);
+      final CacheEntry entry;
+      synchronized(shard) {
+        cleanup(shard);
+        entry = shard.get(key);
+        if(entry != null) {
+          entry.access = System.nanoTime();
+          shard.update();
+        }
+      }
+      if(entry == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return entry.value;
     }
 
     /**
@@ -212,47 +241,144 @@ public final class Caches {
       final long ttl = config.ttl;
       final long expires = ttl == 0 ? Long.MAX_VALUE :
         System.currentTimeMillis() + ttl * 1000;
-      if(expires < minExpires) minExpires = expires;
-      put(key, new CacheEntry(value, expires));
+      final Shard shard = shard(key);
+      synchronized(shard) {
+        cleanup(shard);
+        if(expires < shard.minExpires) shard.minExpires = expires;
+        if(shard.put(key, new CacheEntry(value, expires, System.nanoTime())) == null) {
+          size.incrementAndGet();
+        }
+        shard.update();
+      }
+      trim();
+    }
+
+    /**
+     * Removes an entry.
+     * @param key key
+     */
+    private void remove(final String key) {
+      final Shard shard = shard(key);
+      synchronized(shard) {
+        if(shard.remove(key) != null) {
+          size.decrementAndGet();
+          shard.update();
+        }
+      }
     }
 
     /**
-     * Discards all expired entries.
+     * Returns the number of entries.
+     * @return number of entries
      */
-    private void cleanup() {
+    private int size() {
+      for(final Shard shard : shards) {
+        synchronized(shard) {
+          cleanup(shard);
+        }
+      }
+      return size.get();
+    }
+
+    /**
+     * Returns the shard of a key.
+     * @param key key
+     * @return shard
+     */
+    private Shard shard(final String key) {
+      final int h = key.hashCode();
+      return shards[(h ^ h >>> 16) & SHARDS - 1];
+    }
+
+    /**
+     * Discards all expired entries of a shard. Must be called while the shard is locked.
+     * @param shard shard
+     */
+    private void cleanup(final Shard shard) {
       final long now = System.currentTimeMillis();
-      if(now < minExpires) return;
+      if(now < shard.minExpires) return;
       long min = Long.MAX_VALUE;
-      final Iterator<CacheEntry> iter = values().iterator();
+      final Iterator<CacheEntry> iter = shard.values().iterator();
       while(iter.hasNext()) {
         final long expires = iter.next().expires;
         if(expires <= now) {
           iter.remove();
-          expirations++;
+          size.decrementAndGet();
+          expirations.increment();
         } else if(expires < min) {
           min = expires;
         }
       }
-      minExpires = min;
+      shard.minExpires = min;
+      shard.update();
     }
 
     /**
-     * Discards the least recently used entries that exceed the maximum number of entries.
+     * Discards the (approximately) least recently used entries that exceed the maximum number
+     * of entries.
      */
     private void trim() {
-      final Iterator<String> iter = keySet().iterator();
-      while(size() > config.max && iter.hasNext()) {
-        iter.next();
-        iter.remove();
-        evictions++;
+      for(int s; (s = size.get()) > config.max;) {
+        // reserve eviction before removing an entry
+        if(size.compareAndSet(s, s - 1) && !evict()) {
+          size.incrementAndGet();
+          break;
+        }
       }
     }
 
-    @Override
-    protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
-      final boolean evict = size() > config.max;
-      if(evict) evictions++;
-      return evict;
+    /**
+     * Evicts the least recently used entry of the shard with the oldest head entry.
+     * @return {@code true} if an entry was evicted
+     */
+    private boolean evict() {
+      while(true) {
+        Shard eldest = null;
+        for(final Shard shard : shards) {
+          final long oldest = shard.oldest;
+          if(shard.entries != 0 && (eldest == null || oldest - eldest.oldest < 0)) eldest = shard;
+        }
+        if(eldest == null) return false;
+        synchronized(eldest) {
+          if(eldest.pollFirstEntry() != null) {
+            eldest.update();
+            evictions.increment();
+            return true;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Shard of a cache, with entries in the order of their last access.
+   * All methods must be called while the shard is locked.
+   *
+   * @author BaseX Team, BSD License
+   * @author Christian Gruen
+   */
+  private static final class Shard extends LinkedHashMap<String, CacheEntry> {
+    /** Earliest expiration time. */
+    private long minExpires = Long.MAX_VALUE;
+    /** Access time of the least recently used entry (only valid if the shard has entries). */
+    private volatile long oldest;
+    /** Number of entries. */
+    private volatile int entries;
+
+    /**
+     * Constructor.
+     */
+    private Shard() {
+      super(8, 0.75f, true);
+    }
+
+    /**
+     * Updates the access time of the least recently used entry.
+     */
+    private void update() {
+      final Map.Entry<String, CacheEntry> first = firstEntry();
+      if(first != null) oldest = first.getValue().access;
+      entries = size();
     }
   }
 
@@ -290,15 +416,19 @@ public final class Caches {
     private final Value value;
     /** Expiration time in milliseconds. */
     private final long expires;
+    /** Time of the last access (value of {@link System#nanoTime()}). */
+    private long access;
 
     /**
      * Constructor.
      * @param value value
      * @param expires expiration time in milliseconds
+     * @param access time of the last access
      */
-    private CacheEntry(final Value value, final long expires) {
+    private CacheEntry(final Value value, final long expires, final long access) {
       this.value = value;
       this.expires = expires;
+      this.access = access;
     }
   }
 }
@@ -369,6 +369,8 @@ public abstract class Command extends Job {
    */
   protected static boolean close(final Context ctx, final String db) {
     final Data data = ctx.data();
-    return data != null && db.equals(data.meta.name) && ctx.datas.pins(db) == 1 && Close.close(ctx);
+    if(data == null || !db.equals(data.meta.name)) return false;
+    ctx.queries.remove(db);
+    return ctx.datas.pins(db) == 1 && Close.close(ctx);
   }
 }
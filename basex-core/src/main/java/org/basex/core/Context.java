@@ -7,6 +7,7 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -55,6 +56,8 @@ public final class Context {
   public final Stores stores;
   /** Cache. */
   public final Caches caches;
+  /** Cached query plans. */
+  public final QueryCache queries;
 
   /** External objects (HTTP context, HTTP requests). */
   private final HashSet<Object> external;
@@ -125,6 +128,7 @@ public final class Context {
     services = ctx.services;
     stores = ctx.stores;
     caches = ctx.caches;
+    queries = ctx.queries;
     external = new HashSet<>(ctx.external);
   }
 
@@ -135,7 +139,7 @@ public final class Context {
   public Context(final StaticOptions soptions) {
     this.soptions = soptions;
     options = new MainOptions();
-    datas = new Datas();
+    datas = new Datas(soptions);
     sessions = new Sessions();
     blocker = new ClientBlocker();
     databases = new Databases(soptions);
@@ -149,6 +153,7 @@ public final class Context {
     external = new HashSet<>();
     stores = new Stores(this);
     caches = new Caches(this);
+    queries = new QueryCache(this);
     client = null;
   }
 
@@ -192,6 +197,7 @@ public final class Context {
     stores.close();
     jobs.close();
     sessions.close();
+    queries.clear();
     datas.close();
     log.close();
     closeDB();
@@ -284,6 +290,7 @@ public final class Context {
    * @return result of check
    */
   public boolean pinned(final String db) {
+    queries.remove(db);
     return datas.pinned(db) || TableDiskAccess.locked(db, this);
   }
 
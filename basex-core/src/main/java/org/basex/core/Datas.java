@@ -2,19 +2,51 @@ package org.basex.core;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.util.*;
 
 /**
  * This class organizes currently opened databases.
  *
+ * If {@link StaticOptions#KEEPOPEN} is assigned a positive value, databases that are no longer
+ * pinned will be kept open for {@link StaticOptions#KEEPOPENTTL} seconds, so that they need not
+ * be reopened by subsequent requests. Unpinned databases are closed before they are dropped,
+ * renamed or overwritten, and if the available memory gets low.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class Datas {
+  /** Scheduler for closing unpinned databases. */
+  private static final ScheduledExecutorService SCHEDULER =
+    Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, Prop.NAME + "Datas");
+      thread.setDaemon(true);
+      return thread;
+    });
+
   /** Pinned databases (data instance, number of pins). */
   private final IdentityHashMap<Data, Integer> list = new IdentityHashMap<>();
+  /** Unpinned databases that are kept open (data instance, time of unpinning), oldest first. */
+  private final LinkedHashMap<Data, Long> unpinned = new LinkedHashMap<>();
+  /** Maximum number of unpinned databases that are kept open. */
+  private final int max;
+  /** Lifetime of unpinned databases (ns). */
+  private final long ttl;
+  /** Scheduled closing of unpinned databases (can be {@code null}). */
+  private ScheduledFuture<?> expire;
+
+  /**
+   * Constructor.
+   * @param soptions static options
+   */
+  Datas(final StaticOptions soptions) {
+    max = soptions.get(StaticOptions.KEEPOPEN);
+    ttl = TimeUnit.SECONDS.toNanos(soptions.get(StaticOptions.KEEPOPENTTL));
+  }
 
   /**
    * Pins and returns a database with the specified name.
@@ -23,10 +55,17 @@ public final class Datas {
    */
   public synchronized Data pin(final String name) {
     final Entry<Data, Integer> entry = get(name);
-    if(entry == null) return null;
+    if(entry != null) {
+      final Data data = entry.getKey();
+      list.put(data, entry.getValue() + 1);
+      return data;
+    }
 
-    final Data data = entry.getKey();
-    list.put(data, entry.getValue() + 1);
+    // reuse unpinned database
+    final Data data = unpinned(name);
+    if(data == null) return null;
+    unpinned.remove(data);
+    list.put(data, 1);
     return data;
   }
 
@@ -35,11 +74,13 @@ public final class Datas {
    * @param data data reference
    */
   public synchronized void pin(final Data data) {
+    unpinned.remove(data);
     list.compute(data, (key, pins) -> pins == null ? 1 : pins + 1);
   }
 
   /**
-   * Unpins a data reference and closes the database if no references exist anymore.
+   * Unpins a data reference. If no references exist anymore, the database is closed, or kept
+   * open for subsequent requests.
    * @param data data reference
    */
   public synchronized void unpin(final Data data) {
@@ -49,8 +90,14 @@ public final class Datas {
 
     final int p = pins;
     if(p == 1) {
-      data.close();
       list.remove(data);
+      if(max > 0 && !data.inMemory() && !low()) {
+        unpinned.put(data, System.nanoTime());
+        while(unpinned.size() > max) close(unpinned.keySet().iterator().next());
+        schedule();
+      } else {
+        data.close();
+      }
     } else {
       list.put(data, p - 1);
     }
@@ -58,10 +105,13 @@ public final class Datas {
 
   /**
    * Checks if the database with the specified name is pinned.
+   * If it is only kept open, it will be closed.
    * @param name name of the database
    * @return result of check
    */
   synchronized boolean pinned(final String name) {
+    final Data data = unpinned(name);
+    if(data != null) close(data);
     return get(name) != null;
   }
 
@@ -80,8 +130,14 @@ public final class Datas {
    * Closes all data references.
    */
   synchronized void close() {
+    if(expire != null) {
+      expire.cancel(false);
+      expire = null;
+    }
     for(final Data data : list.keySet()) data.close();
     list.clear();
+    for(final Data data : unpinned.keySet()) data.close();
+    unpinned.clear();
   }
 
   /**
@@ -95,4 +151,57 @@ public final class Datas {
     }
     return null;
   }
+
+  /**
+   * Returns an unpinned database with the specified name.
+   * @param name name of the database
+   * @return data reference, or {@code null} if the database is not kept open
+   */
+  private Data unpinned(final String name) {
+    for(final Data data : unpinned.keySet()) {
+      if(IO.equals(data.meta.name, name)) return data;
+    }
+    return null;
+  }
+
+  /**
+   * Closes an unpinned database.
+   * @param data data reference
+   */
+  private void close(final Data data) {
+    unpinned.remove(data);
+    data.close();
+  }
+
+  /**
+   * Schedules the closing of the oldest unpinned database.
+   */
+  private void schedule() {
+    if(expire != null || unpinned.isEmpty()) return;
+    final long delay = unpinned.values().iterator().next() + ttl - System.nanoTime();
+    expire = SCHEDULER.schedule(() -> {
+      synchronized(this) {
+        expire = null;
+        // close expired databases, or all databases if memory gets low
+        final boolean low = low();
+        final long time = System.nanoTime() - ttl;
+        for(final Iterator<Entry<Data, Long>> iter = unpinned.entrySet().iterator();
+            iter.hasNext();) {
+          final Entry<Data, Long> entry = iter.next();
+          if(!low && entry.getValue() > time) break;
+          entry.getKey().close();
+          iter.remove();
+        }
+        schedule();
+      }
+    }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Checks if the available memory gets low.
+   * @return result of check
+   */
+  private static boolean low() {
+    return Performance.memory() > Runtime.getRuntime().maxMemory() / 2;
+  }
 }
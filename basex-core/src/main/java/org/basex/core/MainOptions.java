@@ -40,6 +40,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as binary files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing the files of directories ({@code 1}: sequential). */
+  public static final NumberOption PARSETHREADS = new NumberOption("PARSETHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -140,6 +142,12 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 50);
   /** Limit for unrolling loops. */
   public static final NumberOption UNROLLLIMIT = new NumberOption("UNROLLLIMIT", 5);
+  /** Minimum number of estimated nodes for evaluating paths in parallel ({@code 0}: disabled). */
+  public static final NumberOption PARALLELPATHS = new NumberOption("PARALLELPATHS", 0);
+  /** Maximum number of tuples sorted in main memory by order by clauses ({@code 0}: no limit). */
+  public static final NumberOption SORTLIMIT = new NumberOption("SORTLIMIT", 0);
+  /** Maximum number of tuples grouped in main memory by group by clauses ({@code 0}: no limit). */
+  public static final NumberOption GROUPLIMIT = new NumberOption("GROUPLIMIT", 0);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
   /** Look up documents in databases. */
@@ -184,6 +192,8 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Synchronizes the journal with the disk when an update is committed. */
+  public static final BooleanOption SYNC = new BooleanOption("SYNC", true);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
@@ -215,7 +225,7 @@ public final class MainOptions extends Options {
   private static final Option<?>[] XMLPARSING = XMLPARSINGMAP.values().toArray(Option[]::new);
   /** Extended parsing options. */
   public static final Option<?>[] EXTPARSING = { CREATEFILTER, ADDARCHIVES, ARCHIVENAME,
-      SKIPCORRUPT, ADDRAW, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
+      SKIPCORRUPT, ADDRAW, PARSETHREADS, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
   /** All parsing options. */
   public static final Option<?>[] PARSING = Stream.concat(Stream.of(XMLPARSING),
       Stream.of(EXTPARSING)).toArray(Option<?>[]::new);
@@ -4,6 +4,7 @@ import java.util.*;
 
 import org.basex.core.users.*;
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 import org.basex.util.options.*;
@@ -39,6 +40,23 @@ public final class StaticOptions extends Options {
   public static final NumberOption CACHEMAX = new NumberOption("CACHEMAX", 65536);
   /** Lifetime (seconds) of cache entries. */
   public static final NumberOption CACHETTL = new NumberOption("CACHETTL", 86400);
+  /** Maximum number of unpinned databases that are kept open; deactivated if set to 0. */
+  public static final NumberOption KEEPOPEN = new NumberOption("KEEPOPEN", 0);
+  /** Lifetime (seconds) of unpinned databases that are kept open. */
+  public static final NumberOption KEEPOPENTTL = new NumberOption("KEEPOPENTTL", 60);
+  /** Size (MB) of the page cache shared by all databases; deactivated if set to 0. */
+  public static final NumberOption PAGECACHE = new NumberOption("PAGECACHE", 0);
+  /** Read database files via memory mapping. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Maximum number of incremental backups based on a full backup; deactivated if set to 0. */
+  public static final NumberOption BACKUPCHAIN = new NumberOption("BACKUPCHAIN", 0);
+  /**
+   * Maximum number of cached query plans; deactivated if set to 0. The values of bound external
+   * variables are part of the key: a parameterized query that is called with different values
+   * will only reuse the plan of a previous call with the same values. Queries evaluated with
+   * xquery:eval are not cached.
+   */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 0);
 
   /** Comment: written to the options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -55,6 +73,8 @@ public final class StaticOptions extends Options {
   public static final StringOption PASSWORD = new StringOption("PASSWORD", "");
   /** Server: host, used for binding the server. Empty string for wildcard. */
   public static final StringOption SERVERHOST = new StringOption("SERVERHOST", "");
+  /** Server: serve clients with virtual threads. */
+  public static final BooleanOption VIRTUALTHREADS = new BooleanOption("VIRTUALTHREADS", false);
   /** Server: proxy host (default: ignored). */
   public static final StringOption PROXYHOST = new StringOption("PROXYHOST", "");
   /** Server: proxy port (default: ignored). */
@@ -82,6 +102,8 @@ public final class StaticOptions extends Options {
   public static final BooleanOption LOGTRACE = new BooleanOption("LOGTRACE", true);
   /** Mask IP address in the logs. */
   public static final BooleanOption LOGMASKIP = new BooleanOption("LOGMASKIP", false);
+  /** Number of buffered log entries written asynchronously; synchronous logging if set to 0. */
+  public static final NumberOption LOGBUFFER = new NumberOption("LOGBUFFER", 0);
 
   /** Comment: written to the options file. */
   public static final Comment C_HTTP = new Comment("HTTP Services");
@@ -139,6 +161,7 @@ public final class StaticOptions extends Options {
     // assigns static variables and system properties
     Prop.language = get(LANG);
     Prop.debug = get(DEBUG);
+    Prop.mmap = get(MMAP);
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
@@ -154,6 +177,7 @@ public final class StaticOptions extends Options {
       Prop.setSystem("http.nonProxyHosts", nph);
     }
     if(get(IGNORECERT)) IOUrl.ignoreCertificates();
+    PageCache.size((long) get(PAGECACHE) << 20);
 
     // warn if digest authentication is enabled without a matching password algorithm
     if(get(AUTHMETHOD) == AuthMethod.DIGEST && !Enums.oneOf(Algorithm.DIGEST, authAlgorithms())) {
@@ -671,6 +671,10 @@ public interface Text {
   String BACKUP_DROPPED_X = lang("backup_dropped_%");
   /** Backup was not found. */
   String BACKUP_NOT_FOUND_X = lang("backup_not_found_%");
+  /** Backup is invalid. */
+  String BACKUP_INVALID_X = lang("backup_invalid_%");
+  /** Backup is referenced by another backup. */
+  String BACKUP_CHAIN_X_X = lang("backup_chain_%_%");
   /** File could not be deleted. */
   String FILE_NOT_DELETED_X = lang("file_not_deleted_%");
   /** File could not be renamed. */
@@ -905,6 +909,8 @@ public interface Text {
   String GLOBAL_OPTIONS = lang("global_options");
   /** Local Options. */
   String LOCAL_OPTIONS = lang("local_options");
+  /** Query Caches. */
+  String QUERY_CACHES = lang("query_caches");
 
   /** Error. */
   String ERROR = lang("error");
@@ -1223,6 +1229,8 @@ public interface Text {
   String INDEXES = lang("indexes");
   /** Full-text index. */
   String FULLTEXT = lang("fulltext");
+  /** Page cache. */
+  String PAGE_CACHE = lang("page_cache");
 
   /** General info. */
   String PARSER_X = lang("parser_%");
@@ -41,6 +41,9 @@ public final class AlterBackup extends ABackup {
     final StringList backups = context.databases.backups(name);
     if(backups.isEmpty()) return error(BACKUP_NOT_FOUND_X, name);
 
+    final String[] chain = chain(backups, soptions);
+    if(chain != null) return error(BACKUP_CHAIN_X_X, chain[0], chain[1]);
+
     boolean ok = true;
     for(final String backup : backups) {
       try {
@@ -55,6 +58,18 @@ public final class AlterBackup extends ABackup {
     return ok;
   }
 
+  /**
+   * Checks if the specified backups can be renamed without breaking incremental backup chains.
+   * All backups of a chain must be renamed together.
+   * @param backups names of backup files
+   * @param sopts static options
+   * @return {@code null}, or the names of a backup and a backup referencing it,
+   *   only one of which is to be renamed
+   */
+  public static String[] chain(final StringList backups, final StaticOptions sopts) {
+    return BackupManifest.conflict(backups, true, sopts);
+  }
+
   /**
    * Drops a backup with the specified name.
    * @param name name of backup
@@ -72,7 +87,10 @@ public final class AlterBackup extends ABackup {
     try(BufferInput bi = new BufferInput(src); ZipInputStream in = new ZipInputStream(bi);
         BufferOutput bo = new BufferOutput(trg); ZipOutputStream out = new ZipOutputStream(bo)) {
       for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
-        out.putNextEntry(new ZipEntry(newname + '/' + ze.getName().replaceAll("^.*/", "")));
+        // replace database name, keep subdirectories and root entries (manifest)
+        final String entry = ze.getName();
+        final int i = entry.indexOf('/');
+        out.putNextEntry(new ZipEntry(i == -1 ? entry : newname + entry.substring(i)));
         for(int c; (c = in.read(data)) != -1;) out.write(data, 0, c);
       }
     }
@@ -0,0 +1,256 @@
+package org.basex.core.cmd;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Manifest of a backup. The files of a database are divided into chunks, and the content hash of
+ * each chunk is recorded. An incremental backup only contains the chunks that have changed since
+ * the previous backup. All other chunks are referenced by the date of the backup that contains
+ * them, which is why backups can be renamed without breaking a chain.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class BackupManifest {
+  /** Name of the zip entry. */
+  static final String ENTRY = ".manifest";
+  /** Suffix of zip entries that contain the changed chunks of a file (incremental backups). */
+  static final String CHUNKS = ".chunks";
+  /** Chunk size. */
+  static final int SIZE = 1 << 20;
+
+  /** Number of previous backups in the chain ({@code 0}: full backup). */
+  final int depth;
+  /** Dates of the backups in the chain (the first entry is the date of this backup). */
+  final String[] dates;
+  /** Files, indexed by their paths. */
+  final LinkedHashMap<String, Chunks> files = new LinkedHashMap<>();
+
+  /**
+   * Constructor for a new backup.
+   * @param date date of the backup
+   * @param base manifest of the previous backup in the chain (can be {@code null})
+   */
+  BackupManifest(final String date, final BackupManifest base) {
+    depth = base != null ? base.depth + 1 : 0;
+    final int dl = base != null ? base.dates.length : 0;
+    dates = new String[dl + 1];
+    dates[0] = date;
+    if(base != null) System.arraycopy(base.dates, 0, dates, 1, dl);
+  }
+
+  /**
+   * Constructor for an existing backup.
+   * @param in input
+   * @throws IOException I/O exception
+   */
+  private BackupManifest(final DataInput in) throws IOException {
+    depth = in.readNum();
+    final int dl = in.readNum();
+    dates = new String[dl];
+    for(int d = 0; d < dl; d++) dates[d] = Token.string(in.readToken());
+    for(int f = in.readNum(); f > 0; f--) {
+      final String path = Token.string(in.readToken());
+      final long size = in.readLong(), modified = in.readLong();
+      final Chunks chunks = new Chunks(size, modified);
+      final int cl = chunks.hashes.length;
+      for(int c = 0; c < cl; c++) {
+        chunks.hashes[c] = in.readToken();
+        chunks.sources[c] = in.readNum();
+      }
+      files.put(path, chunks);
+    }
+  }
+
+  /**
+   * Reads the manifest of a backup.
+   * @param zip backup
+   * @return manifest, or {@code null} if the backup has no manifest
+   * @throws IOException I/O exception
+   */
+  static BackupManifest read(final ZipFile zip) throws IOException {
+    final ZipEntry entry = zip.getEntry(ENTRY);
+    if(entry == null) return null;
+    try(InputStream is = zip.getInputStream(entry)) {
+      return new BackupManifest(new DataInput(new IOContent(is.readAllBytes())));
+    }
+  }
+
+  /**
+   * Reads the manifest of a backup.
+   * @param backup name of backup
+   * @param sopts static options
+   * @return manifest, or {@code null} if the backup has no manifest or cannot be read
+   */
+  static BackupManifest read(final String backup, final StaticOptions sopts) {
+    try(ZipFile zip = new ZipFile(sopts.dbPath(backup + IO.ZIPSUFFIX).file())) {
+      return read(zip);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the names of all backups of a database with a date suffix.
+   * @param db name of the database (empty string for general data)
+   * @param sopts static options
+   * @return backups
+   */
+  static StringList backups(final String db, final StaticOptions sopts) {
+    final StringList backups = new StringList();
+    for(final IOFile file : sopts.dbPath().children()) {
+      final String name = file.name();
+      if(!name.endsWith(IO.ZIPSUFFIX)) continue;
+      final String backup = name.substring(0, name.length() - IO.ZIPSUFFIX.length());
+      if(!backup.equals(db) && Databases.name(backup).equals(db)) backups.add(backup);
+    }
+    return backups.sort();
+  }
+
+  /**
+   * Checks if backups can be dropped or renamed without breaking backup chains.
+   * @param selected backups to be dropped or renamed
+   * @param rename rename flag: selected backups must not reference other backups either
+   * @param sopts static options
+   * @return {@code null}, or the names of a referenced backup and a referencing backup,
+   *   one of which has been selected
+   */
+  static String[] conflict(final StringList selected, final boolean rename,
+      final StaticOptions sopts) {
+    final HashSet<String> dbs = new HashSet<>();
+    for(final String backup : selected) dbs.add(Databases.name(backup));
+    for(final String db : dbs) {
+      for(final String backup : backups(db, sopts)) {
+        final boolean sel = selected.contains(backup);
+        if(sel && !rename) continue;
+        final BackupManifest manifest = read(backup, sopts);
+        if(manifest == null) continue;
+        final int dl = manifest.dates.length;
+        for(int d = 1; d < dl; d++) {
+          final String base = manifest.backup(db, d);
+          if(selected.contains(base) != sel && sopts.dbPath(base + IO.ZIPSUFFIX).exists()) {
+            return new String[] { base, backup };
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the name of a backup of the chain.
+   * @param db name of the database
+   * @param d offset of the date
+   * @return name of backup
+   */
+  String backup(final String db, final int d) {
+    return db + '-' + dates[d];
+  }
+
+  /**
+   * Checks if all previous backups of the chain exist.
+   * @param db name of the database
+   * @param sopts static options
+   * @return result of check
+   */
+  boolean complete(final String db, final StaticOptions sopts) {
+    final int dl = dates.length;
+    for(int d = 1; d < dl; d++) {
+      if(!sopts.dbPath(backup(db, d) + IO.ZIPSUFFIX).exists()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the serialized manifest.
+   * @return manifest
+   * @throws IOException I/O exception
+   */
+  byte[] finish() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      out.writeNum(depth);
+      out.writeNum(dates.length);
+      for(final String date : dates) out.writeToken(Token.token(date));
+      out.writeNum(files.size());
+      for(final Map.Entry<String, Chunks> file : files.entrySet()) {
+        final Chunks chunks = file.getValue();
+        out.writeToken(Token.token(file.getKey()));
+        out.writeLong(chunks.size);
+        out.writeLong(chunks.modified);
+        final int cl = chunks.hashes.length;
+        for(int c = 0; c < cl; c++) {
+          out.writeToken(chunks.hashes[c]);
+          out.writeNum(chunks.sources[c]);
+        }
+      }
+    }
+    return ao.finish();
+  }
+
+  /**
+   * Returns the name of the zip entry that contains the chunks of a file stored in this backup.
+   * @param name name of the file entry
+   * @return entry name
+   */
+  String entry(final String name) {
+    return depth == 0 ? name : name + CHUNKS;
+  }
+
+  /**
+   * Returns the number of chunks of a file.
+   * @param size file size
+   * @return number of chunks
+   */
+  static int count(final long size) {
+    return (int) ((size + SIZE - 1) / SIZE);
+  }
+
+  /**
+   * Returns the length of a chunk.
+   * @param size file size
+   * @param c chunk index
+   * @return length
+   */
+  static int length(final long size, final int c) {
+    return (int) Math.min(SIZE, size - (long) c * SIZE);
+  }
+
+  /**
+   * Chunks of a file.
+   */
+  static final class Chunks {
+    /** File size. */
+    final long size;
+    /** Time of last modification ({@code -1}: unknown, file contents need to be compared). */
+    final long modified;
+    /** Content hashes of the chunks (empty if no hashes were computed). */
+    final byte[][] hashes;
+    /** Offsets to the dates of the backups in which the chunks are stored. */
+    final int[] sources;
+
+    /**
+     * Constructor.
+     * @param size file size
+     * @param modified time of last modification
+     */
+    Chunks(final long size, final long modified) {
+      this.size = size;
+      this.modified = modified;
+      final int cl = count(size);
+      hashes = new byte[cl][];
+      sources = new int[cl];
+    }
+  }
+}
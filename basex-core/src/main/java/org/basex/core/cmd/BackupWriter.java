@@ -0,0 +1,330 @@
+package org.basex.core.cmd;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.basex.core.cmd.BackupManifest.*;
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.util.*;
+
+/**
+ * Writes the files of a backup to a zip archive. Files are divided into chunks, which are hashed
+ * and compressed in parallel. The compressed chunks of a file are concatenated to a single
+ * deflate stream, which can be read by all standard zip tools. Chunks that have not changed
+ * since the previous backup are skipped.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class BackupWriter implements Closeable {
+  /** Final deflate block without contents. */
+  private static final byte[] END = { 3, 0 };
+  /** Maximum value of 32-bit fields. */
+  private static final long MAX32 = 0xFFFFFFFFL;
+  /** Maximum value of 16-bit fields. */
+  private static final int MAX16 = 0xFFFF;
+  /** Zip version (4.5: ZIP64 extensions). */
+  private static final int VERSION = 45;
+  /** General purpose flag: UTF-8 encoded names. */
+  private static final int UTF8 = 0x0800;
+
+  /** Output file. */
+  private final RandomAccessFile out;
+  /** Compression level. */
+  private final int level;
+  /** Compute content hashes. */
+  private final boolean hash;
+  /** Modification time and date (MS-DOS format). */
+  private final int time, date;
+  /** Maximum number of pending chunks. */
+  private final int max = ForkJoinPool.commonPool().getParallelism() + 2 << 1;
+  /** Chunks that are currently hashed and compressed, in the order in which they are written. */
+  private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+  /** Written entries. */
+  private final ArrayList<Entry> entries = new ArrayList<>();
+  /** Current entry. */
+  private Entry entry;
+
+  /**
+   * Constructor.
+   * @param file output file
+   * @param level compression level
+   * @param hash compute content hashes (skipped if no incremental backups will be created)
+   * @throws IOException I/O exception
+   */
+  BackupWriter(final IOFile file, final int level, final boolean hash) throws IOException {
+    out = new RandomAccessFile(file.file(), "rw");
+    out.setLength(0);
+    this.level = level;
+    this.hash = hash;
+    final LocalDateTime dt = LocalDateTime.now();
+    time = dt.getHour() << 11 | dt.getMinute() << 5 | dt.getSecond() >> 1;
+    date = Math.max(0, dt.getYear() - 1980) << 9 | dt.getMonthValue() << 5 | dt.getDayOfMonth();
+  }
+
+  /**
+   * Adds a file. The hashes of its chunks are assigned to the specified chunks.
+   * If a base is specified, only the chunks with different hashes will be written.
+   * @param name name of the zip entry
+   * @param file file
+   * @param chunks chunks of the file
+   * @param base chunks of the file in the previous backup (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  void add(final String name, final IOFile file, final Chunks chunks, final Chunks base)
+      throws IOException {
+
+    final int cl = chunks.hashes.length;
+    if(cl == 0) {
+      // empty file: create entry without chunks
+      while(!pending.isEmpty()) write(pending.poll());
+      openEntry(name);
+      closeEntry();
+      return;
+    }
+    try(RandomAccessFile in = new RandomAccessFile(file.file(), "r")) {
+      for(int c = 0; c < cl; c++) {
+        final byte[] data = new byte[BackupManifest.length(chunks.size, c)];
+        in.readFully(data);
+        if(pending.size() >= max) write(pending.poll());
+        pending.add(new Chunk(name, chunks, base, c, data));
+      }
+    }
+  }
+
+  /**
+   * Finishes the archive.
+   * @param mf manifest
+   * @param comment comment (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  void finish(final BackupManifest mf, final String comment) throws IOException {
+    while(!pending.isEmpty()) write(pending.poll());
+    final byte[] manifest = mf.finish();
+    openEntry(BackupManifest.ENTRY);
+    entry.crc.update(manifest);
+    entry.size = manifest.length;
+    write(compress(manifest, level));
+    closeEntry();
+
+    // central directory
+    final ArrayOutput ao = new ArrayOutput();
+    final long offset = out.getFilePointer();
+    for(final Entry e : entries) {
+      final ByteBuffer extra = buffer(28);
+      if(e.size >= MAX32) extra.putLong(e.size);
+      if(e.csize >= MAX32) extra.putLong(e.csize);
+      if(e.offset >= MAX32) extra.putLong(e.offset);
+      final int xl = extra.position();
+      final ByteBuffer bb = buffer(46);
+      bb.putInt(0x02014b50).putShort((short) VERSION).putShort((short) VERSION);
+      bb.putShort((short) UTF8).putShort((short) ZipEntry.DEFLATED);
+      bb.putShort((short) time).putShort((short) date).putInt((int) e.crc.getValue());
+      bb.putInt((int) Math.min(e.csize, MAX32)).putInt((int) Math.min(e.size, MAX32));
+      bb.putShort((short) e.name.length).putShort((short) (xl == 0 ? 0 : xl + 4));
+      bb.putShort((short) 0).putShort((short) 0).putShort((short) 0).putInt(0);
+      bb.putInt((int) Math.min(e.offset, MAX32));
+      ao.write(bb.array());
+      ao.write(e.name);
+      if(xl != 0) {
+        ao.write(buffer(4).putShort((short) 1).putShort((short) xl).array());
+        ao.write(extra.array(), 0, xl);
+      }
+    }
+    final long size = ao.size(), count = entries.size();
+    if(count >= MAX16 || size >= MAX32 || offset >= MAX32) {
+      // ZIP64 end of central directory record and locator
+      final ByteBuffer bb = buffer(76);
+      bb.putInt(0x06064b50).putLong(44).putShort((short) VERSION).putShort((short) VERSION);
+      bb.putInt(0).putInt(0).putLong(count).putLong(count).putLong(size).putLong(offset);
+      bb.putInt(0x07064b50).putInt(0).putLong(offset + size).putInt(1);
+      ao.write(bb.array());
+    }
+    final byte[] cmt = comment != null ? comment.getBytes(StandardCharsets.UTF_8) : Token.EMPTY;
+    final ByteBuffer bb = buffer(22);
+    bb.putInt(0x06054b50).putShort((short) 0).putShort((short) 0);
+    bb.putShort((short) Math.min(count, MAX16)).putShort((short) Math.min(count, MAX16));
+    bb.putInt((int) Math.min(size, MAX32)).putInt((int) Math.min(offset, MAX32));
+    bb.putShort((short) Math.min(cmt.length, MAX16));
+    ao.write(bb.array());
+    ao.write(cmt, 0, Math.min(cmt.length, MAX16));
+    out.write(ao.buffer(), 0, (int) ao.size());
+  }
+
+  @Override
+  public void close() throws IOException {
+    for(final Chunk chunk : pending) chunk.task.cancel(false);
+    pending.clear();
+    out.close();
+  }
+
+  /**
+   * Writes a chunk.
+   * @param chunk chunk
+   * @throws IOException I/O exception
+   */
+  private void write(final Chunk chunk) throws IOException {
+    final byte[] compressed = chunk.task.join();
+    final int c = chunk.index;
+    if(compressed != null) {
+      if(entry == null) openEntry(chunk.name);
+      entry.crc.update(chunk.data);
+      entry.size += chunk.data.length;
+      write(compressed);
+      chunk.chunks.sources[c] = 0;
+    } else {
+      chunk.chunks.sources[c] = chunk.base.sources[c] + 1;
+    }
+    if(c == chunk.chunks.hashes.length - 1 && entry != null) closeEntry();
+  }
+
+  /**
+   * Writes the header of a new entry.
+   * @param name name of the entry
+   * @throws IOException I/O exception
+   */
+  private void openEntry(final String name) throws IOException {
+    entry = new Entry(Token.token(name), out.getFilePointer());
+    // sizes are stored in the ZIP64 extra field and assigned when the entry is closed
+    final ByteBuffer bb = buffer(30);
+    bb.putInt(0x04034b50).putShort((short) VERSION).putShort((short) UTF8);
+    bb.putShort((short) ZipEntry.DEFLATED).putShort((short) time).putShort((short) date);
+    bb.putInt(0).putInt((int) MAX32).putInt((int) MAX32);
+    bb.putShort((short) entry.name.length).putShort((short) 20);
+    out.write(bb.array());
+    out.write(entry.name);
+    out.write(buffer(20).putShort((short) 1).putShort((short) 16).array());
+  }
+
+  /**
+   * Writes compressed data to the current entry.
+   * @param data data
+   * @throws IOException I/O exception
+   */
+  private void write(final byte[] data) throws IOException {
+    out.write(data);
+    entry.csize += data.length;
+  }
+
+  /**
+   * Finishes the current entry.
+   * @throws IOException I/O exception
+   */
+  private void closeEntry() throws IOException {
+    write(END);
+    final long pos = out.getFilePointer();
+    out.seek(entry.offset + 14);
+    out.write(buffer(4).putInt((int) entry.crc.getValue()).array());
+    out.seek(entry.offset + 34 + entry.name.length);
+    out.write(buffer(16).putLong(entry.size).putLong(entry.csize).array());
+    out.seek(pos);
+    entries.add(entry);
+    entry = null;
+  }
+
+  /**
+   * Returns a little-endian buffer.
+   * @param size size
+   * @return buffer
+   */
+  private static ByteBuffer buffer(final int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Compresses data. The deflate stream is flushed, but not finished, so that it can be
+   * concatenated with other streams.
+   * @param data data
+   * @param level compression level
+   * @return compressed data
+   */
+  private static byte[] compress(final byte[] data, final int level) {
+    final Deflater deflater = new Deflater(level, true);
+    try {
+      deflater.setInput(data);
+      final ArrayOutput ao = new ArrayOutput();
+      final byte[] buffer = new byte[IO.BLOCKSIZE << 3];
+      int n;
+      do {
+        n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+        ao.write(buffer, 0, n);
+      } while(n == buffer.length);
+      return ao.finish();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Zip entry.
+   */
+  private static final class Entry {
+    /** Name. */
+    private final byte[] name;
+    /** Offset of the local header. */
+    private final long offset;
+    /** Checksum. */
+    private final CRC32 crc = new CRC32();
+    /** Uncompressed size. */
+    private long size;
+    /** Compressed size. */
+    private long csize;
+
+    /**
+     * Constructor.
+     * @param name name
+     * @param offset offset of the local header
+     */
+    private Entry(final byte[] name, final long offset) {
+      this.name = name;
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * Chunk of a file, which is hashed and compressed in parallel.
+   */
+  private final class Chunk {
+    /** Name of the zip entry. */
+    private final String name;
+    /** Chunks of the file. */
+    private final Chunks chunks;
+    /** Chunks of the file in the previous backup (can be {@code null}). */
+    private final Chunks base;
+    /** Index of the chunk. */
+    private final int index;
+    /** Data. */
+    private final byte[] data;
+    /** Task, returning the compressed data, or {@code null} if the chunk has not changed. */
+    private final ForkJoinTask<byte[]> task;
+
+    /**
+     * Constructor.
+     * @param name name of the zip entry
+     * @param chunks chunks of the file
+     * @param base chunks of the file in the previous backup (can be {@code null})
+     * @param index index of the chunk
+     * @param data data
+     */
+    private Chunk(final String name, final Chunks chunks, final Chunks base, final int index,
+        final byte[] data) {
+      this.name = name;
+      this.chunks = chunks;
+      this.base = base;
+      this.index = index;
+      this.data = data;
+      task = ForkJoinPool.commonPool().submit(() -> {
+        final byte[] digest = hash ? new Blake3().digest(data) : Token.EMPTY;
+        chunks.hashes[index] = digest;
+        return hash && base != null && index < base.hashes.length &&
+          Arrays.equals(digest, base.hashes[index]) ? null : compress(data, level);
+      });
+    }
+  }
+}
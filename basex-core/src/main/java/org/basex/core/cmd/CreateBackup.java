@@ -5,14 +5,13 @@ import static org.basex.data.DataText.*;
 
 import java.io.*;
 import java.time.*;
-import java.util.zip.*;
 
 import org.basex.core.*;
+import org.basex.core.cmd.BackupManifest.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
 import org.basex.io.*;
-import org.basex.io.out.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -81,6 +80,8 @@ public final class CreateBackup extends ABackup {
 
   /**
    * Backups the specified database.
+   * If {@link StaticOptions#BACKUPCHAIN} is enabled and the latest backup of the database has a
+   * manifest, an incremental backup is created, which only contains the changed parts of files.
    * @param db name of the database (empty string for general data)
    * @param comment comment (can be {@code null})
    * @param compress compress flag
@@ -95,30 +96,69 @@ public final class CreateBackup extends ABackup {
     final StringList files = sopts.dbFiles(db);
     if(cmd != null) cmd.total = files.size();
 
-    final String name = db + '-' + DateTime.DATETIME.format(LocalDateTime.now()) + IO.ZIPSUFFIX;
-    final IOFile backup = sopts.dbPath(name);
-    try(BufferOutput bo = new BufferOutput(backup); ZipOutputStream out = new ZipOutputStream(bo)) {
-      if(comment != null) {
-        out.setComment(comment.length() > 100 ? comment.substring(0, 100) + DOTS : comment);
-      }
-      // use simple, fast compression or no compression at all
-      out.setLevel(compress ? 1 : 0);
-      final byte[] data = new byte[IO.BLOCKSIZE];
+    final long start = System.currentTimeMillis();
+    final String date = DateTime.DATETIME.format(LocalDateTime.now()), name = db + '-' + date;
+    final BackupManifest base = base(db, name, sopts);
+    final BackupManifest manifest = new BackupManifest(date, base);
+    final IOFile backup = sopts.dbPath(name + IO.ZIPSUFFIX);
+    // content hashes are only required for incremental backups
+    final boolean hash = sopts.get(StaticOptions.BACKUPCHAIN) > 0;
+    // use simple, fast compression or no compression at all
+    try(BackupWriter out = new BackupWriter(backup, compress ? 1 : 0, hash)) {
       for(final String file : files) {
         // skip update file (generated when using XQuery)
         if(!file.equals(DATAUPD + IO.BASEXSUFFIX)) {
           final String path = Prop.WIN ? file.replace('\\', '/') : file;
-          out.putNextEntry(new ZipEntry(db + '/' + path));
-          try(FileInputStream in = new FileInputStream(new File(dbpath.file(), file))) {
-            for(int c; (c = in.read(data)) != -1;) out.write(data, 0, c);
+          final IOFile source = new IOFile(dbpath, file);
+          final Chunks old = base != null ? base.files.get(path) : null;
+          final long size = source.length(), modified = source.file().lastModified();
+          // modification times close to the backup may not reflect subsequent changes
+          final Chunks chunks = new Chunks(size, modified < start - 2000 ? modified : -1);
+          if(old != null && old.size == size && old.modified == modified) {
+            // unchanged file: reference chunks of previous backups
+            final int cl = chunks.hashes.length;
+            for(int c = 0; c < cl; c++) {
+              chunks.hashes[c] = old.hashes[c];
+              chunks.sources[c] = old.sources[c] + 1;
+            }
+          } else if(size > 0 || base == null) {
+            out.add(manifest.entry(db + '/' + path), source, chunks, old);
           }
-          out.closeEntry();
+          manifest.files.put(path, chunks);
         }
         if(cmd != null) cmd.curr++;
       }
+      out.finish(manifest,
+        comment == null || comment.length() <= 100 ? comment : comment.substring(0, 100) + DOTS);
+    } catch(final IOException | RuntimeException ex) {
+      backup.delete();
+      throw ex;
     }
   }
 
+  /**
+   * Returns the manifest of the backup on which a new backup will be based.
+   * @param db name of the database
+   * @param name name of the new backup
+   * @param sopts static options
+   * @return manifest, or {@code null} if a full backup is to be created
+   */
+  private static BackupManifest base(final String db, final String name,
+      final StaticOptions sopts) {
+
+    final int chain = sopts.get(StaticOptions.BACKUPCHAIN);
+    if(chain == 0) return null;
+
+    // find latest backup of the database; create full backup if its chain is incomplete
+    final StringList backups = BackupManifest.backups(db, sopts);
+    if(backups.isEmpty()) return null;
+    final String latest = backups.get(backups.size() - 1);
+    if(latest.equals(name)) return null;
+    final BackupManifest manifest = BackupManifest.read(latest, sopts);
+    return manifest != null && manifest.depth < chain && manifest.complete(db, sopts) ?
+      manifest : null;
+  }
+
   @Override
   public void addLocks() {
     addLocks(jc().locks.writes, 0);
@@ -3,6 +3,8 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.*;
@@ -80,10 +82,27 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+
+    if(types.size() < 2 || !IndexBuilder.parallel(data)) {
+      for(final IndexType type : types) create(type, data, cmd);
+    } else {
+      // build independent index structures in parallel
+      final ArrayList<Callable<Void>> ops = new ArrayList<>(types.size());
+      for(final IndexType type : types) {
+        DropIndex.drop(type, data);
+        ops.add(() -> {
+          data.createIndex(type, cmd);
+          return null;
+        });
+      }
+      IndexBuilder.parallel(ops);
+      for(final IndexType type : types) data.meta.index(type, true);
+    }
   }
 
   /**
@@ -37,15 +37,26 @@ public final class DropBackup extends ABackup {
     // if the given argument is not a database name, it could be the name of a backup file
     if(names.isEmpty() && user.has(Perm.READ, pattern)) names.add(pattern);
 
-    // drop all backups
-    for(final String name : names) {
-      for(final String backup : db.backups(name)) {
-        drop(backup, soptions);
-      }
-    }
+    // drop all backups, unless backups of incremental chains would be lost
+    final StringList backups = new StringList();
+    for(final String name : names) backups.add(db.backups(name));
+    final String[] chain = chain(backups, soptions);
+    if(chain != null) return error(BACKUP_CHAIN_X_X, chain[0], chain[1]);
+
+    for(final String backup : backups) drop(backup, soptions);
     return info(BACKUP_DROPPED_X, pattern);
   }
 
+  /**
+   * Checks if the specified backups can be dropped without breaking incremental backup chains.
+   * @param backups names of backup files
+   * @param sopts static options
+   * @return {@code null}, or the names of a backup to be dropped and a backup referencing it
+   */
+  public static String[] chain(final StringList backups, final StaticOptions sopts) {
+    return BackupManifest.conflict(backups, false, sopts);
+  }
+
   /**
    * Drops a backup with the specified name.
    * @param backup name of backup file
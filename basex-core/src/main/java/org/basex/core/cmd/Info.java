@@ -6,6 +6,8 @@ import java.io.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.util.regex.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -47,6 +49,11 @@ public final class Info extends AInfo {
     final User user = context.user();
     info(tb, USED_MEM, Performance.formatMemory());
 
+    tb.add(NL + QUERY_CACHES + COL + NL);
+    info(tb, "REGEX", RegExpr.CACHE);
+    info(tb, "COLLATIONS", Collation.CACHE);
+    info(tb, "COLLATIONKEYS", Collation.KEYS);
+
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
       tb.add(NL + GLOBAL_OPTIONS + COL + NL);
@@ -58,4 +65,17 @@ public final class Info extends AInfo {
     for(final Option<?> o : opts) info(tb, o.name(), opts.get(o));
     return tb.toString();
   }
+
+  /**
+   * Adds the statistics of a cache.
+   * @param tb token builder
+   * @param name name of the cache
+   * @param cache cache
+   */
+  private static void info(final TokenBuilder tb, final String name,
+      final BoundedCache<?, ?> cache) {
+    final long[] stats = cache.stats();
+    info(tb, name, Util.info("% of % entries, % hits, % misses, % evictions",
+        stats[1], stats[0], stats[2], stats[3], stats[4]));
+  }
 }
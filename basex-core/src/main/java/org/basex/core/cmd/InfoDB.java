@@ -8,6 +8,7 @@ import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 
 /**
@@ -44,7 +45,18 @@ public final class InfoDB extends AInfo {
    * @return info string
    */
   public static String db(final Data data, final boolean bold, final boolean index) {
-    return db(data.meta, data.nodes(), bold, index);
+    final String info = db(data.meta, data.nodes(), bold, index);
+    final long[] stats = PageCache.stats();
+    if(data.inMemory() || stats[0] == 0) return info;
+
+    final TokenBuilder tb = new TokenBuilder().add(info).add(NL);
+    tb.addExt(header(bold), PAGE_CACHE);
+    info(tb, "MAXSIZE", Performance.formatHuman(stats[0]));
+    info(tb, MetaProp.SIZE.name(), Performance.formatHuman(stats[1]));
+    info(tb, "HITS", stats[2]);
+    info(tb, "MISSES", stats[3]);
+    info(tb, "EVICTIONS", stats[4]);
+    return tb.toString();
   }
 
   /**
@@ -69,7 +81,7 @@ public final class InfoDB extends AInfo {
   private static String db(final MetaData meta, final int nodes, final boolean bold,
       final boolean index) {
     final TokenBuilder tb = new TokenBuilder();
-    final String header = (bold ? new TokenBuilder().bold().add('%').norm().toString() : "%") + NL;
+    final String header = header(bold);
     tb.addExt(header, DB_PROPS);
     info(tb, MetaProp.NAME, meta);
     info(tb, MetaProp.SIZE.name(), Performance.formatHuman(meta.dbSize()));
@@ -99,6 +111,15 @@ public final class InfoDB extends AInfo {
     return tb.toString();
   }
 
+  /**
+   * Returns a header template.
+   * @param bold header bold flag
+   * @return template
+   */
+  private static String header(final boolean bold) {
+    return (bold ? new TokenBuilder().bold().add('%').norm().toString() : "%") + NL;
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init(Cmd.INFO + " " + CmdInfo.DB);
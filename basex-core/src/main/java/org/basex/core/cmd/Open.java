@@ -8,6 +8,7 @@ import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.query.value.seq.*;
 
 /**
@@ -96,7 +97,8 @@ public final class Open extends Command {
           return null;
         }
 
-        // do not open a database that is currently updated
+        // redo committed updates, do not open a database that is currently updated
+        if(!TableDiskAccess.locked(name, context)) Journal.recover(context.soptions.dbPath(name));
         final MetaData meta = new MetaData(name, options, context.soptions);
         if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
 
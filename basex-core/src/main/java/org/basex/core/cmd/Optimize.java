@@ -196,6 +196,7 @@ public final class Optimize extends ACreate {
       if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
       if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
       if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      if(data.meta.ftindex) optimize(IndexType.FULLTEXT, data, true, true, null);
     }
   }
 }
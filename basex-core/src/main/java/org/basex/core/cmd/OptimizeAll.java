@@ -86,6 +86,7 @@ public final class OptimizeAll extends ACreate {
 
     // check if database is also pinned by other users
     final String name = ometa.name;
+    context.queries.remove(name);
     if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
 
     // adopt original index options
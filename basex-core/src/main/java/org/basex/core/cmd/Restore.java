@@ -7,8 +7,10 @@ import java.util.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
+import org.basex.core.cmd.BackupManifest.*;
 import org.basex.core.locks.*;
 import org.basex.io.*;
+import org.basex.io.out.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -56,6 +58,9 @@ public final class Restore extends ABackup {
       restore(db, backup, soptions, this);
       return db.isEmpty() || !closed || new Open(db).run(context) ?
         info(DB_RESTORED_X, backup, jc().performance) : error(DB_NOT_RESTORED_X, db);
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+      return error(ex.getMessage());
     } catch(final IOException ex) {
       Util.debug(ex);
       return error(DB_NOT_RESTORED_X, db);
@@ -63,7 +68,7 @@ public final class Restore extends ABackup {
   }
 
   /**
-   * Restores the specified database .
+   * Restores the specified database.
    * @param db name of database (empty string for general data)
    * @param backup name of backup
    * @param sopts static options
@@ -73,11 +78,16 @@ public final class Restore extends ABackup {
   public static void restore(final String db, final String backup, final StaticOptions sopts,
       final Restore cmd) throws IOException {
 
-    // drop existing files
-    DropDB.drop(db, sopts);
-    // unzip backup
     final IOFile dbPath = sopts.dbPath(), file = new IOFile(dbPath, backup + IO.ZIPSUFFIX);
     try(ZipFile zip = new ZipFile(file.file())) {
+      final BackupManifest manifest = BackupManifest.read(zip);
+      if(manifest != null) {
+        restore(db, zip, manifest, sopts, cmd);
+        return;
+      }
+
+      // drop existing files, unzip backup
+      DropDB.drop(db, sopts);
       if(cmd != null) cmd.total = zip.size();
       final Enumeration<? extends ZipEntry> enm = zip.entries();
       while(enm.hasMoreElements()) {
@@ -94,6 +104,86 @@ public final class Restore extends ABackup {
     }
   }
 
+  /**
+   * Restores the specified database from a backup with manifest. The files are reassembled from
+   * the chunks that are stored in the backups of the chain.
+   * @param db name of database (empty string for general data)
+   * @param zip backup
+   * @param manifest manifest of the backup
+   * @param sopts static options
+   * @param cmd calling command instance (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private static void restore(final String db, final ZipFile zip, final BackupManifest manifest,
+      final StaticOptions sopts, final Restore cmd) throws IOException {
+
+    // open previous backups of the chain before existing files are dropped
+    final int dl = manifest.dates.length;
+    final ZipFile[] zips = new ZipFile[dl];
+    final BackupManifest[] manifests = new BackupManifest[dl];
+    zips[0] = zip;
+    manifests[0] = manifest;
+    try {
+      for(int d = 1; d < dl; d++) {
+        final String name = manifest.backup(db, d);
+        final IOFile file = sopts.dbPath(name + IO.ZIPSUFFIX);
+        if(!file.exists()) throw new BaseXException(BACKUP_NOT_FOUND_X, name);
+        zips[d] = new ZipFile(file.file());
+        manifests[d] = BackupManifest.read(zips[d]);
+        if(manifests[d] == null) throw new BaseXException(BACKUP_INVALID_X, name);
+      }
+
+      DropDB.drop(db, sopts);
+      if(cmd != null) cmd.total = manifest.files.size();
+      for(final Map.Entry<String, Chunks> entry : manifest.files.entrySet()) {
+        final String path = entry.getKey(), name = db + '/' + path;
+        final Chunks chunks = entry.getValue();
+        final IOFile trg = new IOFile(sopts.dbPath(), name);
+        trg.parent().md();
+
+        // input streams of the backups, indexes of the next chunks to be read
+        final InputStream[] ins = new InputStream[dl];
+        final int[] next = new int[dl];
+        try(BufferOutput out = new BufferOutput(trg)) {
+          final int cl = chunks.hashes.length;
+          for(int c = 0; c < cl; c++) {
+            final int d = chunks.sources[c];
+            final Chunks source = manifests[d].files.get(path);
+            if(source == null || c >= source.sources.length || source.sources[c] != 0 ||
+                !Arrays.equals(source.hashes[c], chunks.hashes[c])) {
+              throw new BaseXException(BACKUP_INVALID_X, manifest.backup(db, d));
+            }
+            if(ins[d] == null) {
+              final ZipEntry ze = zips[d].getEntry(manifests[d].entry(name));
+              if(ze == null) throw new BaseXException(BACKUP_INVALID_X, manifest.backup(db, d));
+              ins[d] = zips[d].getInputStream(ze);
+            }
+            // skip chunks that are not referenced
+            for(; next[d] < c; next[d]++) {
+              if(source.sources[next[d]] == 0) {
+                ins[d].skipNBytes(BackupManifest.length(source.size, next[d]));
+              }
+            }
+            final int length = BackupManifest.length(chunks.size, c);
+            final byte[] data = ins[d].readNBytes(length);
+            if(data.length != length) throw new EOFException(name);
+            out.write(data);
+            next[d] = c + 1;
+          }
+        } finally {
+          for(final InputStream in : ins) {
+            if(in != null) in.close();
+          }
+        }
+        if(cmd != null) cmd.curr++;
+      }
+    } finally {
+      for(int d = 1; d < dl; d++) {
+        if(zips[d] != null) zips[d].close();
+      }
+    }
+  }
+
   @Override
   public void addLocks() {
     final LockList list = jc().locks.writes;
@@ -3,6 +3,7 @@ package org.basex.core.jobs;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
 import org.basex.util.*;
@@ -38,8 +39,10 @@ public final class JobPool {
   private final ExecutorService pool = Executors.newCachedThreadPool(factory("basex-job"));
   /** Available slots for jobs running in parallel. */
   private final Semaphore slots = new Semaphore(MAX_RUNNING);
-  /** Monitor, notified whenever a job or task completes (see {@link #awaitChange}). */
-  private final Object monitor = new Object();
+  /** Lock for waiting until a job or task completes (see {@link #awaitChange}). */
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Condition, signaled whenever a job or task completes. */
+  private final Condition changed = lock.newCondition();
   /** Jobs with a memory limit, watched by the memory guard. */
   private final Map<Job, Watch> watched = new ConcurrentHashMap<>();
   /** Indicates that a memory check is in progress. */
@@ -89,8 +92,11 @@ public final class JobPool {
    * Wakes threads that wait for a job or task to complete.
    */
   public void notifyChange() {
-    synchronized(monitor) {
-      monitor.notifyAll();
+    lock.lock();
+    try {
+      changed.signalAll();
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -98,13 +104,14 @@ public final class JobPool {
    * Waits a bounded time for a job or task to complete.
    */
   public void awaitChange() {
-    synchronized(monitor) {
-      try {
-        monitor.wait(1000);
-      } catch(final InterruptedException ex) {
-        Util.debug(ex);
-        Thread.currentThread().interrupt();
-      }
+    lock.lock();
+    try {
+      changed.await(1, TimeUnit.SECONDS);
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+      Thread.currentThread().interrupt();
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -21,27 +21,37 @@ final class FairLockQueue extends LockQueue {
   }
 
   @Override
-  synchronized void acquire(final Long id, final boolean read, final boolean write)
+  void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // add job ID to queue and wait
-    if(jobs >= parallel) {
-      queue.add(id);
+    lock.lock();
+    try {
+      // add job ID to queue and wait
+      if(jobs >= parallel) {
+        queue.add(id);
 
-      // loop until job is placed first; an interrupt must not leave the ID behind
-      try {
-        do {
-          wait();
-        } while(!id.equals(queue.peek()));
-      } finally {
-        queue.remove(id);
+        // loop until job is placed first; an interrupt must not leave the ID behind
+        try {
+          do {
+            released.await();
+          } while(!id.equals(queue.peek()));
+        } finally {
+          queue.remove(id);
+        }
       }
+      jobs++;
+    } finally {
+      lock.unlock();
     }
-    jobs++;
   }
 
   @Override
-  public synchronized String toString() {
-    return "Jobs: " + jobs + ", queue: " + queue;
+  public String toString() {
+    lock.lock();
+    try {
+      return "Jobs: " + jobs + ", queue: " + queue;
+    } finally {
+      lock.unlock();
+    }
   }
 }
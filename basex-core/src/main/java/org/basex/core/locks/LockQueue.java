@@ -1,7 +1,10 @@
 package org.basex.core.locks;
 
+import java.util.concurrent.locks.*;
+
 /**
- * Lock queue.
+ * Lock queue. Explicit locks are used instead of monitors: virtual threads that wait for a
+ * monitor cannot be unmounted from their carrier threads on older JDKs.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
@@ -9,6 +12,10 @@ package org.basex.core.locks;
 abstract class LockQueue {
   /** Maximum number of parallel jobs. */
   protected final int parallel;
+  /** Lock for accessing the queue. */
+  protected final ReentrantLock lock = new ReentrantLock();
+  /** Condition, signaled when a job has been completed. */
+  protected final Condition released = lock.newCondition();
   /** Number of currently running jobs. */
   protected int jobs;
 
@@ -32,8 +39,13 @@ abstract class LockQueue {
   /**
    * Notifies other jobs that a job has been completed.
    */
-  synchronized void release() {
-    notifyAll();
-    jobs--;
+  void release() {
+    lock.lock();
+    try {
+      released.signalAll();
+      jobs--;
+    } finally {
+      lock.unlock();
+    }
   }
 }
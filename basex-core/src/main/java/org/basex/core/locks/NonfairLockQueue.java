@@ -23,29 +23,40 @@ final class NonfairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // only wait if job is locking
-    if(jobs >= parallel && (read || write)) {
-      // add job ID to queue and wait
-      final Queue<Long> queue = write ? writers : readers;
-      queue.add(id);
+    lock.lock();
+    try {
+      // only wait if job is locking
+      if(jobs >= parallel && (read || write)) {
+        // add job ID to queue and wait
+        final Queue<Long> queue = write ? writers : readers;
+        queue.add(id);
 
-      // loop until job is placed first (prefer readers); an interrupt must not leave the ID behind
-      try {
-        do {
-          wait();
-        } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
-      } finally {
-        queue.remove(id);
+        // loop until job is placed first (prefer readers); an interrupt must not leave the ID
+        // behind
+        try {
+          do {
+            released.await();
+          } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
+        } finally {
+          queue.remove(id);
+        }
       }
+      jobs++;
+    } finally {
+      lock.unlock();
     }
-    jobs++;
   }
 
   @Override
-  public synchronized String toString() {
-    return "Jobs: " + jobs + ", queued readers: " + readers + ", queued writers: " + writers;
+  public String toString() {
+    lock.lock();
+    try {
+      return "Jobs: " + jobs + ", queued readers: " + readers + ", queued writers: " + writers;
+    } finally {
+      lock.unlock();
+    }
   }
 }
@@ -512,6 +512,15 @@ public abstract class Data {
    */
   public abstract byte[] text(int pre, boolean text);
 
+  /**
+   * Returns a view on a text (text, comment, pi, document) or attribute value.
+   * The view belongs to the current thread and is only valid until the next view is requested.
+   * @param pre PRE value
+   * @param text text/attribute flag
+   * @return view
+   */
+  public abstract TokenView textView(int pre, boolean text);
+
   /**
    * Returns a text (text, comment, pi, document) or attribute value as integer value.
    * {@link Long#MIN_VALUE} is returned if the input is no valid integer.
@@ -588,18 +597,23 @@ public abstract class Data {
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text indexes
+        final boolean txt = meta.updindex && meta.textindex, ft = meta.updindex && meta.ftindex;
+        if(txt || ft) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(txt) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(txt) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
       }
     }
   }
@@ -1125,6 +1139,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1143,6 +1158,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
@@ -14,7 +14,7 @@ public interface DataText {
   /** Database version; older version cannot open these instances. */
   String STORAGE = "9.0.1";
   /** Index version; older version cannot open indexes of these instances. */
-  String ISTORAGE = "8.6";
+  String ISTORAGE = "13.0";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -42,6 +42,8 @@ public interface DataText {
   String DBTOKIDX = "TOKINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Node IDs in full-text index. */
+  String DBFTXIDS = "FTXIDS";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -60,6 +62,10 @@ public interface DataText {
   String DBFTCS = "FTCS";
   /** Full-text diacritics removal. */
   String DBFTDC = "FTDC";
+  /** Full-text index: number of indexed texts. */
+  String DBFTNODES = "FTNODES";
+  /** Full-text index: total length of indexed texts. */
+  String DBFTLEN = "FTLENGTH";
   /** Maximum length of index entries. */
   String DBMAXLEN = "MAXLEN";
   /** Maximum number of categories. */
@@ -110,6 +116,8 @@ public interface DataText {
   String DATASWL = "swl";
   /** Database - Updating flag. */
   String DATAUPD = "upd";
+  /** Database - Journal. */
+  String DATAJRN = "jrn";
   /** Database - Document path index. */
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
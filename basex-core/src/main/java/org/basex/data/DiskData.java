@@ -16,6 +16,7 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -56,6 +57,8 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Journal. */
+  private Journal journal;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -93,7 +96,7 @@ public final class DiskData extends Data {
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
+    if(meta.ftindex) ftIndex = meta.ftids ? new UpdatableFTIndex(this) : new FTIndex(this);
   }
 
   /**
@@ -123,9 +126,22 @@ public final class DiskData extends Data {
    * @throws IOException I/O exception
    */
   private void init() throws IOException {
-    table = new TableDiskAccess(meta, meta.size, false);
+    journal = new Journal(meta.dbFile(DATAJRN).parent());
+    final TableDiskAccess tda = new TableDiskAccess(meta, meta.size, false);
+    tda.journal(journal);
+    table = tda;
     texts = new DataAccess(meta.dbFile(DATATXT));
+    texts.journal(journal);
     values = new DataAccess(meta.dbFile(DATAATV));
+    values.journal(journal);
+  }
+
+  /**
+   * Returns the journal of the database.
+   * @return journal
+   */
+  public Journal journal() {
+    return journal;
   }
 
   /**
@@ -137,7 +153,8 @@ public final class DiskData extends Data {
     meta.size = nodes();
     meta.lastid = lastid;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATAINF))) {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
       meta.write(out);
       out.writeToken(token(DBTAGS));
       elemNames.write(out);
@@ -151,8 +168,15 @@ public final class DiskData extends Data {
       resources.write(out);
       out.write(0);
     }
+    journal.write(meta.dbFile(DATAINF).name(), ao.next());
+
     // file may be missing if flag was just enabled
-    if(meta.updindex && idmap != null) idmap.write(meta.dbFile(DATAIDP));
+    if(meta.updindex && idmap != null) {
+      try(DataOutput out = new DataOutput(ao)) {
+        idmap.write(out);
+      }
+      journal.write(meta.dbFile(DATAIDP).name(), ao.finish());
+    }
     meta.dirty = false;
   }
 
@@ -169,6 +193,7 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      journal.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -189,8 +214,9 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
-    // close existing index
+    // close existing index, discard journal entries
     close(type);
+    journal.checkpoint();
     final IndexBuilder ib = switch(type) {
       case TEXT, ATTRIBUTE, TOKEN -> new DiskValuesBuilder(this, type);
       case FULLTEXT               -> new FTBuilder(this);
@@ -200,14 +226,19 @@ public final class DiskData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
-    close(type);
     final Index index = index(type);
+    close(type);
+    try {
+      journal.checkpoint();
+    } catch(final IOException ex) {
+      throw new BaseXException(ex);
+    }
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
   }
 
@@ -230,10 +261,11 @@ public final class DiskData extends Data {
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
+    meta.updates++;
     if(opts.get(MainOptions.AUTOFLUSH)) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
-      if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
+      journal.begin();
     }
   }
 
@@ -242,15 +274,11 @@ public final class DiskData extends Data {
     // OPTIMIZE ALL will close the database before this function is called
     if(closed) return;
 
-    // remove updating file
+    // commit changes via the journal
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
-    if(auto) {
-      final IOFile upd = meta.updateFile();
-      if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
-      if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
-    }
-
+    if(auto) journal.prepare(opts.get(MainOptions.SYNC));
     flush(auto);
+    journal.schedule();
     if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
@@ -260,32 +288,51 @@ public final class DiskData extends Data {
       table.flush(all);
       if(all) {
         write();
-        texts.flush();
-        values.flush();
-        if(textIndex != null) textIndex.flush();
-        if(attrIndex != null) attrIndex.flush();
+        flushFiles();
+      }
+      // write back committed changes, make them visible to concurrent readers
+      if(journal.commit()) {
+        table.flush(false);
+        flushFiles();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Flushes the buffered data of the text and value files and of the updatable indexes.
+   */
+  private void flushFiles() {
+    texts.flush();
+    values.flush();
+    if(textIndex != null) textIndex.flush();
+    if(attrIndex != null) attrIndex.flush();
+    if(tokenIndex != null) tokenIndex.flush();
+    if(ftIndex != null) ftIndex.flush();
+  }
+
   @Override
   public byte[] text(final int pre, final boolean text) {
     final long value = textRef(pre);
     return Inline.inlined(value) ? Inline.unpack(value) : txt(value, text);
   }
 
+  @Override
+  public TokenView textView(final int pre, final boolean text) {
+    return view(textRef(pre), text);
+  }
+
   @Override
   public long textItr(final int pre, final boolean text) {
     final long value = textRef(pre);
-    return Inline.inlined(value) ? Inline.unpackLong(value) : toLong(txt(value, text));
+    return Inline.inlined(value) ? Inline.unpackLong(value) : view(value, text).toLong();
   }
 
   @Override
   public double textDbl(final int pre, final boolean text) {
     final long value = textRef(pre);
-    return Inline.inlined(value) ? Inline.unpackDouble(value) : toDouble(txt(value, text));
+    return Inline.inlined(value) ? Inline.unpackDouble(value) : view(value, text).toDouble();
   }
 
   @Override
@@ -294,9 +341,10 @@ public final class DiskData extends Data {
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
+    final long pos = value & Compress.COMPRESS - 1;
+    final int l = da.readNumAt(pos);
     // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    return Compress.compressed(value) ? da.readNumAt(pos + Num.length(l)) : l;
   }
 
   /**
@@ -306,10 +354,27 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
+    final byte[] txt = (text ? texts : values).readTokenAt(offset & Compress.COMPRESS - 1);
     return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
   }
 
+  /**
+   * Returns a view on a text (text, comment, pi) or attribute value.
+   * @param value text reference
+   * @param text text or attribute flag
+   * @return view
+   */
+  private TokenView view(final long value, final boolean text) {
+    final DataAccess da = text ? texts : values;
+    if(Inline.inlined(value)) {
+      final TokenView view = da.view();
+      final byte[] bytes = view.buffer(16);
+      return view.assign(bytes, Inline.unpack(value, bytes));
+    }
+    final TokenView view = da.readViewAt(value & Compress.COMPRESS - 1);
+    return Compress.compressed(value) ? view.unpack() : view;
+  }
+
   @Override
   public boolean inMemory() {
     return false;
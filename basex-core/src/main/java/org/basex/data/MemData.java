@@ -81,7 +81,7 @@ public final class MemData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
@@ -125,6 +125,12 @@ public final class MemData extends Data {
     return values(text).key((int) textRef(pre));
   }
 
+  @Override
+  public TokenView textView(final int pre, final boolean text) {
+    final byte[] token = text(pre, text);
+    return new TokenView().assign(token, token.length);
+  }
+
   @Override
   public long textItr(final int pre, final boolean text) {
     return Token.toLong(text(pre, text));
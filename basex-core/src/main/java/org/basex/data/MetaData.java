@@ -45,6 +45,8 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if the full-text index stores node IDs instead of PRE values. */
+  public boolean ftids;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
@@ -76,6 +78,10 @@ public final class MetaData {
   public boolean diacritics;
   /** Full-text stopword file. */
   public String stopwords;
+  /** Full-text index: number of indexed texts. */
+  public int ftnodes;
+  /** Full-text index: total length of indexed texts. */
+  public long ftlength;
 
   /** Maximum number of categories. */
   public int maxcats;
@@ -95,6 +101,8 @@ public final class MetaData {
   public boolean corrupt;
   /** Dirty flag. */
   public boolean dirty;
+  /** Number of updates since the database was opened (checked by cached query plans). */
+  public volatile int updates;
 
   /** Indicates if this instance is shared and must not be modified. */
   public boolean shared;
@@ -147,6 +155,7 @@ public final class MetaData {
     attrindex = meta.attrindex;
     tokenindex = meta.tokenindex;
     ftindex = meta.ftindex;
+    ftids = meta.ftids;
     updindex = meta.updindex;
     autooptimize = meta.autooptimize;
     createtext = meta.createtext;
@@ -161,6 +170,8 @@ public final class MetaData {
     casesens = meta.casesens;
     diacritics = meta.diacritics;
     stopwords = meta.stopwords;
+    ftnodes = meta.ftnodes;
+    ftlength = meta.ftlength;
     maxcats = meta.maxcats;
     maxlen = meta.maxlen;
     splitsize = meta.splitsize;
@@ -479,12 +490,15 @@ public final class MetaData {
         case DBTIME -> time = toLong(v);
         case DBFSIZE -> inputsize = toLong(v);
         case DBFTDC -> diacritics = isTrue(v);
+        case DBFTNODES -> ftnodes = toInt(v);
+        case DBFTLEN -> ftlength = toLong(v);
         case DBUPDIDX -> updindex = isTrue(v);
         case DBAUTOOPT -> autooptimize = isTrue(v);
         case DBTXTIDX -> textindex = isTrue(v);
         case DBATVIDX -> attrindex = isTrue(v);
         case DBTOKIDX -> tokenindex = isTrue(v);
         case DBFTXIDX -> ftindex = isTrue(v);
+        case DBFTXIDS -> ftids = isTrue(v);
         case DBTXTINC -> textinclude = v;
         case DBATVINC -> attrinclude = v;
         case DBTOKINC -> tokeninclude = v;
@@ -528,6 +542,7 @@ public final class MetaData {
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBFTXIDS,   ftids);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
@@ -541,6 +556,8 @@ public final class MetaData {
     writeInfo(out, DBFTCS,     casesens);
     writeInfo(out, DBFTDC,     diacritics);
     writeInfo(out, DBFTSW,     stopwords);
+    writeInfo(out, DBFTNODES,  ftnodes);
+    writeInfo(out, DBFTLEN,    ftlength);
     writeInfo(out, DBMAXLEN,   maxlen);
     writeInfo(out, DBMAXCATS,  maxcats);
     writeInfo(out, DBUPTODATE, uptodate);
@@ -562,8 +579,11 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
+    } else if(!ftids) {
+      // full-text index with PRE values (created by previous versions) cannot be updated
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
@@ -0,0 +1,164 @@
+package org.basex.data;
+
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * Reusable view on a text or attribute value of a database.
+ *
+ * Views are returned by {@link Data#textView(int, boolean)}. They allow values to be compared,
+ * measured and converted to numbers without creating a new byte array for each value. A view
+ * belongs to the thread that requested it, and its contents are only valid until the next view
+ * is requested by this thread.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenView {
+  /** Array with the contents of the view. */
+  private byte[] bytes = Token.EMPTY;
+  /** Number of valid bytes. */
+  private int size;
+  /** Buffer of the view (reused for subsequent values). */
+  private byte[] buffer = Token.EMPTY;
+  /** Spare buffer, used for decompressing values. */
+  private byte[] spare = Token.EMPTY;
+
+  /**
+   * Returns the buffer of the view. If necessary, it will be resized.
+   * @param capacity minimum capacity
+   * @return buffer
+   */
+  public byte[] buffer(final int capacity) {
+    if(buffer.length < capacity) buffer = new byte[Array.newCapacity(capacity)];
+    return buffer;
+  }
+
+  /**
+   * Assigns the contents of the view.
+   * @param array array with the contents (can be the buffer of the view)
+   * @param sz number of valid bytes
+   * @return self reference
+   */
+  public TokenView assign(final byte[] array, final int sz) {
+    bytes = array;
+    size = sz;
+    return this;
+  }
+
+  /**
+   * Decompresses the contents of the view.
+   * @return self reference
+   */
+  TokenView unpack() {
+    final int sz = Num.get(bytes, 0);
+    if(spare.length < sz) spare = new byte[Array.newCapacity(sz)];
+    Compress.unpack(bytes, spare);
+    // swap buffers
+    final byte[] packed = buffer;
+    buffer = spare;
+    spare = packed;
+    return assign(buffer, sz);
+  }
+
+  /**
+   * Returns the array with the contents of the view. Only the first {@link #size()} bytes are
+   * valid, and the array must not be modified.
+   * @return array
+   */
+  public byte[] bytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the number of bytes of the value.
+   * @return number of bytes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of codepoints of the value.
+   * @return number of codepoints
+   */
+  public int length() {
+    int l = 0;
+    for(int b = 0; b < size; b += Token.cl(bytes, b)) ++l;
+    return l;
+  }
+
+  /**
+   * Compares the value with the specified token.
+   * @param token token to be compared
+   * @return result of comparison (-1, 0, 1)
+   */
+  public int compare(final byte[] token) {
+    return Token.compare(bytes, 0, size, token, 0, token.length);
+  }
+
+  /**
+   * Checks if the value starts with the specified token.
+   * @param token token
+   * @return result of check
+   */
+  public boolean startsWith(final byte[] token) {
+    final int tl = token.length;
+    return tl <= size && Arrays.equals(bytes, 0, tl, token, 0, tl);
+  }
+
+  /**
+   * Checks if the value ends with the specified token.
+   * @param token token
+   * @return result of check
+   */
+  public boolean endsWith(final byte[] token) {
+    final int tl = token.length;
+    return tl <= size && Arrays.equals(bytes, size - tl, size, token, 0, tl);
+  }
+
+  /**
+   * Checks if the value contains the specified token.
+   * @param token token
+   * @return result of check
+   */
+  public boolean contains(final byte[] token) {
+    final int tl = token.length;
+    if(tl == 0) return true;
+    final byte first = token[0];
+    for(int b = 0, e = size - tl; b <= e; b++) {
+      if(bytes[b] == first && Arrays.equals(bytes, b, b + tl, token, 0, tl)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Converts the value to a double.
+   * @return double value, or {@link Double#NaN} if the value is no valid double
+   */
+  public double toDouble() {
+    return Token.toDouble(bytes, 0, size);
+  }
+
+  /**
+   * Converts the value to a long.
+   * @return long value, or {@link Long#MIN_VALUE} if the value is no valid integer
+   */
+  public long toLong() {
+    return Token.toLong(bytes, 0, size);
+  }
+
+  /**
+   * Returns a copy of the value.
+   * @return value
+   */
+  public byte[] toArray() {
+    return Arrays.copyOf(bytes, size);
+  }
+
+  @Override
+  public String toString() {
+    return Token.string(bytes, 0, size);
+  }
+}
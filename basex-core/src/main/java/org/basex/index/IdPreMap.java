@@ -65,20 +65,18 @@ public class IdPreMap {
   }
 
   /**
-   * Write the map to the specified file.
-   * @param file file to write to
-   * @throws IOException I/O error while writing to the file
+   * Writes the map to the specified output.
+   * @param out output to write to
+   * @throws IOException I/O error while writing to the output
    */
-  public final void write(final IOFile file) throws IOException {
-    try(DataOutput out = new DataOutput(file)) {
-      out.writeNum(baseid);
-      out.writeNum(rows);
-      out.writeNums(pres);
-      out.writeNums(fids);
-      out.writeNums(nids);
-      out.writeNums(incs);
-      out.writeNums(oids);
-    }
+  public final void write(final DataOutput out) throws IOException {
+    out.writeNum(baseid);
+    out.writeNum(rows);
+    out.writeNums(pres);
+    out.writeNums(fids);
+    out.writeNums(nids);
+    out.writeNums(incs);
+    out.writeNums(oids);
   }
 
   /**
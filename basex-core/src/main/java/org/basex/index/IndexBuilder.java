@@ -3,6 +3,8 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -86,7 +88,16 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param p PRE value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int p) {
+    return data.kind(p) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(p, text);
   }
 
   /**
@@ -153,6 +164,54 @@ public abstract class IndexBuilder extends Job {
     return type == IndexType.FULLTEXT ? 1000000 : 100000;
   }
 
+  /**
+   * Checks if index structures of the specified database can be built in parallel.
+   * This is the case if a fixed split size has been specified, or if the free main memory
+   * will presumably suffice to build all structures without writing partial indexes to disk.
+   * @param data data reference
+   * @return result of check
+   */
+  public static boolean parallel(final Data data) {
+    if(data.inMemory() || data.meta.splitsize > 0) return true;
+    final long input = data.meta.dbFile(DataText.DATATXT).length() +
+        data.meta.dbFile(DataText.DATAATV).length();
+    return input * 4 < Runtime.getRuntime().maxMemory() * 0.8 - Performance.memory();
+  }
+
+  /**
+   * Runs the specified operations in parallel and waits until all of them have been finished.
+   * @param ops operations
+   * @throws IOException I/O exception
+   */
+  public static void parallel(final List<Callable<Void>> ops) throws IOException {
+    final ExecutorService pool = Executors.newFixedThreadPool(ops.size(), r -> {
+      final Thread thread = new Thread(r, Prop.NAME + "Index");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      final List<Future<Void>> futures = new ArrayList<>(ops.size());
+      for(final Callable<Void> op : ops) futures.add(pool.submit(op));
+      // wait for all operations, pass on the first error
+      Throwable error = null;
+      for(final Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch(final ExecutionException ex) {
+          if(error == null) error = ex.getCause();
+        }
+      }
+      if(error instanceof final IOException ex) throw ex;
+      if(error instanceof final RuntimeException ex) throw ex;
+      if(error instanceof final Error ex) throw ex;
+    } catch(final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new JobException(INTERRUPTED, ex);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
   @Override
   public final String shortInfo() {
     return CREATING_INDEXES + DOTS;
@@ -27,6 +27,10 @@ public final class FTBuilder extends IndexBuilder {
   private final FTLexer lexer;
   /** Number of indexed tokens. */
   private long ntok;
+  /** Number of indexed texts. */
+  private int nodes;
+  /** Total length of indexed texts. */
+  private long length;
 
   /**
    * Constructor.
@@ -38,13 +42,7 @@ public final class FTBuilder extends IndexBuilder {
     final MetaData meta = data.meta;
     tree = new FTIndexTrees(data.meta.maxlen);
 
-    final FTOpt fto = new FTOpt();
-    fto.set(FTFlag.DC, meta.diacritics);
-    fto.set(FTFlag.ST, meta.stemming);
-    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
-    fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language();
-
+    final FTOpt fto = options(meta, new StopWords(data, meta.stopwords));
     if(!Tokenizer.supportFor(fto.ln))
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
@@ -53,10 +51,28 @@ public final class FTBuilder extends IndexBuilder {
     lexer = new FTLexer(fto);
   }
 
+  /**
+   * Returns the full-text options for indexing the texts of a database.
+   * @param meta meta data
+   * @param sw stop words
+   * @return options
+   */
+  static FTOpt options(final MetaData meta, final StopWords sw) {
+    final FTOpt fto = new FTOpt();
+    fto.set(FTFlag.DC, meta.diacritics);
+    fto.set(FTFlag.ST, meta.stemming);
+    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
+    fto.sw = sw;
+    fto.ln = meta.language();
+    return fto;
+  }
+
   @Override
   public FTIndex build() throws IOException {
     Util.debugln(detailedInfo());
 
+    // store node IDs if the index will be updated
+    data.meta.ftids = data.meta.updindex;
     try {
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
@@ -64,7 +80,11 @@ public final class FTBuilder extends IndexBuilder {
 
         // current lexer position
         final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
+        final int id = data.meta.ftids ? data.id(pre) : pre;
+        final byte[] text = data.text(pre, true);
+        lexer.init(text);
+        nodes++;
+        length += text.length;
         int pos = -1;
         while(lexer.hasNext()) {
           final byte[] token = lexer.nextToken();
@@ -76,7 +96,7 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(token, pre, pos, splits);
+            tree.index(token, id, pos, splits);
             count++;
           }
         }
@@ -84,9 +104,11 @@ public final class FTBuilder extends IndexBuilder {
 
       // finalize partial or all index structures
       write(splits > 0);
+      data.meta.ftnodes = nodes;
+      data.meta.ftlength = length;
 
       finishIndex();
-      return new FTIndex(data);
+      return data.meta.ftids ? new UpdatableFTIndex(data) : new FTIndex(data);
     } catch(final Throwable th) {
       // drop index files
       data.meta.drop(DATAFTX + ".*");
@@ -157,7 +179,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
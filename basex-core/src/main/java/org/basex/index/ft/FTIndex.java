@@ -21,6 +21,7 @@ import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.hash.*;
 import org.basex.util.list.*;
+import org.basex.util.similarity.*;
 
 /**
  * <p>This class provides access to a fuzzy full-text index structure
@@ -46,10 +47,19 @@ import org.basex.util.list.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If {@link MetaData#updindex} is enabled, node IDs are stored instead of PRE values, and
+ * the index is maintained by {@link UpdatableFTIndex}. The format is recorded in
+ * {@link MetaData#ftids}: indexes with PRE values, which were created by previous versions,
+ * are invalidated by updates.</p>
+ *
+ * <p>The number and the total length of the indexed texts are stored in the meta data
+ * ({@link MetaData#ftnodes}, {@link MetaData#ftlength}). Together with the number of texts
+ * containing a token, they are used for computing BM25 relevance values.</p>
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
-public final class FTIndex extends ValueIndex {
+public class FTIndex extends ValueIndex {
   /** Minimum fixed size for each token entry. */
   static final int ENTRY = 9;
 
@@ -58,16 +68,16 @@ public final class FTIndex extends ValueIndex {
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess dataX;
+  final DataAccess dataX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess dataY;
+  final DataAccess dataY;
   /** Storing PRE and POS values for each token. */
-  private final DataAccess dataZ;
+  final DataAccess dataZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  final IndexCache cache = new IndexCache();
   /** Token positions. */
-  private final int[] positions;
+  int[] positions;
 
   /**
    * Constructor, initializing the index structure.
@@ -80,14 +90,26 @@ public final class FTIndex extends ValueIndex {
     dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
     dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
     dataZ = new DataAccess(data.meta.dbFile(DATAFTX + 'z'));
-    positions = new int[data.meta.maxlen + 3];
-    final int pl = positions.length;
-    Arrays.fill(positions, -1);
+    positions();
+  }
+
+  /**
+   * Reads the pointers on the first tokens of each length, and the end of the token data.
+   */
+  final void positions() {
+    final int[] ps = new int[data.meta.maxlen + 3];
+    final int pl = ps.length;
+    Arrays.fill(ps, -1);
+    dataX.cursor(0);
     for(int is = dataX.readNum(); --is >= 0;) {
       final int p = dataX.readNum();
-      positions[p] = dataX.read4();
+      ps[p] = dataX.read4();
     }
-    positions[pl - 1] = (int) dataY.length();
+    // skip the length of the closing entry
+    dataX.readNum();
+    ps[pl - 1] = dataX.read4();
+    positions = ps;
+    ctext.clear();
   }
 
   @Override
@@ -98,7 +120,7 @@ public final class FTIndex extends ValueIndex {
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) search).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.nodes() >> 4) :
-      entry(token).size);
+      count(token, entry(token)));
   }
 
   @Override
@@ -122,12 +144,7 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry entry = entry(token);
-    if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
-    }
-
-    // no results
-    return FTIndexIterator.FTEMPTY;
+    return iter(token, entry.offset, entry.size, token);
   }
 
   /**
@@ -135,7 +152,7 @@ public final class FTIndex extends ValueIndex {
    * @param value token to be found or cached
    * @return cache entry
    */
-  private IndexEntry entry(final byte[] value) {
+  final IndexEntry entry(final byte[] value) {
     final IndexEntry entry = cache.get(value);
     if(entry != null) return entry;
 
@@ -271,7 +288,7 @@ public final class FTIndex extends ValueIndex {
    * @param token token looking for
    * @return int pointer or {@code -1} if token was not found
    */
-  private int token(final byte[] token) {
+  final int token(final byte[] token) {
     final int tl = token.length;
     // left limit
     int s = positions[tl];
@@ -323,7 +340,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return int pointer on ftdata
    */
-  private long pointer(final long pt, final int lt) {
+  final long pointer(final long pt, final int lt) {
     return dataY.read5(pt + lt);
   }
 
@@ -333,7 +350,7 @@ public final class FTIndex extends ValueIndex {
    * @param lt length of the token
    * @return size of the ftdata
    */
-  private int size(final long pt, final int lt) {
+  final int size(final long pt, final int lt) {
     return dataY.read4(pt + lt + 5);
   }
 
@@ -400,9 +417,13 @@ public final class FTIndex extends ValueIndex {
       final int os = offsets.size();
       for(int o = 0; o < os; o++) {
         final int off = offsets.get(o);
-        iters.add(iter(pointer(off, s), size(off, s), dataZ, token));
+        iters.add(iter(dataY.readBytes(off, s), pointer(off, s), size(off, s), token));
       }
     }
+    final Levenshtein ls = new Levenshtein(errors);
+    for(final byte[] key : pending()) {
+      if(ls.similar(key, token)) iters.add(iter(key, 0, 0, token));
+    }
     return iters.isEmpty() ? FTIndexIterator.FTEMPTY :
       FTIndexIterator.union(iters.toArray(FTIndexIterator[]::new));
   }
@@ -428,37 +449,74 @@ public final class FTIndex extends ValueIndex {
       while(start < end) {
         final byte[] t = dataY.readBytes(start, p);
         if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(t, pointer(start, p), size(start, p), pr, ps);
         start += p + ENTRY;
       }
     }
+    for(final byte[] key : pending()) {
+      if(wc.match(key)) read(key, 0, 0, pr, ps);
+    }
     return iter(new FTCache(pr, ps), token);
   }
 
   /**
    * Returns an iterator for an index entry.
-   * @param off offset on entries
+   * @param key index token
+   * @param offset offset of the ID/POS entries
    * @param size number of ID/POS entries
-   * @param da data source
-   * @param token index token
+   * @param token search token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
+  private FTIndexIterator iter(final byte[] key, final long offset, final int size,
       final byte[] token) {
-    da.cursor(off);
     final IntList pr = new IntList(size), ps = new IntList(size);
+    read(key, offset, size, pr, ps);
+    return pr.isEmpty() ? FTIndexIterator.FTEMPTY : iter(new FTCache(pr, ps), token);
+  }
+
+  /**
+   * Reads the ID/POS entries of an index token and adds the PRE values and positions to the
+   * specified lists.
+   * @param token index token
+   * @param offset offset of the ID/POS entries
+   * @param size number of ID/POS entries
+   * @param pr PRE values
+   * @param ps positions
+   */
+  void read(final byte[] token, final long offset, final int size, final IntList pr,
+      final IntList ps) {
+    dataZ.cursor(offset);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      pr.add(pre(dataZ.readNum()));
+      ps.add(dataZ.readNum());
     }
-    return iter(new FTCache(pr, ps), token);
+  }
+
+  /**
+   * Returns the PRE value for the specified ID.
+   * @param id ID
+   * @return PRE value
+   */
+  protected int pre(final int id) {
+    return id;
+  }
+
+  /**
+   * Returns the number of ID/POS entries of an index token.
+   * @param token index token
+   * @param entry index entry
+   * @return number of entries
+   */
+  int count(final byte[] token, final IndexEntry entry) {
+    return entry.size;
+  }
+
+  /**
+   * Returns the tokens that have been added by updates and are not stored in the index files yet.
+   * @return tokens
+   */
+  TokenList pending() {
+    return new TokenList(0);
   }
 
   /**
@@ -467,12 +525,14 @@ public final class FTIndex extends ValueIndex {
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
-    final int size = ftc.pre.size();
+  private FTIndexIterator iter(final FTCache ftc, final byte[] token) {
+    final int size = ftc.pre.size(), nodes = data.meta.ftnodes;
+    // average text length (statistics are missing in databases created by older versions)
+    final double avg = nodes == 0 ? 0 : (double) data.meta.ftlength / nodes;
 
     return new FTIndexIterator() {
       final FTMatches all = new FTMatches();
-      int pos, pre, c;
+      int pos, pre, c, freq;
 
       @Override
       public boolean more() {
@@ -481,10 +541,12 @@ public final class FTIndex extends ValueIndex {
         int o = ftc.order[c];
         pre = ftc.pre.get(o);
         all.or(ftc.pos.get(o));
+        freq = 1;
         while(++c < size) {
           o = ftc.order[c];
           if(pre != ftc.pre.get(o)) break;
           all.or(ftc.pos.get(o));
+          freq++;
         }
         return true;
       }
@@ -504,6 +566,17 @@ public final class FTIndex extends ValueIndex {
         pos = p;
       }
 
+      @Override
+      public double score() {
+        final double length = avg == 0 ? 1 : data.textLen(pre, true) / avg;
+        return Scoring.bm25(freq, ftc.nodes, nodes, length);
+      }
+
+      @Override
+      public double max() {
+        return Scoring.bm25(ftc.nodes, nodes);
+      }
+
       @Override
       public int size() {
         return size;
@@ -526,6 +599,8 @@ public final class FTIndex extends ValueIndex {
     private final IntList pre;
     /** Pos values. */
     private final IntList pos;
+    /** Number of distinct PRE values. */
+    private final int nodes;
 
     /**
      * Constructor.
@@ -539,6 +614,11 @@ public final class FTIndex extends ValueIndex {
       order = Array.createOrder(v, true);
       pre = pr;
       pos = ps;
+      int n = 0;
+      for(int i = 0; i < s; i++) {
+        if(i == 0 || pr.get(order[i]) != pr.get(order[i - 1])) n++;
+      }
+      nodes = n;
     }
   }
 
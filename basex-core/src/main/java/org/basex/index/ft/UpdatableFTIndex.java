@@ -0,0 +1,486 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.value.*;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+
+/**
+ * This class provides access and update functions to a full-text index structure stored on disk.
+ * The data structure is described in the {@link FTIndex} class; instead of PRE values, node IDs
+ * are stored.
+ *
+ * The entries that are added to or deleted from a token are not merged into the index files
+ * right away. Instead, they are recorded in a delta, which is appended to a log file and
+ * considered by all lookups. Tokens that do not occur in the index files yet are only stored in
+ * the delta. If too many changes are pending, all deltas are merged into the index files, and
+ * the log is reset.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableFTIndex extends FTIndex {
+  /** Maximum number of pending entries. */
+  private static final int MAXPENDING = 1 << 16;
+  /** Maximum size of the log file. */
+  private static final long MAXLOG = 1 << 24;
+  /** Size of the log header. */
+  private static final long HEADER = 5;
+  /** Log entry: added entries. */
+  private static final int ADD = 0;
+  /** Log entry: deleted IDs. */
+  private static final int DELETE = 1;
+  /** Order of the tokens in the index files. */
+  private static final Comparator<IndexEntry> ORDER = (entry1, entry2) -> {
+    final int d = entry1.key.length - entry2.key.length;
+    return d != 0 ? d : compare(entry1.key, entry2.key);
+  };
+
+  /** Free slots in the ID/POS data. */
+  private final FreeSlots free = new FreeSlots();
+  /** Pending changes of tokens. */
+  private final TokenObjectMap<Delta> deltas = new TokenObjectMap<>();
+  /** Log of the pending changes. */
+  private final DataAccess dataD;
+  /** Full-text options for tokenizing texts. */
+  private final FTOpt opt;
+  /** End of the log. */
+  private long end = HEADER;
+  /** Number of pending entries. */
+  private int pending;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public UpdatableFTIndex(final Data data) throws IOException {
+    super(data);
+    dataD = new DataAccess(data.meta.dbFile(DATAFTX + 'd'));
+    if(data instanceof final DiskData dd) {
+      dataX.journal(dd.journal());
+      dataY.journal(dd.journal());
+      dataZ.journal(dd.journal());
+      dataD.journal(dd.journal());
+    }
+    final StopWords sw = new StopWords();
+    sw.compile(data);
+    opt = FTBuilder.options(data.meta, sw);
+    replay();
+  }
+
+  @Override
+  protected int pre(final int id) {
+    return data.pre(id);
+  }
+
+  @Override
+  public synchronized void add(final ValueCache values) {
+    final TokenObjectMap<Delta> changes = changes(values, true);
+    for(final byte[] token : changes) {
+      final Delta change = changes.get(token);
+      delta(token).add(change.ids, change.pos);
+      pending += change.ids.size();
+      log(token, ADD, change.ids, change.pos);
+    }
+    compact();
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache values) {
+    final TokenObjectMap<Delta> changes = changes(values, false);
+    for(final byte[] token : changes) {
+      final IntList ids = changes.get(token).ids.ddo();
+      pending += delta(token).delete(ids);
+      log(token, DELETE, ids, null);
+    }
+    compact();
+  }
+
+  @Override
+  public synchronized EntryIterator entries(final IndexEntries entries) {
+    final EntryIterator iter = super.entries(entries);
+    if(deltas.isEmpty()) return iter;
+
+    // consider pending changes: collect and sort all entries
+    final ArrayList<IndexEntry> list = new ArrayList<>();
+    for(byte[] key; (key = iter.next()) != null;) {
+      final int count = deltas.contains(key) ? count(key, entry(key)) : iter.count();
+      if(count > 0) list.add(new IndexEntry(key, count, 0));
+    }
+    final byte[] token = entries.token();
+    final Levenshtein ls = entries.errors >= 0 ? new Levenshtein(entries.errors) : null;
+    for(final byte[] key : pending()) {
+      if(ls != null ? ls.similar(key, token) : startsWith(key, token)) {
+        list.add(new IndexEntry(key, count(key, entry(key)), 0));
+      }
+    }
+    list.sort(ORDER);
+
+    return new EntryIterator() {
+      int i = -1;
+
+      @Override
+      public byte[] next() {
+        return ++i < list.size() ? list.get(i).key : null;
+      }
+
+      @Override
+      public int count() {
+        return list.get(i).size;
+      }
+    };
+  }
+
+  @Override
+  public synchronized int size() {
+    return super.size() + pending().size();
+  }
+
+  @Override
+  public synchronized void flush() {
+    dataX.flush();
+    dataY.flush();
+    dataZ.flush();
+    dataD.flush();
+  }
+
+  @Override
+  public synchronized void close() {
+    super.close();
+    dataD.close();
+  }
+
+  @Override
+  void read(final byte[] token, final long offset, final int size, final IntList pr,
+      final IntList ps) {
+    final Delta delta = deltas.isEmpty() ? null : deltas.get(token);
+    if(delta == null) {
+      super.read(token, offset, size, pr, ps);
+      return;
+    }
+    // skip deleted IDs, add pending entries
+    dataZ.cursor(offset);
+    for(int c = 0; c < size; c++) {
+      final int id = dataZ.readNum(), pos = dataZ.readNum();
+      if(delta.deleted.sortedIndexOf(id) < 0) {
+        pr.add(pre(id));
+        ps.add(pos);
+      }
+    }
+    final int is = delta.ids.size();
+    for(int i = 0; i < is; i++) {
+      pr.add(pre(delta.ids.get(i)));
+      ps.add(delta.pos.get(i));
+    }
+  }
+
+  @Override
+  int count(final byte[] token, final IndexEntry entry) {
+    final Delta delta = deltas.isEmpty() ? null : deltas.get(token);
+    if(delta == null) return entry.size;
+
+    int count = delta.ids.size();
+    if(delta.deleted.isEmpty()) return entry.size + count;
+    dataZ.cursor(entry.offset);
+    for(int c = 0; c < entry.size; c++) {
+      if(delta.deleted.sortedIndexOf(dataZ.readNum()) < 0) count++;
+      dataZ.readNum();
+    }
+    return count;
+  }
+
+  @Override
+  TokenList pending() {
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : deltas) {
+      final Delta delta = deltas.get(token);
+      if(!delta.indexed && !delta.ids.isEmpty()) tokens.add(token);
+    }
+    return tokens;
+  }
+
+  /**
+   * Tokenizes the cached texts and returns the entries of all index tokens.
+   * Updates the statistics on the indexed texts.
+   * @param values cached texts and IDs
+   * @param add texts are added or deleted
+   * @return entries
+   */
+  private TokenObjectMap<Delta> changes(final ValueCache values, final boolean add) {
+    final TokenObjectMap<Delta> changes = new TokenObjectMap<>();
+    final FTLexer lexer = new FTLexer(opt);
+    final MetaData meta = data.meta;
+    final int maxlen = meta.maxlen;
+    for(final byte[] text : values) {
+      final IntList ids = values.ids(text);
+      final int is = ids.size(), nodes = add ? is : -is;
+      meta.ftnodes += nodes;
+      meta.ftlength += (long) nodes * text.length;
+      lexer.init(text);
+      for(int pos = 0; lexer.hasNext(); pos++) {
+        // skip too long and stopword tokens
+        final byte[] token = lexer.nextToken();
+        if(token.length <= maxlen && !opt.sw.contains(token)) {
+          final Delta change = changes.computeIfAbsent(token, () -> new Delta(false));
+          for(int i = 0; i < is; i++) {
+            change.ids.add(ids.get(i));
+            change.pos.add(pos);
+          }
+        }
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Returns the delta of a token.
+   * @param token token
+   * @return delta
+   */
+  private Delta delta(final byte[] token) {
+    return deltas.computeIfAbsent(token, () -> new Delta(token(token) != -1));
+  }
+
+  /**
+   * Merges all deltas into the index files if too many changes are pending, and resets the log.
+   */
+  private void compact() {
+    if(pending < MAXPENDING && end < MAXLOG) return;
+
+    final ArrayList<IndexEntry> added = new ArrayList<>();
+    final IntList removed = new IntList();
+    for(final byte[] token : deltas) {
+      final Delta delta = deltas.get(token);
+      final int tl = token.length, off = delta.indexed ? token(token) : -1;
+
+      // read remaining entries from the index files, add pending entries
+      final IntList ids = new IntList(), pos = new IntList();
+      if(off != -1) {
+        final long offset = pointer(off, tl);
+        final int size = size(off, tl);
+        dataZ.cursor(offset);
+        for(int c = 0; c < size; c++) {
+          final int id = dataZ.readNum(), ps = dataZ.readNum();
+          if(delta.deleted.sortedIndexOf(id) < 0) {
+            ids.add(id);
+            pos.add(ps);
+          }
+        }
+        free.add((int) (dataZ.cursor() - offset), offset);
+      }
+      ids.add(delta.ids.toArray());
+      pos.add(delta.pos.toArray());
+
+      final int size = ids.size();
+      if(size == 0) {
+        // no entries remain: remove token
+        cache.delete(token);
+        if(off != -1) removed.add(off);
+      } else {
+        // write entries (append at the end if no slot is found)
+        int bytes = 0;
+        for(int i = 0; i < size; i++) bytes += Num.length(ids.get(i)) + Num.length(pos.get(i));
+        final long offset = free.get(bytes, dataZ.length());
+        dataZ.cursor(offset);
+        for(int i = 0; i < size; i++) {
+          dataZ.writeNum(ids.get(i));
+          dataZ.writeNum(pos.get(i));
+        }
+        cache.add(token, size, offset);
+        if(off != -1) {
+          dataY.write5(off + tl, offset);
+          dataY.write4(off + tl + 5, size);
+        } else {
+          added.add(new IndexEntry(token, size, offset));
+        }
+      }
+    }
+    if(!added.isEmpty() || !removed.isEmpty()) {
+      try {
+        rewrite(added, removed.sort());
+      } catch(final IOException ex) {
+        throw Util.notExpected(ex);
+      }
+    }
+
+    deltas.clear();
+    pending = 0;
+    end = HEADER;
+    dataD.write5(0, end);
+  }
+
+  /**
+   * Rewrites the tokens and the token length index.
+   * @param added tokens to be added
+   * @param removed offsets of the tokens to be removed (sorted)
+   * @throws IOException I/O exception
+   */
+  private void rewrite(final ArrayList<IndexEntry> added, final IntList removed)
+      throws IOException {
+
+    added.sort(ORDER);
+    final int as = added.size(), rs = removed.size(), pl = positions.length;
+    final ArrayOutput ay = new ArrayOutput();
+    final IntList ind = new IntList();
+    try(DataOutput outY = new DataOutput(ay)) {
+      for(int tl = 1, a = 0, r = 0; tl < pl - 1; tl++) {
+        // merge existing tokens of the current length with added tokens
+        int s = positions[tl], e = s;
+        if(s != -1) {
+          int c = tl + 1;
+          do e = positions[c++]; while(e == -1);
+        }
+        final byte[] group = s != -1 ? dataY.readBytes(s, e - s) : EMPTY;
+        final int w = tl + ENTRY, gl = group.length;
+        boolean first = true;
+        for(int g = 0; g < gl || a < as && added.get(a).key.length == tl;) {
+          if(r < rs && removed.get(r) == s + g) {
+            r++;
+            g += w;
+            continue;
+          }
+          if(first) {
+            ind.add(tl);
+            ind.add((int) outY.size());
+            first = false;
+          }
+          if(a < as && added.get(a).key.length == tl &&
+              (g == gl || compare(added.get(a).key, 0, tl, group, g, g + tl) < 0)) {
+            final IndexEntry entry = added.get(a++);
+            outY.writeBytes(entry.key);
+            outY.write5(entry.offset);
+            outY.write4(entry.size);
+          } else {
+            outY.write(group, g, w);
+            g += w;
+          }
+        }
+      }
+    }
+    final int ys = (int) ay.size();
+    final ArrayOutput ax = new ArrayOutput();
+    try(DataOutput outX = new DataOutput(ax)) {
+      FTBuilder.writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1, ys);
+    }
+    dataY.cursor(0);
+    dataY.writeBytes(ay.buffer(), 0, ys);
+    dataX.cursor(0);
+    dataX.writeBytes(ax.buffer(), 0, (int) ax.size());
+    positions();
+  }
+
+  /**
+   * Appends an entry to the log.
+   * @param token token
+   * @param op operation
+   * @param ids IDs
+   * @param pos positions (can be {@code null})
+   */
+  private void log(final byte[] token, final int op, final IntList ids, final IntList pos) {
+    final int is = ids.size();
+    dataD.writeToken(end, token);
+    dataD.writeNum(op);
+    dataD.writeNum(is);
+    for(int i = 0; i < is; i++) {
+      dataD.writeNum(ids.get(i));
+      if(pos != null) dataD.writeNum(pos.get(i));
+    }
+    end = dataD.cursor();
+    dataD.write5(0, end);
+  }
+
+  /**
+   * Restores the pending changes from the log.
+   */
+  private void replay() {
+    if(dataD.length() == 0) return;
+    end = dataD.read5(0);
+    for(long p = HEADER; p < end; p = dataD.cursor()) {
+      final byte[] token = dataD.readToken(p);
+      final int op = dataD.readNum(), is = dataD.readNum();
+      final IntList ids = new IntList(is), pos = new IntList(is);
+      for(int i = 0; i < is; i++) {
+        ids.add(dataD.readNum());
+        if(op == ADD) pos.add(dataD.readNum());
+      }
+      final Delta delta = delta(token);
+      if(op == ADD) {
+        delta.add(ids, pos);
+        pending += is;
+      } else {
+        pending += delta.delete(ids);
+      }
+    }
+  }
+
+  /**
+   * Pending changes of a token.
+   */
+  private static final class Delta {
+    /** IDs of the added entries. */
+    final IntList ids = new IntList();
+    /** Positions of the added entries. */
+    final IntList pos = new IntList();
+    /** IDs of the deleted entries in the index files (sorted, distinct). */
+    IntList deleted = new IntList();
+    /** Indicates if the token occurs in the index files. */
+    final boolean indexed;
+
+    /**
+     * Constructor.
+     * @param indexed indicates if the token occurs in the index files
+     */
+    Delta(final boolean indexed) {
+      this.indexed = indexed;
+    }
+
+    /**
+     * Adds entries.
+     * @param is IDs
+     * @param ps positions
+     */
+    void add(final IntList is, final IntList ps) {
+      ids.add(is.toArray());
+      pos.add(ps.toArray());
+    }
+
+    /**
+     * Deletes all entries of the specified IDs.
+     * @param del IDs to be deleted (sorted, distinct)
+     * @return difference in the number of pending entries
+     */
+    int delete(final IntList del) {
+      // remove added entries
+      final int is = ids.size();
+      int n = 0;
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        if(del.sortedIndexOf(id) < 0) {
+          ids.set(n, id);
+          pos.set(n++, pos.get(i));
+        }
+      }
+      ids.size(n);
+      pos.size(n);
+      // skip entries of the index files
+      final int ds = deleted.size();
+      deleted = deleted.add(del.toArray()).ddo();
+      return deleted.size() - ds - (is - n);
+    }
+  }
+}
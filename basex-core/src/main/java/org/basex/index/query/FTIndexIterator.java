@@ -1,6 +1,7 @@
 package org.basex.index.query;
 
 import org.basex.query.util.ft.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -22,6 +23,10 @@ public abstract class FTIndexIterator implements IndexIterator {
     public int size() { return 0; }
     @Override
     public void pos(final int p) { }
+    @Override
+    public double score() { return 0; }
+    @Override
+    public double max() { return 0; }
   };
 
   /**
@@ -36,6 +41,25 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract void pos(int p);
 
+  /**
+   * Returns the relevance of the current match.
+   * @return relevance (0 or larger)
+   */
+  public abstract double score();
+
+  /**
+   * Returns the maximum relevance of all matches.
+   * @return relevance
+   */
+  public abstract double max();
+
+  /**
+   * Announces that matches with a smaller relevance than the specified one will be discarded.
+   * Matches can then be skipped if their relevance cannot reach the threshold.
+   * @param min minimum relevance
+   */
+  public void prune(final double min) { }
+
   /**
    * Merges two index iterators for unions.
    * @param iters index iterators to merge
@@ -45,6 +69,10 @@ public abstract class FTIndexIterator implements IndexIterator {
     return new FTIndexIterator() {
       final IntList curr = new IntList();
       FTIndexIterator[] ir;
+      /** Iterators, sorted by their maximum relevance. */
+      int[] order;
+      /** Number of iterators that cannot reach the minimum relevance on their own. */
+      int optional;
 
       @Override
       public boolean more() {
@@ -61,8 +89,10 @@ public abstract class FTIndexIterator implements IndexIterator {
             if(!ir[i].more()) ir[i] = null;
           }
         }
+        // choose next match from all iterators that can reach the minimum relevance
         int pre = Integer.MAX_VALUE;
-        for(int i = 0; i < il; i++) {
+        for(int o = optional; o < il; o++) {
+          final int i = order != null ? order[o] : o;
           if(ir[i] == null) continue;
           final int p = ir[i].pre();
           if(pre < p) continue;
@@ -72,7 +102,17 @@ public abstract class FTIndexIterator implements IndexIterator {
           }
           curr.add(i);
         }
-        return pre < Integer.MAX_VALUE;
+        if(pre == Integer.MAX_VALUE) return false;
+        // skip matches of the remaining iterators, add identical matches
+        for(int o = 0; o < optional; o++) {
+          final int i = order[o];
+          while(ir[i] != null && ir[i].pre() < pre) {
+            if(!ir[i].more()) ir[i] = null;
+          }
+          if(ir[i] != null && ir[i].pre() == pre) curr.add(i);
+        }
+        curr.sort();
+        return true;
       }
 
       @Override
@@ -100,6 +140,38 @@ public abstract class FTIndexIterator implements IndexIterator {
         for(final FTIndexIterator iter : iters) iter.pos(p);
       }
 
+      @Override
+      public double score() {
+        double score = 0;
+        final int cs = curr.size();
+        for(int c = 0; c < cs; c++) score += ir[curr.get(c)].score();
+        return score;
+      }
+
+      @Override
+      public double max() {
+        double max = 0;
+        for(final FTIndexIterator iter : iters) max += iter.max();
+        return max;
+      }
+
+      @Override
+      public void prune(final double min) {
+        final int il = iters.length;
+        if(order == null) {
+          final double[] max = new double[il];
+          for(int i = 0; i < il; i++) max[i] = iters[i].max();
+          order = Array.createOrder(max, true);
+        }
+        // iterators whose summed relevance is too small can only contribute to other matches
+        double sum = 0;
+        for(int o = 0; o < il; o++) {
+          sum += iters[order[o]].max();
+          if(sum >= min) break;
+          optional = o + 1;
+        }
+      }
+
       @Override
       public synchronized int size() {
         int c = 0;
@@ -132,9 +204,11 @@ public abstract class FTIndexIterator implements IndexIterator {
     return new FTIndexIterator() {
       private FTIndexIterator iter1, iter2;
       private FTMatches all;
+      private boolean stop;
 
       @Override
       public boolean more() {
+        if(stop) return false;
         int d = 0;
         while(true) {
           if(d <= 0) iter1 = i1.more() ? i1 : null;
@@ -171,6 +245,21 @@ public abstract class FTIndexIterator implements IndexIterator {
         i2.pos(p);
       }
 
+      @Override
+      public double score() {
+        return iter1.score() + iter2.score();
+      }
+
+      @Override
+      public double max() {
+        return i1.max() + i2.max();
+      }
+
+      @Override
+      public void prune(final double min) {
+        stop = max() < min;
+      }
+
       @Override
       public synchronized int size() {
         return Math.min(i1.size(), i2.size());
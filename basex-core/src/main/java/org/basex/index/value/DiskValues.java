@@ -94,20 +94,12 @@ public class DiskValues extends ValueIndex {
     return IndexCosts.get(
       search instanceof StringRange ? Math.max(1, data.nodes() / 10) :
       search instanceof NumericRange ? Math.max(1, data.nodes() / 3) :
-      entry(search.token()).size);
+      count(entry(search.token())));
   }
 
   @Override
   public final IndexIterator iter(final IndexSearch search) {
-    final IntList pres;
-    if(search instanceof final StringRange range) {
-      pres = idRange(range);
-    } else if(search instanceof final NumericRange range) {
-      pres = idRange(range);
-    } else {
-      final IndexEntry ie = entry(search.token());
-      pres = pres(ie.size, ie.offset);
-    }
+    final IntList pres = pres(search);
 
     return new IndexIterator() {
       final int sz = pres.size();
@@ -136,7 +128,7 @@ public class DiskValues extends ValueIndex {
   }
 
   @Override
-  public final void close() {
+  public void close() {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
@@ -165,11 +157,32 @@ public class DiskValues extends ValueIndex {
   }
 
   @Override
-  public final void flush() {
+  public void flush() {
     idxl.flush();
     idxr.flush();
   }
 
+  /**
+   * Returns the sorted PRE values of the nodes that match the specified search.
+   * @param search index search definition
+   * @return PRE values
+   */
+  IntList pres(final IndexSearch search) {
+    if(search instanceof final StringRange range) return idRange(range, null);
+    if(search instanceof final NumericRange range) return idRange(range, null);
+    final IndexEntry ie = entry(search.token());
+    return pres(ie.size, ie.offset);
+  }
+
+  /**
+   * Returns the number of IDs of an index entry.
+   * @param entry index entry
+   * @return number of IDs
+   */
+  int count(final IndexEntry entry) {
+    return entry.size;
+  }
+
   /**
    * Returns the PRE value for the specified ID.
    * @param id ID value
@@ -212,15 +225,13 @@ public class DiskValues extends ValueIndex {
     return -(l + 1);
   }
 
-  // PRIVATE METHODS ==============================================================================
-
   /**
    * Returns an index entry.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param value token to be found or cached
    * @return cache entry
    */
-  private IndexEntry entry(final byte[] value) {
+  final IndexEntry entry(final byte[] value) {
     final IndexEntry entry = cache.get(value);
     if(entry != null) return entry;
 
@@ -240,6 +251,29 @@ public class DiskValues extends ValueIndex {
     return cache.add(value, count, offset);
   }
 
+  /**
+   * Returns the IDs of an index entry.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param sz number of IDs
+   * @param offset offset
+   * @return IDs
+   */
+  final IntList ids(final int sz, final long offset) {
+    final IntList ids = new IntList(sz);
+    synchronized(monitor) {
+      idxl.cursor(offset);
+      for(int i = 0, id = 0; i < sz; i++) {
+        id += idxl.readNum();
+        // token index: skip position
+        if(type == IndexType.TOKEN) idxl.readNum();
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
   /**
    * Returns all index entries with the given prefix.
    * @param prefix prefix
@@ -265,7 +299,7 @@ public class DiskValues extends ValueIndex {
 
       @Override
       public int count() {
-        return entry.size;
+        return DiskValues.this.count(entry);
       }
     };
   }
@@ -290,7 +324,7 @@ public class DiskValues extends ValueIndex {
 
       @Override
       public int count() {
-        return entry.size;
+        return DiskValues.this.count(entry);
       }
 
       @Override
@@ -357,9 +391,10 @@ public class DiskValues extends ValueIndex {
    * Performs a string-based range query.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
+   * @param skip sorted IDs to be skipped, indexed by key positions (can be {@code null})
    * @return results
    */
-  private IntList idRange(final StringRange tok) {
+  final IntList idRange(final StringRange tok, final IntObjectMap<IntList> skip) {
     // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
     synchronized(monitor) {
@@ -372,8 +407,9 @@ public class DiskValues extends ValueIndex {
         final int diff = compare(key(id), tok.max());
         if(diff > 0 || !tok.mxi() && diff == 0) break;
         // add PRE values
+        final IntList ids = skip != null ? skip.get(index) : null;
         for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
+          if(ids == null || ids.sortedIndexOf(id) < 0) pres.add(pre(id));
           id += idxl.readNum();
         }
       }
@@ -385,9 +421,10 @@ public class DiskValues extends ValueIndex {
    * Performs a range query. All index values must be numeric.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
+   * @param skip sorted IDs to be skipped, indexed by key positions (can be {@code null})
    * @return results
    */
-  private IntList idRange(final NumericRange tok) {
+  final IntList idRange(final NumericRange tok, final IntObjectMap<IntList> skip) {
     // check if min and max are positive integers with the same number of digits
     final double min = tok.min(), max = tok.max();
     final int len = max > 0 && (long) max == max ? token(max).length : 0;
@@ -405,8 +442,9 @@ public class DiskValues extends ValueIndex {
         final double v = data.textDbl(pre, text);
         if(v >= min && v <= max) {
           // value is in range
+          final IntList ids = skip != null ? skip.get(index) : null;
           for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
+            if(ids == null || ids.sortedIndexOf(id) < 0) pres.add(pre(id));
             id += idxl.readNum();
           }
         } else if(simple && v > max && data.textLen(pre, text) == len) {
@@ -3,6 +3,8 @@ package org.basex.index.value;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
@@ -28,10 +30,16 @@ import org.basex.util.list.*;
  * </li>
  * </ul>
  *
+ * <p>The nodes of large databases are indexed in parallel: partial indexes are built for
+ * ranges of PRE values and merged afterwards.</p>
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 16;
+
   /** Temporary value tree. */
   private IndexTree index;
 
@@ -50,33 +58,40 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debugln(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
-        }
-      }
-
-      writeIndex(splits > 0);
-      if(splits > 1) {
+      final int partitions = IndexBuilder.parallel(data) ?
+        Math.min(Runtime.getRuntime().availableProcessors(), size / PARTITION) : 1;
+      if(partitions > 1) {
+        // build partial indexes in parallel
         index = null;
+        final List<Callable<Void>> ops = new ArrayList<>(partitions);
+        for(int p = 0; p < partitions; p++) {
+          final int start = (int) ((long) size * p / partitions);
+          final int end = (int) ((long) size * (p + 1) / partitions);
+          ops.add(() -> {
+            index(start, end);
+            return null;
+          });
+        }
+        IndexBuilder.parallel(ops);
+        pre = size;
         clean();
         merge();
+      } else {
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          if(indexEntry()) count += index(index, pre);
+        }
+
+        writeIndex(index, splits > 0);
+        if(splits > 1) {
+          index = null;
+          clean();
+          merge();
+        }
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return data.meta.updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
     } catch(final Throwable th) {
       // drop index files
       data.meta.drop(DiskValues.fileSuffix(type) + ".+");
@@ -84,12 +99,72 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  /**
+   * Indexes the nodes of a partition and writes the results to partial indexes.
+   * @param start first PRE value
+   * @param end last PRE value (exclusive)
+   * @throws IOException I/O exception
+   */
+  private void index(final int start, final int end) throws IOException {
+    IndexTree tree = new IndexTree(type);
+    long ops = 0;
+    int last = start;
+    for(int p = start; p < end; ++p) {
+      if((p & 0x0FFF) == 0) {
+        tree = check(tree, p - last, ops, false);
+        last = p;
+        ops = 0;
+      }
+      if(indexEntry(p)) ops += index(tree, p);
+    }
+    check(tree, end - last, ops, true);
+  }
+
+  /**
+   * Adds the entries of a node to the specified index tree.
+   * @param tree index tree
+   * @param p PRE value
+   * @return number of index operations
+   */
+  private int index(final IndexTree tree, final int p) {
+    final int id = data.meta.updindex ? data.id(p) : p;
+    int ops = 0;
+    if(tokenize) {
+      for(final byte[] token : distinctTokens(data.text(p, text))) tree.add(token, id, ops++);
+    } else if(data.textLen(p, text) <= data.meta.maxlen) {
+      tree.add(data.text(p, text), id, 0);
+      ops++;
+    }
+    return ops;
+  }
+
+  /**
+   * Registers the progress of a partition and writes its index tree to disk if main memory
+   * is exhausted, or if the partition has been indexed.
+   * @param tree index tree of the partition
+   * @param nodes number of processed nodes
+   * @param ops number of index operations
+   * @param finish indicates if the partition has been indexed
+   * @return index tree for the next nodes
+   * @throws IOException I/O exception
+   */
+  private synchronized IndexTree check(final IndexTree tree, final int nodes, final long ops,
+      final boolean finish) throws IOException {
+    checkStop();
+    pre += nodes;
+    count += ops;
+    if(!finish && !splitRequired()) return tree;
+    writeIndex(tree, true);
+    clean();
+    return new IndexTree(type);
+  }
+
   @Override
   protected void check() throws IOException {
     super.check();
     // check if main memory is exhausted
     if(splitRequired()) {
-      writeIndex(true);
+      writeIndex(index, true);
       index = new IndexTree(type);
       clean();
     }
@@ -162,21 +237,22 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   }
 
   /**
-   * Writes the current index tree to disk.
+   * Writes an index tree to disk.
+   * @param tree index tree
    * @param partial partial flag
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
+  private void writeIndex(final IndexTree tree, final boolean partial) throws IOException {
     // write ID arrays and references
     final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
-      outL.write4(index.size());
+      outL.write4(tree.size());
 
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      index.init();
-      while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
+      tree.init();
+      while(tree.more()) {
+        final byte[] values = tree.ids.get(tree.next());
         final int vs = Num.size(values);
 
         if(partial) {
@@ -201,8 +277,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     // temporarily write texts
     if(partial) {
       try(DataOutput outT = new DataOutput(data.meta.dbFile(name + 't'))) {
-        index.init();
-        while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        tree.init();
+        while(tree.more()) outT.writeToken(tree.keys.get(tree.next()));
       }
     }
     // increase split counter
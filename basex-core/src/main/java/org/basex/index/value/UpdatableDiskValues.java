@@ -1,22 +1,54 @@
 package org.basex.index.value;
 
+import static org.basex.util.Token.*;
+
 import java.io.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
  * This class provides access and update functions to attribute values and text contents stored on
  * disk. The data structure is described in the {@link DiskValuesBuilder} class.
  *
+ * IDs that are added to or deleted from existing keys are not merged into the ID lists right
+ * away. Instead, they are recorded in a delta, which is appended to a log file and considered by
+ * all lookups. The delta of a key is merged if the first ID of its list is deleted (as it is
+ * needed to resolve the key), or if no IDs remain. All deltas are merged and the log is reset if
+ * too many changes are pending.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class UpdatableDiskValues extends DiskValues {
+  /** Maximum number of pending IDs. */
+  private static final int MAXPENDING = 1 << 16;
+  /** Maximum size of the log file. */
+  private static final long MAXLOG = 1 << 24;
+  /** Size of the log header. */
+  private static final long HEADER = 5;
+  /** Log entry: added IDs. */
+  private static final int ADD = 0;
+  /** Log entry: deleted IDs. */
+  private static final int DELETE = 1;
+  /** Log entry: merged delta. */
+  private static final int MERGE = 2;
+
   /** Free slots. */
   private final FreeSlots free = new FreeSlots();
+  /** Pending changes of existing keys. */
+  private final TokenObjectMap<Delta> deltas = new TokenObjectMap<>();
+  /** Log of the pending changes. */
+  private final DataAccess idxd;
+  /** End of the log. */
+  private long end = HEADER;
+  /** Number of pending IDs. */
+  private int pending;
 
   /**
    * Constructor, initializing the index structure.
@@ -26,6 +58,13 @@ public final class UpdatableDiskValues extends DiskValues {
    */
   public UpdatableDiskValues(final Data data, final IndexType type) throws IOException {
     super(data, type, fileSuffix(type));
+    idxd = new DataAccess(data.meta.dbFile(fileSuffix(type) + 'd'));
+    if(data instanceof final DiskData dd) {
+      idxl.journal(dd.journal());
+      idxr.journal(dd.journal());
+      idxd.journal(dd.journal());
+    }
+    replay();
   }
 
   @Override
@@ -38,31 +77,19 @@ public final class UpdatableDiskValues extends DiskValues {
     // create a sorted list of the new keys and update the old keys
     final TokenList newKeys = new TokenList();
 
-    // update ID lists of keys (in ascending order; speeds up binary search)
+    // record IDs of existing keys (in ascending order; speeds up binary search)
     int index = 0;
     final int sz = size();
     for(final byte[] key : values) {
       index = get(key, index, sz);
       if(index >= 0) {
         final IntList ids = values.ids(key), pos = values.pos(key);
-
-        final long off = idxr.read5(index * 5L);
-        final int oldSize = idxl.readNum(off), newSize = oldSize + ids.size();
-        final IntList newIds = new IntList(newSize);
-        final IntList newPos = pos != null ? new IntList(newSize) : null;
-        // add existing IDs
-        for(int o = 0, c = 0; o < oldSize; ++o) {
-          c += idxl.readNum();
-          newIds.add(c);
-          if(newPos != null) newPos.add(idxl.readNum());
-        }
-        // add new IDs, write new list
-        newIds.add(ids.finish());
-        if(newPos != null) newPos.add(pos.finish());
-
-        // mark old slot as empty
-        free.add((int) (idxl.cursor() - off), off);
-        writeIds(key, newIds, newPos, index++);
+        final Delta delta = deltas.computeIfAbsent(key, () -> new Delta(pos != null));
+        final int is = ids.size();
+        for(int i = 0; i < is; i++) delta.add(ids.get(i), pos != null ? pos.get(i) : 0);
+        pending += is;
+        log(key, ADD, ids, pos);
+        index++;
       } else {
         index = -(index + 1);
         newKeys.add(key);
@@ -85,6 +112,7 @@ public final class UpdatableDiskValues extends DiskValues {
       writeIds(key, values.ids(key), values.pos(key), newIndex--);
     }
     size(sz + ns);
+    compact();
   }
 
   @Override
@@ -97,10 +125,65 @@ public final class UpdatableDiskValues extends DiskValues {
     for(final byte[] key : values) {
       p = get(key, p, sz);
       if(p < 0) throw Util.notExpected("Key does not exist: '%'", key);
-      if(deleteIds(p, key, values)) keys.add(p);
+      if(deleteIds(p, key, values.ids(key))) keys.add(p);
       p++;
     }
     deleteKeys(keys);
+    compact();
+  }
+
+  @Override
+  public void flush() {
+    super.flush();
+    idxd.flush();
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    idxd.close();
+  }
+
+  @Override
+  IntList pres(final IndexSearch search) {
+    if(deltas.isEmpty()) return super.pres(search);
+
+    if(search instanceof StringRange || search instanceof NumericRange) {
+      // skip deleted IDs, add IDs of matching keys
+      final IntObjectMap<IntList> skip = new IntObjectMap<>();
+      for(final byte[] key : deltas) {
+        final IntList deleted = deltas.get(key).deleted;
+        if(!deleted.isEmpty()) skip.put(get(key), deleted);
+      }
+      final IntList pres = search instanceof final StringRange range ? idRange(range, skip) :
+        idRange((NumericRange) search, skip);
+      for(final byte[] key : deltas) {
+        if(matches(search, key)) {
+          for(final int id : deltas.get(key).ids.toArray()) pres.add(pre(id));
+        }
+      }
+      return pres.sort();
+    }
+
+    final byte[] key = search.token();
+    final Delta delta = deltas.get(key);
+    if(delta == null) return super.pres(search);
+
+    final IndexEntry entry = entry(key);
+    final IntList ids = ids(entry.size, entry.offset), pres = new IntList(count(entry));
+    final int is = ids.size();
+    for(int i = 0; i < is; i++) {
+      final int id = ids.get(i);
+      if(delta.deleted.sortedIndexOf(id) < 0) pres.add(pre(id));
+    }
+    for(final int id : delta.ids.toArray()) pres.add(pre(id));
+    return pres.sort();
+  }
+
+  @Override
+  int count(final IndexEntry entry) {
+    final Delta delta = deltas.isEmpty() ? null : deltas.get(entry.key);
+    return entry.size + (delta != null ? delta.ids.size() - delta.deleted.size() : 0);
   }
 
   @Override
@@ -109,33 +192,60 @@ public final class UpdatableDiskValues extends DiskValues {
   }
 
   /**
-   * Removes record IDs from the index.
+   * Records the deletion of IDs. The delta of the key is merged if the first ID of the list is
+   * deleted, or if no IDs remain.
+   * @param index index of the key
+   * @param key record key
+   * @param ids IDs to be deleted
+   * @return {@code true} if list was completely deleted
+   */
+  private boolean deleteIds(final int index, final byte[] key, final IntList ids) {
+    final long off = idxr.read5(index * 5L);
+    final int size = idxl.readNum(off), first = idxl.readNum();
+
+    final Delta delta = deltas.computeIfAbsent(key, () -> new Delta(type == IndexType.TOKEN));
+    final int is = ids.size();
+    for(int i = 0; i < is; i++) pending += delta.delete(ids.get(i));
+    log(key, DELETE, ids, null);
+
+    if(delta.deleted.sortedIndexOf(first) < 0 && size + delta.ids.size() > delta.deleted.size()) {
+      return false;
+    }
+    log(key, MERGE, null, null);
+    return merge(index, key, delta);
+  }
+
+  /**
+   * Merges the delta of a key into its ID list.
    * @param index index of the key
    * @param key record key
-   * @param values value cache
+   * @param delta delta
    * @return {@code true} if list was completely deleted
    */
-  private boolean deleteIds(final int index, final byte[] key, final ValueCache values) {
+  private boolean merge(final int index, final byte[] key, final Delta delta) {
     final long off = idxr.read5(index * 5L);
-    final IntList ids = values.ids(key).sort();
-    final boolean pos = values.pos(key) != null;
+    final IntList deleted = delta.deleted;
+    final boolean pos = delta.pos != null;
 
-    // read each ID from the list and skip the ones that should be deleted
-    final int oldSize = idxl.readNum(off), delSize = ids.size(), newSize = oldSize - delSize;
+    // read each ID from the list and skip the ones that have been deleted
+    final int oldSize = idxl.readNum(off), newSize = oldSize - deleted.size() + delta.ids.size();
     final IntList newIds = new IntList(newSize), newPos = pos ? new IntList(newSize) : null;
-    for(int o = 0, d = 0, currId = 0; o < oldSize; o++) {
+    for(int o = 0, currId = 0; o < oldSize; o++) {
       currId += idxl.readNum();
       final int currPos = pos ? idxl.readNum() : 0;
-      if(d < delSize && currId == ids.get(d)) {
-        d++;
-      } else {
+      if(deleted.sortedIndexOf(currId) < 0) {
         newIds.add(currId);
         if(newPos != null) newPos.add(currPos);
       }
     }
+    // add new IDs
+    newIds.add(delta.ids.toArray());
+    if(newPos != null) newPos.add(delta.pos.toArray());
 
-    // remove old IDs
+    // remove old IDs and delta
     free.add((int) (idxl.cursor() - off), off);
+    pending -= delta.ids.size() + deleted.size();
+    deltas.remove(key);
 
     // delete cached index entry if no IDs remain
     if(newSize == 0) {
@@ -148,6 +258,78 @@ public final class UpdatableDiskValues extends DiskValues {
     return false;
   }
 
+  /**
+   * Merges all deltas if too many changes are pending, and resets the log.
+   */
+  private void compact() {
+    if(!deltas.isEmpty() && pending < MAXPENDING && end < MAXLOG) return;
+
+    final TokenList keys = new TokenList(deltas).sort();
+    final IntList empty = new IntList();
+    int index = 0;
+    final int sz = size();
+    for(final byte[] key : keys) {
+      index = get(key, index, sz);
+      if(merge(index, key, deltas.get(key))) empty.add(index);
+      index++;
+    }
+    deleteKeys(empty);
+
+    if(end != HEADER) {
+      end = HEADER;
+      idxd.write5(0, end);
+    }
+  }
+
+  /**
+   * Appends an entry to the log.
+   * @param key key
+   * @param op operation
+   * @param ids IDs (can be {@code null})
+   * @param pos positions (can be {@code null})
+   */
+  private void log(final byte[] key, final int op, final IntList ids, final IntList pos) {
+    final int is = ids != null ? ids.size() : 0;
+    idxd.writeToken(end, key);
+    idxd.writeNum(op);
+    idxd.writeNum(is);
+    for(int i = 0; i < is; i++) {
+      idxd.writeNum(ids.get(i));
+      if(pos != null) idxd.writeNum(pos.get(i));
+    }
+    end = idxd.cursor();
+    idxd.write5(0, end);
+  }
+
+  /**
+   * Restores the pending changes from the log.
+   */
+  private void replay() {
+    if(idxd.length() == 0) return;
+    end = idxd.read5(0);
+    final boolean token = type == IndexType.TOKEN;
+    for(long p = HEADER; p < end; p = idxd.cursor()) {
+      final byte[] key = idxd.readToken(p);
+      final int op = idxd.readNum(), is = idxd.readNum();
+      if(op == MERGE) {
+        final Delta delta = deltas.get(key);
+        pending -= delta.ids.size() + delta.deleted.size();
+        deltas.remove(key);
+      } else {
+        final Delta delta = deltas.computeIfAbsent(key, () -> new Delta(token));
+        for(int i = 0; i < is; i++) {
+          final int id = idxd.readNum();
+          if(op == DELETE) {
+            pending += delta.delete(id);
+          } else {
+            delta.add(id, token ? idxd.readNum() : 0);
+            pending++;
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Deletes keys from the index.
    * @param keys list of key positions to delete
@@ -230,6 +412,22 @@ public final class UpdatableDiskValues extends DiskValues {
     idxl.write4(0, sz);
   }
 
+  /**
+   * Checks if a key matches a range query.
+   * @param search range query
+   * @param key key
+   * @return result of check
+   */
+  private static boolean matches(final IndexSearch search, final byte[] key) {
+    if(search instanceof final StringRange range) {
+      final int min = compare(key, range.min()), max = compare(key, range.max());
+      return (min > 0 || min == 0 && range.mni()) && (max < 0 || max == 0 && range.mxi());
+    }
+    final NumericRange range = (NumericRange) search;
+    final double value = toDouble(key);
+    return value >= range.min() && value <= range.max();
+  }
+
   /**
    * Returns a new array which contains ID distances in ascending order, optionally interspersed
    * with token positions.
@@ -263,4 +461,51 @@ public final class UpdatableDiskValues extends DiskValues {
   public String toString() {
     return super.toString() + free;
   }
+
+  /**
+   * Pending changes of an existing key.
+   */
+  private static final class Delta {
+    /** Added IDs (sorted). */
+    final IntList ids = new IntList();
+    /** Token positions of the added IDs (can be {@code null}). */
+    final IntList pos;
+    /** Deleted IDs of the ID list (sorted). */
+    final IntList deleted = new IntList();
+
+    /**
+     * Constructor.
+     * @param token token index
+     */
+    Delta(final boolean token) {
+      pos = token ? new IntList() : null;
+    }
+
+    /**
+     * Adds an ID.
+     * @param id ID
+     * @param ps token position
+     */
+    void add(final int id, final int ps) {
+      final int i = -1 - ids.sortedIndexOf(id);
+      ids.insert(i, id);
+      if(pos != null) pos.insert(i, ps);
+    }
+
+    /**
+     * Deletes an ID.
+     * @param id ID
+     * @return difference in the number of pending IDs
+     */
+    int delete(final int id) {
+      final int i = ids.sortedIndexOf(id);
+      if(i >= 0) {
+        ids.remove(i);
+        if(pos != null) pos.remove(i);
+        return -1;
+      }
+      deleted.insert(-1 - deleted.sortedIndexOf(id), id);
+      return 1;
+    }
+  }
 }
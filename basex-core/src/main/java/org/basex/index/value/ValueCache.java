@@ -10,7 +10,8 @@ import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
- * Caches values and IDs for update operations.
+ * Caches values and IDs for update operations. The texts of full-text index updates are cached
+ * without being tokenized.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
@@ -54,7 +55,7 @@ public final class ValueCache implements Iterable<byte[]> {
     pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
 
     final IndexNames in = new IndexNames(type, data);
-    final boolean text = type == IndexType.TEXT;
+    final boolean text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
     final int pl = pres.size(), kind = text ? Data.TEXT : Data.ATTR;
     for(int p = 0; p < pl; p++) {
       final int pre = pres.get(p);
@@ -64,7 +65,7 @@ public final class ValueCache implements Iterable<byte[]> {
           for(final byte[] token : distinctTokens(data.text(pre, false))) {
             addId(token, pre, ps++, data);
           }
-        } else if(data.textLen(pre, text) <= data.meta.maxlen) {
+        } else if(type == IndexType.FULLTEXT || data.textLen(pre, text) <= data.meta.maxlen) {
           addId(data.text(pre, text), pre, 0, data);
         }
       }
@@ -129,7 +130,7 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return ID list
    */
-  IntList ids(final byte[] key) {
+  public IntList ids(final byte[] key) {
     return ids.get(keys.index(key) - 1);
   }
 
@@ -188,6 +188,11 @@ public class BufferInput extends InputStream {
     return length;
   }
 
+  @Override
+  public int available() throws IOException {
+    return bsize - bpos + (is != null ? is.available() : 0);
+  }
+
   @Override
   public final boolean markSupported() {
     return true;
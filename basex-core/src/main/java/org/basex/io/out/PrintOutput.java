@@ -46,9 +46,10 @@ public class PrintOutput extends OutputStream {
    */
   public static PrintOutput get(final OutputStream out) {
     // buffer a ByteArrayOutputStream as well: its synchronized, array-growing writes are costly
+    // server output writes to the buffered socket output
     return out instanceof final PrintOutput po ? po : new PrintOutput(
-           out instanceof BufferedOutputStream ||
-           out instanceof BufferOutput ? out : new BufferOutput(out));
+           out instanceof BufferedOutputStream || out instanceof BufferOutput ||
+           out instanceof ServerOutput ? out : new BufferOutput(out));
   }
 
   /**
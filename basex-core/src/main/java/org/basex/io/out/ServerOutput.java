@@ -19,9 +19,9 @@ public final class ServerOutput extends OutputStream {
 
   /**
    * Constructor.
-   * @param os output stream to be wrapped
+   * @param os buffered output stream to be wrapped
    */
-  public ServerOutput(final OutputStream os) {
+  public ServerOutput(final PrintOutput os) {
     this.os = os;
   }
 
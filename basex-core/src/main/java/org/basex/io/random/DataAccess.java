@@ -2,6 +2,7 @@ package org.basex.io.random;
 
 import java.io.*;
 
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.util.*;
 
@@ -16,6 +17,16 @@ public final class DataAccess implements Closeable {
   private final Buffers buffers = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** Memory-mapped file (can be {@code null}). */
+  private final MappedFile mapped;
+  /** Channel for reading pages concurrently. */
+  private final ReadChannel channel;
+  /** File id, used for caching pages. */
+  private final long id = PageCache.id();
+  /** Name of the file. */
+  private final String name;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
   /** File size. */
   private long length;
   /** Changed flag. */
@@ -23,6 +34,13 @@ public final class DataAccess implements Closeable {
   /** Offset. */
   private int off;
 
+  /** Thread-local cursors for reading pages without synchronization. */
+  private final ThreadLocal<PageReader> readers;
+  /** Indicates if pages can be read without synchronization (no unwritten changes exist). */
+  private volatile boolean concurrent = true;
+  /** Version, incremented whenever changes have been written back. */
+  private volatile int version;
+
   /**
    * Constructor, initializing the file reader.
    * @param file the file to be read
@@ -33,7 +51,11 @@ public final class DataAccess implements Closeable {
     try {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
+      name = file.name();
       raf = f;
+      mapped = Prop.mmap ? new MappedFile(file.file()) : null;
+      channel = new ReadChannel(file.file());
+      readers = ThreadLocal.withInitial(() -> new PageReader(channel, mapped, id));
       cursor(0);
     } catch(final IOException ex) {
       if(f != null) f.close();
@@ -41,6 +63,14 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  /**
+   * Assigns a journal, which will be used for writing back changes.
+   * @param jrnl journal
+   */
+  public void journal(final Journal jrnl) {
+    journal = jrnl;
+  }
+
   /**
    * Flushes the buffered data.
    */
@@ -50,9 +80,20 @@ public final class DataAccess implements Closeable {
         if(buffer.dirty) writeBlock(buffer);
       }
       if(changed) {
-        raf.setLength(length);
+        // drop mapping before the file is truncated
+        if(mapped != null) mapped.reset();
+        if(journal != null) {
+          journal.write(name, raf, length, Token.EMPTY, 0, length, -1);
+        } else {
+          raf.setLength(length);
+        }
         changed = false;
       }
+      // committed changes must be written back before they can be read concurrently
+      if(!concurrent && (journal == null || !journal.committing())) {
+        version++;
+        concurrent = true;
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -61,6 +102,9 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    if(mapped != null) mapped.close();
+    channel.close();
+    PageCache.drop(id);
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -175,6 +219,60 @@ public final class DataAccess implements Closeable {
     return readBytes(l);
   }
 
+  /**
+   * Reads a {@link Num} value from the specified position without changing the file cursor.
+   * If the file has no unwritten changes, the method can be called by concurrent readers
+   * without synchronization.
+   * @param pos position
+   * @return read num
+   */
+  public int readNumAt(final long pos) {
+    return concurrent ? reader().readNum(pos, length) : readNum(pos);
+  }
+
+  /**
+   * Reads a token from the specified position without changing the file cursor.
+   * If the file has no unwritten changes, the method can be called by concurrent readers
+   * without synchronization.
+   * @param pos position
+   * @return text as byte array
+   */
+  public byte[] readTokenAt(final long pos) {
+    if(!concurrent) return readToken(pos);
+    final PageReader pr = reader();
+    final int len = pr.readNum(pos, length);
+    return pr.readBytes(pos + Num.length(len), len, length);
+  }
+
+  /**
+   * Reads a token from the specified position without changing the file cursor, and returns
+   * it as view. The view belongs to the current thread and is reused for subsequent calls.
+   * If the file has no unwritten changes, the method can be called by concurrent readers
+   * without synchronization.
+   * @param pos position
+   * @return view on the text
+   */
+  public TokenView readViewAt(final long pos) {
+    final PageReader pr = reader();
+    final TokenView view = pr.view;
+    if(!concurrent) {
+      final byte[] token = readToken(pos);
+      return view.assign(token, token.length);
+    }
+    final int len = pr.readNum(pos, length);
+    final byte[] bytes = view.buffer(len);
+    pr.readBytes(pos + Num.length(len), bytes, len, length);
+    return view.assign(bytes, len);
+  }
+
+  /**
+   * Returns the reusable view of the current thread.
+   * @return view
+   */
+  public TokenView view() {
+    return reader().view;
+  }
+
   /**
    * Reads a number of bytes from the specified offset.
    * @param pos position
@@ -221,9 +319,14 @@ public final class DataAccess implements Closeable {
     try {
       if(buffer.dirty) writeBlock(buffer);
       buffer.pos = b;
-      raf.seek(buffer.pos);
-      if(buffer.pos < raf.length())
-        raf.readFully(buffer.data, 0, (int) Math.min(length - buffer.pos, IO.BLOCKSIZE));
+      if(b < raf.length() && !PageCache.read(id + (b >>> IO.BLOCKPOWER), buffer.data)) {
+        final int len = (int) Math.min(length - b, IO.BLOCKSIZE);
+        if(mapped == null || !mapped.read(b, buffer.data, len)) {
+          raf.seek(b);
+          raf.readFully(buffer.data, 0, len);
+        }
+        PageCache.add(id + (b >>> IO.BLOCKPOWER), buffer.data);
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -305,6 +408,7 @@ public final class DataAccess implements Closeable {
    * @param len number of bytes to be written
    */
   public void writeBytes(final byte[] data, final int offset, final int len) {
+    modify();
     final int last = offset + len;
     int o = offset;
 
@@ -377,6 +481,7 @@ public final class DataAccess implements Closeable {
    */
   private synchronized void length(final long len) {
     if(len != length) {
+      modify();
       changed = true;
       length = len;
     }
@@ -398,6 +503,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    modify();
     final Buffer buffer = buffer();
     buffer.dirty = true;
     buffer.data[off++] = (byte) value;
@@ -405,6 +511,24 @@ public final class DataAccess implements Closeable {
     if(nl > length) length(nl);
   }
 
+  /**
+   * Indicates that the file has been modified.
+   * Pages will be read with synchronization until the changes have been written back.
+   */
+  private void modify() {
+    if(concurrent) concurrent = false;
+  }
+
+  /**
+   * Returns the thread-local reader.
+   * @return reader
+   */
+  private PageReader reader() {
+    final PageReader pr = readers.get();
+    pr.version(version);
+    return pr;
+  }
+
   /**
    * Writes the specified block to disk.
    * @param buffer buffer to write
@@ -412,8 +536,15 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    final long key = id + (pos >>> IO.BLOCKPOWER);
+    if(journal != null) {
+      // cached page will be updated when the block is written back
+      journal.write(name, raf, pos, buffer.data, (int) len, -1, key);
+    } else {
+      raf.seek(pos);
+      raf.write(buffer.data, 0, (int) len);
+      PageCache.update(key, buffer.data);
+    }
     buffer.dirty = false;
   }
 
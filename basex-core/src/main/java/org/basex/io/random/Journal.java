@@ -0,0 +1,432 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * Write-ahead journal of a disk-based database.
+ *
+ * While an update is committed, the changed blocks and files are appended to the journal
+ * instead of being written back. The journal is then synchronized with the disk, and the changes
+ * are written back to the database files. As a result, a single sequential write needs to be
+ * synchronized per update. The database files are synchronized by checkpoints, which are run in
+ * the background and which reset the journal. Committed updates that have not reached the disk
+ * will be redone when the database is opened again.
+ *
+ * If blocks need to be written back before an update is committed, a checkpoint is run, and the
+ * database is marked as updating until the update has been committed.
+ *
+ * If synchronization is disabled, the journal is written, but not synchronized with the disk.
+ * Committed updates will then survive crashes of the process, but not of the system. Pages are
+ * updated in the {@link PageCache} after they have been written back.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal {
+  /** Delay before a checkpoint is run (ms). */
+  private static final long DELAY = 1000;
+  /** File signature. */
+  private static final byte[] SIGNATURE = Token.token("BXJ1");
+  /** Size of the file header. */
+  private static final int HEADER = SIGNATURE.length + 8;
+  /** Entry type: written block or file. */
+  private static final int WRITE = 0;
+  /** Entry type: commit. */
+  private static final int COMMIT = 1;
+  /** Scheduler for checkpoints. */
+  private static final ScheduledExecutorService SCHEDULER =
+    Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, Prop.NAME + "Journal");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  /** Database directory. */
+  private final IOFile dir;
+  /** Journal file. */
+  private final IOFile file;
+  /** Writes that will be performed when the update is committed. */
+  private final ArrayList<Write> writes = new ArrayList<>();
+  /** Names of the files that have been changed since the last checkpoint. */
+  private final HashSet<String> changed = new HashSet<>();
+  /** Journal (can be {@code null}). */
+  private RandomAccessFile raf;
+  /** Epoch of the journal entries. */
+  private long epoch;
+  /** Indicates if the journal contains entries. */
+  private boolean logged;
+  /** Indicates if an update is running. */
+  private boolean active;
+  /** Indicates if an update is being committed. */
+  private boolean committing;
+  /** Indicates if the journal will be synchronized with the disk when an update is committed. */
+  private boolean sync = true;
+  /** Indicates if the database has been marked as updating. */
+  private boolean marked;
+  /** Scheduled checkpoint (can be {@code null}). */
+  private ScheduledFuture<?> checkpoint;
+
+  /**
+   * Constructor.
+   * @param dir database directory
+   */
+  public Journal(final IOFile dir) {
+    this.dir = dir;
+    file = MetaData.file(dir, DATAJRN);
+  }
+
+  /**
+   * Starts an update.
+   */
+  public synchronized void begin() {
+    active = true;
+  }
+
+  /**
+   * Starts to commit an update. Until {@link #commit()} is called, changes will be recorded
+   * instead of being written back.
+   * @param snc synchronize the journal with the disk
+   */
+  public synchronized void prepare(final boolean snc) {
+    committing = active;
+    sync = snc;
+  }
+
+  /**
+   * Indicates if an update is being committed. In this case, changes have not been written
+   * back yet and must not be read from the database files.
+   * @return result of check
+   */
+  public synchronized boolean committing() {
+    return committing;
+  }
+
+  /**
+   * Commits an update: the recorded changes are appended to the journal, the journal is
+   * synchronized with the disk (if enabled), and the changes are written back.
+   * @return {@code true} if an update was committed
+   * @throws IOException I/O exception
+   */
+  public synchronized boolean commit() throws IOException {
+    final boolean commit = committing;
+    committing = false;
+    active = false;
+    if(!commit) return false;
+
+    try {
+      // blocks that have been written before: synchronize them first
+      if(marked && sync) sync();
+      if(!writes.isEmpty()) {
+        open();
+        final ArrayOutput ao = new ArrayOutput();
+        for(final Write write : writes) append(ao, write);
+        append(ao, null);
+        raf.seek(raf.length());
+        raf.write(ao.buffer(), 0, (int) ao.size());
+        if(sync) raf.getChannel().force(false);
+        logged = true;
+        unmark();
+        for(final Write write : writes) {
+          write.apply(dir);
+          changed.add(write.name);
+        }
+      }
+    } finally {
+      writes.clear();
+      unmark();
+    }
+    return true;
+  }
+
+  /**
+   * Writes a block to a database file.
+   * @param name name of the database file
+   * @param target open database file (can be {@code null})
+   * @param pos file offset
+   * @param data data
+   * @param len number of bytes to write
+   * @param length new file length ({@code -1}: keep length)
+   * @param key key of the page in the {@link PageCache} ({@code -1}: no page)
+   * @throws IOException I/O exception
+   */
+  public synchronized void write(final String name, final RandomAccessFile target, final long pos,
+      final byte[] data, final int len, final long length, final long key) throws IOException {
+    final Write write = new Write(name, target, pos, Arrays.copyOf(data, len), length, key);
+    if(committing) {
+      writes.add(write);
+    } else {
+      // journal entries must not be redone after uncommitted changes
+      if(logged) checkpoint();
+      if(active && !marked) {
+        if(!updateFile().touch()) throw new IOException("Could not create " + updateFile());
+        marked = true;
+      }
+      write.apply(dir);
+      changed.add(name);
+    }
+  }
+
+  /**
+   * Writes the contents of a database file.
+   * @param name name of the database file
+   * @param contents file contents
+   * @throws IOException I/O exception
+   */
+  public void write(final String name, final byte[] contents) throws IOException {
+    write(name, null, 0, contents, contents.length, contents.length, -1);
+  }
+
+  /**
+   * Schedules a checkpoint.
+   */
+  public synchronized void schedule() {
+    if(checkpoint != null || !logged) return;
+    checkpoint = SCHEDULER.schedule(() -> {
+      synchronized(this) {
+        checkpoint = null;
+        try {
+          if(!active && raf != null) checkpoint();
+        } catch(final IOException ex) {
+          Util.stack(ex);
+        }
+      }
+    }, DELAY, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs a checkpoint: synchronizes all changed files with the disk and resets the journal.
+   * @throws IOException I/O exception
+   */
+  public synchronized void checkpoint() throws IOException {
+    sync();
+    if(logged) reset();
+  }
+
+  /**
+   * Runs a final checkpoint and deletes the journal.
+   * @throws IOException I/O exception
+   */
+  public synchronized void close() throws IOException {
+    if(checkpoint != null) {
+      checkpoint.cancel(false);
+      checkpoint = null;
+    }
+    sync();
+    if(raf != null) {
+      raf.close();
+      raf = null;
+    }
+    logged = false;
+    active = false;
+    unmark();
+    if(!file.delete()) throw new IOException("Could not delete " + file);
+  }
+
+  /**
+   * Redoes the committed updates of a database and deletes the journal.
+   * Must be called before the database is opened.
+   * @param dir database directory
+   * @throws IOException I/O exception
+   */
+  public static void recover(final IOFile dir) throws IOException {
+    final IOFile file = MetaData.file(dir, DATAJRN);
+    if(!file.exists()) return;
+
+    final HashSet<String> names = new HashSet<>();
+    final ByteBuffer bb = ByteBuffer.wrap(file.read());
+    if(bb.remaining() >= HEADER && Arrays.equals(bytes(bb, SIGNATURE.length), SIGNATURE)) {
+      final long epoch = bb.getLong();
+      final ArrayList<Write> writes = new ArrayList<>();
+      // stop at incomplete or outdated entries
+      while(bb.remaining() >= 8) {
+        final int size = bb.getInt();
+        if(size < 1 || size > bb.remaining() - 4) break;
+        final byte[] entry = bytes(bb, size);
+        if(bb.getInt() != crc(epoch, entry)) break;
+
+        try(DataInput in = new DataInput(new IOContent(entry))) {
+          if(in.read() == COMMIT) {
+            for(final Write write : writes) {
+              write.apply(dir);
+              names.add(write.name);
+            }
+            writes.clear();
+          } else {
+            final String name = Token.string(in.readToken());
+            final long pos = in.readLong(), length = in.readLong();
+            writes.add(new Write(name, null, pos, in.readToken(), length, -1));
+          }
+        }
+      }
+    }
+    for(final String name : names) sync(new IOFile(dir, name));
+    if(!file.delete()) throw new IOException("Could not delete " + file);
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Appends an entry to the specified output.
+   * @param ao output
+   * @param write write operation or {@code null} for a commit
+   * @throws IOException I/O exception
+   */
+  private void append(final ArrayOutput ao, final Write write) throws IOException {
+    final ArrayOutput entry = new ArrayOutput();
+    try(DataOutput out = new DataOutput(entry)) {
+      if(write == null) {
+        out.write(COMMIT);
+      } else {
+        out.write(WRITE);
+        out.writeToken(Token.token(write.name));
+        out.writeLong(write.pos);
+        out.writeLong(write.length);
+        out.writeToken(write.data);
+      }
+    }
+    final byte[] bytes = entry.finish();
+    ao.write(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    ao.write(bytes);
+    ao.write(ByteBuffer.allocate(4).putInt(crc(epoch, bytes)).array());
+  }
+
+  /**
+   * Opens the journal.
+   * @throws IOException I/O exception
+   */
+  private void open() throws IOException {
+    if(raf != null) return;
+    raf = new RandomAccessFile(file.file(), "rw");
+    reset();
+  }
+
+  /**
+   * Resets the journal. A new epoch invalidates all existing entries.
+   * @throws IOException I/O exception
+   */
+  private void reset() throws IOException {
+    epoch = System.nanoTime();
+    raf.setLength(0);
+    raf.write(ByteBuffer.allocate(HEADER).put(SIGNATURE).putLong(epoch).array());
+    raf.getChannel().force(true);
+    logged = false;
+  }
+
+  /**
+   * Synchronizes all changed files with the disk.
+   * @throws IOException I/O exception
+   */
+  private void sync() throws IOException {
+    for(final String name : changed) sync(new IOFile(dir, name));
+    changed.clear();
+  }
+
+  /**
+   * Removes the update mark.
+   */
+  private void unmark() {
+    if(marked) {
+      updateFile().delete();
+      marked = false;
+    }
+  }
+
+  /**
+   * Returns the file that marks an ongoing update.
+   * @return file
+   */
+  private IOFile updateFile() {
+    return MetaData.file(dir, DATAUPD);
+  }
+
+  /**
+   * Synchronizes a file with the disk.
+   * @param target file
+   * @throws IOException I/O exception
+   */
+  private static void sync(final IOFile target) throws IOException {
+    if(!target.exists()) return;
+    try(FileChannel fc = FileChannel.open(target.file().toPath(), StandardOpenOption.WRITE)) {
+      fc.force(true);
+    }
+  }
+
+  /**
+   * Returns the next bytes from a buffer.
+   * @param bb byte buffer
+   * @param size number of bytes
+   * @return bytes
+   */
+  private static byte[] bytes(final ByteBuffer bb, final int size) {
+    final byte[] bytes = new byte[size];
+    bb.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Computes the checksum of a journal entry.
+   * @param epoch epoch
+   * @param bytes entry
+   * @return checksum
+   */
+  private static int crc(final long epoch, final byte[] bytes) {
+    final CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(8).putLong(epoch).array());
+    crc.update(bytes);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Write operation.
+   * @param name name of the database file
+   * @param target open database file (can be {@code null})
+   * @param pos file offset
+   * @param data data
+   * @param length new file length ({@code -1}: keep length)
+   * @param key key of the page in the {@link PageCache} ({@code -1}: no page)
+   */
+  private record Write(String name, RandomAccessFile target, long pos, byte[] data, long length,
+      long key) {
+    /**
+     * Writes the data to the database file and updates the cached page.
+     * @param dir database directory
+     * @throws IOException I/O exception
+     */
+    void apply(final IOFile dir) throws IOException {
+      if(target != null) {
+        apply(target);
+      } else {
+        try(RandomAccessFile f = new RandomAccessFile(new IOFile(dir, name).file(), "rw")) {
+          apply(f);
+        }
+      }
+      if(key != -1) PageCache.update(key, data);
+    }
+
+    /**
+     * Writes the data to the specified file.
+     * @param f file
+     * @throws IOException I/O exception
+     */
+    private void apply(final RandomAccessFile f) throws IOException {
+      f.seek(pos);
+      f.write(data);
+      if(length != -1) f.setLength(length);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.nio.file.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Read-only, memory-mapped view on a database file.
+ *
+ * The file is mapped in segments. Segments are remapped if data is requested beyond the currently
+ * mapped size, which happens after the file has grown. As the file is updated via its channel,
+ * the mapping reflects all changes that have been written back.
+ *
+ * A separate channel is used for mapping the file: channels are closed if a thread is interrupted
+ * while accessing them, and the channel will then be reopened with the next request.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class MappedFile {
+  /** Power of the segment size (must be larger than {@link IO#BLOCKPOWER}). */
+  private static final int SEGMENTPOWER = 30;
+  /** Segment size. */
+  private static final long SEGMENTSIZE = 1L << SEGMENTPOWER;
+
+  /** File. */
+  private final File file;
+  /** File channel (can be {@code null}). */
+  private FileChannel channel;
+  /** Mapped segments. */
+  private volatile MappedByteBuffer[] segments = {};
+  /** Mapped size. */
+  private volatile long size;
+
+  /**
+   * Constructor.
+   * @param file file to be mapped
+   */
+  MappedFile(final File file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns the offset of a file position in its segment.
+   * @param pos file position
+   * @return offset
+   */
+  static int offset(final long pos) {
+    return (int) (pos & SEGMENTSIZE - 1);
+  }
+
+  /**
+   * Copies bytes from the mapped file to the specified array.
+   * The requested range must not cross a block boundary.
+   * @param pos file position
+   * @param data target array
+   * @param len number of bytes to copy
+   * @return {@code true} if the bytes were copied, {@code false} if the range is not available
+   */
+  boolean read(final long pos, final byte[] data, final int len) {
+    final ByteBuffer segment = segment(pos + len);
+    if(segment == null) return false;
+    segment.get(offset(pos), data, 0, len);
+    return true;
+  }
+
+  /**
+   * Returns the segment that contains the byte before the specified position.
+   * @param end end position
+   * @return segment or {@code null} if the position is not available
+   */
+  ByteBuffer segment(final long end) {
+    if(end > size && !remap(end)) return null;
+    return segments[(int) (end - 1 >>> SEGMENTPOWER)];
+  }
+
+  /**
+   * Drops the mapping. Segments will be remapped with the next request.
+   */
+  synchronized void reset() {
+    size = 0;
+    segments = new MappedByteBuffer[0];
+  }
+
+  /**
+   * Drops the mapping and closes the channel.
+   */
+  synchronized void close() {
+    reset();
+    if(channel != null) {
+      try {
+        channel.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+
+  /**
+   * Maps the file up to its current size.
+   * @param end position that needs to be accessible
+   * @return {@code true} if the specified position can be accessed
+   */
+  private synchronized boolean remap(final long end) {
+    if(end <= size) return true;
+    try {
+      if(channel == null || !channel.isOpen()) {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      }
+      final long sz = channel.size();
+      if(end > sz) return false;
+
+      final int ss = (int) (sz + SEGMENTSIZE - 1 >>> SEGMENTPOWER);
+      final MappedByteBuffer[] segs = new MappedByteBuffer[ss];
+      // reuse complete segments
+      final int complete = (int) (size >>> SEGMENTPOWER);
+      System.arraycopy(segments, 0, segs, 0, Math.min(complete, ss));
+      for(int s = complete; s < ss; s++) {
+        final long start = (long) s << SEGMENTPOWER;
+        segs[s] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENTSIZE, sz - start));
+      }
+      segments = segs;
+      size = sz;
+      return true;
+    } catch(final IOException ex) {
+      // fall back to regular file access
+      Util.debug(ex);
+      return false;
+    }
+  }
+}
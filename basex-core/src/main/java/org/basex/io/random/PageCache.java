@@ -0,0 +1,311 @@
+package org.basex.io.random;
+
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Size-bounded page cache, which is shared by all opened database files.
+ *
+ * The cache is consulted whenever a page is missing in the buffers of a {@link TableDiskAccess}
+ * or {@link DataAccess} instance. It only contains clean pages: its contents always reflect the
+ * contents of the files on disk. The simplified 2Q policy is used for eviction:
+ * pages that are requested for the first time are placed in a small FIFO queue. Pages will only
+ * be moved to the main LRU queue if they are requested again after having been evicted from the
+ * FIFO queue, which is tracked by a list of recently evicted page keys. As a result, pages
+ * requested by single scans will not displace frequently accessed pages.
+ *
+ * Large caches are divided into segments with separate locks, and the queues are maintained per
+ * segment. The keys of the cached pages are indexed by their file id. When a file is closed,
+ * its pages are removed, and its id is released for reuse.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCache {
+  /** Number of bits used for page numbers in a key. */
+  private static final int PAGEBITS = 40;
+  /** Maximum number of file ids (keys are positive). */
+  private static final long MAXIDS = 1L << Long.SIZE - 1 - PAGEBITS;
+  /** Maximum number of segments (must be a power of two). */
+  private static final int SEGMENTS = 64;
+  /** Minimum number of pages per segment. */
+  private static final int MINPAGES = 1024;
+  /** Ids of closed files, which can be reused. */
+  private static final LongList FREE = new LongList();
+  /** Ids of opened files. */
+  private static final BitSet OPENED = new BitSet();
+
+  /** Counter for file ids. */
+  private static long ids;
+
+  /** Segments (empty if the cache is disabled). */
+  private static volatile Segment[] segments = {};
+
+  /** Private constructor. */
+  private PageCache() { }
+
+  /**
+   * Assigns a new cache size and removes pages that exceed the new size.
+   * @param bytes maximum size in bytes (the cache will be disabled if the value is {@code 0})
+   */
+  public static synchronized void size(final long bytes) {
+    final int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(0, bytes) >>> IO.BLOCKPOWER);
+    final int sl = capacity == 0 ? 0 :
+      Math.min(SEGMENTS, Integer.highestOneBit(Math.max(1, capacity / MINPAGES)));
+    if(sl == segments.length) {
+      for(final Segment segment : segments) segment.size(capacity / sl);
+    } else {
+      final Segment[] segs = new Segment[sl];
+      for(int s = 0; s < sl; s++) segs[s] = new Segment(capacity / sl);
+      segments = segs;
+    }
+  }
+
+  /**
+   * Returns a new file id, which will be used to build the keys of the pages of a file.
+   * The ids of closed files are reused.
+   * @return file id
+   */
+  static long id() {
+    final long id;
+    synchronized(FREE) {
+      if(!FREE.isEmpty()) id = FREE.pop();
+      else if(++ids < MAXIDS) id = ids;
+      else throw Util.notExpected("Page cache: no file ids left.");
+      OPENED.set((int) id);
+    }
+    return id << PAGEBITS;
+  }
+
+  /**
+   * Copies a cached page to the specified buffer.
+   * @param key key of the page (file id, combined with the page number)
+   * @param data target buffer
+   * @return {@code true} if the page was found in the cache
+   */
+  static boolean read(final long key, final byte[] data) {
+    final Segment segment = segment(key);
+    return segment != null && segment.read(key, data);
+  }
+
+  /**
+   * Adds a page that has been read from disk.
+   * @param key key of the page
+   * @param data page contents
+   */
+  static void add(final long key, final byte[] data) {
+    final Segment segment = segment(key);
+    if(segment != null) segment.add(key, data);
+  }
+
+  /**
+   * Updates a page that has been written to disk.
+   * @param key key of the page
+   * @param data page contents (may be shorter than a page if the page is the last of a file)
+   */
+  static void update(final long key, final byte[] data) {
+    final Segment segment = segment(key);
+    if(segment != null) segment.update(key, data);
+  }
+
+  /**
+   * Removes all pages of a file and releases its id. Called when a file is closed: pages of
+   * dropped or renamed files will never be requested again, and they must not be returned if
+   * the id is reused.
+   * @param id file id
+   */
+  static void drop(final long id) {
+    // ignore repeated calls
+    final int file = (int) (id >>> PAGEBITS);
+    synchronized(FREE) {
+      if(!OPENED.get(file)) return;
+      OPENED.clear(file);
+    }
+    for(final Segment segment : segments) segment.drop(id);
+    synchronized(FREE) { FREE.push(file); }
+  }
+
+  /**
+   * Returns cache statistics.
+   * @return maximum and current size (bytes), hits, misses, evictions
+   */
+  public static long[] stats() {
+    final long[] stats = new long[5];
+    for(final Segment segment : segments) segment.stats(stats);
+    stats[0] <<= IO.BLOCKPOWER;
+    stats[1] <<= IO.BLOCKPOWER;
+    return stats;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns the segment of a page.
+   * @param key key of the page
+   * @return segment, or {@code null} if the cache is disabled
+   */
+  private static Segment segment(final long key) {
+    final Segment[] segs = segments;
+    final int sl = segs.length;
+    return sl == 0 ? null : segs[(int) (key * 0x9E3779B97F4A7C15L >>> 32) & sl - 1];
+  }
+
+  /**
+   * Segment of the page cache.
+   */
+  private static final class Segment {
+    /** Pages that have been requested once (FIFO order). */
+    private final LinkedHashMap<Long, byte[]> recent = new LinkedHashMap<>();
+    /** Pages that have been requested repeatedly (LRU order). */
+    private final LinkedHashMap<Long, byte[]> frequent = new LinkedHashMap<>(16, 0.75f, true);
+    /** Keys of pages that have recently been evicted from the FIFO queue. */
+    private final LinkedHashSet<Long> ghosts = new LinkedHashSet<>();
+    /** Keys of the cached pages, indexed by file id. */
+    private final HashMap<Long, HashSet<Long>> files = new HashMap<>();
+
+    /** Maximum number of cached pages. */
+    private int capacity;
+    /** Number of hits. */
+    private long hits;
+    /** Number of misses. */
+    private long misses;
+    /** Number of evictions. */
+    private long evictions;
+
+    /**
+     * Constructor.
+     * @param capacity maximum number of cached pages
+     */
+    private Segment(final int capacity) {
+      this.capacity = capacity;
+    }
+
+    /**
+     * Assigns a new capacity and removes pages that exceed the new capacity.
+     * @param cap maximum number of cached pages
+     */
+    private synchronized void size(final int cap) {
+      capacity = cap;
+      while(pages() > capacity) evict();
+      while(ghosts.size() > capacity >>> 1) remove(ghosts);
+    }
+
+    /**
+     * Copies a cached page to the specified buffer.
+     * @param key key of the page
+     * @param data target buffer
+     * @return {@code true} if the page was found
+     */
+    private synchronized boolean read(final long key, final byte[] data) {
+      byte[] page = frequent.get(key);
+      if(page == null) page = recent.get(key);
+      if(page == null) {
+        misses++;
+        return false;
+      }
+      hits++;
+      System.arraycopy(page, 0, data, 0, IO.BLOCKSIZE);
+      return true;
+    }
+
+    /**
+     * Adds a page.
+     * @param key key of the page
+     * @param data page contents
+     */
+    private synchronized void add(final long key, final byte[] data) {
+      if(frequent.containsKey(key) || recent.containsKey(key)) return;
+
+      // reuse the array of an evicted page
+      final byte[] page = pages() < capacity ? new byte[IO.BLOCKSIZE] : evict();
+      System.arraycopy(data, 0, page, 0, IO.BLOCKSIZE);
+      if(ghosts.remove(key)) frequent.put(key, page);
+      else recent.put(key, page);
+      files.computeIfAbsent(key >>> PAGEBITS, f -> new HashSet<>()).add(key);
+    }
+
+    /**
+     * Updates a page.
+     * @param key key of the page
+     * @param data page contents
+     */
+    private synchronized void update(final long key, final byte[] data) {
+      byte[] page = frequent.get(key);
+      if(page == null) page = recent.get(key);
+      if(page != null) System.arraycopy(data, 0, page, 0, data.length);
+    }
+
+    /**
+     * Removes all pages of a file. Keys of evicted pages are not removed: if the id is reused,
+     * they may only affect the queue to which a page is added.
+     * @param id file id
+     */
+    private synchronized void drop(final long id) {
+      final HashSet<Long> keys = files.remove(id >>> PAGEBITS);
+      if(keys != null) {
+        for(final Long key : keys) {
+          if(recent.remove(key) == null) frequent.remove(key);
+        }
+      }
+    }
+
+    /**
+     * Adds the statistics of this segment.
+     * @param stats statistics (maximum and current size in pages, hits, misses, evictions)
+     */
+    private synchronized void stats(final long[] stats) {
+      stats[0] += capacity;
+      stats[1] += pages();
+      stats[2] += hits;
+      stats[3] += misses;
+      stats[4] += evictions;
+    }
+
+    /**
+     * Returns the number of cached pages.
+     * @return number of pages
+     */
+    private int pages() {
+      return recent.size() + frequent.size();
+    }
+
+    /**
+     * Evicts a page. Pages from the FIFO queue are evicted first if the queue exceeds
+     * a quarter of the segment capacity.
+     * @return array of the evicted page
+     */
+    private byte[] evict() {
+      evictions++;
+      final Map.Entry<Long, byte[]> entry;
+      if(frequent.isEmpty() || recent.size() > capacity >>> 2) {
+        entry = remove(recent.entrySet());
+        // remember key of evicted page; limit number of remembered keys to half of the capacity
+        ghosts.add(entry.getKey());
+        if(ghosts.size() > Math.max(1, capacity >>> 1)) remove(ghosts);
+      } else {
+        entry = remove(frequent.entrySet());
+      }
+      final long key = entry.getKey();
+      final HashSet<Long> keys = files.get(key >>> PAGEBITS);
+      keys.remove(key);
+      if(keys.isEmpty()) files.remove(key >>> PAGEBITS);
+      return entry.getValue();
+    }
+  }
+
+  /**
+   * Removes the first entry of the specified collection.
+   * @param <E> type of the entries
+   * @param entries entries
+   * @return removed entry
+   */
+  private static <E> E remove(final Collection<E> entries) {
+    final Iterator<E> iter = entries.iterator();
+    final E entry = iter.next();
+    iter.remove();
+    return entry;
+  }
+}
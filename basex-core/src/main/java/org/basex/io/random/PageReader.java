@@ -0,0 +1,182 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Thread-local cursor for reading pages of a database file without synchronization.
+ *
+ * Readers are only used if the buffers of the owning file access contain no unwritten changes.
+ * Pages are accessed in the mapped file if available. Otherwise, they are copied from the
+ * {@link PageCache} or read from disk. Disk reads are positional and use a separate
+ * {@link ReadChannel}, which is not closed if the reading thread is interrupted. Readers must not
+ * reference the file access: otherwise, the thread-local values would keep closed files reachable.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class PageReader {
+  /** Channel for reading pages. */
+  private final ReadChannel channel;
+  /** Memory-mapped file (can be {@code null}). */
+  private final MappedFile mapped;
+  /** File id, used for caching pages. */
+  private final long id;
+  /** Reusable view on tokens. */
+  final TokenView view = new TokenView();
+  /** Page array (used if the file is not mapped). */
+  private final byte[] data = new byte[IO.BLOCKSIZE];
+  /** Page array, wrapped in a buffer. */
+  private final ByteBuffer wrapped = ByteBuffer.wrap(data);
+
+  /** Version of the file access when the reader was last used. */
+  int version = -1;
+  /** Index of the current page in the page directory (only used for tables). */
+  int page = -1;
+  /** PRE value of the first entry in the current page (only used for tables). */
+  int firstPre = -1;
+  /** First PRE value of the next page (only used for tables). */
+  int nextPre = -1;
+
+  /** Buffer with the contents of the current page. */
+  private ByteBuffer buffer = wrapped;
+  /** Offset of the current page in the buffer. */
+  private int offset;
+  /** File offset of the current page ({@code -1}: no page). */
+  private long pos = -1;
+
+  /**
+   * Constructor.
+   * @param channel channel for reading pages
+   * @param mapped memory-mapped file (can be {@code null})
+   * @param id file id
+   */
+  PageReader(final ReadChannel channel, final MappedFile mapped, final long id) {
+    this.channel = channel;
+    this.mapped = mapped;
+    this.id = id;
+  }
+
+  /**
+   * Invalidates the reader if the file access has been modified.
+   * @param vrsn current version of the file access
+   */
+  void version(final int vrsn) {
+    if(version == vrsn) return;
+    version = vrsn;
+    page = -1;
+    firstPre = -1;
+    nextPre = -1;
+    pos = -1;
+  }
+
+  /**
+   * Returns a byte of the current page.
+   * @param off offset in the page
+   * @return byte as unsigned integer
+   */
+  int get(final int off) {
+    return buffer.get(offset + off) & 0xFF;
+  }
+
+  /**
+   * Returns a byte at the specified file position and loads the page if necessary.
+   * @param p file position
+   * @param length file length
+   * @return byte as unsigned integer
+   */
+  int get(final long p, final long length) {
+    return get(page(p, length));
+  }
+
+  /**
+   * Reads a compressed number at the specified file position.
+   * @param p file position
+   * @param length file length
+   * @return number
+   */
+  int readNum(final long p, final long length) {
+    final int value = get(p, length);
+    return switch(value & 0xC0) {
+      case 0    -> value;
+      case 0x40 -> (value - 0x40 << 8) + get(p + 1, length);
+      case 0x80 -> (value - 0x80 << 24) + (get(p + 1, length) << 16) +
+        (get(p + 2, length) << 8) + get(p + 3, length);
+      default   -> (get(p + 1, length) << 24) + (get(p + 2, length) << 16) +
+        (get(p + 3, length) << 8) + get(p + 4, length);
+    };
+  }
+
+  /**
+   * Reads bytes from the specified file position.
+   * @param p file position
+   * @param len number of bytes
+   * @param length file length
+   * @return bytes
+   */
+  byte[] readBytes(final long p, final int len, final long length) {
+    final byte[] bytes = new byte[len];
+    readBytes(p, bytes, len, length);
+    return bytes;
+  }
+
+  /**
+   * Reads bytes from the specified file position to the specified array.
+   * @param p file position
+   * @param bytes target array
+   * @param len number of bytes
+   * @param length file length
+   */
+  void readBytes(final long p, final byte[] bytes, final int len, final long length) {
+    for(int b = 0; b < len;) {
+      final int off = page(p + b, length), l = Math.min(len - b, IO.BLOCKSIZE - off);
+      buffer.get(offset + off, bytes, b, l);
+      b += l;
+    }
+  }
+
+  /**
+   * Loads the page of the specified file position.
+   * @param p file position
+   * @param length file length
+   * @return offset of the position in the page
+   */
+  private int page(final long p, final long length) {
+    final int off = (int) (p & IO.BLOCKSIZE - 1);
+    final long ps = p - off;
+    if(ps != pos) read(ps, (int) Math.min(length - ps, IO.BLOCKSIZE));
+    return off;
+  }
+
+  /**
+   * Reads a page.
+   * @param ps file position of the page
+   * @param len number of bytes to read
+   */
+  void read(final long ps, final int len) {
+    pos = -1;
+    final ByteBuffer segment = mapped != null ? mapped.segment(ps + len) : null;
+    if(segment != null) {
+      buffer = segment;
+      offset = MappedFile.offset(ps);
+    } else {
+      buffer = wrapped;
+      offset = 0;
+      final long key = id + (ps >>> IO.BLOCKPOWER);
+      if(!PageCache.read(key, data)) {
+        try {
+          channel.read(wrapped.clear().limit(len), ps);
+          wrapped.clear();
+        } catch(final IOException ex) {
+          throw new RuntimeException(Util.info(ex));
+        }
+        PageCache.add(key, data);
+      }
+    }
+    pos = ps;
+  }
+}
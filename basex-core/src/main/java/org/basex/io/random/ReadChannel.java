@@ -0,0 +1,103 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.util.*;
+
+/**
+ * Read-only channel for positional reads of a database file.
+ *
+ * Channels are closed if a thread is interrupted while accessing them. The channel of the file
+ * access, which is used for writing, must not be closed by concurrent readers. Readers use this
+ * separate channel instead, which will be reopened if it has been closed by an interrupt.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class ReadChannel {
+  /** File. */
+  private final File file;
+  /** File channel (can be {@code null}). */
+  private volatile FileChannel channel;
+  /** Closed flag. */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param file file to be read
+   */
+  ReadChannel(final File file) {
+    this.file = file;
+  }
+
+  /**
+   * Reads bytes from the specified file position until the buffer is full.
+   * @param bb target buffer
+   * @param pos file position
+   * @throws IOException I/O exception
+   * @throws JobException if the current thread was interrupted
+   */
+  void read(final ByteBuffer bb, final long pos) throws IOException {
+    final int start = bb.position();
+    while(true) {
+      final FileChannel fc = channel();
+      try {
+        while(bb.hasRemaining()) {
+          if(fc.read(bb, pos + bb.position() - start) == -1) throw new EOFException();
+        }
+        return;
+      } catch(final ClosedByInterruptException ex) {
+        // channel was closed by the interrupt of this thread: abort reading
+        throw new JobException(Text.INTERRUPTED, ex);
+      } catch(final ClosedChannelException ex) {
+        // channel was closed by another thread: reopen it and read the page again
+        Util.debug(ex);
+        bb.position(start);
+      }
+    }
+  }
+
+  /**
+   * Closes the channel. It will not be reopened anymore.
+   */
+  synchronized void close() {
+    closed = true;
+    if(channel != null) {
+      try {
+        channel.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+
+  /**
+   * Returns an open channel.
+   * @return channel
+   * @throws IOException I/O exception
+   */
+  private FileChannel channel() throws IOException {
+    final FileChannel fc = channel;
+    return fc != null && fc.isOpen() ? fc : open();
+  }
+
+  /**
+   * Opens the channel if it has not been opened yet, or if it has been closed by an interrupt.
+   * @return channel
+   * @throws IOException I/O exception
+   */
+  private synchronized FileChannel open() throws IOException {
+    if(closed) throw new ClosedChannelException();
+    FileChannel fc = channel;
+    if(fc == null || !fc.isOpen()) {
+      fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      channel = fc;
+    }
+    return fc;
+  }
+}
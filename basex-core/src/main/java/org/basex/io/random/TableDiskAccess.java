@@ -10,6 +10,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
@@ -23,12 +24,20 @@ import org.basex.util.*;
 public final class TableDiskAccess extends TableAccess {
   /** Buffer manager. */
   private final Buffers buffers = new Buffers();
+  /** File id, used for caching pages. */
+  private final long id = PageCache.id();
   /** File storing all pages. */
   private final RandomAccessFile file;
+  /** Memory-mapped file (can be {@code null}). */
+  private final MappedFile mapped;
+  /** Channel for reading pages concurrently. */
+  private final ReadChannel channel;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
 
   /** First PRE values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -46,6 +55,13 @@ public final class TableDiskAccess extends TableAccess {
   /** First PRE value of the next page. */
   private int nextPre = -1;
 
+  /** Thread-local cursors for reading pages without synchronization. */
+  private final ThreadLocal<PageReader> readers;
+  /** Indicates if pages can be read without synchronization (no unwritten changes exist). */
+  private volatile boolean concurrent = true;
+  /** Version, incremented whenever changes have been written back. */
+  private volatile int version;
+
   /**
    * Constructor.
    * @param meta meta data
@@ -78,6 +94,9 @@ public final class TableDiskAccess extends TableAccess {
 
     // initialize data file
     file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
+    mapped = Prop.mmap ? new MappedFile(meta.dbFile(DATATBL).file()) : null;
+    channel = new ReadChannel(meta.dbFile(DATATBL).file());
+    readers = ThreadLocal.withInitial(() -> new PageReader(channel, mapped, id));
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
   }
 
@@ -93,20 +112,35 @@ public final class TableDiskAccess extends TableAccess {
 
     try(FileChannel fc = new RandomAccessFile(table.file(), "rw").getChannel()) {
       return fc.tryLock() == null;
-    } catch(final IOException ex) {
+    } catch(final IOException | OverlappingFileLockException ex) {
       Util.debug(ex);
       return true;
     }
   }
 
+  /**
+   * Assigns a journal, which will be used for writing back changes.
+   * @param jrnl journal
+   */
+  public void journal(final Journal jrnl) {
+    journal = jrnl;
+  }
+
   @Override
   public synchronized void flush(final boolean all) throws IOException {
     for(final Buffer buffer : buffers.all()) {
       write(buffer);
     }
+    // committed changes must be written back before they can be read concurrently
+    if(!concurrent && (journal == null || !journal.committing())) {
+      version++;
+      concurrent = true;
+    }
     if(!dirty || !all) return;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
+    final IOFile index = meta.dbFile(DATATBL + 'i');
+    final ArrayOutput ao = journal != null ? new ArrayOutput() : null;
+    try(DataOutput out = ao != null ? new DataOutput(ao) : new DataOutput(index)) {
       final int p = pages;
       boolean regular = true;
 
@@ -132,12 +166,16 @@ public final class TableDiskAccess extends TableAccess {
         out.writeLongs(usedPages.toArray());
       }
     }
+    if(ao != null) journal.write(index.name(), ao.finish());
     dirty = false;
   }
 
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    if(mapped != null) mapped.close();
+    channel.close();
+    PageCache.drop(id);
     file.close();
   }
 
@@ -156,37 +194,67 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return data[o] & 0xFF;
+  public int read1(final int pre, final int offset) {
+    if(!concurrent) {
+      synchronized(this) {
+        final int o = offset + cursor(pre);
+        final byte[] data = buffers.current().data;
+        return data[o] & 0xFF;
+      }
+    }
+    final PageReader pr = reader(pre);
+    final int o = offset + (pre - pr.firstPre << IO.NODEPOWER);
+    return pr.get(o);
   }
 
   @Override
-  public synchronized int read2(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+  public int read2(final int pre, final int offset) {
+    if(!concurrent) {
+      synchronized(this) {
+        final int o = offset + cursor(pre);
+        final byte[] data = buffers.current().data;
+        return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+      }
+    }
+    final PageReader pr = reader(pre);
+    final int o = offset + (pre - pr.firstPre << IO.NODEPOWER);
+    return (pr.get(o) << 8) + pr.get(o + 1);
   }
 
   @Override
-  public synchronized int read4(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
-      ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+  public int read4(final int pre, final int offset) {
+    if(!concurrent) {
+      synchronized(this) {
+        final int o = offset + cursor(pre);
+        final byte[] data = buffers.current().data;
+        return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
+          ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+      }
+    }
+    final PageReader pr = reader(pre);
+    final int o = offset + (pre - pr.firstPre << IO.NODEPOWER);
+    return (pr.get(o) << 24) + (pr.get(o + 1) << 16) + (pr.get(o + 2) << 8) + pr.get(o + 3);
   }
 
   @Override
-  public synchronized long read5(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
-      ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+  public long read5(final int pre, final int offset) {
+    if(!concurrent) {
+      synchronized(this) {
+        final int o = offset + cursor(pre);
+        final byte[] data = buffers.current().data;
+        return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
+          ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+      }
+    }
+    final PageReader pr = reader(pre);
+    final int o = offset + (pre - pr.firstPre << IO.NODEPOWER);
+    return ((long) pr.get(o) << 32) + ((long) pr.get(o + 1) << 24) + (pr.get(o + 2) << 16) +
+      (pr.get(o + 3) << 8) + pr.get(o + 4);
   }
 
   @Override
   public void write1(final int pre, final int offset, final int value) {
+    modify();
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     buffer.data[o] = (byte) value;
@@ -195,6 +263,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int offset, final int value) {
+    modify();
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -205,6 +274,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int offset, final int value) {
+    modify();
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -217,6 +287,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int offset, final long value) {
+    modify();
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -446,6 +517,7 @@ public final class TableDiskAccess extends TableAccess {
    * Marks the data structures as dirty.
    */
   private void dirty() {
+    modify();
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -464,30 +536,67 @@ public final class TableDiskAccess extends TableAccess {
    * @return offset of the entry in the page
    */
   private int cursor(final int pre) {
-    int fp = firstPre, np = nextPre;
-    if(pre < fp || pre >= np) {
-      final int last = used - 1;
-      int l = 0, h = last, m = page;
-      while(l <= h) {
-        if(pre < fp) h = m - 1;
-        else if(pre >= np) l = m + 1;
-        else break;
-        m = h + l >>> 1;
-        fp = fpre(m);
-        np = m == last ? nodes : fpre(m + 1);
-      }
-      if(l > h) throw Util.notExpected(
-          "Data Access out of bounds:" +
-          "\n- PRE value: " + pre +
-          "\n- table size: " + nodes +
-          "\n- first/next PRE value: " + fp + '/' + np +
-          "\n- #total/used pages: " + pages + '/' + used +
-          "\n- accessed page: " + m + " (" + l + " > " + h + ']');
-      readPage(m);
-    }
+    if(pre < firstPre || pre >= nextPre) readPage(page(pre, page, firstPre, nextPre));
     return pre - firstPre << IO.NODEPOWER;
   }
 
+  /**
+   * Returns a thread-local reader, which points to the page containing the entry for the
+   * specified PRE value.
+   * @param pre PRE of the entry to search for
+   * @return reader
+   */
+  private PageReader reader(final int pre) {
+    final PageReader pr = readers.get();
+    pr.version(version);
+    if(pre < pr.firstPre || pre >= pr.nextPre) {
+      final int pg = page(pre, pr.page, pr.firstPre, pr.nextPre);
+      pr.page = pg;
+      pr.firstPre = fpre(pg);
+      pr.nextPre = pg + 1 >= used ? nodes : fpre(pg + 1);
+      pr.read((long) (pageIndex == null ? pg : pageIndex[pg]) << IO.BLOCKPOWER, IO.BLOCKSIZE);
+    }
+    return pr;
+  }
+
+  /**
+   * Searches for the page containing the entry for the specified PRE value.
+   * @param pre PRE of the entry to search for
+   * @param start index of the page to start from
+   * @param first first PRE value of the start page
+   * @param next first PRE value of the page after the start page
+   * @return index of the page
+   */
+  private int page(final int pre, final int start, final int first, final int next) {
+    int fp = first, np = next;
+    final int last = used - 1;
+    int l = 0, h = last, m = start;
+    while(l <= h) {
+      if(pre < fp) h = m - 1;
+      else if(pre >= np) l = m + 1;
+      else break;
+      m = h + l >>> 1;
+      fp = fpre(m);
+      np = m == last ? nodes : fpre(m + 1);
+    }
+    if(l > h) throw Util.notExpected(
+        "Data Access out of bounds:" +
+        "\n- PRE value: " + pre +
+        "\n- table size: " + nodes +
+        "\n- first/next PRE value: " + fp + '/' + np +
+        "\n- #total/used pages: " + pages + '/' + used +
+        "\n- accessed page: " + m + " (" + l + " > " + h + ']');
+    return m;
+  }
+
+  /**
+   * Indicates that the table has been modified.
+   * Pages will be read with synchronization until the changes have been written back.
+   */
+  private void modify() {
+    if(concurrent) concurrent = false;
+  }
+
   /**
    * Updates the page pointers.
    * @param pre page index
@@ -529,9 +638,13 @@ public final class TableDiskAccess extends TableAccess {
       buffer.pos = pre;
       if(pre >= pages) {
         pages = pre + 1;
-      } else {
-        file.seek(buffer.pos << IO.BLOCKPOWER);
-        file.readFully(buffer.data);
+      } else if(!PageCache.read(id + pre, buffer.data)) {
+        final long pos = buffer.pos << IO.BLOCKPOWER;
+        if(mapped == null || !mapped.read(pos, buffer.data, IO.BLOCKSIZE)) {
+          file.seek(pos);
+          file.readFully(buffer.data);
+        }
+        PageCache.add(id + pre, buffer.data);
       }
     } catch(final IOException ex) {
       throw new RuntimeException(Util.info(ex));
@@ -546,8 +659,16 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer buffer) throws IOException {
     if(!buffer.dirty) return;
 
-    file.seek(buffer.pos << IO.BLOCKPOWER);
-    file.write(buffer.data);
+    final long pos = buffer.pos << IO.BLOCKPOWER;
+    if(journal != null) {
+      // cached page will be updated when the block is written back
+      journal.write(meta.dbFile(DATATBL).name(), file, pos, buffer.data, IO.BLOCKSIZE, -1,
+          id + buffer.pos);
+    } else {
+      file.seek(pos);
+      file.write(buffer.data);
+      PageCache.update(id + buffer.pos, buffer.data);
+    }
     buffer.dirty = false;
   }
 
@@ -0,0 +1,219 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.locks.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.serial.*;
+import org.basex.query.func.*;
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+
+/**
+ * Server-wide cache of optimized query plans, which is shared by all clients of a database context.
+ *
+ * Plans are indexed by the query string, the base URI, the name of the user, the database options
+ * and the values of the bound external variables, which are inlined by the optimizer. Only the
+ * plans of non-updating queries are cached that do not depend on the session context, on files or
+ * on Java modules. Queries evaluated with xquery:eval are not cached: they are compiled in child
+ * contexts, which share their state with the calling query. The databases that have been opened
+ * while the query was compiled are pinned by the cache entry. A plan will be discarded if one of
+ * these databases has been updated, or if one of the parsed modules has been changed. Entries
+ * that reference a database are removed before the database is dropped, renamed or replaced.
+ * If the maximum number of entries ({@link StaticOptions#QUERYCACHE}) is exceeded, the least
+ * recently used entry is evicted.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCache {
+  /** Cached plans (LRU order). */
+  private final LinkedHashMap<String, Plan> plans = new LinkedHashMap<>(16, 0.75f, true);
+  /** Database context. */
+  private final Context context;
+
+  /** Number of hits. */
+  private long hits;
+  /** Number of misses. */
+  private long misses;
+  /** Number of evictions. */
+  private long evictions;
+
+  /**
+   * Constructor.
+   * @param context database context
+   */
+  public QueryCache(final Context context) {
+    this.context = context;
+  }
+
+  /**
+   * Indicates if the cache is enabled.
+   * @return result of check
+   */
+  boolean enabled() {
+    return context.soptions.get(StaticOptions.QUERYCACHE) > 0;
+  }
+
+  /**
+   * Returns a cached plan. Plans that are outdated are removed.
+   * @param key key
+   * @return plan, or {@code null} if no valid plan is cached
+   */
+  synchronized Plan get(final String key) {
+    final Plan plan = plans.get(key);
+    if(plan != null && plan.valid()) {
+      hits++;
+      return plan;
+    }
+    if(plan != null) plans.remove(key).close();
+    misses++;
+    return null;
+  }
+
+  /**
+   * Adds the plan of an optimized query.
+   * @param key key
+   * @param qc query context
+   * @param locks locks of the parsed query
+   */
+  synchronized void add(final String key, final QueryContext qc, final Locks locks) {
+    final Plan plan = new Plan(qc, locks);
+    for(final Data data : plan.datas) {
+      synchronized(context.datas) { context.datas.pin(data); }
+    }
+    final Plan old = plans.put(key, plan);
+    if(old != null) old.close();
+
+    final int max = context.soptions.get(StaticOptions.QUERYCACHE);
+    for(final Iterator<Plan> iter = plans.values().iterator(); plans.size() > max;) {
+      iter.next().close();
+      iter.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Removes all plans that reference the specified database.
+   * Called before a database is dropped, renamed or replaced.
+   * @param name name of database
+   */
+  public synchronized void remove(final String name) {
+    for(final Iterator<Plan> iter = plans.values().iterator(); iter.hasNext();) {
+      final Plan plan = iter.next();
+      for(final Data data : plan.datas) {
+        if(IO.equals(data.meta.name, name)) {
+          plan.close();
+          iter.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes all plans.
+   */
+  public synchronized void clear() {
+    for(final Plan plan : plans.values()) plan.close();
+    plans.clear();
+  }
+
+  /**
+   * Returns cache statistics.
+   * @return maximum and current number of entries, hits, misses, evictions
+   */
+  public synchronized long[] stats() {
+    return new long[] { context.soptions.get(StaticOptions.QUERYCACHE), plans.size(), hits, misses,
+      evictions };
+  }
+
+  /**
+   * Optimized query plan.
+   */
+  final class Plan {
+    /** Main module. */
+    final MainModule main;
+    /** Static variables. */
+    final Variables vars;
+    /** Functions. */
+    final StaticFuncs functions;
+    /** Locks of the parsed query. */
+    final Locks locks;
+    /** Serialization parameters (can be {@code null}). */
+    final SerializerOptions sopts;
+    /** Counter for variable IDs. */
+    final int varIDs;
+    /** Databases that have been opened by the compiler. */
+    private final Data[] datas;
+    /** Update counters of the databases. */
+    private final int[] updates;
+    /** Parsed modules. */
+    private final IO[] modules;
+    /** Timestamps of the parsed modules. */
+    private final long[] stamps;
+
+    /**
+     * Constructor.
+     * @param qc query context
+     * @param locks locks of the parsed query
+     */
+    private Plan(final QueryContext qc, final Locks locks) {
+      this.locks = locks;
+      main = qc.main;
+      vars = qc.vars;
+      functions = qc.functions;
+      sopts = qc.serialization();
+      varIDs = qc.varIDs;
+
+      datas = qc.resources.datas();
+      final int dl = datas.length;
+      updates = new int[dl];
+      for(int d = 0; d < dl; d++) updates[d] = datas[d].meta.updates;
+
+      final int ml = qc.modParsed.size();
+      modules = new IO[ml];
+      stamps = new long[ml];
+      int m = 0;
+      for(final byte[] path : qc.modParsed) {
+        modules[m] = IO.get(Token.string(path));
+        stamps[m] = modules[m++].timeStamp();
+      }
+    }
+
+    /**
+     * Checks if the referenced databases and modules have not been changed.
+     * @return result of check
+     */
+    boolean valid() {
+      final int dl = datas.length;
+      for(int d = 0; d < dl; d++) {
+        if(datas[d].meta.updates != updates[d]) return false;
+      }
+      final int ml = modules.length;
+      for(int m = 0; m < ml; m++) {
+        if(modules[m].timeStamp() != stamps[m]) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Pins the referenced databases for the evaluation of the query.
+     * @param qc query context
+     */
+    void pin(final QueryContext qc) {
+      for(final Data data : datas) qc.resources.pin(data);
+    }
+
+    /**
+     * Unpins the referenced databases.
+     */
+    private void close() {
+      for(final Data data : datas) Close.close(data, context);
+    }
+  }
+}
@@ -26,13 +26,11 @@ import org.basex.io.serial.*;
 import org.basex.query.ann.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
-import org.basex.query.util.regex.*;
 import org.basex.query.func.java.*;
 import org.basex.query.iter.*;
 import org.basex.query.scope.*;
 import org.basex.query.up.*;
 import org.basex.query.util.*;
-import org.basex.query.util.collation.*;
 import org.basex.query.util.ft.*;
 import org.basex.query.util.hash.*;
 import org.basex.query.util.list.*;
@@ -58,11 +56,11 @@ public final class QueryContext extends Job implements Closeable {
   /** The evaluation stack. */
   public final QueryStack stack = new QueryStack();
   /** Static variables. */
-  public final Variables vars = new Variables();
+  public Variables vars = new Variables();
   /** Values of static variables (shared with parent context). */
   public final GlobalValues globals;
   /** Functions. */
-  public final StaticFuncs functions = new StaticFuncs();
+  public StaticFuncs functions = new StaticFuncs();
   /** Static and dynamic namespaces. */
   public final NSDynContext ns;
   /** Query resources. */
@@ -104,10 +102,6 @@ public final class QueryContext extends Job implements Closeable {
   /** Scoring flag. */
   public boolean scoring;
 
-  /** Compiled regular expression cache (shared with parent context). */
-  public final TokenObjectMap<RegExpr> regex;
-  /** Available collations. */
-  public TokenObjectMap<Collation> collations;
   /** Profiling results. */
   public final QueryProfiler profiler = new QueryProfiler(this);
   /** Perform tail-call optimizations. */
@@ -197,7 +191,6 @@ public final class QueryContext extends Job implements Closeable {
     resources = parent != null ? parent.resources : new QueryResources(this);
     ftPosData = parent != null ? parent.ftPosData : null;
     shared = parent != null ? parent.shared : new SharedData();
-    regex = parent != null ? parent.regex : new TokenObjectMap<>();
     globals = parent != null ? parent.globals : new GlobalValues();
     user = context.user();
   }
@@ -430,6 +423,81 @@ public final class QueryContext extends Job implements Closeable {
     return null;
   }
 
+  /**
+   * Returns the key for caching the plan of the specified query.
+   * @param query query string
+   * @param sc static context
+   * @return key, or {@code null} if the plan cannot be cached
+   * @throws QueryException query exception
+   */
+  String cacheKey(final String query, final StaticContext sc) throws QueryException {
+    if(parent != null || context.current() != null || bindings.contains(QNm.EMPTY)) return null;
+
+    final StringBuilder sb = new StringBuilder().append(user.name()).append('\0');
+    sb.append(sc.baseURI()).append('\0').append(context.options).append('\0');
+    for(final QNm qnm : bindings) {
+      sb.append(qnm.prefixId()).append('=');
+      for(final Item item : bindings.get(qnm)) {
+        // values of nodes and function items cannot be compared
+        if(!item.type.instanceOf(BasicType.ANY_ATOMIC_TYPE)) return null;
+        sb.append(item.type).append(' ').append(string(item.string(null))).append('\0');
+      }
+      sb.append('\0');
+    }
+    return sb.append(query).toString();
+  }
+
+  /**
+   * Indicates if the plan of the optimized query can be cached.
+   * @return result of check
+   */
+  boolean cacheable() {
+    // modules: only the timestamps of local files can be checked
+    for(final byte[] path : modParsed) {
+      if(!(IO.get(string(path)) instanceof IOFile)) return false;
+    }
+    return !updating && contextValue == null && dateTime == null && options.isEmpty() &&
+        resources.cacheable();
+  }
+
+  /**
+   * Returns the serialization parameters that have been declared in the query.
+   * @return serialization parameters (can be {@code null})
+   */
+  SerializerOptions serialization() {
+    return defaultOutput ? null : sopts;
+  }
+
+  /**
+   * Assigns a cached query plan, which will be evaluated without being compiled again.
+   * @param query query string
+   * @param plan query plan
+   */
+  void assign(final String query, final QueryCache.Plan plan) {
+    info.query = query;
+    main = plan.main;
+    vars = plan.vars;
+    functions = plan.functions;
+    varIDs = plan.varIDs;
+    if(plan.sopts != null) sopts = new SerializerOptions(plan.sopts);
+    tco = context.options.get(MainOptions.TAILCALLS) >= 0;
+    compiled = true;
+    optimized = true;
+  }
+
+  /**
+   * Discards an assigned query plan. Called if the plan is outdated.
+   */
+  void reset() {
+    main = null;
+    vars = new Variables();
+    functions = new StaticFuncs();
+    varIDs = 0;
+    sopts = null;
+    compiled = false;
+    optimized = false;
+  }
+
   /**
    * Returns a result iterator.
    * @return result iterator
@@ -472,7 +540,14 @@ public final class QueryContext extends Job implements Closeable {
 
   @Override
   public void addLocks() {
-    final Locks jobLocks = jc().locks;
+    addLocks(jc().locks);
+  }
+
+  /**
+   * Adds the locks of the query to the specified lock container.
+   * @param jobLocks lock container
+   */
+  void addLocks(final Locks jobLocks) {
     final LockVisitor visitor = new LockVisitor(jobLocks, updating, contextValue == null);
 
     // locks in main module (can be null if parsing failed)
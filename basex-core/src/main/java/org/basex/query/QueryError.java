@@ -239,6 +239,8 @@ public enum QueryError {
   /** Error code. */
   DB_NOBACKUP_X(DB, "no-backup", "No backup exists for database '%'."),
   /** Error code. */
+  DB_CHAIN_X_X(DB, "chain", "Backup '%' is referenced by '%'."),
+  /** Error code. */
   DB_COMPACT_X(DB, "node", "Compact node expected: %."),
   /** Error code. */
   DB_NODE_X(DB, "node", "Database node expected: %."),
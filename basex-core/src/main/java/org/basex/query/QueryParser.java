@@ -832,7 +832,7 @@ public class QueryParser extends InputParser {
   private boolean defaultCollationDecl() throws QueryException {
     if(!wsConsumeWs(COLLATION)) return false;
     if(!decl.add(COLLATION)) throw error(DUPLCOLL);
-    sc.collation = Collation.get(uriLiteral(), qc, info(), WHICHDEFCOLL_X);
+    sc.collation = Collation.get(uriLiteral(), info(), WHICHDEFCOLL_X);
     return true;
   }
 
@@ -1665,7 +1665,7 @@ public class QueryParser extends InputParser {
       if(least) wsCheck(LEAST);
     }
     final Collation coll = wsConsumeWs(COLLATION) ?
-      Collation.get(uriLiteral(), qc, info(), FLWORCOLL_X) : sc.collation;
+      Collation.get(uriLiteral(), info(), FLWORCOLL_X) : sc.collation;
     return new OrderKey(info(), expr, desc, least, coll);
   }
 
@@ -1712,7 +1712,7 @@ public class QueryParser extends InputParser {
       }
 
       final Collation coll = wsConsumeWs(COLLATION) ? Collation.get(uriLiteral(),
-          qc, info(), FLWORCOLL_X) : sc.collation;
+          info(), FLWORCOLL_X) : sc.collation;
       final GroupSpec spec = new GroupSpec(var.info, localVars.add(var), by, coll);
       if(specs == null) {
         specs = new GroupSpec[] { spec };
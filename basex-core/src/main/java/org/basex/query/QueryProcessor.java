@@ -7,6 +7,7 @@ import java.io.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.core.jobs.*;
+import org.basex.core.locks.*;
 import org.basex.io.serial.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
@@ -31,6 +32,14 @@ public final class QueryProcessor extends Job implements Closeable {
   private final String query;
   /** Parsed flag. */
   private boolean parsed;
+  /** Indicates if the query plan may be cached. */
+  private boolean cache = true;
+  /** Key of the query plan (can be {@code null}). */
+  private String key;
+  /** Locks of the parsed query (assigned if the query plan may be cached). */
+  private Locks locks;
+  /** Cached query plan (can be {@code null}). */
+  private QueryCache.Plan plan;
 
   /**
    * Default constructor.
@@ -63,7 +72,16 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      final QueryCache queries = qc.context.queries;
+      if(cache && queries.enabled()) {
+        key = qc.cacheKey(query, sc);
+        if(key != null) plan = queries.get(key);
+      }
+      if(plan != null) {
+        qc.assign(query, plan);
+      } else {
+        parseMain();
+      }
     } finally {
       parsed = true;
       updating = qc.updating;
@@ -76,6 +94,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @param args function arguments
    */
   public void assign(final FItem function, final Value[] args) {
+    cache = false;
     qc.assign(function, args);
     parsed = true;
     updating = qc.updating;
@@ -96,7 +115,19 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public void optimize() throws QueryException {
     compile();
+    if(plan != null) {
+      // check again if the cached plan is up-to-date (referenced databases are locked now)
+      final boolean valid = plan.valid();
+      if(valid) plan.pin(qc);
+      plan = null;
+      if(valid) return;
+      qc.reset();
+      parseMain();
+      qc.compile();
+    }
     qc.optimize();
+    if(locks != null && qc.cacheable()) qc.context.queries.add(key, qc, locks);
+    locks = null;
   }
 
   /**
@@ -106,7 +137,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Iter iter() throws QueryException {
-    parse();
+    optimize();
     return qc.iter();
   }
 
@@ -116,7 +147,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Value value() throws QueryException {
-    parse();
+    optimize();
     return qc.value();
   }
 
@@ -129,7 +160,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public void cache(final AQuery cmd, final int max) throws QueryException {
-    parse();
+    optimize();
     qc.cache(cmd, max);
   }
 
@@ -193,6 +224,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public QueryProcessor namespace(final String prefix, final String uri) throws QueryException {
+    cache = false;
     sc.namespace(prefix, uri);
     return this;
   }
@@ -203,6 +235,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @return self reference
    */
   public QueryProcessor uriResolver(final UriResolver resolver) {
+    cache = false;
     sc.resolver = resolver;
     return this;
   }
@@ -230,6 +263,7 @@ public final class QueryProcessor extends Job implements Closeable {
    * @param file file name
    */
   public void module(final String uri, final String file) {
+    cache = false;
     qc.modDeclared.computeIfAbsent(token(uri), TokenList::new).add(token(file));
   }
 
@@ -240,7 +274,13 @@ public final class QueryProcessor extends Job implements Closeable {
 
   @Override
   public void addLocks() {
-    qc.addLocks();
+    if(plan != null) {
+      final Locks jobLocks = jc().locks;
+      jobLocks.reads.add(plan.locks.reads);
+      jobLocks.writes.add(plan.locks.writes);
+    } else {
+      qc.addLocks();
+    }
   }
 
   /**
@@ -259,6 +299,21 @@ public final class QueryProcessor extends Job implements Closeable {
     return qc.toXml(qc.context.options.get(MainOptions.FULLPLAN));
   }
 
+  /**
+   * Parses the main module. If the plan may be cached, the locks of the parsed query are
+   * computed, as references to databases may be removed by the optimizer.
+   * @throws QueryException query exception
+   */
+  private void parseMain() throws QueryException {
+    qc.parseMain(query, null, sc);
+    if(key != null && !qc.updating) {
+      // skip queries with resources that cannot be determined statically
+      final Locks lcks = new Locks();
+      qc.addLocks(lcks);
+      if(!lcks.reads.global() && !lcks.writes.global()) locks = lcks;
+    }
+  }
+
   @Override
   public String toString() {
     return query;
@@ -122,6 +122,36 @@ public final class QueryResources {
     return globalData ? datas.getFirst() : null;
   }
 
+  /**
+   * Indicates if the plan of a query may be cached: all opened databases must be persistent,
+   * and no files, input streams or Java modules must have been accessed.
+   * @return result of check
+   */
+  synchronized boolean cacheable() {
+    for(final Data data : datas) {
+      if(data.inMemory()) return false;
+    }
+    return !globalData && colls.isEmpty() && functions.isEmpty() && external.isEmpty() &&
+        inputs.isEmpty() && (modules == null || modules.isEmpty()) && texts == null;
+  }
+
+  /**
+   * Returns the opened databases.
+   * @return databases
+   */
+  synchronized Data[] datas() {
+    return datas.toArray(Data[]::new);
+  }
+
+  /**
+   * Pins and adds a database that has been opened by a cached query plan.
+   * @param data data reference
+   */
+  synchronized void pin(final Data data) {
+    synchronized(context.datas) { context.datas.pin(data); }
+    addData(data);
+  }
+
   /**
    * Returns or creates an external resource of the specified class.
    * @param <R> resource
@@ -363,6 +363,8 @@ public interface QueryText {
   /** Query Info. */ String COERCE = "coerce";
   /** Query Info. */ String DATABASE = "database";
   /** Query Info. */ String ITERATIVE = "iterative";
+  /** Query Info. */ String PARALLEL = "parallel";
+  /** Query Info. */ String LIMIT = "limit";
   /** Query Info. */ String SINGLE = "single";
   /** Query Info. */ String LINE = "line";
   /** Query Info. */ String COLUMN = "column";
@@ -400,6 +402,7 @@ public interface QueryText {
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
   /** Optimization info. */ String OPTEXIT_X = "enable early exit: %";
+  /** Optimization info. */ String OPTPARALLEL_X = "evaluate in parallel: %";
   /** Optimization info. */ String OPTOPEN_X = "open database \"%\"";
 
   // MISCELLANEOUS ================================================================================
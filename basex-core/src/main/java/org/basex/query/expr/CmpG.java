@@ -178,10 +178,10 @@ public class CmpG extends Cmp {
 
   @Override
   protected boolean test(final QueryContext qc, final long pos) throws QueryException {
-    final Iter iter1 = exprs[0].atomIter(qc, info);
+    final Iter iter1 = iter(0, qc);
     final long size1 = iter1.size();
     if(size1 == 0) return false;
-    final Iter iter2 = exprs[1].atomIter(qc, info);
+    final Iter iter2 = iter(1, qc);
     final long size2 = iter2.size();
     return size2 != 0 && compare(iter1, iter2, size1, size2, qc);
   }
@@ -203,7 +203,7 @@ public class CmpG extends Cmp {
       // (1, 2) = (3, 4, 5, 6, 7) → 1 = 3, 1 = 4, ..., 2 = 3, ...
       Iter ir2 = iter2;
       for(Item item1; (item1 = iter1.next()) != null;) {
-        if(ir2 == null) ir2 = exprs[1].atomIter(qc, info);
+        if(ir2 == null) ir2 = iter(1, qc);
         for(Item item2; (item2 = qc.next(ir2)) != null;) {
           if(eval(item1, item2, qc)) return true;
         }
@@ -213,7 +213,7 @@ public class CmpG extends Cmp {
       // (1, 2, 3, 4, 5) = (6, 7) → 1 = 6, 2 = 6, ..., 1 = 7, ...
       Iter ir1 = iter1;
       for(Item item2; (item2 = iter2.next()) != null;) {
-        if(ir1 == null) ir1 = exprs[0].atomIter(qc, info);
+        if(ir1 == null) ir1 = iter(0, qc);
         for(Item item1; (item1 = qc.next(ir1)) != null;) {
           if(eval(item1, item2, qc)) return true;
         }
@@ -223,6 +223,19 @@ public class CmpG extends Cmp {
     return false;
   }
 
+  /**
+   * Returns an iterator for the specified operand. Untyped nodes are not atomized:
+   * the strings of database nodes can then be compared without being materialized.
+   * @param e index of the operand
+   * @param qc query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  private Iter iter(final int e, final QueryContext qc) throws QueryException {
+    final Expr expr = exprs[e];
+    return untypedNodes(expr) ? expr.iter(qc) : expr.atomIter(qc, info);
+  }
+
   /**
    * Compares a single item.
    * @param item1 first item to be compared
@@ -41,6 +41,8 @@ public final class CmpR extends Single {
 
   /** Evaluation flag: atomic evaluation. */
   private boolean single;
+  /** Evaluation flag: nodes are converted without prior atomization. */
+  private boolean nodes;
 
   /**
    * Constructor.
@@ -128,6 +130,7 @@ public final class CmpR extends Single {
 
     final SeqType st = expr.seqType();
     single = st.zeroOrOne() && !st.mayBeWrapped();
+    nodes = st.type instanceof NodeType;
 
     // position() = .1e0 → false()
     if(Function.POSITION.is(expr)) {
@@ -162,7 +165,7 @@ public final class CmpR extends Single {
     }
 
     // iterative evaluation
-    final Iter iter = expr.atomIter(qc, info);
+    final Iter iter = nodes ? expr.iter(qc) : expr.atomIter(qc, info);
     for(Item item; (item = qc.next(iter)) != null;) {
       if(inRange(item)) return true;
     }
@@ -284,6 +287,7 @@ public final class CmpR extends Single {
   public Expr copy(final CompileContext cc, final IntObjectMap<Var> vm) {
     final CmpR cmp = new CmpR(expr.copy(cc, vm), min, max, info);
     cmp.single = single;
+    cmp.nodes = nodes;
     return copyType(cmp);
   }
 
@@ -6,7 +6,6 @@ import static org.basex.query.value.type.NodeType.*;
 import static org.basex.util.Token.*;
 
 import java.util.*;
-import java.util.concurrent.*;
 
 import org.basex.core.users.*;
 import org.basex.data.*;
@@ -34,8 +33,17 @@ import org.basex.util.*;
  */
 public abstract class ParseExpr extends Expr {
   /** Indicates which expressions have an iterator implementation. */
-  private static final ConcurrentHashMap<Class<? extends ParseExpr>, Boolean> ITERIMPLS =
-      new ConcurrentHashMap<>();
+  private static final ClassValue<Boolean> ITERIMPLS = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      for(Class<?> clz = type; clz != ParseExpr.class; clz = clz.getSuperclass()) {
+        try {
+          if(clz.getMethod("iter", QueryContext.class).getDeclaringClass() == clz) return true;
+        } catch(final Exception ignore) { }
+      }
+      return false;
+    }
+  };
   /** Expression type. */
   public final ExprType exprType;
   /** Input information. */
@@ -51,14 +59,7 @@ public abstract class ParseExpr extends Expr {
   protected ParseExpr(final InputInfo info, final SeqType seqType) {
     this.info = info;
     exprType = new ExprType(seqType);
-    iterImpl = ITERIMPLS.computeIfAbsent(getClass(), c -> {
-      for(Class<?> clz = getClass(); clz != ParseExpr.class; clz = clz.getSuperclass()) {
-        try {
-          if(clz.getMethod("iter", QueryContext.class).getDeclaringClass() == clz) return true;
-        } catch(final Exception ignore) { }
-      }
-      return false;
-    });
+    iterImpl = ITERIMPLS.get(getClass());
   }
 
   @Override
@@ -81,6 +82,18 @@ public abstract class ParseExpr extends Expr {
     return iterImpl ? item(atomIter(qc), qc) : super.atomItem(qc);
   }
 
+  /**
+   * Checks if the specified expression yields untyped nodes. Such nodes can be processed
+   * without being atomized: database nodes give direct access to their string values.
+   * @param expr expression
+   * @return result of check
+   */
+  protected static boolean untypedNodes(final Expr expr) {
+    // values: skip the creation of sequence types
+    final Type type = expr instanceof final Value value ? value.type : expr.seqType().type;
+    return type instanceof NodeType && type.isUntyped();
+  }
+
   /**
    * Returns a single item, or {@link Empty#VALUE} if the expression yields an empty sequence.
    * @param iter iterator
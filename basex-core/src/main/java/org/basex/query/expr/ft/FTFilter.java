@@ -61,6 +61,11 @@ public abstract class FTFilter extends FTExpr {
         }
         return it;
       }
+
+      @Override
+      public void prune(final double min) {
+        iter.prune(min);
+      }
     };
   }
 
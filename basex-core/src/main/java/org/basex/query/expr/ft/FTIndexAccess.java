@@ -1,5 +1,7 @@
 package org.basex.query.expr.ft;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.index.*;
@@ -58,6 +60,60 @@ public final class FTIndexAccess extends Simple {
     };
   }
 
+  /**
+   * Returns the nodes with the highest scores.
+   * @param limit maximum number of nodes
+   * @param qc query context
+   * @return nodes in document order
+   * @throws QueryException query exception
+   */
+  public NodeIter iter(final int limit, final QueryContext qc) throws QueryException {
+    // order: lowest score first; for equal scores, favor nodes that occur first
+    final MinHeap<FTNode, FTNode> heap = new MinHeap<>((node1, node2) -> {
+      final int d = Double.compare(node1.score(), node2.score());
+      return d != 0 ? d : Integer.compare(node2.pre(), node1.pre());
+    });
+    final boolean scoring = qc.scoring;
+    qc.scoring = true;
+    try {
+      final FTIter iter = ftexpr.iter(qc);
+      for(FTNode item; (item = iter.next()) != null;) {
+        qc.checkStop();
+        if(heap.size() == limit && item.score() <= heap.minValue().score()) continue;
+        // cache entry for visualizations or ft:mark/ft:extract
+        if(qc.ftPosData != null) qc.ftPosData.add(item.data(), item.pre(), item.matches());
+        item.matches(null);
+        heap.insert(item, item);
+        if(heap.size() > limit) heap.removeMin();
+        // skip nodes that cannot replace the node with the lowest score
+        if(heap.size() == limit) iter.prune(heap.minValue().score());
+      }
+    } finally {
+      qc.scoring = scoring;
+    }
+
+    final int size = heap.size();
+    final FTNode[] nodes = new FTNode[size];
+    for(int n = 0; n < size; n++) nodes[n] = heap.removeMin();
+    Arrays.sort(nodes, (node1, node2) -> Integer.compare(node1.pre(), node2.pre()));
+    return new BasicNodeIter() {
+      int n;
+
+      @Override
+      public GNode next() {
+        return n < size ? nodes[n++] : null;
+      }
+      @Override
+      public GNode get(final long i) {
+        return nodes[(int) i];
+      }
+      @Override
+      public long size() {
+        return size;
+      }
+    };
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     return ftexpr.has(flags) || db.has(flags);
@@ -149,7 +149,6 @@ public final class FTWords extends FTExpr {
     final Data data = db.data(qc, IndexType.FULLTEXT);
     return new FTIter() {
       FTIndexIterator ftiter;
-      int length;
 
       @Override
       public FTNode next() throws QueryException {
@@ -158,8 +157,8 @@ public final class FTWords extends FTExpr {
           final FTLexer lexer = new FTLexer(ftOpt).
               errors(qc.context.options.get(MainOptions.LSERROR));
 
-          // length of distinct tokens
-          int len = 0;
+          // iterators to be merged (a single union allows skipping irrelevant matches)
+          final ArrayList<FTIndexIterator> union = new ArrayList<>();
           // loop through unique tokens
           for(final byte[] input : unique(inputs != null ? inputs : inputs(qc))) {
             lexer.init(input);
@@ -170,7 +169,6 @@ public final class FTWords extends FTExpr {
             final StopWords sw = ftOpt.sw;
             do {
               final byte[] token = lexer.nextToken();
-              len += token.length;
               if(sw != null && sw.contains(token)) {
                 ++d;
               } else {
@@ -188,23 +186,28 @@ public final class FTWords extends FTExpr {
 
             if(iter != null) {
               // create or combine iterator
-              if(ftiter == null) {
-                length = len;
-                ftiter = iter;
-              } else if(mode == FTMode.ALL || mode == FTMode.ALL_WORDS) {
-                if(iter.size() == 0) return null;
-                length += len;
-                ftiter = FTIndexIterator.intersect(ftiter, iter, 0);
-              } else {
-                if(iter.size() == 0) continue;
-                length = Math.max(len, length);
-                ftiter = FTIndexIterator.union(ftiter, iter);
+              if(mode == FTMode.ALL || mode == FTMode.ALL_WORDS) {
+                if(ftiter == null) {
+                  ftiter = iter;
+                } else {
+                  if(iter.size() == 0) return null;
+                  ftiter = FTIndexIterator.intersect(ftiter, iter, 0);
+                }
+              } else if(union.isEmpty() || iter.size() != 0) {
+                union.add(iter);
               }
             }
           }
+          if(!union.isEmpty()) ftiter = union.size() == 1 ? union.get(0) :
+            FTIndexIterator.union(union.toArray(FTIndexIterator[]::new));
         }
-        return ftiter == null || !ftiter.more() ? null :
-          new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
+        return ftiter == null || !ftiter.more() ? null : new FTNode(ftiter.matches(), data,
+          ftiter.pre(), qc.scoring ? Scoring.score(ftiter.score()) : 0);
+      }
+
+      @Override
+      public void prune(final double min) {
+        if(ftiter != null) ftiter.prune(Scoring.relevance(min));
       }
     };
   }
@@ -254,6 +257,15 @@ public final class FTWords extends FTExpr {
         ps = p;
       }
       @Override
+      public double score() {
+        // texts with overlong tokens are not indexed: assume that the token is rare
+        return Scoring.bm25(ftt.matches.size(), 1, data.meta.ftnodes, 1);
+      }
+      @Override
+      public double max() {
+        return Scoring.bm25(1, data.meta.ftnodes);
+      }
+      @Override
       public int size() {
         // worst case
         return Math.max(1, sz >>> 1);
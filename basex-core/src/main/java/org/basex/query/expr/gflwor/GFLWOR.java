@@ -1110,6 +1110,31 @@ public final class GFLWOR extends ParseExpr {
     return copyType(new GFLWOR(info, cls, rtrn.copy(cc, vm)));
   }
 
+  /**
+   * Limits the number of tuples returned by the last order by clause if the results of this
+   * expression are consumed with a positional limit, and if each tuple yields a single result.
+   * The existing clauses are not modified, as they may be referenced by other expressions.
+   * @param max maximum number of results
+   * @return this expression, or a new expression with a limited order by clause
+   */
+  public GFLWOR limit(final long max) {
+    if(!rtrn.seqType().one()) return this;
+    final int cs = clauses.size();
+    for(int c = cs - 1; c >= 0; c--) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof final OrderBy order) {
+        final OrderBy limited = order.limit(max);
+        if(limited == order) return this;
+        final LinkedList<Clause> list = new LinkedList<>(clauses);
+        list.set(c, limited);
+        return copyType(new GFLWOR(info, list, rtrn));
+      }
+      // stop if the number of tuples may change
+      if(!(clause instanceof Let || clause instanceof Count)) return this;
+    }
+    return this;
+  }
+
   /**
    * Checks if this FLWOR expression has only 'for', 'let', and 'where' clauses.
    * @return result of check
@@ -14,6 +14,10 @@ final class Group {
   final Item[] key;
   /** Non-grouping variables. */
   final ValueBuilder[] ngv;
+  /** Hash value of the grouping key. */
+  final int hash;
+  /** Input position of the first tuple of the group. */
+  final long seq;
   /** Overflow list. */
   Group next;
 
@@ -21,9 +25,13 @@ final class Group {
    * Constructor.
    * @param k grouping key
    * @param ng non-grouping variables
+   * @param h hash value of the grouping key
+   * @param s input position of the first tuple
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final ValueBuilder[] ng, final int h, final long s) {
     key = k;
     ngv = ng;
+    hash = h;
+    seq = s;
   }
 }
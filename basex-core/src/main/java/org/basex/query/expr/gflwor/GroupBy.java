@@ -2,11 +2,11 @@ package org.basex.query.expr.gflwor;
 
 import static org.basex.query.QueryText.*;
 
-import java.util.*;
-
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
+import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
@@ -87,18 +87,13 @@ public final class GroupBy extends Clause {
   Eval eval(final Eval sub) {
     return new Eval() {
       /** Groups to iterate over. */
-      private Group[] groups;
-      /** Current position. */
-      private int pos;
+      private Groups groups;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
         if(groups == null) groups = init(qc);
-        if(pos == groups.length) return false;
-
-        final Group curr = groups[pos];
-        // be nice to the garbage collector
-        groups[pos++] = null;
+        final Group curr = groups.next();
+        if(curr == null) return false;
 
         int p = 0;
         for(final GroupSpec spec : specs) {
@@ -117,14 +112,14 @@ public final class GroupBy extends Clause {
        * @param qc query context
        * @throws QueryException query exception
        */
-      private Group[] init(final QueryContext qc) throws QueryException {
-        final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjectMap<Group> map = new IntObjectMap<>();
-        final DeepEqual[] deeps = new DeepEqual[nonOcc];
+      private Groups init(final QueryContext qc) throws QueryException {
+        final Collation[] colls = new Collation[nonOcc];
         int c = 0;
         for(final GroupSpec spec : specs) {
-          if(!spec.occluded) deeps[c++] = new DeepEqual(info, spec.coll, qc);
+          if(!spec.occluded) colls[c++] = spec.coll;
         }
+        final Groups grps = new Groups(colls, preExpr.length,
+            qc.context.options.get(MainOptions.GROUPLIMIT), info, qc);
 
         while(sub.next(qc)) {
           final Item[] key = new Item[nonOcc];
@@ -141,64 +136,13 @@ public final class GroupBy extends Clause {
             qc.set(spec.var, atom);
           }
 
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, deeps)) {
-              grp = g;
-              break;
-            }
-          }
-
+          // values of non-grouping variables
           final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
-            }
-          }
-
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) {
-            grp.ngv[g].add(preExpr[g].value(qc));
-          }
+          final Value[] tuple = new Value[pl];
+          for(int g = 0; g < pl; g++) tuple[g] = preExpr[g].value(qc);
+          grps.add(key, hash, tuple);
         }
-
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(Group[]::new);
-      }
-
-      /**
-       * Checks two keys for equality.
-       * @param items1 first keys
-       * @param items2 second keys
-       * @param deeps deep equality comparisons
-       * @return {@code true} if the compare as equal, {@code false} otherwise
-       * @throws QueryException query exception
-       */
-      private static boolean eq(final Item[] items1, final Item[] items2, final DeepEqual[] deeps)
-          throws QueryException {
-
-        final int il = items1.length;
-        for(int i = 0; i < il; i++) {
-          final Item item1 = items1[i], item2 = items2[i];
-          final boolean empty1 = item1 == Empty.VALUE, empty2 = item2 == Empty.VALUE;
-          if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
-        }
-        return true;
+        return grps;
       }
     };
   }
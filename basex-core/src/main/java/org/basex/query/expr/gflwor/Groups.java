@@ -0,0 +1,507 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Builds the groups of a {@link GroupBy} clause.
+ *
+ * Tuples are assigned to partitions via the hash values of their grouping keys. The tuples of
+ * each partition are buffered and aggregated in batches; the partitions of large batches are
+ * aggregated in parallel. If the number of tuples exceeds the specified maximum, the groups and
+ * all subsequent tuples are spilled to temporary files, and the partitions are aggregated one
+ * after another. Only tuples with atomic items and database nodes can be spilled; if other tuples
+ * are encountered, spilled tuples are loaded again. Groups are returned in the order in which
+ * they were first encountered.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class Groups {
+  /** Number of partitions (must be a power of two). */
+  private static final int PARTITIONS = 16;
+  /** Maximum number of buffered tuples. */
+  private static final int BATCH = 1 << 15;
+  /** Minimum number of buffered tuples for aggregating partitions in parallel. */
+  private static final int PARALLEL = 1 << 12;
+
+  /** Collations of the grouping keys (entries can be {@code null}). */
+  private final Collation[] colls;
+  /** Number of non-grouping values. */
+  private final int values;
+  /** Maximum number of tuples to be kept in main memory ({@code 0}: no spilling). */
+  private final long max;
+  /** Input info (can be {@code null}). */
+  private final InputInfo info;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Partitions. */
+  private final Partition[] partitions = new Partition[PARTITIONS];
+  /** Indicates if partitions can be aggregated in parallel. */
+  private final boolean parallel;
+
+  /** Spilled items ({@code null} if tuples cannot be spilled). */
+  private Spill spill;
+  /** Indicates if tuples are currently spilled. */
+  private boolean spilled;
+  /** Number of buffered tuples. */
+  private int buffered;
+  /** Number of added tuples. */
+  private long count;
+
+  /** Groups in main memory (assigned when all tuples have been added). */
+  private Group[] groups;
+  /** Runs with spilled groups to be merged ({@code null} if no tuples were spilled). */
+  private Run[] runs;
+  /** Number of returned groups. */
+  private int returned;
+
+  /**
+   * Constructor.
+   * @param colls collations of the grouping keys (entries can be {@code null})
+   * @param values number of non-grouping values
+   * @param max maximum number of tuples to be kept in main memory ({@code 0}: no spilling)
+   * @param info input info (can be {@code null})
+   * @param qc query context
+   */
+  Groups(final Collation[] colls, final int values, final long max, final InputInfo info,
+      final QueryContext qc) {
+    this.colls = colls;
+    this.values = values;
+    this.max = max;
+    this.info = info;
+    this.qc = qc;
+    for(int p = 0; p < PARTITIONS; p++) partitions[p] = new Partition();
+
+    // collators may not be thread-safe
+    boolean par = true;
+    for(final Collation coll : colls) par &= coll == null;
+    parallel = par;
+    spill = max > 0 ? new Spill(qc) : null;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param key grouping key
+   * @param hash hash value of the grouping key
+   * @param tuple values of the non-grouping variables
+   * @throws QueryException query exception
+   */
+  void add(final Item[] key, final int hash, final Value[] tuple) throws QueryException {
+    partitions[(hash ^ hash >>> 16) & PARTITIONS - 1].buffer(key, hash, tuple, count++);
+    buffered++;
+
+    if(spill != null && (!Spill.spillable(key) || !Spill.spillable(tuple))) {
+      // tuple cannot be spilled: load spilled tuples
+      if(spilled) {
+        for(final Partition partition : partitions) partition.load();
+        spilled = false;
+      }
+      spill = null;
+    }
+    if(spill != null && !spilled && count >= max) {
+      spilled = true;
+      flush();
+    } else if(buffered >= (spilled ? Math.min(max, BATCH) : BATCH)) {
+      flush();
+    }
+  }
+
+  /**
+   * Returns the next group.
+   * @return group, or {@code null} if all groups have been returned
+   * @throws QueryException query exception
+   */
+  Group next() throws QueryException {
+    if(groups == null) finish();
+
+    if(runs == null) {
+      if(returned == groups.length) return null;
+      final Group group = groups[returned];
+      // be nice to the garbage collector
+      groups[returned++] = null;
+      return group;
+    }
+
+    // choose the group that was encountered first
+    Run best = null;
+    for(final Run run : runs) {
+      if(run.group != null && (best == null || run.group.seq < best.group.seq)) best = run;
+    }
+    if(best == null) return null;
+    final Group group = best.group;
+    best.next();
+    return group;
+  }
+
+  /**
+   * Aggregates the remaining tuples and prepares the groups for being returned.
+   * @throws QueryException query exception
+   */
+  private void finish() throws QueryException {
+    flush();
+    groups = new Group[0];
+    if(spilled) {
+      // aggregate partitions one by one and spill the resulting groups
+      final ArrayList<Run> list = new ArrayList<>();
+      for(final Partition partition : partitions) {
+        partition.load();
+        if(partition.groups.isEmpty()) continue;
+        final IOFile file = spill.file();
+        try(DataOutput out = Spill.output(file, false)) {
+          for(final Group group : partition.groups) write(out, group);
+        } catch(final IOException ex) {
+          throw IOERR_X.get(info, ex);
+        }
+        list.add(new Run(file, partition.groups.size()));
+        partition.clear();
+      }
+      runs = list.toArray(Run[]::new);
+      for(final Run run : runs) run.next();
+    } else {
+      // merge the groups of all partitions
+      final ArrayList<Group> list = new ArrayList<>();
+      for(final Partition partition : partitions) {
+        list.addAll(partition.groups);
+        partition.clear();
+      }
+      groups = list.toArray(Group[]::new);
+      Arrays.sort(groups, (group1, group2) -> Long.compare(group1.seq, group2.seq));
+    }
+  }
+
+  /**
+   * Aggregates or spills the buffered tuples.
+   * @throws QueryException query exception
+   */
+  private void flush() throws QueryException {
+    if(spilled) {
+      for(final Partition partition : partitions) partition.spill();
+    } else if(parallel && buffered >= PARALLEL) {
+      final ArrayList<AggregateTask> tasks = new ArrayList<>(PARTITIONS);
+      for(final Partition partition : partitions) tasks.add(new AggregateTask(partition));
+      try {
+        ForkJoinTask.invokeAll(tasks);
+      } catch(final QueryRTException ex) {
+        throw ex.getCause();
+      }
+    } else {
+      for(final Partition partition : partitions) partition.aggregate();
+    }
+    buffered = 0;
+  }
+
+  /**
+   * Writes a tuple.
+   * @param out data output
+   * @param key grouping key
+   * @param hash hash value of the grouping key
+   * @param tuple values of the non-grouping variables
+   * @param seq input position
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final DataOutput out, final Item[] key, final int hash, final Value[] tuple,
+      final long seq) throws IOException, QueryException {
+    out.writeLong(seq);
+    out.writeNum(hash);
+    for(final Item item : key) spill.write(out, item);
+    for(final Value value : tuple) spill.write(out, value);
+  }
+
+  /**
+   * Writes a group.
+   * @param out data output
+   * @param group group
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final DataOutput out, final Group group) throws IOException, QueryException {
+    final Value[] tuple = new Value[values];
+    for(int v = 0; v < values; v++) tuple[v] = group.ngv[v].value();
+    write(out, group.key, group.hash, tuple, group.seq);
+  }
+
+  /**
+   * Reads a spilled tuple or group.
+   * @param in data input
+   * @return group
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private Group read(final DataInput in) throws IOException, QueryException {
+    final long seq = in.readLong();
+    final int hash = in.readNum(), kl = colls.length;
+    final Item[] key = new Item[kl];
+    for(int k = 0; k < kl; k++) key[k] = spill.item(in);
+    final ValueBuilder[] ngv = new ValueBuilder[values];
+    for(int v = 0; v < values; v++) ngv[v] = new ValueBuilder(qc).add(spill.value(in));
+    return new Group(key, ngv, hash, seq);
+  }
+
+  /**
+   * Partition with buffered tuples and aggregated groups.
+   */
+  private final class Partition {
+    /** Keys of the buffered tuples. */
+    private final ArrayList<Item[]> keys = new ArrayList<>();
+    /** Hash values of the buffered tuples. */
+    private final IntList hashes = new IntList();
+    /** Values of the buffered tuples. */
+    private final ArrayList<Value[]> tuples = new ArrayList<>();
+    /** Input positions of the buffered tuples. */
+    private final LongList seqs = new LongList();
+    /** Deep equality comparisons. */
+    private final DeepEqual[] deeps;
+
+    /** Groups, indexed by the hash values of their keys. */
+    private IntObjectMap<Group> map = new IntObjectMap<>();
+    /** Groups in the order of their first occurrence. */
+    private final ArrayList<Group> groups = new ArrayList<>();
+    /** Temporary file with spilled tuples ({@code null} if no tuples were spilled). */
+    private IOFile file;
+    /** Number of spilled tuples. */
+    private long size;
+
+    /**
+     * Constructor.
+     */
+    Partition() {
+      final int kl = colls.length;
+      deeps = new DeepEqual[kl];
+      for(int k = 0; k < kl; k++) deeps[k] = new DeepEqual(info, colls[k], qc);
+    }
+
+    /**
+     * Buffers a tuple.
+     * @param key grouping key
+     * @param hash hash value of the grouping key
+     * @param tuple values of the non-grouping variables
+     * @param seq input position
+     */
+    void buffer(final Item[] key, final int hash, final Value[] tuple, final long seq) {
+      keys.add(key);
+      hashes.add(hash);
+      tuples.add(tuple);
+      seqs.add(seq);
+    }
+
+    /**
+     * Aggregates the buffered tuples.
+     * @throws QueryException query exception
+     */
+    void aggregate() throws QueryException {
+      final int ks = keys.size();
+      for(int k = 0; k < ks; k++) {
+        final Item[] key = keys.get(k);
+        final int hash = hashes.get(k);
+        Group group = find(key, hash);
+        if(group == null) {
+          // new group, add it to the list
+          final ValueBuilder[] ngv = new ValueBuilder[values];
+          for(int v = 0; v < values; v++) ngv[v] = new ValueBuilder(qc);
+          group = new Group(key, ngv, hash, seqs.get(k));
+          add(group);
+        }
+        // add values of non-grouping variables to the group
+        final Value[] tuple = tuples.get(k);
+        for(int v = 0; v < values; v++) group.ngv[v].add(tuple[v]);
+      }
+      keys.clear();
+      hashes.reset();
+      tuples.clear();
+      seqs.reset();
+    }
+
+    /**
+     * Spills the groups and the buffered tuples.
+     * @throws QueryException query exception
+     */
+    void spill() throws QueryException {
+      final int gs = groups.size(), ks = keys.size();
+      if(gs + ks == 0) return;
+
+      final boolean append = file != null;
+      if(!append) file = spill.file();
+      try(DataOutput out = Spill.output(file, append)) {
+        for(final Group group : groups) write(out, group);
+        for(int k = 0; k < ks; k++) {
+          qc.checkStop();
+          write(out, keys.get(k), hashes.get(k), tuples.get(k), seqs.get(k));
+        }
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+      size += gs + ks;
+      clear();
+      keys.clear();
+      hashes.reset();
+      tuples.clear();
+      seqs.reset();
+    }
+
+    /**
+     * Loads and aggregates the spilled tuples.
+     * @throws QueryException query exception
+     */
+    void load() throws QueryException {
+      if(file == null) return;
+      try(DataInput in = new DataInput(file)) {
+        for(long s = 0; s < size; s++) {
+          qc.checkStop();
+          final Group row = read(in);
+          final Group group = find(row.key, row.hash);
+          if(group == null) {
+            add(row);
+          } else {
+            for(int v = 0; v < values; v++) group.ngv[v].add(row.ngv[v].value());
+          }
+        }
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+      file.delete();
+      file = null;
+      size = 0;
+    }
+
+    /**
+     * Removes all groups.
+     */
+    void clear() {
+      map = new IntObjectMap<>();
+      groups.clear();
+    }
+
+    /**
+     * Returns the group for the specified key.
+     * @param key grouping key
+     * @param hash hash value of the grouping key
+     * @return group or {@code null}
+     * @throws QueryException query exception
+     */
+    private Group find(final Item[] key, final int hash) throws QueryException {
+      for(Group group = map.get(hash); group != null; group = group.next) {
+        if(eq(key, group.key)) return group;
+      }
+      return null;
+    }
+
+    /**
+     * Adds a new group.
+     * @param group group
+     */
+    private void add(final Group group) {
+      final Group fst = map.get(group.hash);
+      if(fst == null) {
+        map.put(group.hash, group);
+      } else {
+        group.next = fst.next;
+        fst.next = group;
+      }
+      groups.add(group);
+    }
+
+    /**
+     * Checks two keys for equality.
+     * @param items1 first keys
+     * @param items2 second keys
+     * @return {@code true} if the compare as equal, {@code false} otherwise
+     * @throws QueryException query exception
+     */
+    private boolean eq(final Item[] items1, final Item[] items2) throws QueryException {
+      final int il = items1.length;
+      for(int i = 0; i < il; i++) {
+        final Item item1 = items1[i], item2 = items2[i];
+        final boolean empty1 = item1 == Empty.VALUE, empty2 = item2 == Empty.VALUE;
+        if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Run with spilled groups, ordered by their first occurrence.
+   */
+  private final class Run {
+    /** Data input. */
+    private final DataInput in;
+    /** Remaining groups. */
+    private long remaining;
+    /** Current group ({@code null} if the run is exhausted). */
+    private Group group;
+
+    /**
+     * Constructor.
+     * @param file temporary file
+     * @param size number of groups
+     * @throws QueryException query exception
+     */
+    Run(final IOFile file, final long size) throws QueryException {
+      try {
+        in = new DataInput(file);
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+      remaining = size;
+    }
+
+    /**
+     * Proceeds to the next group.
+     * @throws QueryException query exception
+     */
+    void next() throws QueryException {
+      try {
+        if(remaining-- == 0) {
+          group = null;
+          in.close();
+        } else {
+          group = read(in);
+        }
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+    }
+  }
+
+  /**
+   * Aggregates the buffered tuples of a partition.
+   */
+  private static final class AggregateTask extends RecursiveAction {
+    /** Partition. */
+    private final Partition partition;
+
+    /**
+     * Constructor.
+     * @param partition partition
+     */
+    AggregateTask(final Partition partition) {
+      this.partition = partition;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        partition.aggregate();
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    }
+  }
+}
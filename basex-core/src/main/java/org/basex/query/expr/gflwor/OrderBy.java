@@ -1,18 +1,14 @@
 package org.basex.query.expr.gflwor;
 
-import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 import static org.basex.query.func.Function.*;
 
-import java.util.*;
-import java.util.List;
-
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
-import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -29,6 +25,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final OrderKey[] keys;
+  /** Maximum number of tuples to be returned. */
+  private final long limit;
 
   /**
    * Constructor.
@@ -37,94 +35,69 @@ public final class OrderBy extends Clause {
    * @param info input info (can be {@code null})
    */
   public OrderBy(final VarRef[] refs, final OrderKey[] keys, final InputInfo info) {
+    this(refs, keys, Long.MAX_VALUE, info);
+  }
+
+  /**
+   * Constructor.
+   * @param refs variables to sort
+   * @param keys sort keys
+   * @param limit maximum number of tuples to be returned
+   * @param info input info (can be {@code null})
+   */
+  private OrderBy(final VarRef[] refs, final OrderKey[] keys, final long limit,
+      final InputInfo info) {
     super(info, Types.ITEM_ZM);
     this.refs = refs;
     this.keys = keys;
+    this.limit = limit;
   }
 
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
-      private Value[][] tpls;
-      private Integer[] perm;
-      int pos;
+      private TupleSort sort;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
+        if(sort == null) sort(qc);
+        final Value[] tuple = sort.next();
+        if(tuple == null) return false;
         final int rl = refs.length;
         for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
         return true;
       }
 
       /**
-       * Caches and sorts all incoming tuples.
+       * Caches all incoming tuples.
        * @param qc query context
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
+        sort = new TupleSort(keys, limit, qc.context.options.get(MainOptions.SORTLIMIT), qc);
         while(sub.next(qc)) {
           final int kl = keys.length;
           final Item[] key = new Item[kl];
           for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info());
-          tuples.add(key);
 
           final int rl = refs.length;
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
-        }
-
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
-        }
-        // be nice to the garbage collector
-        tuples = null;
-        try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              qc.checkStop();
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
-                if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
-                if(m != Empty.VALUE && n != Empty.VALUE && !m.comparable(n))
-                  throw typeError(n, m.type, key.info());
-
-                final int c = m == Empty.VALUE
-                    ? n == Empty.VALUE ? 0             : key.least ? -1 : 1
-                    : n == Empty.VALUE ? key.least ? 1 : -1 :
-                      m.compare(n, key.coll, true, qc, key.info());
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
-            }
-          });
-        } catch(final QueryRTException ex) {
-          throw ex.getCause();
+          sort.add(key, vals);
         }
       }
     };
   }
 
+  /**
+   * Returns an order by clause that returns a limited number of tuples.
+   * @param max maximum number of tuples
+   * @return this clause, or a new clause with the smaller limit
+   */
+  OrderBy limit(final long max) {
+    return max < limit ? copyType(new OrderBy(refs.clone(), keys.clone(), max, info)) : this;
+  }
+
   /**
    * Merges the order by clause with the supplied for clause.
    * @param fr for clause
@@ -193,7 +166,8 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjectMap<Var> vm) {
-    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info));
+    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), limit,
+        info));
   }
 
   @Override
@@ -240,13 +214,13 @@ public final class OrderBy extends Clause {
 
   @Override
   public boolean equals(final Object obj) {
-    return this == obj || obj instanceof final OrderBy o && Array.equals(refs, o.refs) &&
-        Array.equals(keys, o.keys);
+    return this == obj || obj instanceof final OrderBy o && limit == o.limit &&
+        Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
   }
 
   @Override
   public void toXml(final QueryPlan plan) {
-    plan.add(plan.create(this), keys);
+    plan.add(limit == Long.MAX_VALUE ? plan.create(this) : plan.create(this, LIMIT, limit), keys);
   }
 
   @Override
@@ -0,0 +1,163 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Writes items of tuples to temporary files and reads them back.
+ *
+ * Only atomic items and database nodes can be spilled. Database nodes are stored as references;
+ * the referenced databases are remembered by this instance.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class Spill {
+  /** Flag for the empty sequence. */
+  private static final int EMPTY = 0;
+  /** Flag for atomic items. */
+  private static final int ATOMIC = 1;
+  /** Flag for database nodes. */
+  private static final int DBNODE = 2;
+
+  /** Databases referenced by spilled nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Query context. */
+  private final QueryContext qc;
+
+  /**
+   * Constructor.
+   * @param qc query context
+   */
+  Spill(final QueryContext qc) {
+    this.qc = qc;
+  }
+
+  /**
+   * Creates a temporary file, which will be deleted when the query context is closed.
+   * @return file
+   * @throws QueryException query exception
+   */
+  IOFile file() throws QueryException {
+    try {
+      final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+      qc.resources.index(TempFiles.class).add(file);
+      return file;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(null, ex);
+    }
+  }
+
+  /**
+   * Opens a temporary file for writing.
+   * @param file file
+   * @param append append to existing contents
+   * @return data output
+   * @throws IOException I/O exception
+   */
+  static DataOutput output(final IOFile file, final boolean append) throws IOException {
+    return append ? new DataOutput(BufferOutput.get(new FileOutputStream(file.file(), true))) :
+      new DataOutput(file);
+  }
+
+  /**
+   * Writes a value.
+   * @param out data output
+   * @param value value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  void write(final DataOutput out, final Value value) throws IOException, QueryException {
+    out.writeLong(value.size());
+    for(final Item item : value) write(out, item);
+  }
+
+  /**
+   * Reads a value.
+   * @param in data input
+   * @return value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  Value value(final DataInput in) throws IOException, QueryException {
+    final long size = in.readLong();
+    final ValueBuilder vb = new ValueBuilder(qc, size);
+    for(long s = 0; s < size; s++) vb.add(item(in));
+    return vb.value();
+  }
+
+  /**
+   * Writes an item.
+   * @param out data output
+   * @param item item
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  void write(final DataOutput out, final Item item) throws IOException, QueryException {
+    if(item == Empty.VALUE) {
+      out.write(EMPTY);
+    } else if(item instanceof final DBNode node) {
+      final Data data = node.data();
+      int d = datas.indexOf(data);
+      if(d == -1) {
+        d = datas.size();
+        datas.add(data);
+      }
+      out.write(DBNODE);
+      out.writeNum(d);
+      out.writeNum(node.pre());
+    } else {
+      out.write(ATOMIC);
+      out.writeNum(item.type.index());
+      item.write(out);
+    }
+  }
+
+  /**
+   * Reads an item.
+   * @param in data input
+   * @return item
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  Item item(final DataInput in) throws IOException, QueryException {
+    return switch(in.read()) {
+      case EMPTY -> Empty.VALUE;
+      case DBNODE -> new DBNode(datas.get(in.readNum()), in.readNum());
+      default -> Types.type(in.readNum()).read(in, qc);
+    };
+  }
+
+  /**
+   * Checks if the items of the specified values can be spilled.
+   * @param values values
+   * @return result of check
+   */
+  static boolean spillable(final Value[] values) {
+    for(final Value value : values) {
+      for(final Item item : value) {
+        if(item != Empty.VALUE && !(item.type instanceof BasicType &&
+            item.type.instanceOf(BasicType.ANY_ATOMIC_TYPE)) && item.getClass() != DBNode.class) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
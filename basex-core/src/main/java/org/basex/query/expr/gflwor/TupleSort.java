@@ -0,0 +1,484 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.list.*;
+
+/**
+ * Sorts the tuples of an {@link OrderBy} clause.
+ *
+ * Tuples are sorted via a merge sort on primitive permutations, which is parallelized for large
+ * inputs. If the number of requested tuples is limited, only the best tuples are kept in a
+ * bounded heap. If the number of cached tuples exceeds the specified maximum, sorted runs are
+ * spilled to temporary files and merged on request. Only tuples with atomic items and database
+ * nodes can be spilled; if other tuples are encountered, the remaining tuples are kept in memory.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class TupleSort {
+  /** Minimum number of tuples for sorting in parallel. */
+  private static final int PARALLEL = 1 << 15;
+  /** Maximum number of tuples sorted by insertion. */
+  private static final int INSERTION = 16;
+
+  /** Sort keys. */
+  private final OrderKey[] keys;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Maximum number of tuples to be returned. */
+  private final long limit;
+  /** Maximum number of tuples to be cached before spilling ({@code 0}: no spilling). */
+  private final long max;
+
+  /** Keys of the cached tuples. */
+  private final ArrayList<Item[]> ks = new ArrayList<>();
+  /** Values of the cached tuples. */
+  private final ArrayList<Value[]> vs = new ArrayList<>();
+  /** Input positions of the cached tuples (only assigned if the number of tuples is limited). */
+  private final LongList seqs;
+  /** Heap with the positions of the cached tuples, worst tuple first (only for limits). */
+  private final IntList heap;
+  /** Number of added tuples. */
+  private long count;
+
+  /** Spilled runs. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Number of tuples in the spilled runs. */
+  private final LongList sizes = new LongList();
+  /** Spilled items ({@code null} if spilling is disabled). */
+  private final Spill spill;
+  /** Indicates if further tuples can be spilled. */
+  private boolean spillable;
+
+  /** Permutation of the cached tuples (assigned when all tuples have been added). */
+  private int[] perm;
+  /** Runs to be merged ({@code null} if no tuples were spilled). */
+  private Run[] runs;
+  /** Number of returned tuples. */
+  private long returned;
+
+  /**
+   * Constructor.
+   * @param keys sort keys
+   * @param limit maximum number of tuples to be returned
+   * @param max maximum number of tuples to be cached before spilling ({@code 0}: no spilling)
+   * @param qc query context
+   */
+  TupleSort(final OrderKey[] keys, final long limit, final long max, final QueryContext qc) {
+    this.keys = keys;
+    this.limit = limit;
+    this.max = max;
+    this.qc = qc;
+    final boolean top = limit < Integer.MAX_VALUE;
+    seqs = top ? new LongList() : null;
+    heap = top ? new IntList() : null;
+    spill = !top && max > 0 ? new Spill(qc) : null;
+    spillable = spill != null;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param key sort key
+   * @param tuple tuple values
+   * @throws QueryException query exception
+   */
+  void add(final Item[] key, final Value[] tuple) throws QueryException {
+    final long seq = count++;
+    if(heap != null) {
+      if(ks.size() < limit) {
+        // heap is not full yet: add tuple
+        final int p = ks.size();
+        ks.add(key);
+        vs.add(tuple);
+        seqs.add(seq);
+        heap.add(p);
+        up(heap.size() - 1);
+      } else if(compare(key, ks.get(heap.get(0))) < 0) {
+        // replace worst tuple (on equality, the tuple that was added first is better)
+        final int p = heap.get(0);
+        ks.set(p, key);
+        vs.set(p, tuple);
+        seqs.set(p, seq);
+        down(0);
+      }
+    } else {
+      ks.add(key);
+      vs.add(tuple);
+      if(spillable) {
+        // existing runs are kept: spill is still required for reading them
+        if(!Spill.spillable(key) || !Spill.spillable(tuple)) spillable = false;
+        else if(ks.size() >= max) spill();
+      }
+    }
+  }
+
+  /**
+   * Returns the next tuple in sort order.
+   * @return tuple, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  Value[] next() throws QueryException {
+    if(perm == null) finish();
+    if(returned == limit) return null;
+
+    final Run[] rns = runs;
+    Value[] tuple = null;
+    if(rns == null) {
+      if(returned < perm.length) {
+        final int p = perm[(int) returned];
+        tuple = vs.get(p);
+        // free the space occupied by the tuple
+        vs.set(p, null);
+      }
+    } else {
+      // choose best run (on equality, the tuples of the first run are returned first)
+      Run best = null;
+      for(final Run run : rns) {
+        if(run.key != null && (best == null || compare(run.key, best.key) < 0)) best = run;
+      }
+      if(best != null) {
+        tuple = best.tuple;
+        best.next();
+      }
+    }
+    if(tuple != null) returned++;
+    return tuple;
+  }
+
+  /**
+   * Sorts the cached tuples and prepares the runs for merging.
+   * @throws QueryException query exception
+   */
+  private void finish() throws QueryException {
+    perm = sort();
+    final int fl = files.size();
+    if(fl == 0) return;
+
+    runs = new Run[fl + 1];
+    for(int f = 0; f < fl; f++) runs[f] = new FileRun(files.get(f), sizes.get(f));
+    // tuples in main memory are added last
+    runs[fl] = new Run() {
+      int pos;
+
+      @Override
+      void next() {
+        if(pos < perm.length) {
+          final int p = perm[pos++];
+          key = ks.get(p);
+          tuple = vs.get(p);
+          ks.set(p, null);
+          vs.set(p, null);
+        } else {
+          key = null;
+          tuple = null;
+        }
+      }
+    };
+    for(final Run run : runs) run.next();
+  }
+
+  /**
+   * Sorts the cached tuples.
+   * @return permutation
+   * @throws QueryException query exception
+   */
+  private int[] sort() throws QueryException {
+    final int size = ks.size();
+    final int[] prm = new int[size];
+    for(int p = 0; p < size; p++) prm[p] = p;
+    if(size < 2) return prm;
+
+    final int[] tmp = prm.clone();
+    try {
+      if(size >= PARALLEL && parallel()) {
+        ForkJoinPool.commonPool().invoke(new SortTask(tmp, prm, 0, size));
+      } else {
+        sort(tmp, prm, 0, size);
+      }
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return prm;
+  }
+
+  /**
+   * Checks if the tuples can be sorted in parallel.
+   * @return result of check
+   */
+  private boolean parallel() {
+    // collators may not be thread-safe
+    for(final OrderKey key : keys) {
+      if(key.coll != null) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Sorts a range of a permutation (merge sort, adopted from {@link Arrays#sort(Object[])}).
+   * @param src source array (initially identical to the target array)
+   * @param trg target array
+   * @param from first index (inclusive)
+   * @param to last index (exclusive)
+   * @throws QueryException query exception
+   */
+  private void sort(final int[] src, final int[] trg, final int from, final int to)
+      throws QueryException {
+    if(to - from <= INSERTION) {
+      for(int i = from + 1; i < to; i++) {
+        for(int j = i; j > from && compare(trg[j - 1], trg[j]) > 0; j--) {
+          final int t = trg[j];
+          trg[j] = trg[j - 1];
+          trg[j - 1] = t;
+        }
+      }
+      return;
+    }
+    final int mid = from + to >>> 1;
+    sort(trg, src, from, mid);
+    sort(trg, src, mid, to);
+    merge(src, trg, from, mid, to);
+  }
+
+  /**
+   * Merges two sorted ranges.
+   * @param src source array
+   * @param trg target array
+   * @param from first index of the first range
+   * @param mid first index of the second range
+   * @param to last index of the second range (exclusive)
+   * @throws QueryException query exception
+   */
+  private void merge(final int[] src, final int[] trg, final int from, final int mid,
+      final int to) throws QueryException {
+    // skip merge if ranges are already in order
+    if(compare(src[mid - 1], src[mid]) <= 0) {
+      System.arraycopy(src, from, trg, from, to - from);
+      return;
+    }
+    for(int i = from, p = from, q = mid; i < to; i++) {
+      trg[i] = q >= to || p < mid && compare(src[p], src[q]) <= 0 ? src[p++] : src[q++];
+    }
+  }
+
+  /**
+   * Spills the cached tuples to a temporary file.
+   * @throws QueryException query exception
+   */
+  private void spill() throws QueryException {
+    final int[] prm = sort();
+    final IOFile file = spill.file();
+    try(DataOutput out = Spill.output(file, false)) {
+      for(final int p : prm) {
+        qc.checkStop();
+        for(final Item item : ks.get(p)) spill.write(out, item);
+        final Value[] tuple = vs.get(p);
+        out.writeNum(tuple.length);
+        for(final Value value : tuple) spill.write(out, value);
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(null, ex);
+    }
+    files.add(file);
+    sizes.add(prm.length);
+    ks.clear();
+    vs.clear();
+  }
+
+  /**
+   * Compares two cached tuples.
+   * @param p1 position of the first tuple
+   * @param p2 position of the second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final int p1, final int p2) throws QueryException {
+    final int c = compare(ks.get(p1), ks.get(p2));
+    return c != 0 || seqs == null ? c : Long.compare(seqs.get(p1), seqs.get(p2));
+  }
+
+  /**
+   * Compares two sort keys.
+   * @param key1 first key
+   * @param key2 second key
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item[] key1, final Item[] key2) throws QueryException {
+    qc.checkStop();
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = key1[k], n = key2[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
+      if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
+      if(m != Empty.VALUE && n != Empty.VALUE && !m.comparable(n))
+        throw typeError(n, m.type, key.info());
+
+      final int c = m == Empty.VALUE
+          ? n == Empty.VALUE ? 0             : key.least ? -1 : 1
+          : n == Empty.VALUE ? key.least ? 1 : -1 :
+            m.compare(n, key.coll, true, qc, key.info());
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
+  /**
+   * Moves a heap entry upward.
+   * @param index index of the entry
+   * @throws QueryException query exception
+   */
+  private void up(final int index) throws QueryException {
+    for(int i = index; i > 0;) {
+      final int parent = i - 1 >>> 1;
+      if(compare(heap.get(parent), heap.get(i)) >= 0) break;
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  /**
+   * Moves a heap entry downward.
+   * @param index index of the entry
+   * @throws QueryException query exception
+   */
+  private void down(final int index) throws QueryException {
+    final int size = heap.size();
+    for(int i = index;;) {
+      final int l = (i << 1) + 1, r = l + 1;
+      int worst = i;
+      if(l < size && compare(heap.get(l), heap.get(worst)) > 0) worst = l;
+      if(r < size && compare(heap.get(r), heap.get(worst)) > 0) worst = r;
+      if(worst == i) break;
+      swap(i, worst);
+      i = worst;
+    }
+  }
+
+  /**
+   * Swaps two heap entries.
+   * @param i1 first index
+   * @param i2 second index
+   */
+  private void swap(final int i1, final int i2) {
+    final int t = heap.get(i1);
+    heap.set(i1, heap.get(i2));
+    heap.set(i2, t);
+  }
+
+  /**
+   * Sorted run.
+   */
+  private abstract static class Run {
+    /** Key of the current tuple ({@code null} if the run is exhausted). */
+    Item[] key;
+    /** Values of the current tuple. */
+    Value[] tuple;
+
+    /**
+     * Proceeds to the next tuple.
+     * @throws QueryException query exception
+     */
+    abstract void next() throws QueryException;
+  }
+
+  /**
+   * Sorted run, spilled to a temporary file.
+   */
+  private final class FileRun extends Run {
+    /** Data input. */
+    private final DataInput in;
+    /** Remaining tuples. */
+    private long remaining;
+
+    /**
+     * Constructor.
+     * @param file temporary file
+     * @param size number of tuples
+     * @throws QueryException query exception
+     */
+    FileRun(final IOFile file, final long size) throws QueryException {
+      try {
+        in = new DataInput(file);
+      } catch(final IOException ex) {
+        throw IOERR_X.get(null, ex);
+      }
+      remaining = size;
+    }
+
+    @Override
+    void next() throws QueryException {
+      try {
+        if(remaining-- == 0) {
+          key = null;
+          tuple = null;
+          in.close();
+          return;
+        }
+        final int kl = keys.length;
+        key = new Item[kl];
+        for(int k = 0; k < kl; k++) key[k] = spill.item(in);
+        final int tl = in.readNum();
+        tuple = new Value[tl];
+        for(int t = 0; t < tl; t++) tuple[t] = spill.value(in);
+      } catch(final IOException ex) {
+        throw IOERR_X.get(null, ex);
+      }
+    }
+  }
+
+  /**
+   * Parallel merge sort.
+   */
+  private final class SortTask extends RecursiveAction {
+    /** Source array. */
+    private final int[] src;
+    /** Target array. */
+    private final int[] trg;
+    /** First index (inclusive). */
+    private final int from;
+    /** Last index (exclusive). */
+    private final int to;
+
+    /**
+     * Constructor.
+     * @param src source array
+     * @param trg target array
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     */
+    SortTask(final int[] src, final int[] trg, final int from, final int to) {
+      this.src = src;
+      this.trg = trg;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        if(to - from < PARALLEL) {
+          sort(src, trg, from, to);
+        } else {
+          final int mid = from + to >>> 1;
+          invokeAll(new SortTask(trg, src, from, mid), new SortTask(trg, src, mid, to));
+          merge(src, trg, from, mid, to);
+        }
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    }
+  }
+}
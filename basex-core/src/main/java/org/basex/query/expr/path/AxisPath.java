@@ -1,10 +1,22 @@
 package org.basex.query.expr.path;
 
+import static org.basex.query.QueryError.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.core.jobs.Job.*;
+import org.basex.data.*;
+import org.basex.index.path.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
@@ -16,6 +28,12 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class AxisPath extends Path {
+  /** Maximum number of partitions per processor (results in smaller, better balanced tasks). */
+  private static final int PARTITIONS = 4;
+
+  /** Evaluate path in parallel if all results are requested (see {@link #value}). */
+  boolean parallel;
+
   /**
    * Constructor.
    * @param info input info (can be {@code null})
@@ -29,13 +47,14 @@ public abstract class AxisPath extends Path {
   @Override
   public final Iter iter(final QueryContext qc) throws QueryException {
     final Value cached = cache(qc);
+    // iterate sequentially: the iterator may be consumed only partially
     return cached != null ? cached.iter() : iterator(qc);
   }
 
   @Override
   public final Value value(final QueryContext qc) throws QueryException {
     final Value cached = cache(qc);
-    return cached != null ? cached : nodes(qc);
+    return cached != null ? cached : evaluate(qc);
   }
 
   @Override
@@ -62,7 +81,7 @@ public abstract class AxisPath extends Path {
       case ENABLED -> {
         // second invocation (ready for caching): cache result
         if(cache.valid(value)) {
-          cache.cache(nodes(qc));
+          cache.cache(evaluate(qc));
         } else {
           // disable caching otherwise (expected to change frequently)
           cache.disable();
@@ -71,7 +90,7 @@ public abstract class AxisPath extends Path {
       case CACHED -> {
         // further invocations (result is cached): cache again if context has changed
         if(!cache.valid(value)) {
-          cache.update(value, nodes(qc));
+          cache.update(value, evaluate(qc));
         }
       }
       case DISABLED -> { }
@@ -79,6 +98,16 @@ public abstract class AxisPath extends Path {
     return cache.result;
   }
 
+  /**
+   * Returns all resulting nodes.
+   * @param qc query context
+   * @return nodes
+   * @throws QueryException query exception
+   */
+  private Value evaluate(final QueryContext qc) throws QueryException {
+    return parallel ? parallel(qc) : nodes(qc);
+  }
+
   /**
    * Returns a node iterator.
    * @param qc query context
@@ -132,4 +161,161 @@ public abstract class AxisPath extends Path {
   public final boolean ddo() {
     return true;
   }
+
+  /**
+   * Checks if the path can be evaluated in parallel. This is the case if:
+   * <ul>
+   *   <li> the root yields multiple documents of a single database,</li>
+   *   <li> the steps are deterministic, construct no nodes and reference no local variables,</li>
+   *   <li> the estimated number of nodes to be visited exceeds {@link MainOptions#PARALLELPATHS}.
+   *   </li>
+   * </ul>
+   * As documents do not overlap, the partial results can be concatenated in document order.
+   * Parallel evaluation is only applied if all results are requested. Iterators are evaluated
+   * sequentially, as their results may only be consumed in parts.
+   * @param cc compilation context
+   * @return self reference
+   */
+  final AxisPath parallel(final CompileContext cc) {
+    final long min = cc.qc.context.options.get(MainOptions.PARALLELPATHS);
+    if(min <= 0 || root == null || !root.seqType().type.instanceOf(NodeType.DOCUMENT)) return this;
+    final Data data = root.data();
+    if(data == null || data.meta.ndocs < 2 || root.size() == 1) return this;
+    for(final Expr step : steps) {
+      if(step.has(Flag.NDT, Flag.CNS, Flag.HOF) || step.hasFreeVars()) return this;
+    }
+
+    // estimate number of visited nodes: consult path index, or assume that all nodes are visited
+    long cost = data.meta.size;
+    if(data.meta.uptodate) {
+      ArrayList<PathNode> nodes = data.paths().root();
+      long count = 0;
+      for(final Expr step : steps) {
+        nodes = ((Step) step).nodes(nodes, false);
+        if(nodes == null) break;
+        for(final PathNode pn : nodes) count += pn.stats.count;
+      }
+      if(nodes != null) cost = count;
+    }
+    if(cost >= min) {
+      cc.info(QueryText.OPTPARALLEL_X, this);
+      parallel = true;
+    }
+    return this;
+  }
+
+  /**
+   * Evaluates the path in parallel. The root documents are split into partitions, which are
+   * evaluated in separate query contexts, and the results are joined in document order.
+   * @param qc query context
+   * @return resulting nodes
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc) throws QueryException {
+    final Value rt = root.value(qc);
+    final long size = rt.size();
+    final int partitions = (int) Math.min(size, PARTITIONS * Runtime.getRuntime().
+        availableProcessors());
+    final GNodeBuilder list = new GNodeBuilder();
+    if(partitions < 2 || !rt.seqType().type.instanceOf(NodeType.DOCUMENT)) {
+      // evaluate small and unexpected inputs sequentially
+      nodes(rt, 0, size, list, qc);
+      return list.value(this);
+    }
+
+    final QueryContext group = new QueryContext(qc, qc.ns);
+    final ArrayList<ForkJoinTask<GNodeBuilder>> tasks = new ArrayList<>(partitions);
+    try {
+      for(int p = 0; p < partitions; p++) {
+        final long start = size * p / partitions, end = size * (p + 1) / partitions;
+        tasks.add(ForkJoinPool.commonPool().submit(() -> {
+          try(QueryContext tqc = new QueryContext(group, qc.ns); Binding bound = tqc.bind()) {
+            final GNodeBuilder nodes = new GNodeBuilder();
+            nodes(rt, start, end, nodes, tqc);
+            return nodes;
+          }
+        }));
+      }
+      // partitions are ordered and disjoint: concatenate results
+      for(final ForkJoinTask<GNodeBuilder> task : tasks) {
+        for(final GNode node : task.get()) list.add(node);
+      }
+    } catch(final Exception ex) {
+      // cancel and wait for remaining partitions, pass on query and job exceptions
+      group.stop();
+      for(final ForkJoinTask<GNodeBuilder> task : tasks) task.quietlyJoin();
+      final Throwable e = Util.rootException(ex);
+      if(e instanceof final QueryException qe) throw qe;
+      if(e instanceof final JobException je) throw je;
+      throw BASEX_ERROR_X.get(info, e);
+    } finally {
+      group.close();
+    }
+    return list.value(this);
+  }
+
+  /**
+   * Evaluates the steps for a range of root items and adds the results to the specified list.
+   * @param rt root value
+   * @param start index of first root item
+   * @param end index of last root item (exclusive)
+   * @param list node list
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void nodes(final Value rt, final long start, final long end, final GNodeBuilder list,
+      final QueryContext qc) throws QueryException {
+    final QueryFocus focus = qc.focus, qf = new QueryFocus();
+    qc.focus = qf;
+    try {
+      for(long i = start; i < end; i++) {
+        qf.value = rt.itemAt(i);
+        iterate(0, list, qc, qf);
+      }
+    } finally {
+      qc.focus = focus;
+    }
+  }
+
+  /**
+   * Recursive step iterator.
+   * @param step current step
+   * @param list node cache
+   * @param qc query context
+   * @param qf query focus
+   * @throws QueryException query exception
+   */
+  final void iterate(final int step, final GNodeBuilder list, final QueryContext qc,
+      final QueryFocus qf) throws QueryException {
+
+    // cast is safe (steps will always return a {@link NodeIter} instance)
+    final NodeIter ni = (NodeIter) steps[step].iter(qc);
+    if(step + 1 == steps.length) {
+      for(GNode node; (node = ni.next()) != null;) {
+        list.add(node);
+      }
+    } else {
+      for(GNode node; (node = ni.next()) != null;) {
+        qf.value = node;
+        iterate(step + 1, list, qc, qf);
+      }
+    }
+  }
+
+  /**
+   * Assigns the parallel flag to a copied path.
+   * @param <T> path type
+   * @param path copied path
+   * @return copied path
+   */
+  final <T extends AxisPath> T copyParallel(final T path) {
+    path.parallel = parallel;
+    return path;
+  }
+
+  @Override
+  public final void toXml(final QueryPlan plan) {
+    plan.add(parallel ? plan.create(this, QueryText.PARALLEL, true) : plan.create(this), root,
+        steps);
+  }
 }
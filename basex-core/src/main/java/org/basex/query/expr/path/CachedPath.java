@@ -6,7 +6,6 @@ import org.basex.query.iter.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
-import org.basex.query.value.node.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -56,34 +55,9 @@ public final class CachedPath extends AxisPath {
     return list.value(this);
   }
 
-  /**
-   * Recursive step iterator.
-   * @param step current step
-   * @param list node cache
-   * @param qc query context
-   * @param qf query focus
-   * @throws QueryException query exception
-   */
-  private void iterate(final int step, final GNodeBuilder list, final QueryContext qc,
-      final QueryFocus qf) throws QueryException {
-
-    // cast is safe (steps will always return a {@link NodeIter} instance)
-    final NodeIter ni = (NodeIter) steps[step].iter(qc);
-    if(step + 1 == steps.length) {
-      for(GNode node; (node = ni.next()) != null;) {
-        list.add(node);
-      }
-    } else {
-      for(GNode node; (node = ni.next()) != null;) {
-        qf.value = node;
-        iterate(step + 1, list, qc, qf);
-      }
-    }
-  }
-
   @Override
   public AxisPath copy(final CompileContext cc, final IntObjectMap<Var> vm) {
     final Expr rt = root == null ? null : root.copy(cc, vm);
-    return copyType(new CachedPath(info, rt, Arr.copyAll(cc, vm, steps)));
+    return copyParallel(copyType(new CachedPath(info, rt, Arr.copyAll(cc, vm, steps))));
   }
 }
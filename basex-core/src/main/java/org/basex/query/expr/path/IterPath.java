@@ -73,6 +73,6 @@ public final class IterPath extends AxisPath {
   @Override
   public IterPath copy(final CompileContext cc, final IntObjectMap<Var> vm) {
     final Expr rt = root == null ? null : root.copy(cc, vm);
-    return copyType(new IterPath(info, rt, Arr.copyAll(cc, vm, steps)));
+    return copyParallel(copyType(new IterPath(info, rt, Arr.copyAll(cc, vm, steps))));
   }
 }
@@ -195,7 +195,9 @@ public abstract class Path extends ParseExpr {
     if(expr != this) return expr;
 
     // choose the best path implementation (dummy will be used for type checking)
-    return copyType(get(info, root == null && rt instanceof Dummy ? rt : root, steps));
+    expr = copyType(get(info, root == null && rt instanceof Dummy ? rt : root, steps));
+    // check if path can be evaluated in parallel
+    return expr instanceof final AxisPath path ? path.parallel(cc) : expr;
   }
 
   @Override
@@ -1231,7 +1233,7 @@ public abstract class Path extends ParseExpr {
   }
 
   @Override
-  public final void toXml(final QueryPlan plan) {
+  public void toXml(final QueryPlan plan) {
     plan.add(plan.create(this), root, steps);
   }
 
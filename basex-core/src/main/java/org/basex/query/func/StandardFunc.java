@@ -485,7 +485,7 @@ public abstract class StandardFunc extends Arr {
    */
   protected final Collation toCollation(final byte[] collation, final QueryContext qc)
       throws QueryException {
-    return Collation.get(collation, qc, info, WHICHCOLL_X);
+    return Collation.get(collation, info, WHICHCOLL_X);
   }
 
   /**
@@ -2,6 +2,7 @@ package org.basex.query.func.db;
 
 import static org.basex.query.QueryError.*;
 
+import org.basex.core.cmd.*;
 import org.basex.query.*;
 import org.basex.query.up.*;
 import org.basex.query.up.primitives.name.*;
@@ -23,6 +24,8 @@ public final class DbDropBackup extends BackupFn {
     checkCreate(name, qc);
     final StringList backups = qc.context.databases.backups(name);
     if(backups.isEmpty()) throw DB_NOBACKUP_X.get(info, name);
+    final String[] chain = DropBackup.chain(backups, qc.context.soptions);
+    if(chain != null) throw DB_CHAIN_X_X.get(info, chain[0], chain[1]);
 
     final Updates updates = qc.updates();
     for(final String backup : backups) {
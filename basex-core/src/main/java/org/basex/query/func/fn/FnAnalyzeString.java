@@ -3,8 +3,6 @@ package org.basex.query.func.fn;
 import static org.basex.query.QueryText.*;
 import static org.basex.util.Token.*;
 
-import java.util.regex.*;
-
 import org.basex.query.*;
 import org.basex.query.util.regex.*;
 import org.basex.query.value.item.*;
@@ -42,8 +40,8 @@ public final class FnAnalyzeString extends RegExFn {
     final byte[] pattern = toToken(arg(1), qc);
     final byte[] flags = toZeroToken(arg(2), qc);
 
-    final RegExpr regExpr = regExpr(pattern, flags, qc);
-    final Matcher matcher = regExpr.pattern.matcher(value);
+    final RegExpr regExpr = regExpr(pattern, flags);
+    final RegExMatcher matcher = regExpr.matcher(value);
     final FBuilder root = FElem.build(Q_ANALYZE_STRING_RESULT).ns();
     int start = 0;
     while(matcher.find()) {
@@ -64,8 +62,8 @@ public final class FnAnalyzeString extends RegExFn {
    * @param regExpr regExpr
    * @return next group number and position in string
    */
-  private static int[] match(final Matcher matcher, final String string, final FBuilder parent,
-      final int group, final RegExpr regExpr) {
+  private static int[] match(final RegExMatcher matcher, final String string,
+      final FBuilder parent, final int group, final RegExpr regExpr) {
 
     final FBuilder node = FElem.build(group == 0 ? Q_MATCH : Q_MGROUP);
     if(group > 0) {
@@ -1,11 +1,13 @@
 package org.basex.query.func.fn;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 
@@ -23,10 +25,26 @@ public class FnContains extends StandardFunc {
 
   @Override
   protected final boolean test(final QueryContext qc, final long pos) throws QueryException {
-    final byte[] value = toZeroToken(arg(0), qc);
+    final Expr value = arg(0);
+    final Item item = untypedNodes(value) ? value.item(qc, info) : value.atomItem(qc, info);
     final byte[] substring = toZeroToken(arg(1), qc);
     final Collation collation = toCollation(arg(2), qc);
-    return test(value, substring, collation);
+    // test database texts without materializing them
+    if(collation == null && item instanceof final DBNode node) {
+      final TokenView view = node.textView();
+      if(view != null) return test(view, substring);
+    }
+    return test(item.isEmpty() ? Token.EMPTY : toToken(item), substring, collation);
+  }
+
+  /**
+   * Performs the test on the view of a database text.
+   * @param view view
+   * @param substring substring
+   * @return result of check
+   */
+  boolean test(final TokenView view, final byte[] substring) {
+    return view.contains(substring);
   }
 
   /**
@@ -1,5 +1,6 @@
 package org.basex.query.func.fn;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.util.collation.*;
 import org.basex.util.*;
@@ -17,4 +18,9 @@ public final class FnEndsWith extends FnContains {
     return collation == null ? Token.endsWith(value, substring) :
       collation.endsWith(value, substring, info);
   }
+
+  @Override
+  boolean test(final TokenView view, final byte[] substring) {
+    return view.endsWith(substring);
+  }
 }
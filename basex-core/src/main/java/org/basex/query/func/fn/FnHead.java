@@ -7,6 +7,7 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.value.item.*;
@@ -60,6 +61,11 @@ public final class FnHead extends StandardFunc {
       // static integer will always be greater than 1
       if(input.arg(1) instanceof Itr) return cc.function(HEAD, info, input.arg(0));
     }
+    // head(for ... order by ... return E): return the first sorted tuple
+    if(input instanceof final GFLWOR flwor) {
+      final Expr limited = flwor.limit(1);
+      if(limited != flwor) return cc.function(HEAD, info, limited);
+    }
     // head(file:read-text-lines(E)) → file:read-text-lines(E, 0, 1)
     if(_FILE_READ_TEXT_LINES.is(input))
       return FileReadTextLines.opt(this, 0, 1, cc);
@@ -8,6 +8,7 @@ import java.util.function.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -131,6 +132,11 @@ public final class FnItemsAt extends StandardFunc {
           occ = Occ.EXACTLY_ONE;
         }
         if(l == 0) return cc.function(HEAD, info, input);
+        // items-at(for ... order by ... return E, 10): return at most 10 sorted tuples
+        if(input instanceof final GFLWOR flwor) {
+          final Expr limited = flwor.limit(l + 1);
+          if(limited != flwor) return cc.function(ITEMS_AT, info, limited, at);
+        }
 
         // items-at(tail(E), pos) → items-at(E, pos + 1)
         if(TAIL.is(input))
@@ -1,7 +1,5 @@
 package org.basex.query.func.fn;
 
-import java.util.regex.*;
-
 import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.util.regex.*;
@@ -23,9 +21,9 @@ public final class FnMatchingSegments extends RegExFn {
     final byte[] pattern = toToken(arg(1), qc);
     final byte[] flags = toZeroToken(arg(2), qc);
 
-    final RegExpr regExpr = regExpr(pattern, flags, qc);
+    final RegExpr regExpr = regExpr(pattern, flags);
     final String[] names = regExpr.getGroupNames();
-    final Matcher matcher = regExpr.pattern.matcher(value);
+    final RegExMatcher matcher = regExpr.matcher(value);
     final ValueBuilder vb = new ValueBuilder(qc);
     while(matcher.find()) {
       final MapBuilder groups = new MapBuilder();
@@ -2,10 +2,12 @@ package org.basex.query.func.fn;
 
 import static org.basex.query.value.type.BasicType.*;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 
 /**
@@ -17,7 +19,22 @@ import org.basex.query.value.type.*;
 public final class FnNumber extends ContextFn {
   @Override
   protected Item item(final QueryContext qc) throws QueryException {
-    final Item value = context(qc).atomItem(qc, info);
+    final Expr context = context(qc);
+    final Item value;
+    if(untypedNodes(context)) {
+      final Item item = context.item(qc, info);
+      // convert database texts without materializing them (fall back for special values)
+      if(item instanceof final DBNode node) {
+        final TokenView view = node.textView();
+        if(view != null) {
+          final double d = view.toDouble();
+          if(d != 0 && !Double.isNaN(d)) return Dbl.get(d);
+        }
+      }
+      value = item.atomItem(qc, info);
+    } else {
+      value = context.atomItem(qc, info);
+    }
     if(value.isEmpty()) return Dbl.NAN;
     // invalid input: NaN is returned
     final Item cast = (Item) DOUBLE.seqType().cast(value, false, qc, info);
@@ -23,7 +23,7 @@ public final class FnRegex extends RegExFn {
     final byte[] flags = toZeroToken(arg(1), qc);
 
     // validate pattern and pre-warm cache
-    regExpr(pattern, flags, qc);
+    regExpr(pattern, flags);
     final Str pttrn = Str.get(pattern);
     final Str flgs = Str.get(flags);
     return XQMap.get(Records.COMPILED_REGEX.get(), pttrn, flgs,
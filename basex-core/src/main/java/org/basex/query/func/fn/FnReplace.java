@@ -50,9 +50,9 @@ public final class FnReplace extends RegExFn {
         return Str.get(replace(value, search, replace));
       }
     }
-    final RegExpr regExpr = regExpr(pattern, flags, qc);
+    final RegExpr regExpr = regExpr(pattern, flags);
     final String input = string(value);
-    final Matcher matcher = regExpr.pattern.matcher(input);
+    final RegExMatcher matcher = regExpr.matcher(input);
 
     if(func) {
       // deprecated: groups are passed on as sequence
@@ -138,8 +138,8 @@ public final class FnReplace extends RegExFn {
    * @return groups
    * @throws QueryException query exception
    */
-  private static Value groups(final Matcher matcher, final String[] names, final QueryContext qc)
-      throws QueryException {
+  private static Value groups(final RegExMatcher matcher, final String[] names,
+      final QueryContext qc) throws QueryException {
     final int gc = matcher.groupCount();
     if(names == null) {
       final ValueBuilder vb = new ValueBuilder(qc);
@@ -1,5 +1,6 @@
 package org.basex.query.func.fn;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.util.collation.*;
 import org.basex.util.*;
@@ -17,4 +18,9 @@ public final class FnStartsWith extends FnContains {
     return collation == null ? Token.startsWith(value, substring) :
       collation.startsWith(value, substring, info);
   }
+
+  @Override
+  boolean test(final TokenView view, final byte[] substring) {
+    return view.startsWith(substring);
+  }
 }
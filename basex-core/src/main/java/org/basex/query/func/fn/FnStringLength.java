@@ -2,10 +2,12 @@ package org.basex.query.func.fn;
 
 import static org.basex.query.func.Function.*;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 
 /**
@@ -21,6 +23,11 @@ public final class FnStringLength extends ContextFn {
     if(value.isEmpty()) return Itr.ZERO;
     // optimization to return pre-computed string length
     if(value instanceof final AStr str) return Itr.get(str.length(info));
+    // count codepoints of database texts without materializing them
+    if(value instanceof final DBNode node) {
+      final TokenView view = node.textView();
+      if(view != null) return Itr.get(view.length());
+    }
     return Itr.get(Token.length(value.string(info)));
   }
 
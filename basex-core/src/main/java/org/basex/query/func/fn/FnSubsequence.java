@@ -7,6 +7,7 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -256,6 +257,14 @@ public class FnSubsequence extends StandardFunc {
           if(!one) break;
         }
       }
+      // subsequence(for ... order by ... return E, 1, 10): return at most 10 sorted tuples
+      if(input instanceof final GFLWOR flwor) {
+        final Expr limited = flwor.limit(sr.end);
+        if(limited != flwor) {
+          return cc.function(SUBSEQUENCE, info, limited, Itr.get(sr.start + 1),
+              Itr.get(sr.length));
+        }
+      }
     } else if(first instanceof final Itr itr) {
       final long start = itr.itr(), diff = FnItemsAt.countInputDiff(input, second) + start;
       if(diff == (int) diff) {
@@ -2,11 +2,10 @@ package org.basex.query.func.fn;
 
 import static org.basex.query.func.Function.*;
 
-import java.util.regex.*;
-
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.regex.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
@@ -54,10 +53,10 @@ public final class FnTokenize extends RegExFn {
       };
     }
 
-    final Pattern p = pattern(pattern, flags, qc);
+    final RegExpr regExpr = regExpr(pattern, flags);
     return vl == 0 ? Empty.ITER : new Iter() {
       final String string = Token.string(value);
-      final Matcher matcher = p.matcher(string);
+      final RegExMatcher matcher = regExpr.matcher(string);
       int start;
 
       @Override
@@ -86,14 +85,14 @@ public final class FnTokenize extends RegExFn {
     if(literal != null) return vl == 0 ? Empty.VALUE :
       StrSeq.get(Token.split(value, literal, true));
 
-    final Pattern p = pattern(pattern, flags, qc);
+    final RegExpr regExpr = regExpr(pattern, flags);
     if(vl == 0) return Empty.VALUE;
 
     final TokenList tl = new TokenList();
     final String string = Token.string(value);
     final int len = string.length();
     int start = 0;
-    for(final Matcher matcher = p.matcher(string); matcher.find();) {
+    for(final RegExMatcher matcher = regExpr.matcher(string); matcher.find();) {
       final int ms = matcher.start(), me = matcher.end();
       if(ms != len && me != 0) {
         tl.add(string.substring(start, ms));
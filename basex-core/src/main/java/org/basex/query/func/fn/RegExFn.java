@@ -22,39 +22,17 @@ public abstract class RegExFn extends StandardFunc {
   /** Regex characters. */
   static final byte[] REGEX_CHARS = Token.token("\\^$.|?*+()[]{}");
 
-  /**
-   * Returns a regular expression pattern.
-   * @param pattern pattern
-   * @param flags flags (can be {@code null})
-   * @param qc query context
-   * @return pattern modifier
-   * @throws QueryException query exception
-   */
-  final Pattern pattern(final byte[] pattern, final byte[] flags, final QueryContext qc)
-      throws QueryException {
-    return regExpr(pattern, flags, qc).pattern;
-  }
-
   /**
    * Returns a compiled regular expression.
    * @param pattern pattern
    * @param flags flags
-   * @param qc query context
    * @return compiled regular expression
    * @throws QueryException query exception
    */
-  final RegExpr regExpr(final byte[] pattern, final byte[] flags, final QueryContext qc)
-      throws QueryException {
-
-    final byte[] key = Token.concat(pattern, '\b', flags);
-    synchronized(qc.regex) {
-      RegExpr regExpr = qc.regex.get(key);
-      if(regExpr == null) {
-        regExpr = parse(pattern, flags);
-        qc.regex.put(key, regExpr);
-      }
-      return regExpr;
-    }
+  final RegExpr regExpr(final byte[] pattern, final byte[] flags) throws QueryException {
+    final String key = Token.string(Token.concat(pattern, '\b', flags));
+    final RegExpr regExpr = RegExpr.CACHE.get(key);
+    return regExpr != null ? regExpr : RegExpr.CACHE.add(key, parse(pattern, flags));
   }
 
   /**
@@ -80,7 +58,7 @@ public abstract class RegExFn extends StandardFunc {
   }
 
   /**
-   * Compiles this regular expression to a {@link Pattern}.
+   * Compiles this regular expression to a {@link Pattern} and, if possible, an automaton.
    * @param regex regular expression to parse
    * @param modifiers modifiers
    * @return the pattern
@@ -105,15 +83,13 @@ public abstract class RegExFn extends StandardFunc {
 
     try {
       // Java syntax, literal query: no need to change anything
-      final Pattern pattern;
-      if(java || (flags & LITERAL) != 0) {
-        pattern = Pattern.compile(string(regex), flags);
-      } else {
-        final RegExParser parser = new RegExParser(regex, strip, comments,
-            (flags & DOTALL) != 0, (flags & MULTILINE) != 0, (flags & CASE_INSENSITIVE) != 0);
-        pattern = Pattern.compile(parser.parse().toString(), flags);
-      }
-      return new RegExpr(pattern);
+      if(java || (flags & LITERAL) != 0) return new RegExpr(Pattern.compile(string(regex), flags));
+
+      final RegExParser parser = new RegExParser(regex, strip, comments,
+          (flags & DOTALL) != 0, (flags & MULTILINE) != 0, (flags & CASE_INSENSITIVE) != 0);
+      final RegExp regExp = parser.parse();
+      // use automaton if the expression contains no back-references or assertions
+      return new RegExpr(Pattern.compile(regExp.toString(), flags), NFA.get(regExp, flags));
     } catch(final PatternSyntaxException | ParseException | TokenMgrError ex) {
       throw REGINVALID_X.get(info, regex).cause(ex);
     }
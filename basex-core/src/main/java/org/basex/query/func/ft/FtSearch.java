@@ -22,7 +22,7 @@ public final class FtSearch extends FtAccessFn {
   public NodeIter iter(final QueryContext qc) throws QueryException {
     final Data data = toData(qc);
     final Value query = arg(1).value(qc);
-    final FtIndexOptions options = options(2, FtIndexOptions::new, qc);
+    final FtSearchOptions options = options(2, FtSearchOptions::new, qc);
 
     final IndexDb db = new IndexStaticDb(data, info);
     final FTMode mode = options.get(FtIndexOptions.MODE);
@@ -30,7 +30,9 @@ public final class FtSearch extends FtAccessFn {
     final FTOpt opt = ftOpt(options, new FTOpt().assign(data.meta).assign(qc.ftOpt()), qc);
 
     final FTWords ftw = new FTWords(info, db, query, mode).ftOpt(opt).optimize(qc);
-    return new FTIndexAccess(info, ftExpr(ftw, options), db).iter(qc);
+    final FTIndexAccess access = new FTIndexAccess(info, ftExpr(ftw, options), db);
+    final int limit = options.get(FtSearchOptions.LIMIT);
+    return limit > 0 ? access.iter(limit, qc) : access.iter(qc);
   }
 
   @Override
@@ -40,7 +42,7 @@ public final class FtSearch extends FtAccessFn {
 
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
-    optOptions(2, FtIndexOptions::new, cc);
+    optOptions(2, FtSearchOptions::new, cc);
     return compileData(cc);
   }
 
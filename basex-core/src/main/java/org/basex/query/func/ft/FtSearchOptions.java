@@ -0,0 +1,14 @@
+package org.basex.query.func.ft;
+
+import org.basex.util.options.*;
+
+/**
+ * Full-text options: index options, extended by the search options.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class FtSearchOptions extends FtIndexOptions {
+  /** Option: maximum number of results with the highest scores (0 or less: all results). */
+  public static final NumberOption LIMIT = new NumberOption("limit", 0);
+}
@@ -12,4 +12,11 @@ import org.basex.query.value.node.*;
 public abstract class FTIter extends Iter {
   @Override
   public abstract FTNode next() throws QueryException;
+
+  /**
+   * Announces that nodes with a smaller score than the specified one will be discarded.
+   * Nodes can then be skipped if their score cannot reach the threshold.
+   * @param min minimum score
+   */
+  public void prune(final double min) { }
 }
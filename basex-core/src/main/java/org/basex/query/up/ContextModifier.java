@@ -119,10 +119,9 @@ abstract class ContextModifier {
     } catch(final IOException ex) {
       throw DB_LOCK2_X.get(null, ex);
     } finally {
-      // remove locks: in case of a crash, remove only already acquired write locks
-      for(final Data data : datas) {
-        data.finishUpdate(ctx.options);
-      }
+      // remove locks: in case of a crash, remove only already acquired write locks.
+      // databases are committed in parallel: their journals are synchronized at the same time
+      datas.parallelStream().forEach(data -> data.finishUpdate(ctx.options));
     }
 
     // apply remaining updates based on database names
@@ -67,7 +67,7 @@ final class BaseXCollation extends Collation {
   @Override
   public byte[] key(final byte[] string, final InputInfo info) throws QueryException {
     if(!(collator instanceof final RuleBasedCollator rbc)) throw CHARCOLL.get(info);
-    return rbc.getCollationKey(Token.string(string)).toByteArray();
+    return key(Token.string(string), str -> rbc.getCollationKey(str).toByteArray());
   }
 
   /**
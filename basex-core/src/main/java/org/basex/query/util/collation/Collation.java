@@ -5,12 +5,12 @@ import static org.basex.query.QueryText.*;
 import static org.basex.util.Token.*;
 
 import java.util.*;
+import java.util.function.*;
 
 import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
-import org.basex.util.hash.*;
 import org.basex.util.list.*;
 import org.basex.util.options.Options.*;
 
@@ -29,6 +29,12 @@ public abstract class Collation {
   public static final byte[] UCA = concat(W3_URL, "/2013/collation/UCA");
   /** BaseX collation URI. */
   public static final byte[] BASEX = token(BASEX_URL + "/collation");
+  /** Collations, shared by all queries. */
+  public static final BoundedCache<String, Collation> CACHE = new BoundedCache<>(100);
+  /** Collation keys of rule-based collations. */
+  public static final BoundedCache<Key, byte[]> KEYS = new BoundedCache<>(10000);
+  /** Maximum length of strings with cached collation keys. */
+  private static final int KEYLENGTH = 64;
   /** Collation URI. */
   private byte[] uri = EMPTY;
 
@@ -43,14 +49,13 @@ public abstract class Collation {
   /**
    * Returns a collation instance for the specified URI.
    * @param uri collation URI (can be {@code null})
-   * @param qc query context
    * @param info input info (can be {@code null})
    * @param err error code for unknown collation URIs
    * @return collation instance or {@code null} for Unicode point collation
    * @throws QueryException query exception
    */
-  public static Collation get(final byte[] uri, final QueryContext qc, final InputInfo info,
-      final QueryError err) throws QueryException {
+  public static Collation get(final byte[] uri, final InputInfo info, final QueryError err)
+      throws QueryException {
 
     // return default collation
     if(uri == null) return info.sc().collation;
@@ -63,25 +68,21 @@ public abstract class Collation {
     // return Unicode point collation
     if(eq(COLLATION_URI, url)) return null;
 
-    // create new collation or return cached instance
-    if(qc.collations == null) qc.collations = new TokenObjectMap<>();
-    Collation coll = qc.collations.get(url);
-    if(coll == null) {
-      coll = get(url, info, err);
-      qc.collations.put(url, coll);
-    }
-    return coll;
+    // return cached instance or create new collation
+    final String key = string(url);
+    final Collation coll = CACHE.get(key);
+    return coll != null ? coll : CACHE.add(key, create(url, info, err));
   }
 
   /**
-   * Returns a collation instance for the specified URI.
+   * Creates a collation instance for the specified URI.
    * @param uri collation URI
    * @param info input info (can be {@code null})
    * @param err error code for unknown collation URIs
-   * @return collation instance or {@code null} if URI is invalid
+   * @return collation instance
    * @throws QueryException query exception
    */
-  private static Collation get(final byte[] uri, final InputInfo info, final QueryError err)
+  private static Collation create(final byte[] uri, final InputInfo info, final QueryError err)
       throws QueryException {
 
     // static collations
@@ -244,6 +245,20 @@ public abstract class Collation {
   protected abstract int indexOf(String string, String sub, Mode mode, InputInfo info)
       throws QueryException;
 
+  /**
+   * Returns a cached collation key or computes a new one. Keys of long strings are not cached:
+   * they are rarely requested again, and the size of the cache is bounded by its number of keys.
+   * @param string string
+   * @param func function for computing the key
+   * @return key
+   */
+  final byte[] key(final String string, final Function<String, byte[]> func) {
+    if(string.length() > KEYLENGTH) return func.apply(string);
+    final Key k = new Key(this, string);
+    final byte[] key = KEYS.get(k);
+    return key != null ? key : KEYS.add(k, func.apply(string));
+  }
+
   /**
    * Returns a standard collation key.
    * @param string string
@@ -254,4 +269,11 @@ public abstract class Collation {
     Token.forEachCp(string, cp -> bl.add(cp >>> 16).add(cp >>> 8).add(cp));
     return bl.finish();
   }
+
+  /**
+   * Key of a cached collation key.
+   * @param collation collation
+   * @param string string
+   */
+  public record Key(Collation collation, String string) { }
 }
@@ -95,7 +95,7 @@ final class UCACollation extends Collation {
 
   @Override
   public byte[] key(final byte[] string, final InputInfo info) {
-    return collator.getCollationKey(Token.string(string)).toByteArray();
+    return key(Token.string(string), str -> collator.getCollationKey(str).toByteArray());
   }
 
   /**
@@ -172,6 +172,8 @@ public final class UCAOptions extends CollationOptions {
       if(!list.isEmpty()) rbc.setReorderCodes(list.finish());
     }
 
+    // frozen collators can be shared by concurrent queries
+    rbc.freeze();
     return new UCACollation(rbc);
   }
 
@@ -60,6 +60,14 @@ public final class ModuleLoader {
     resolved.clear();
   }
 
+  /**
+   * Indicates if no Java modules and no class loaders have been registered.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return javaModules.isEmpty() && loaders.isEmpty();
+  }
+
   /**
    * Adds a package from the repository or a Java class.
    * @param uri module URI
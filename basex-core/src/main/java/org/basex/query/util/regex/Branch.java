@@ -22,4 +22,13 @@ public final class Branch extends RegExp {
   void toRegEx(final StringBuilder sb) {
     for(final RegExp piece : pieces) piece.toRegEx(sb);
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    final int pl = pieces.length;
+    for(int p = 0; p < pl; p++) {
+      if(!pieces[nfa.reverse ? pl - 1 - p : p].compile(nfa)) return false;
+    }
+    return true;
+  }
 }
@@ -1,5 +1,7 @@
 package org.basex.query.util.regex;
 
+import java.util.regex.*;
+
 /**
  * A group that forces case-sensitive matching, emitted as {@code (?-i:...)}. Used to shield
  * category escapes such as {@code \p{Lu}} from the {@code i} flag, which per the XPath/XQuery
@@ -24,4 +26,13 @@ public final class CaseSensitive extends RegExp {
     encl.toRegEx(sb.append("(?-i:"));
     sb.append(')');
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    final int flags = nfa.flags;
+    nfa.flags &= ~Pattern.CASE_INSENSITIVE;
+    final boolean ok = encl.compile(nfa);
+    nfa.flags = flags;
+    return ok;
+  }
 }
@@ -36,4 +36,9 @@ public final class CharClass extends RegExp {
     }
     sb.append(']');
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return nfa.add(this);
+  }
 }
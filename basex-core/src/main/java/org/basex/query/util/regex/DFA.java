@@ -0,0 +1,279 @@
+package org.basex.query.util.regex;
+
+import static org.basex.query.util.regex.NFA.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.util.list.*;
+
+/**
+ * Deterministic finite automaton, which is lazily built from the instructions of an {@link NFA}.
+ * A state represents the ordered list of threads that are active at a position, and it is only
+ * created when it is reached for the first time. The number of cached states is limited;
+ * states beyond that limit are recomputed whenever they are reached.
+ *
+ * A forward automaton finds the end of the leftmost match, following the priorities of the
+ * threads (see {@link NFAMatcher}). An automaton for the reversed expression is then run
+ * backward from the end of the match to find its start.
+ *
+ * The automaton can be accessed by concurrent threads. Concurrent updates of the caches are
+ * benign, as cached entries are either unset or correct.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class DFA {
+  /** Maximum number of cached states. */
+  private static final int MAX = 1000;
+  /** Number of code points for which transitions are cached in arrays. */
+  private static final int TABLE = 256;
+
+  /** Cached states. */
+  private final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<>();
+  /** Automaton. */
+  private final NFA nfa;
+  /** Forward automaton: start new threads at each position, prefer threads of earlier starts. */
+  private final boolean forward;
+  /** Initial state. */
+  private final State initial;
+
+  /**
+   * Constructor.
+   * @param nfa automaton
+   * @param forward forward automaton
+   */
+  DFA(final NFA nfa, final boolean forward) {
+    this.nfa = nfa;
+    this.forward = forward;
+    initial = state(new int[] { 0 }, false);
+  }
+
+  /**
+   * Returns the end of the leftmost match (forward automaton).
+   * @param input input string
+   * @param from start position
+   * @return end offset, or {@code -1} if no match is found
+   */
+  int end(final String input, final int from) {
+    final int length = input.length();
+    final String prefix = nfa.prefix;
+    int end = -1;
+    State state = initial;
+    for(int pos = from;;) {
+      if(state == initial && prefix != null) {
+        // no active threads: skip characters at which no match can start
+        pos = input.indexOf(prefix, pos);
+        if(pos == -1) break;
+      }
+      final Closure closure = state.closure(nfa.context(input, pos), this);
+      if(closure.match) end = pos;
+      if(pos == length) break;
+      final int cp = input.codePointAt(pos);
+      state = closure.next(cp, this);
+      if(state.pcs.length == 0) break;
+      pos += Character.charCount(cp);
+    }
+    return end;
+  }
+
+  /**
+   * Returns the start of the leftmost match that ends at the specified position
+   * (automaton for the reversed expression).
+   * @param input input string
+   * @param end end of the match
+   * @param from minimum start position
+   * @return start offset, or {@code -1} if no match is found
+   */
+  int start(final String input, final int end, final int from) {
+    int start = -1;
+    State state = initial;
+    for(int pos = end;;) {
+      final Closure closure = state.closure(nfa.context(input, pos), this);
+      if(closure.match) start = pos;
+      if(pos <= from) break;
+      final int cp = input.codePointBefore(pos);
+      state = closure.next(cp, this);
+      if(state.pcs.length == 0) break;
+      pos -= Character.charCount(cp);
+    }
+    return start;
+  }
+
+  /**
+   * Returns a state.
+   * @param pcs instructions of the active threads, ordered by their priority
+   * @param matched indicates if a match has been found (no more threads will be started)
+   * @return state
+   */
+  private State state(final int[] pcs, final boolean matched) {
+    final State state = new State(pcs, matched);
+    final State cached = states.get(state);
+    if(cached != null) return cached;
+    if(states.size() >= MAX) return state;
+    state.cached = true;
+    final State old = states.putIfAbsent(state, state);
+    return old != null ? old : state;
+  }
+
+  /**
+   * Follows all instructions that do not consume characters.
+   * @param state state
+   * @param context assertions that are satisfied at the current position
+   * @return closure
+   */
+  private Closure closure(final State state, final int context) {
+    final int[] ops = nfa.ops, args1 = nfa.args1, args2 = nfa.args2;
+    final IntList chars = new IntList(), stack = new IntList();
+    final BitSet visited = new BitSet(ops.length);
+    boolean match = false;
+    // threads are processed in the order of their priority
+    threads: for(final int start : state.pcs) {
+      stack.push(start);
+      while(!stack.isEmpty()) {
+        final int pc = stack.pop();
+        if(visited.get(pc)) continue;
+        visited.set(pc);
+        switch(ops[pc]) {
+          case CHAR -> chars.add(pc);
+          case MATCH -> {
+            match = true;
+            // forward automaton: discard threads with lower priority
+            if(forward) break threads;
+          }
+          case JUMP -> stack.push(args1[pc]);
+          case SPLIT -> stack.add(args2[pc], args1[pc]);
+          case SAVE -> stack.push(pc + 1);
+          default -> {
+            // assertions
+            if((context & 1 << ops[pc] - BEGIN) != 0) stack.push(pc + 1);
+          }
+        }
+      }
+    }
+    return new Closure(state.cached, chars.finish(), match, state.matched || match);
+  }
+
+  /**
+   * Computes the state that is reached by consuming a character.
+   * @param closure closure
+   * @param cp code point
+   * @return state
+   */
+  private State next(final Closure closure, final int cp) {
+    final IntList pcs = new IntList();
+    for(final int pc : closure.chars) {
+      if(nfa.tests[pc].test(cp)) pcs.add(pc + 1);
+    }
+    // forward automaton: start a new thread with the lowest priority until a match is found
+    final boolean matched = forward && closure.matched;
+    if(forward && !matched) pcs.add(0);
+    return state(pcs.finish(), matched);
+  }
+
+  /**
+   * State of the automaton.
+   */
+  private static final class State {
+    /** Instructions of the active threads, ordered by their priority. */
+    private final int[] pcs;
+    /** Indicates if a match has been found. */
+    private final boolean matched;
+    /** Closures for the contexts of positions (created on demand). */
+    private final Closure[] closures = new Closure[16];
+    /** Indicates if the state is cached. */
+    private boolean cached;
+
+    /**
+     * Constructor.
+     * @param pcs instructions
+     * @param matched indicates if a match has been found
+     */
+    private State(final int[] pcs, final boolean matched) {
+      this.pcs = pcs;
+      this.matched = matched;
+    }
+
+    /**
+     * Returns the closure for the specified context.
+     * @param context assertions that are satisfied at the current position
+     * @param dfa automaton
+     * @return closure
+     */
+    private Closure closure(final int context, final DFA dfa) {
+      Closure closure = closures[context];
+      if(closure == null) {
+        closure = dfa.closure(this, context);
+        if(cached) closures[context] = closure;
+      }
+      return closure;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return this == obj || obj instanceof final State state && matched == state.matched &&
+          Arrays.equals(pcs, state.pcs);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(pcs) + (matched ? 1 : 0);
+    }
+  }
+
+  /**
+   * Threads of a state that have reached character tests or a match.
+   */
+  private static final class Closure {
+    /** Character tests, ordered by the priority of their threads. */
+    private final int[] chars;
+    /** Indicates if a thread has reached a match. */
+    private final boolean match;
+    /** Indicates if a match has been found before or at the current position. */
+    private final boolean matched;
+    /** Cached transitions for small code points ({@code null} if the state is not cached). */
+    private final State[] table;
+    /** Cached transitions for other code points ({@code null} if the state is not cached). */
+    private final ConcurrentHashMap<Integer, State> map;
+
+    /**
+     * Constructor.
+     * @param cached indicates if transitions are to be cached
+     * @param chars character tests
+     * @param match indicates if a thread has reached a match
+     * @param matched indicates if a match has been found
+     */
+    private Closure(final boolean cached, final int[] chars, final boolean match,
+        final boolean matched) {
+      this.chars = chars;
+      this.match = match;
+      this.matched = matched;
+      table = cached ? new State[TABLE] : null;
+      map = cached ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Returns the state that is reached by consuming a character.
+     * @param cp code point
+     * @param dfa automaton
+     * @return state
+     */
+    private State next(final int cp, final DFA dfa) {
+      if(table == null) return dfa.next(this, cp);
+      if(cp < TABLE) {
+        State state = table[cp];
+        if(state == null) {
+          state = dfa.next(this, cp);
+          if(state.cached) table[cp] = state;
+        }
+        return state;
+      }
+      State state = map.get(cp);
+      if(state == null) {
+        state = dfa.next(this, cp);
+        if(state.cached) map.put(cp, state);
+      }
+      return state;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.list.*;
+
 /**
  * A disjunction of branches.
  *
@@ -24,4 +26,23 @@ public final class Disjunction extends RegExp {
     final int bl = branches.length;
     for(int b = 1; b < bl; b++) branches[b].toRegEx(sb.append('|'));
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    // SPLIT next, alternative; branch; JUMP end; alternative: ...
+    final IntList jumps = new IntList();
+    final int bl = branches.length;
+    for(int b = 0; b < bl; b++) {
+      final boolean last = b + 1 == bl;
+      final int split = nfa.size();
+      if(!last && !nfa.add(NFA.SPLIT, split + 1, 0) || !branches[b].compile(nfa)) return false;
+      if(!last) {
+        jumps.add(nfa.size());
+        if(!nfa.add(NFA.JUMP, 0, 0)) return false;
+        nfa.arg2(split, nfa.size());
+      }
+    }
+    for(final int jump : jumps.finish()) nfa.arg1(jump, nfa.size());
+    return true;
+  }
 }
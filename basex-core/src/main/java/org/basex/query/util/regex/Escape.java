@@ -109,6 +109,11 @@ public final class Escape extends RegExp {
     sb.append(img);
   }
 
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return nfa.add(this);
+  }
+
   /**
    * Merges codepoint ranges.
    * @param rss ranges
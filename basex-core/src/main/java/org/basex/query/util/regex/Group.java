@@ -81,4 +81,11 @@ public final class Group extends RegExp {
     encl.toRegEx(sb);
     sb.append(')');
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    if(!capture || nfa.reverse) return encl.compile(nfa);
+    final int slot = nfa.group(this, name);
+    return nfa.add(NFA.SAVE, slot, 0) && encl.compile(nfa) && nfa.add(NFA.SAVE, slot + 1, 0);
+  }
 }
@@ -0,0 +1,54 @@
+package org.basex.query.util.regex;
+
+import java.util.regex.*;
+
+/**
+ * Matcher that uses the backtracking engine of {@link Pattern}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class JavaMatcher extends RegExMatcher {
+  /** Matcher. */
+  private final Matcher matcher;
+
+  /**
+   * Constructor.
+   * @param pattern pattern
+   * @param input input string
+   */
+  JavaMatcher(final Pattern pattern, final String input) {
+    super(input);
+    matcher = pattern.matcher(input);
+  }
+
+  @Override
+  public boolean find() {
+    return matcher.find();
+  }
+
+  @Override
+  public int start(final int group) {
+    return matcher.start(group);
+  }
+
+  @Override
+  public int end(final int group) {
+    return matcher.end(group);
+  }
+
+  @Override
+  public int groupCount() {
+    return matcher.groupCount();
+  }
+
+  @Override
+  public String group(final int group) {
+    return matcher.group(group);
+  }
+
+  @Override
+  public String replaceAll(final String replacement) {
+    return matcher.replaceAll(replacement);
+  }
+}
@@ -49,4 +49,10 @@ public final class LineBorder extends RegExp {
   void toRegEx(final StringBuilder sb) {
     sb.append(start ? "^" : eos(multi));
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return nfa.add(start ? multi ? NFA.LINE_START : NFA.BEGIN : multi ? NFA.LINE_END : NFA.END,
+        0, 0);
+  }
 }
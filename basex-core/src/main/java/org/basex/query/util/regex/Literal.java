@@ -23,6 +23,11 @@ public final class Literal extends RegExp {
     sb.append(escape(codepoint));
   }
 
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return nfa.add(codepoint);
+  }
+
   /**
    * Escapes the given code point for a regular expression.
    * @param cp code point
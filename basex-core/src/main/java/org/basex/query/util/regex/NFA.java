@@ -0,0 +1,410 @@
+package org.basex.query.util.regex;
+
+import static java.util.regex.Pattern.*;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.regex.*;
+
+import org.basex.util.list.*;
+
+/**
+ * Nondeterministic finite automaton, compiled from a regular expression without back-references
+ * and lookaround assertions. Matching simulates all threads of the automaton in parallel
+ * (Pike VM, see {@link NFAMatcher}), which takes linear time in the length of the input, whereas
+ * the backtracking engine of {@link Pattern} may take exponential time for some expressions.
+ * The boundaries of matches are found with lazily built deterministic automata (see {@link DFA}),
+ * and the threads are only simulated if captured groups are requested.
+ * Matches and captured groups are identical to those of the compiled {@link Pattern}. Expressions
+ * with repetitions of subexpressions that can match empty strings are not compiled, as the
+ * backtracking engine terminates such repetitions with its own rules.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class NFA {
+  /** Maximum number of instructions (counted repetitions are expanded). */
+  private static final int MAX = 5000;
+
+  /** Instruction: tests a character. */
+  static final int CHAR = 0;
+  /** Instruction: continues with two alternatives (arguments), the first one being preferred. */
+  static final int SPLIT = 1;
+  /** Instruction: continues with the specified instruction. */
+  static final int JUMP = 2;
+  /** Instruction: saves the current position in the specified slot. */
+  static final int SAVE = 3;
+  /** Instruction: start of input. */
+  static final int BEGIN = 4;
+  /** Instruction: start of line (multi-line mode). */
+  static final int LINE_START = 5;
+  /** Instruction: end of line (multi-line mode). */
+  static final int LINE_END = 6;
+  /** Instruction: end of input. */
+  static final int END = 7;
+  /** Instruction: successful match. */
+  static final int MATCH = 8;
+
+  /** Operations. */
+  final int[] ops;
+  /** First arguments (instruction or slot). */
+  final int[] args1;
+  /** Second arguments (instruction, or literal code point of a character test). */
+  final int[] args2;
+  /** Character tests. */
+  final IntPredicate[] tests;
+  /** Names of capturing groups: element i contains the name of group i+1, or {@code null}. */
+  final String[] names;
+  /** Number of slots: start and end positions of the match and all groups. */
+  final int slots;
+  /** Character tests with which all matches start (can be {@code null}). */
+  final int[] starts;
+  /** String with which all matches start (can be {@code null}). */
+  final String prefix;
+  /** Assertions used by the automaton (bit mask, see {@link #context(String, int)}). */
+  final int assertions;
+  /** Deterministic automaton (can be {@code null}). */
+  final DFA dfa;
+  /** Automaton for the reversed expression (can be {@code null}). */
+  final NFA backward;
+
+  /**
+   * Constructor.
+   * @param builder builder
+   * @param backward automaton for the reversed expression (can be {@code null})
+   */
+  private NFA(final Builder builder, final NFA backward) {
+    ops = builder.ops.finish();
+    args1 = builder.args1.finish();
+    args2 = builder.args2.finish();
+    tests = builder.tests.toArray(IntPredicate[]::new);
+    names = builder.names.toArray(String[]::new);
+    slots = names.length + 1 << 1;
+    starts = starts();
+    prefix = prefix();
+
+    int asserts = 0;
+    for(final int op : ops) {
+      if(op >= BEGIN && op <= END) asserts |= 1 << op - BEGIN;
+    }
+    assertions = asserts;
+    dfa = new DFA(this, !builder.reverse);
+    this.backward = backward;
+  }
+
+  /**
+   * Returns the literal string with which all matches start.
+   * @return string or {@code null}
+   */
+  private String prefix() {
+    if(starts == null || starts.length != 1) return null;
+    final StringBuilder sb = new StringBuilder();
+    for(int pc = starts[0]; ops[pc] == CHAR && args2[pc] != -1;) {
+      sb.appendCodePoint(args2[pc]);
+      while(ops[++pc] == SAVE);
+    }
+    return sb.isEmpty() ? null : sb.toString();
+  }
+
+  /**
+   * Returns the character tests that are reachable from the first instruction without consuming
+   * characters. If a match can be empty or depend on its position, {@code null} is returned.
+   * @return character tests or {@code null}
+   */
+  private int[] starts() {
+    final IntList list = new IntList(), stack = new IntList();
+    final BitSet visited = new BitSet();
+    stack.push(0);
+    while(!stack.isEmpty()) {
+      final int pc = stack.pop();
+      if(visited.get(pc)) continue;
+      visited.set(pc);
+      switch(ops[pc]) {
+        case CHAR -> list.add(pc);
+        case JUMP -> stack.push(args1[pc]);
+        case SPLIT -> stack.add(args1[pc], args2[pc]);
+        case SAVE -> stack.push(pc + 1);
+        default -> {
+          return null;
+        }
+      }
+    }
+    return list.finish();
+  }
+
+  /**
+   * Compiles a regular expression to an automaton.
+   * @param regex regular expression
+   * @param flags flags of the compiled pattern
+   * @return automaton, or {@code null} if the expression contains unsupported constructs
+   */
+  public static NFA get(final RegExp regex, final int flags) {
+    final Builder builder = new Builder(flags, false);
+    if(!builder.compile(regex)) return null;
+    // the reversed expression is used to find the start of a match
+    final Builder reverse = new Builder(flags, true);
+    return new NFA(builder, reverse.compile(regex) ? new NFA(reverse, null) : null);
+  }
+
+  /**
+   * Returns the assertions that are satisfied at the specified position.
+   * @param input input string
+   * @param pos position
+   * @return bit mask (bits are only set for assertions used by the automaton)
+   */
+  int context(final String input, final int pos) {
+    if(assertions == 0) return 0;
+    int context = 0;
+    if(pos == 0) context |= 1;
+    if(lineStart(input, pos)) context |= 1 << LINE_START - BEGIN;
+    if(lineEnd(input, pos)) context |= 1 << LINE_END - BEGIN;
+    if(pos == input.length()) context |= 1 << END - BEGIN;
+    return context & assertions;
+  }
+
+  /**
+   * Checks if the specified position is the start of a line (see {@code ^} in multi-line mode).
+   * @param input input string
+   * @param pos position
+   * @return result of check
+   */
+  static boolean lineStart(final String input, final int pos) {
+    if(pos == input.length()) return false;
+    if(pos == 0) return true;
+    final char ch = input.charAt(pos - 1);
+    return ch == '\r' ? input.charAt(pos) != '\n' : ch == '\n' || ch == '\u0085' ||
+      (ch | 1) == '\u2029';
+  }
+
+  /**
+   * Checks if the specified position is the end of a line (see {@code $} in multi-line mode).
+   * @param input input string
+   * @param pos position
+   * @return result of check
+   */
+  static boolean lineEnd(final String input, final int pos) {
+    if(pos == input.length()) return true;
+    final char ch = input.charAt(pos);
+    return ch == '\n' ? pos == 0 || input.charAt(pos - 1) != '\r' : ch == '\r' ||
+      ch == '\u0085' || (ch | 1) == '\u2029';
+  }
+
+  /**
+   * Returns the number of capturing groups.
+   * @return number of groups
+   */
+  int groups() {
+    return names.length;
+  }
+
+  /**
+   * Builder for the instructions of an automaton.
+   */
+  static final class Builder {
+    /** Operations. */
+    private final IntList ops = new IntList();
+    /** First arguments. */
+    private final IntList args1 = new IntList();
+    /** Second arguments. */
+    private final IntList args2 = new IntList();
+    /** Character tests. */
+    private final ArrayList<IntPredicate> tests = new ArrayList<>();
+    /** Group names. */
+    private final ArrayList<String> names = new ArrayList<>();
+    /** Group numbers. */
+    private final IdentityHashMap<Group, Integer> groups = new IdentityHashMap<>();
+    /** Character tests for the string representations of atoms. */
+    private final HashMap<String, IntPredicate> atoms = new HashMap<>();
+    /** Indicates if the expression is compiled in reverse order. */
+    final boolean reverse;
+    /** Current flags. */
+    int flags;
+
+    /**
+     * Constructor.
+     * @param flags flags
+     * @param reverse compile expression in reverse order (capturing groups will be ignored)
+     */
+    private Builder(final int flags, final boolean reverse) {
+      this.flags = flags;
+      this.reverse = reverse;
+    }
+
+    /**
+     * Compiles a regular expression, enclosed by the slots of the match.
+     * @param regex regular expression
+     * @return success flag
+     */
+    private boolean compile(final RegExp regex) {
+      return add(SAVE, 0, 0) && regex.compile(this) && add(SAVE, 1, 0) && add(MATCH, 0, 0);
+    }
+
+    /**
+     * Returns the number of instructions.
+     * @return number of instructions
+     */
+    int size() {
+      return ops.size();
+    }
+
+    /**
+     * Adds an instruction.
+     * @param op operation
+     * @param arg1 first argument
+     * @param arg2 second argument
+     * @return {@code false} if the maximum number of instructions has been reached
+     */
+    boolean add(final int op, final int arg1, final int arg2) {
+      if(ops.size() == MAX) return false;
+      ops.add(op);
+      args1.add(arg1);
+      args2.add(arg2);
+      tests.add(null);
+      return true;
+    }
+
+    /**
+     * Adds a character test.
+     * @param test test
+     * @return {@code false} if the maximum number of instructions has been reached
+     */
+    boolean add(final IntPredicate test) {
+      return add(test, -1);
+    }
+
+    /**
+     * Adds a character test.
+     * @param test test
+     * @param cp literal code point ({@code -1} if the test matches other characters)
+     * @return {@code false} if the maximum number of instructions has been reached
+     */
+    private boolean add(final IntPredicate test, final int cp) {
+      if(!add(CHAR, 0, cp)) return false;
+      tests.set(tests.size() - 1, test);
+      return true;
+    }
+
+    /**
+     * Adds a test for a single code point.
+     * @param cp code point
+     * @return {@code false} if the maximum number of instructions has been reached
+     */
+    boolean add(final int cp) {
+      if((flags & CASE_INSENSITIVE) == 0) return add(c -> c == cp, cp);
+      // replicates the case-insensitive comparison of java.util.regex.Pattern
+      final int lc = Character.toLowerCase(Character.toUpperCase(cp));
+      return add(c -> c == lc || Character.toLowerCase(Character.toUpperCase(c)) == lc);
+    }
+
+    /**
+     * Adds a test for an atom that matches a single code point.
+     * @param atom atom
+     * @return {@code false} if the maximum number of instructions has been reached
+     */
+    boolean add(final RegExp atom) {
+      final String regex = atom.toString();
+      final int fl = flags & (CASE_INSENSITIVE | UNICODE_CASE | DOTALL);
+      final IntPredicate test = atoms.computeIfAbsent(fl + regex,
+          k -> new PatternTest(Pattern.compile(regex, fl)));
+      return add(test);
+    }
+
+    /**
+     * Sets the first argument of an instruction.
+     * @param pc instruction
+     * @param arg argument
+     */
+    void arg1(final int pc, final int arg) {
+      args1.set(pc, arg);
+    }
+
+    /**
+     * Sets the second argument of an instruction.
+     * @param pc instruction
+     * @param arg argument
+     */
+    void arg2(final int pc, final int arg) {
+      args2.set(pc, arg);
+    }
+
+    /**
+     * Checks if the instructions from the specified one to the end can be passed without
+     * consuming characters.
+     * @param start first instruction
+     * @return result of check
+     */
+    boolean empty(final int start) {
+      final int size = ops.size();
+      final IntList stack = new IntList();
+      final BitSet visited = new BitSet();
+      stack.push(start);
+      while(!stack.isEmpty()) {
+        final int pc = stack.pop();
+        if(pc == size) return true;
+        if(visited.get(pc)) continue;
+        visited.set(pc);
+        switch(ops.get(pc)) {
+          case CHAR, MATCH -> { }
+          case JUMP -> stack.push(args1.get(pc));
+          case SPLIT -> stack.add(args1.get(pc), args2.get(pc));
+          default -> stack.push(pc + 1);
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the slot for the start position of a capturing group.
+     * @param group group
+     * @param name name of the group (can be {@code null})
+     * @return slot
+     */
+    int group(final Group group, final String name) {
+      return groups.computeIfAbsent(group, g -> {
+        names.add(name);
+        return names.size();
+      }) << 1;
+    }
+  }
+
+  /**
+   * Tests single code points with a compiled pattern. Results for the Basic Multilingual Plane
+   * are cached; concurrent updates are benign, as cached entries are either unset or correct.
+   */
+  private static final class PatternTest implements IntPredicate {
+    /** Pattern. */
+    private final Pattern pattern;
+    /** Cached results in pages of 256 code points (0: unknown, 1: no match, 2: match). */
+    private final byte[][] pages = new byte[256][];
+
+    /**
+     * Constructor.
+     * @param pattern pattern
+     */
+    private PatternTest(final Pattern pattern) {
+      this.pattern = pattern;
+    }
+
+    @Override
+    public boolean test(final int cp) {
+      if(cp > 0xFFFF) return matches(cp);
+      byte[] page = pages[cp >>> 8];
+      if(page == null) {
+        page = new byte[256];
+        pages[cp >>> 8] = page;
+      }
+      final int c = cp & 0xFF;
+      if(page[c] == 0) page[c] = (byte) (matches(cp) ? 2 : 1);
+      return page[c] == 2;
+    }
+
+    /**
+     * Matches a code point.
+     * @param cp code point
+     * @return result of check
+     */
+    private boolean matches(final int cp) {
+      return pattern.matcher(new String(Character.toChars(cp))).matches();
+    }
+  }
+}
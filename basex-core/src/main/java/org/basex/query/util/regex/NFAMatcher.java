@@ -0,0 +1,385 @@
+package org.basex.query.util.regex;
+
+import static org.basex.query.util.regex.NFA.*;
+
+import java.util.*;
+
+/**
+ * Matcher that simulates a {@link NFA} (Pike VM). All threads of the automaton advance in
+ * parallel, character by character. Threads are kept in the order of their priority,
+ * which corresponds to the order in which a backtracking engine would try them, and only the
+ * first thread arriving at an instruction is retained.
+ * If deterministic automata are available, they are used to find the boundaries of matches,
+ * and the threads are only simulated within a match if its groups are requested.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class NFAMatcher extends RegExMatcher {
+  /** Start offset that has not been computed yet. */
+  private static final int UNKNOWN = -2;
+
+  /** Automaton. */
+  private final NFA nfa;
+  /** Length of the input. */
+  private final int length;
+  /** Active threads. */
+  private Threads threads;
+  /** Threads for the next position. */
+  private Threads next;
+  /** Generation for each instruction in which it was last visited. */
+  private final int[] visited;
+  /** Current generation. */
+  private int gen;
+  /** Stack with pending instructions, or slots to be restored (negative values). */
+  private final int[] stack;
+  /** Slot values to be restored. */
+  private final int[] values;
+  /** Slots of the thread that is currently processed. */
+  private final int[] slots;
+  /** Slots of the current match. */
+  private final int[] match;
+  /** Start and end offsets of the current match ({@code -1}: no match, {@link #UNKNOWN}). */
+  private int first = -1, last;
+  /** Position from which the current match was searched. */
+  private int from;
+  /** Indicates if the slots of the current match have been computed. */
+  private boolean captured;
+
+  /**
+   * Constructor.
+   * @param nfa automaton
+   * @param input input string
+   */
+  NFAMatcher(final NFA nfa, final String input) {
+    super(input);
+    this.nfa = nfa;
+    length = input.length();
+    final int size = nfa.ops.length;
+    threads = new Threads(size);
+    next = new Threads(size);
+    visited = new int[size];
+    stack = new int[size << 1 | 1];
+    values = new int[size << 1 | 1];
+    slots = new int[nfa.slots];
+    match = new int[nfa.slots];
+  }
+
+  @Override
+  public boolean find() {
+    // continue after the last match, skip empty matches (see Matcher#find)
+    final int pos = last == first() ? last + 1 : last;
+    captured = false;
+    if(pos <= length) {
+      if(nfa.backward != null) {
+        // find the end of the match; its start and groups will be computed on demand
+        final int end = nfa.dfa.end(input, pos);
+        if(end != -1) {
+          from = pos;
+          first = UNKNOWN;
+          last = end;
+          return true;
+        }
+      } else if(search(pos, false)) {
+        first = match[0];
+        last = match[1];
+        captured = true;
+        return true;
+      }
+    }
+    first = -1;
+    last = length + 1;
+    return false;
+  }
+
+  @Override
+  public int start(final int group) {
+    return check(group) == 0 ? first() : captured()[group << 1];
+  }
+
+  @Override
+  public int end(final int group) {
+    return check(group) == 0 ? last : captured()[group << 1 | 1];
+  }
+
+  @Override
+  public int groupCount() {
+    return nfa.groups();
+  }
+
+  @Override
+  public String replaceAll(final String replacement) {
+    first = -1;
+    last = 0;
+    final StringBuilder sb = new StringBuilder();
+    int pos = 0;
+    while(find()) {
+      sb.append(input, pos, first());
+      replace(replacement, sb);
+      pos = last;
+    }
+    return sb.append(input, pos, length).toString();
+  }
+
+  /**
+   * Appends the replacement for the current match.
+   * Syntax and error handling correspond to {@link java.util.regex.Matcher#appendReplacement}.
+   * @param replacement replacement string
+   * @param sb string builder
+   */
+  private void replace(final String replacement, final StringBuilder sb) {
+    final int rl = replacement.length();
+    for(int r = 0; r < rl; r++) {
+      char ch = replacement.charAt(r);
+      if(ch == '\\') {
+        if(++r == rl) throw new IllegalArgumentException("Character to be escaped is missing");
+        sb.append(replacement.charAt(r));
+      } else if(ch == '$') {
+        if(++r == rl) throw new IllegalArgumentException("Illegal group reference");
+        ch = replacement.charAt(r);
+        int group;
+        if(ch == '{') {
+          final int e = replacement.indexOf('}', r);
+          if(e == -1) throw new IllegalArgumentException("Named group is missing trailing '}'");
+          final String name = replacement.substring(r + 1, e);
+          group = Arrays.asList(nfa.names).indexOf(name) + 1;
+          if(group == 0) throw new IllegalArgumentException("No group with name {" + name + '}');
+          r = e;
+        } else {
+          group = ch - '0';
+          if(group < 0 || group > 9) throw new IllegalArgumentException("Illegal group reference");
+          // consume further digits as long as they form a valid group reference
+          while(r + 1 < rl) {
+            final int d = replacement.charAt(r + 1) - '0';
+            if(d < 0 || d > 9 || group * 10 + d > groupCount()) break;
+            group = group * 10 + d;
+            r++;
+          }
+        }
+        final String string = group(group);
+        if(string != null) sb.append(string);
+      } else {
+        sb.append(ch);
+      }
+    }
+  }
+
+  /**
+   * Returns the start offset of the current match.
+   * @return start offset ({@code -1}: no match)
+   */
+  private int first() {
+    if(first == UNKNOWN) first = nfa.backward.dfa.start(input, last, from);
+    return first;
+  }
+
+  /**
+   * Returns the slots of the current match.
+   * @return slots
+   */
+  private int[] captured() {
+    if(!captured) {
+      // simulate the threads, starting from the start of the match
+      search(first(), true);
+      captured = true;
+    }
+    return match;
+  }
+
+  /**
+   * Checks if the specified group exists.
+   * @param group group
+   * @return group
+   */
+  private int check(final int group) {
+    if(first == -1) throw new IllegalStateException("No match available");
+    if(group < 0 || group > groupCount()) {
+      throw new IndexOutOfBoundsException("No group " + group);
+    }
+    return group;
+  }
+
+  /**
+   * Searches the leftmost match, starting from the specified position.
+   * @param from start position
+   * @param anchored only consider matches that start at the start position
+   * @return success flag
+   */
+  private boolean search(final int from, final boolean anchored) {
+    boolean found = false;
+    threads.size = 0;
+    nextGen();
+    for(int pos = from;;) {
+      if(anchored) {
+        if(pos == from) {
+          Arrays.fill(slots, -1);
+          add(threads, 0, pos);
+        } else if(threads.size == 0) {
+          break;
+        }
+      } else if(!found) {
+        final int[] starts = nfa.starts;
+        if(starts != null && threads.size == 0) {
+          // no active threads: skip characters at which no match can start
+          pos = skip(pos, starts);
+          if(pos == -1) break;
+          nextGen();
+        }
+        // start a new thread with the lowest priority at each position until a match is found
+        if(starts == null || pos < length && starts(input.codePointAt(pos), starts)) {
+          Arrays.fill(slots, -1);
+          add(threads, 0, pos);
+        }
+      } else if(threads.size == 0) {
+        break;
+      }
+      final int cp = pos < length ? input.codePointAt(pos) : -1;
+      final int np = pos + Character.charCount(cp);
+      nextGen();
+      next.size = 0;
+      final int size = threads.size;
+      for(int t = 0; t < size; t++) {
+        final int pc = threads.pcs[t];
+        final int[] sl = threads.slots[t];
+        if(nfa.ops[pc] == MATCH) {
+          // discard threads with lower priority
+          System.arraycopy(sl, 0, match, 0, match.length);
+          found = true;
+          break;
+        }
+        if(cp != -1 && nfa.tests[pc].test(cp)) {
+          System.arraycopy(sl, 0, slots, 0, slots.length);
+          add(next, pc + 1, np);
+        }
+      }
+      final Threads tmp = threads;
+      threads = next;
+      next = tmp;
+      if(cp == -1) break;
+      pos = np;
+    }
+    return found;
+  }
+
+  /**
+   * Returns the next position at which a match can start.
+   * @param pos current position
+   * @param starts character tests with which all matches start
+   * @return position, or {@code -1} if no match is possible
+   */
+  private int skip(final int pos, final int[] starts) {
+    if(nfa.prefix != null) return input.indexOf(nfa.prefix, pos);
+    for(int p = pos; p < length;) {
+      final int cp = input.codePointAt(p);
+      if(starts(cp, starts)) return p;
+      p += Character.charCount(cp);
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if a new thread can start with the specified character.
+   * @param cp code point
+   * @param starts character tests with which all matches start
+   * @return result of check
+   */
+  private boolean starts(final int cp, final int[] starts) {
+    // skip tests that have already been reached by threads with higher priority
+    for(final int pc : starts) {
+      if(visited[pc] != gen && nfa.tests[pc].test(cp)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Follows all instructions that do not consume characters, and adds the threads reaching
+   * character tests or matches to the specified list. The slots of the current thread are
+   * temporarily updated.
+   * @param list thread list
+   * @param start first instruction
+   * @param pos current position
+   */
+  private void add(final Threads list, final int start, final int pos) {
+    final int[] ops = nfa.ops, args1 = nfa.args1, args2 = nfa.args2;
+    int sp = 0;
+    stack[sp++] = start;
+    while(sp > 0) {
+      final int pc = stack[--sp];
+      if(pc < 0) {
+        slots[~pc] = values[sp];
+        continue;
+      }
+      if(visited[pc] == gen) continue;
+      visited[pc] = gen;
+      switch(ops[pc]) {
+        case JUMP -> stack[sp++] = args1[pc];
+        case SPLIT -> {
+          stack[sp++] = args2[pc];
+          stack[sp++] = args1[pc];
+        }
+        case SAVE -> {
+          final int slot = args1[pc];
+          values[sp] = slots[slot];
+          stack[sp++] = ~slot;
+          slots[slot] = pos;
+          stack[sp++] = pc + 1;
+        }
+        case BEGIN -> {
+          if(pos == 0) stack[sp++] = pc + 1;
+        }
+        case LINE_START -> {
+          if(lineStart(input, pos)) stack[sp++] = pc + 1;
+        }
+        case LINE_END -> {
+          if(lineEnd(input, pos)) stack[sp++] = pc + 1;
+        }
+        case END -> {
+          if(pos == length) stack[sp++] = pc + 1;
+        }
+        default -> list.add(pc, slots);
+      }
+    }
+  }
+
+  /**
+   * Starts a new generation of visited instructions.
+   */
+  private void nextGen() {
+    if(++gen == Integer.MAX_VALUE) {
+      Arrays.fill(visited, 0);
+      gen = 1;
+    }
+  }
+
+  /**
+   * List of threads.
+   */
+  private static final class Threads {
+    /** Instructions. */
+    private final int[] pcs;
+    /** Slots (created on demand). */
+    private final int[][] slots;
+    /** Number of threads. */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param capacity maximum number of threads
+     */
+    private Threads(final int capacity) {
+      pcs = new int[capacity];
+      slots = new int[capacity][];
+    }
+
+    /**
+     * Adds a thread.
+     * @param pc instruction
+     * @param sl slots
+     */
+    private void add(final int pc, final int[] sl) {
+      if(slots[size] == null) slots[size] = sl.clone();
+      else System.arraycopy(sl, 0, slots[size], 0, sl.length);
+      pcs[size++] = pc;
+    }
+  }
+}
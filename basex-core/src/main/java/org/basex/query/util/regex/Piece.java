@@ -37,4 +37,9 @@ public final class Piece extends RegExp {
       quant.toRegEx(sb);
     }
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return quant.compile(atom, nfa);
+  }
 }
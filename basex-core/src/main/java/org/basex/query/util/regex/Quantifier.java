@@ -1,5 +1,7 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.list.*;
+
 /**
  * A quantifier, like {@code ?}, {@code *} or {@code &#x7b;17,123&#x7d;}.
  *
@@ -39,6 +41,70 @@ public final class Quantifier extends RegExp {
     sb.append(string()).append(lazy ? "?" : "");
   }
 
+  /**
+   * Compiles the repetitions of an atom to instructions of a finite automaton.
+   * @param atom atom
+   * @param nfa automaton builder
+   * @return {@code false} if the expression cannot be represented by the automaton
+   */
+  boolean compile(final RegExp atom, final NFA.Builder nfa) {
+    int start = nfa.size();
+    for(int m = 0; m < min; m++) {
+      start = nfa.size();
+      if(!compile(atom, nfa, start)) return false;
+    }
+    if(max == -1) {
+      if(min > 0) {
+        // start: atom; SPLIT start, end; end: ...
+        final int split = nfa.size();
+        if(!nfa.add(NFA.SPLIT, 0, 0)) return false;
+        split(nfa, split, start);
+      } else {
+        // loop: SPLIT body, end; body: atom; JUMP loop; end: ...
+        final int loop = nfa.size();
+        if(!nfa.add(NFA.SPLIT, 0, 0) || !compile(atom, nfa, loop + 1) ||
+            !nfa.add(NFA.JUMP, loop, 0)) return false;
+        split(nfa, loop, loop + 1);
+      }
+    } else {
+      // optional occurrences: SPLIT next, end; atom; SPLIT next, end; atom; ...; end: ...
+      final IntList splits = new IntList();
+      for(int m = min; m < max; m++) {
+        final int split = nfa.size();
+        splits.add(split);
+        if(!nfa.add(NFA.SPLIT, 0, 0) || !compile(atom, nfa, split + 1)) return false;
+      }
+      for(final int split : splits.finish()) split(nfa, split, split + 1);
+    }
+    return true;
+  }
+
+  /**
+   * Compiles a single occurrence of an atom. Repetitions of atoms that can match empty strings
+   * are rejected: the backtracking engine terminates them with rules that depend on the
+   * structure of the compiled pattern, and that cannot be replicated by the automaton.
+   * @param atom atom
+   * @param nfa automaton builder
+   * @param start first instruction of the atom
+   * @return {@code false} if the expression cannot be represented by the automaton
+   */
+  private boolean compile(final RegExp atom, final NFA.Builder nfa, final int start) {
+    return atom.compile(nfa) && (min == 1 && max == 1 || !nfa.empty(start));
+  }
+
+  /**
+   * Assigns the targets of a split instruction: the next iteration of the atom, or the
+   * instruction after the repetitions.
+   * @param nfa automaton builder
+   * @param split split instruction
+   * @param next first instruction of the next iteration
+   */
+  private void split(final NFA.Builder nfa, final int split, final int next) {
+    final int end = nfa.size();
+    nfa.arg1(split, lazy ? end : next);
+    nfa.arg2(split, lazy ? next : end);
+  }
+
   /**
    * Translates the occurrence bounds to a regex string.
    * @return regex representation
@@ -0,0 +1,88 @@
+package org.basex.query.util.regex;
+
+/**
+ * Matcher for a compiled regular expression. The methods correspond to those of
+ * {@link java.util.regex.Matcher}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public abstract class RegExMatcher {
+  /** Input string. */
+  final String input;
+
+  /**
+   * Constructor.
+   * @param input input string
+   */
+  RegExMatcher(final String input) {
+    this.input = input;
+  }
+
+  /**
+   * Finds the next match.
+   * @return success flag
+   */
+  public abstract boolean find();
+
+  /**
+   * Returns the start offset of a group of the current match.
+   * @param group group (0: whole match)
+   * @return offset, or {@code -1} if the group did not match
+   */
+  public abstract int start(int group);
+
+  /**
+   * Returns the end offset of a group of the current match.
+   * @param group group (0: whole match)
+   * @return offset, or {@code -1} if the group did not match
+   */
+  public abstract int end(int group);
+
+  /**
+   * Returns the number of capturing groups.
+   * @return number of groups
+   */
+  public abstract int groupCount();
+
+  /**
+   * Replaces all matches of the input string.
+   * @param replacement replacement string (see {@link java.util.regex.Matcher#replaceAll})
+   * @return resulting string
+   */
+  public abstract String replaceAll(String replacement);
+
+  /**
+   * Returns the start offset of the current match.
+   * @return offset
+   */
+  public final int start() {
+    return start(0);
+  }
+
+  /**
+   * Returns the end offset of the current match.
+   * @return offset
+   */
+  public final int end() {
+    return end(0);
+  }
+
+  /**
+   * Returns the string of a group of the current match.
+   * @param group group (0: whole match)
+   * @return string, or {@code null} if the group did not match
+   */
+  public String group(final int group) {
+    final int start = start(group);
+    return start == -1 ? null : input.substring(start, end(group));
+  }
+
+  /**
+   * Returns the string of the current match.
+   * @return string
+   */
+  public final String group() {
+    return group(0);
+  }
+}
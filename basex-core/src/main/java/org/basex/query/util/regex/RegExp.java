@@ -17,4 +17,13 @@ public abstract class RegExp {
    * @param sb string builder
    */
   abstract void toRegEx(StringBuilder sb);
+
+  /**
+   * Compiles this expression to instructions of a finite automaton.
+   * @param nfa automaton builder
+   * @return {@code false} if the expression cannot be represented by the automaton
+   */
+  boolean compile(final NFA.Builder nfa) {
+    return false;
+  }
 }
@@ -6,14 +6,19 @@ import java.util.regex.*;
 import org.basex.util.*;
 
 /**
- * Compiled regular expression (pattern and lazily computed group metadata).
+ * Compiled regular expression (pattern, optional automaton and lazily computed group metadata).
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public class RegExpr {
+  /** Compiled regular expressions, shared by all queries. */
+  public static final BoundedCache<String, RegExpr> CACHE = new BoundedCache<>(1000);
+
   /** Pattern. */
   public final Pattern pattern;
+  /** Automaton for matching in linear time (can be {@code null}). */
+  private final NFA nfa;
   /** Group info (volatile: lazily set once, may be read from concurrent child contexts). */
   private volatile GroupInfo groupInfo;
 
@@ -22,10 +27,30 @@ public class RegExpr {
    * @param pattern pattern
    */
   public RegExpr(final Pattern pattern) {
+    this(pattern, null);
+  }
+
+  /**
+   * Constructor.
+   * @param pattern pattern
+   * @param nfa automaton with identical semantics (can be {@code null})
+   */
+  public RegExpr(final Pattern pattern, final NFA nfa) {
     this.pattern = pattern;
+    this.nfa = nfa;
     groupInfo = null;
   }
 
+  /**
+   * Returns a matcher for the specified input. If available, the automaton is used, as it
+   * guarantees linear runtime. Otherwise, the backtracking engine of the pattern is used.
+   * @param input input string
+   * @return matcher
+   */
+  public RegExMatcher matcher(final String input) {
+    return nfa != null ? new NFAMatcher(nfa, input) : new JavaMatcher(pattern, input);
+  }
+
   /**
    * Returns the parent group IDs of capturing groups.
    * @return parent group IDs.
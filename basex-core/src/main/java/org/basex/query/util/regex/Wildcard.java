@@ -36,4 +36,9 @@ public final class Wildcard extends RegExp {
   void toRegEx(final StringBuilder sb) {
     sb.append(nl ? "." : "[^\r\n]");
   }
+
+  @Override
+  boolean compile(final NFA.Builder nfa) {
+    return nfa.add(nl ? cp -> true : cp -> cp != '\r' && cp != '\n');
+  }
 }
@@ -14,6 +14,7 @@ import org.basex.query.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.Function;
 import org.basex.query.iter.*;
+import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
@@ -160,6 +161,34 @@ public class DBNode extends XNode {
     return Double.isNaN(d) ? Dbl.parse(string(), ii) : d;
   }
 
+  /**
+   * Returns a view on the string value of a text or attribute node, or of an element with a
+   * single text node. The view belongs to the current thread and is only valid until the next
+   * view is requested.
+   * @return view, or {@code null} if the string value needs to be assembled
+   */
+  public final TokenView textView() {
+    final Kind kind = kind();
+    if(kind == Kind.TEXT || kind == Kind.ATTRIBUTE) return data.textView(pre, kind == Kind.TEXT);
+    if(kind == Kind.ELEMENT) {
+      final int as = data.attSize(pre, Data.ELEM);
+      if(data.size(pre, Data.ELEM) - as == 1 && data.kind(pre + as) == Data.TEXT) {
+        return data.textView(pre + as, true);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  final int compare(final byte[] token, final Collation coll) {
+    if(coll == null) {
+      // compare text without materializing it
+      final TokenView view = textView();
+      if(view != null) return view.compare(token);
+    }
+    return super.compare(token, coll);
+  }
+
   @Override
   public final byte[] name() {
     final Kind kind = kind();
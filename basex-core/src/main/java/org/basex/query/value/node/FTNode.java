@@ -4,7 +4,6 @@ import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.util.ft.*;
 import org.basex.query.value.type.*;
-import org.basex.util.ft.*;
 
 /**
  * Database node with full-text matches.
@@ -13,14 +12,10 @@ import org.basex.util.ft.*;
  * @author Christian Gruen
  */
 public final class FTNode extends DBNode {
-  /** Length of the full-text token. */
-  private final int tl;
-  /** Total number of indexed results. */
-  private final int is;
   /** Full-text matches. */
   private FTMatches matches;
   /** Score value. */
-  private Double score;
+  private double score;
 
   /**
    * Constructor, called by the sequential variant.
@@ -28,8 +23,7 @@ public final class FTNode extends DBNode {
    * @param score score value
    */
   public FTNode(final FTMatches matches, final double score) {
-    this(matches, null, 0, 0, 0);
-    this.score = score;
+    this(matches, null, 0, score);
   }
 
   /**
@@ -37,16 +31,12 @@ public final class FTNode extends DBNode {
    * @param matches full-text matches
    * @param data data reference (can be {@code null})
    * @param pre PRE value
-   * @param tl token length
-   * @param is number of indexed results
+   * @param score score value
    */
-  public FTNode(final FTMatches matches, final Data data, final int pre, final int tl,
-      final int is) {
-
+  public FTNode(final FTMatches matches, final Data data, final int pre, final double score) {
     super(data, pre, null, NodeType.TEXT);
     this.matches = matches;
-    this.tl = tl;
-    this.is = is;
+    this.score = score;
   }
 
   /**
@@ -67,10 +57,6 @@ public final class FTNode extends DBNode {
 
   @Override
   public double score() {
-    if(score == null) {
-      if(matches == null) return 0;
-      score = Scoring.textNode(matches.size(), is, tl, data().textLen(pre(), true));
-    }
     return score;
   }
 
@@ -97,10 +97,20 @@ public abstract class XNode extends GNode {
   public final int compare(final Item item, final Collation coll, final boolean transitive,
       final QueryContext qc, final InputInfo ii) throws QueryException {
     return item.type.isStringOrUntyped() ?
-      Token.compare(string(), item.string(ii), Collation.get(coll, ii)) :
+      compare(item.string(ii), Collation.get(coll, ii)) :
       -item.compare(this, coll, transitive, qc, ii);
   }
 
+  /**
+   * Compares the string value of the node with the specified token.
+   * @param token token to be compared
+   * @param coll collation (can be {@code null})
+   * @return result of comparison (-1, 0, 1)
+   */
+  int compare(final byte[] token, final Collation coll) {
+    return Token.compare(string(), token, coll);
+  }
+
   @Override
   public final boolean deepEqual(final Item item, final DeepEqual deep) throws QueryException {
     if(!(item instanceof final XNode node2)) return false;
@@ -107,7 +107,9 @@ public final class NodeType implements Type {
 
   @Override
   public boolean isUntyped() {
-    return kind.oneOf(Kind.ELEMENT, Kind.ATTRIBUTE, Kind.TEXT, Kind.DOCUMENT);
+    // called at runtime: skip the creation of arrays
+    return kind == Kind.ELEMENT || kind == Kind.ATTRIBUTE || kind == Kind.TEXT ||
+      kind == Kind.DOCUMENT;
   }
 
   @Override
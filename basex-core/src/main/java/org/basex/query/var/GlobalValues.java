@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -31,6 +32,10 @@ public final class GlobalValues {
   private final ConcurrentHashMap<StaticVar, Global> globals = new ConcurrentHashMap<>();
   /** Variables that contexts are waiting for. */
   private final IdentityHashMap<QueryContext, StaticVar> waiting = new IdentityHashMap<>();
+  /** Lock for acquiring and releasing variables (virtual threads must not wait for monitors). */
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Condition, signaled when a variable has been released. */
+  private final Condition released = lock.newCondition();
 
   /**
    * Returns the value of a static variable and evaluates it if it has not been evaluated yet.
@@ -64,29 +69,33 @@ public final class GlobalValues {
    * @return value, or {@code null} if the caller must evaluate the variable
    * @throws QueryException query exception
    */
-  private synchronized Value acquire(final StaticVar var, final QueryContext qc)
-      throws QueryException {
-    while(true) {
-      final Global global = globals.getOrDefault(var, FREE);
-      if(global.result != null) return result(var, global.result);
-      if(global.context == null) {
-        // variable is not being evaluated: take ownership
-        globals.put(var, new Global(qc, null));
-        return null;
-      }
-      // another context is evaluating this variable: check for circular dependencies, wait
-      if(circular(var, qc)) throw CIRCVAR_X.get(var.info, var.name());
-      waiting.put(qc, var);
-      try {
-        // bounded wait: a stopped job must not wait for a variable that is never released
-        wait(1000);
-      } catch(final InterruptedException ex) {
-        Thread.currentThread().interrupt();
-        throw new JobException(Text.INTERRUPTED, ex);
-      } finally {
-        waiting.remove(qc);
+  private Value acquire(final StaticVar var, final QueryContext qc) throws QueryException {
+    lock.lock();
+    try {
+      while(true) {
+        final Global global = globals.getOrDefault(var, FREE);
+        if(global.result != null) return result(var, global.result);
+        if(global.context == null) {
+          // variable is not being evaluated: take ownership
+          globals.put(var, new Global(qc, null));
+          return null;
+        }
+        // another context is evaluating this variable: check for circular dependencies, wait
+        if(circular(var, qc)) throw CIRCVAR_X.get(var.info, var.name());
+        waiting.put(qc, var);
+        try {
+          // bounded wait: a stopped job must not wait for a variable that is never released
+          released.await(1, TimeUnit.SECONDS);
+        } catch(final InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new JobException(Text.INTERRUPTED, ex);
+        } finally {
+          waiting.remove(qc);
+        }
+        qc.checkStop();
       }
-      qc.checkStop();
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -95,9 +104,14 @@ public final class GlobalValues {
    * @param var static variable
    * @param result value, or raised error
    */
-  private synchronized void release(final StaticVar var, final Object result) {
-    globals.put(var, new Global(null, result));
-    notifyAll();
+  private void release(final StaticVar var, final Object result) {
+    lock.lock();
+    try {
+      globals.put(var, new Global(null, result));
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
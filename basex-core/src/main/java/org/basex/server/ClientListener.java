@@ -6,6 +6,9 @@ import java.io.*;
 import java.net.*;
 import java.security.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
 import org.basex.*;
 import org.basex.core.*;
@@ -26,7 +29,7 @@ import org.basex.util.log.*;
  * @author Andreas Weiler
  * @author Christian Gruen
  */
-public final class ClientListener extends Thread implements ClientInfo {
+public final class ClientListener implements Runnable, ClientInfo {
   /** Limits trace output. */
   private static final QueryTracer TRACER = new QueryTracer() {
     @Override
@@ -38,8 +41,8 @@ public final class ClientListener extends Thread implements ClientInfo {
   private static final String SECRET =
       Strings.sha256(Long.toString(new SecureRandom().nextLong()));
 
-  /** Timer for authentication time out. */
-  public final Timer timeout = new Timer();
+  /** Authentication time out (can be {@code null}). */
+  public Future<?> timeout;
   /** Timestamp of last interaction. */
   public long last;
 
@@ -60,14 +63,16 @@ public final class ClientListener extends Thread implements ClientInfo {
   private PrintOutput out;
   /** Current command. */
   private volatile Command command;
-  /** Monitor, notified when {@link #command} is cleared (see {@link #close()}). */
-  private final Object monitor = new Object();
+  /** Lock for waiting until {@link #command} is cleared (see {@link #close()}). */
+  private final ReentrantLock lock = new ReentrantLock();
+  /** Condition, signaled when {@link #command} is cleared. */
+  private final Condition cleared = lock.newCondition();
   /** Query ID counter. */
   private int id;
   /** Indicates if the server thread is running. */
   private volatile boolean authenticated;
   /** Indicates if the server has been closed. */
-  private boolean closed;
+  private final AtomicBoolean closed = new AtomicBoolean();
 
   /**
    * Constructor.
@@ -81,7 +86,6 @@ public final class ClientListener extends Thread implements ClientInfo {
     this.socket = socket;
     this.server = server;
     last = System.currentTimeMillis();
-    setDaemon(true);
   }
 
   @Override
@@ -113,6 +117,9 @@ public final class ClientListener extends Thread implements ClientInfo {
             put();
           } else if(sc == ServerCmd.PUTBINARY) {
             putBinary();
+          } else if(sc == ServerCmd.CANCEL) {
+            // all results were sent before the request was received: ignore it
+            continue;
           } else if(sc != ServerCmd.EXECUTE) {
             query(sc);
           } else {
@@ -186,8 +193,11 @@ public final class ClientListener extends Thread implements ClientInfo {
   private void command(final Command cmd) {
     command = cmd;
     if(cmd == null) {
-      synchronized(monitor) {
-        monitor.notifyAll();
+      lock.lock();
+      try {
+        cleared.signalAll();
+      } finally {
+        lock.unlock();
       }
     }
   }
@@ -280,24 +290,21 @@ public final class ClientListener extends Thread implements ClientInfo {
   /**
    * Closes the session.
    */
-  public synchronized void close() {
-    if(closed) return;
-    closed = true;
+  public void close() {
+    if(!closed.compareAndSet(false, true)) return;
 
     // stop running command, wait until reference has been invalidated
     final Command c = command;
     if(c != null) {
       c.stop();
-      synchronized(monitor) {
-        while(command != null) {
-          try {
-            monitor.wait(1000);
-          } catch(final InterruptedException ex) {
-            Util.debug(ex);
-            Thread.currentThread().interrupt();
-            break;
-          }
-        }
+      lock.lock();
+      try {
+        while(command != null) cleared.await(1, TimeUnit.SECONDS);
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+        Thread.currentThread().interrupt();
+      } finally {
+        lock.unlock();
       }
     }
     context.sessions.remove(this);
@@ -465,11 +472,11 @@ public final class ClientListener extends Thread implements ClientInfo {
           info.append(val);
           if(!typ.isEmpty()) info.append(" as ").append(typ);
         } else if(sc == ServerCmd.RESULTS) {
-          qp.execute(out, true, true, false);
+          qp.execute(out, true, true, false, this::cancel);
         } else if(sc == ServerCmd.EXEC) {
           qp.execute(out, false, true, false);
         } else if(sc == ServerCmd.FULL) {
-          qp.execute(out, true, true, true);
+          qp.execute(out, true, true, true, this::cancel);
         } else if(sc == ServerCmd.INFO) {
           out.print(qp.info());
         } else if(sc == ServerCmd.OPTIONS) {
@@ -506,6 +513,20 @@ public final class ClientListener extends Thread implements ClientInfo {
     out.flush();
   }
 
+  /**
+   * Checks if the client has requested to cancel the iteration of query results.
+   * While results are sent, no other requests are expected from the client.
+   * @return result of check
+   */
+  private boolean cancel() {
+    try {
+      return in.available() > 0 && in.read() == ServerCmd.CANCEL.code;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return true;
+    }
+  }
+
   /**
    * Sends a success flag to the client (0: true, 1: false).
    * @param ok success flag
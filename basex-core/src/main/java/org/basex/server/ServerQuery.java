@@ -4,10 +4,12 @@ import static org.basex.core.Text.*;
 import static org.basex.query.QueryError.*;
 
 import java.io.*;
+import java.util.function.*;
 
 import org.basex.api.client.*;
 import org.basex.core.*;
 import org.basex.core.jobs.*;
+import org.basex.io.*;
 import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
@@ -110,6 +112,20 @@ public final class ServerQuery extends Job {
    */
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
+    execute(out, iterative, encode, full, null);
+  }
+
+  /**
+   * Executes the query.
+   * @param out output stream
+   * @param iterative iterative evaluation
+   * @param encode encode results (client/server communication, iterative processing)
+   * @param full return full type information (only applicable to iterative evaluation)
+   * @param cancel checks if the client has cancelled the iteration (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public void execute(final OutputStream out, final boolean iterative, final boolean encode,
+      final boolean full, final BooleanSupplier cancel) throws IOException {
 
     try {
       // parses the query and registers the process
@@ -122,9 +138,12 @@ public final class ServerQuery extends Job {
       qp.optimize();
       final Iter iter = qp.iter();
 
-      // iterate through results
+      // iterate through results. The encoded results are written to the buffered output,
+      // which is sent whenever it is full
       int hits = 0;
-      final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
+      long checked = 0;
+      final PrintOutput os = PrintOutput.get(out);
+      final PrintOutput po = encode ? PrintOutput.get(new ServerOutput(os)) : os;
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.parameters();
       try(Serializer ser = Serializer.get(po, sopts)) {
         for(Item item; (item = qc.next(iter)) != null;) {
@@ -133,12 +152,16 @@ public final class ServerQuery extends Job {
             else po.write(item.typeId().asByte());
             ser.reset();
             ser.serialize(item);
-            po.flush();
-            out.write(0);
+            os.write(0);
           } else {
             ser.serialize(item);
           }
           hits++;
+          // check for cancel requests whenever a chunk of results has been written
+          if(cancel != null && po.size() - checked >= IO.BLOCKSIZE) {
+            checked = po.size();
+            if(cancel.getAsBoolean()) break;
+          }
         }
       }
 
@@ -0,0 +1,125 @@
+package org.basex.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Size-bounded cache, which can be accessed concurrently. It is used to share compiled objects
+ * (regular expressions, collations) across queries. If the maximum number of entries is exceeded,
+ * the least recently used entries are evicted in a single pass. Access times are taken from the
+ * system timer, so cache hits only write to the accessed entry. Hits, misses and evictions are
+ * counted.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class BoundedCache<K, V> {
+  /** Cache entries. */
+  private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  /** Number of hits. */
+  private final LongAdder hits = new LongAdder();
+  /** Number of misses. */
+  private final LongAdder misses = new LongAdder();
+  /** Number of evictions. */
+  private final LongAdder evictions = new LongAdder();
+  /** Maximum number of entries. */
+  private final int capacity;
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of entries
+   */
+  public BoundedCache(final int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns a cached value.
+   * @param key key
+   * @return value, or {@code null} if the key is unknown
+   */
+  public V get(final K key) {
+    final Entry<V> entry = entries.get(key);
+    if(entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    entry.used = System.nanoTime();
+    return entry.value;
+  }
+
+  /**
+   * Adds a value. If a value has concurrently been added for the same key, it is returned instead.
+   * @param key key
+   * @param value value
+   * @return cached value
+   */
+  public V add(final K key, final V value) {
+    final Entry<V> old = entries.putIfAbsent(key, new Entry<>(value, System.nanoTime()));
+    if(old != null) return old.value;
+    if(entries.size() > capacity) evict();
+    return value;
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Returns cache statistics.
+   * @return maximum and current number of entries, hits, misses, evictions
+   */
+  public long[] stats() {
+    return new long[] { capacity, entries.size(), hits.sum(), misses.sum(), evictions.sum() };
+  }
+
+  /**
+   * Evicts the least recently used entries. To amortize the costs, an eighth of the entries is
+   * evicted at once.
+   */
+  private synchronized void evict() {
+    final int size = entries.size();
+    if(size <= capacity) return;
+
+    final long[] used = new long[size];
+    int u = 0;
+    for(final Entry<V> entry : entries.values()) {
+      if(u == size) break;
+      used[u++] = entry.used;
+    }
+    if(u == 0) return;
+    Arrays.sort(used, 0, u);
+    final long limit = used[Math.min(u, size - capacity + (capacity >>> 3)) - 1];
+    final int before = entries.size();
+    entries.values().removeIf(entry -> entry.used <= limit);
+    evictions.add(Math.max(0, before - entries.size()));
+  }
+
+  /**
+   * Cache entry.
+   * @param <V> value type
+   */
+  private static final class Entry<V> {
+    /** Value. */
+    private final V value;
+    /** Time of last access (value of {@link System#nanoTime()}). */
+    private volatile long used;
+
+    /**
+     * Constructor.
+     * @param value value
+     * @param used time of last access
+     */
+    private Entry(final V value, final long used) {
+      this.value = value;
+      this.used = used;
+    }
+  }
+}
@@ -96,6 +96,17 @@ public final class Compress {
    * @return unpacked text
    */
   public static byte[] unpack(final byte[] text) {
+    final byte[] bytes = new byte[Num.get(text, 0)];
+    unpack(text, bytes);
+    return bytes;
+  }
+
+  /**
+   * Decompresses the specified text to the specified array.
+   * @param text compressed text
+   * @param bytes target array (its size must not be smaller than the unpacked text)
+   */
+  public static void unpack(final byte[] text, final byte[] bytes) {
     // bit position: skip stored length and packer bit
     int pos = (Num.length(text, 0) << 3) + 1;
     // choose mapping
@@ -103,7 +114,6 @@ public final class Compress {
 
     // decompress all characters
     final int size = Num.get(text, 0);
-    final byte[] bytes = new byte[size];
     for(int b = 0; b < size; b++) {
       final int bits;
       int out = 0;
@@ -126,7 +136,6 @@ public final class Compress {
       }
       bytes[b] = (byte) (out >= 0x80 ? out : map[out]);
     }
-    return bytes;
   }
 
   /**
@@ -101,6 +101,20 @@ public final class Inline {
     return (value & STRING) == 0 ? token((int) value) : unpackString(value);
   }
 
+  /**
+   * Converts an inlined value to a token and writes it to the specified array.
+   * @param value inlined value
+   * @param bytes target array (must provide space for at least 15 bytes)
+   * @return length of the token
+   */
+  public static int unpack(final long value, final byte[] bytes) {
+    if((value & STRING) != 0) return unpackString(value, bytes);
+    int n = (int) value;
+    final int nl = numDigits(n);
+    for(int b = nl; b > 0; n /= 10) bytes[--b] = (byte) ('0' + n % 10);
+    return nl;
+  }
+
   /**
    * Converts an inlined value to a long value.
    * @param value inlined value
@@ -143,15 +157,26 @@ public final class Inline {
    * @return token
    */
   private static byte[] unpackString(final long value) {
+    final byte[] token = new byte[(int) (value >> 32) & 0x0F];
+    unpackString(value, token);
+    return token;
+  }
+
+  /**
+   * Extracts an inlined string and writes it to the specified array.
+   * @param value inlined value
+   * @param bytes target array
+   * @return length of the token
+   */
+  private static int unpackString(final long value, final byte[] bytes) {
     final int tl = (int) (value >> 32) & 0x0F, v = (int) value;
-    final byte[] token = new byte[tl];
     if(tl <= 4) {
       // short token
-      for(int t = 0, c = 24; t < tl; t++, c -= 8) token[t] = (byte) (v >> c);
+      for(int t = 0, c = 24; t < tl; t++, c -= 8) bytes[t] = (byte) (v >> c);
     } else {
       // whitespace token
-      for(int t = 0, c = 30; t < tl; t++, c -= 2) token[t] = WS[v >> c & 3];
+      for(int t = 0, c = 30; t < tl; t++, c -= 2) bytes[t] = WS[v >> c & 3];
     }
-    return token;
+    return tl;
   }
 }
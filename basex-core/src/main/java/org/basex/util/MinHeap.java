@@ -65,11 +65,11 @@ public final class MinHeap<K, V> {
   }
 
   /**
-   * returns the value of the smallest key from this heap.
+   * Returns the value of the smallest key from this heap.
    * @return value of the smallest key
    */
   @SuppressWarnings("unchecked")
-  private V minValue() {
+  public V minValue() {
     return (V) vals[1];
   }
 
@@ -109,6 +109,8 @@ public final class Prop {
   public static String language = "English";
   /** Debug mode. */
   public static boolean debug;
+  /** Memory-mapped read access to database files. */
+  public static boolean mmap;
 
   /** Private constructor. */
   private Prop() { }
@@ -2,7 +2,9 @@ package org.basex.util;
 
 import static org.basex.query.util.DeepEqualOptions.*;
 
+import java.lang.invoke.*;
 import java.math.*;
+import java.nio.*;
 import java.nio.charset.*;
 import java.text.*;
 import java.util.*;
@@ -80,8 +82,19 @@ public final class Token {
   /** Hex codes. */
   public static final byte[] HEX_TABLE = token("0123456789ABCDEF");
 
+  /** Powers of ten that can be represented exactly as double values. */
+  private static final double[] POWERS = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+  };
   /** Maximum number of hash operations. */
   private static final byte MAX_HASH_OPS = 127;
+  /** Access to 8 bytes of a token, which are processed at once. */
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  /** Lowest bits of all bytes of a long value. */
+  private static final long LOWS = 0x0101010101010101L;
+  /** Highest bits of all bytes of a long value. */
+  private static final long HIGHS = 0x8080808080808080L;
   /** Maximum values for converting tokens to integer values. */
   private static final int MAX_INT = Integer.MAX_VALUE / 10;
   /** Maximum values for converting tokens to long values. */
@@ -133,8 +146,13 @@ public final class Token {
    * @return result of check
    */
   public static boolean ascii(final byte[] token) {
-    for(final byte b : token) {
-      if(b < 0) return false;
+    final int tl = token.length, wl = tl & ~7;
+    int t = 0;
+    for(; t < wl; t += 8) {
+      if(((long) LONGS.get(token, t) & HIGHS) != 0) return false;
+    }
+    for(; t < tl; t++) {
+      if(token[t] < 0) return false;
     }
     return true;
   }
@@ -522,15 +540,25 @@ public final class Token {
    * @return resulting double value, or {@link Double#NaN} is returned if the input is invalid
    */
   public static double toDouble(final byte[] token) {
-    final int tl = token.length;
-    int s = -1;
-    while(++s < tl && ws(token[s]));
-    if(s == tl) return Double.NaN;
+    return toDouble(token, 0, token.length);
+  }
+
+  /**
+   * Converts the specified token into a double value.
+   * @param token token to be converted
+   * @param start first byte to be parsed
+   * @param end last byte to be parsed - exclusive
+   * @return resulting double value, or {@link Double#NaN} is returned if the input is invalid
+   */
+  public static double toDouble(final byte[] token, final int start, final int end) {
+    int s = start - 1;
+    while(++s < end && ws(token[s]));
+    if(s == end) return Double.NaN;
 
     // check for integer value
     int e = s;
     boolean f = false;
-    for(int p = s; p < tl; ++p) {
+    for(int p = s; p < end; ++p) {
       final byte b = token[p];
       if(e == s) {
         if(digit(b) || b == '+') continue;
@@ -544,7 +572,7 @@ public final class Token {
         return Double.NaN;
       }
     }
-    if(e == s) e = tl;
+    if(e == s) e = end;
     if(!f && e - s <= 9) {
       final int d = toInt(token, s, e);
       return d == Integer.MIN_VALUE ? Double.NaN : d;
@@ -553,6 +581,9 @@ public final class Token {
     // check if the value is a double
     final int l = e - s;
     if(l == 1) return Double.NaN;
+    final double d = toDecimal(token, s, e);
+    if(!Double.isNaN(d)) return d;
+
     final char[] str = new char[l];
     int sd = 0, se = 0;
     for(int p = 0; p < l; ++p) {
@@ -579,6 +610,38 @@ public final class Token {
     }
   }
 
+  /**
+   * Converts a decimal number with up to 15 digits and without exponent to a double value.
+   * The result is exact: both the digits and the divisor can be represented as double values,
+   * and the division is correctly rounded.
+   * @param token token
+   * @param start start position
+   * @param end end position
+   * @return double value, or {@link Double#NaN} if the token has a different format
+   */
+  private static double toDecimal(final byte[] token, final int start, final int end) {
+    int p = start;
+    final boolean minus = token[p] == '-';
+    if(minus || token[p] == '+') p++;
+    long value = 0;
+    int digits = 0, scale = -1;
+    for(; p < end; p++) {
+      final byte b = token[p];
+      if(digit(b)) {
+        value = value * 10 + b - '0';
+        if(++digits > 15) return Double.NaN;
+        if(scale != -1) scale++;
+      } else if(b == '.' && scale == -1) {
+        scale = 0;
+      } else {
+        return Double.NaN;
+      }
+    }
+    if(digits == 0) return Double.NaN;
+    final double d = scale > 0 ? value / POWERS[scale] : value;
+    return minus ? -d : d;
+  }
+
   /**
    * Converts the specified token into a long value.
    * {@link Long#MIN_VALUE} is returned if the input is invalid.
@@ -826,9 +889,7 @@ public final class Token {
   public static int indexOf(final byte[] token, final int ch, final int pos) {
     final int tl = token.length;
     if(ch <= 0x7F) {
-      for(int t = pos; t < tl; t++) {
-        if(token[t] == ch) return t;
-      }
+      return indexOf(token, (byte) ch, pos, tl);
     } else {
       for(int t = pos; t < tl; t += cl(token, t)) {
         if(cp(token, t) == ch) return t;
@@ -882,8 +943,31 @@ public final class Token {
     if(pos > tl) return -1;
 
     final byte first = sub[0];
-    for(int t = pos; t <= tl; t++) {
-      if(token[t] == first && Arrays.mismatch(token, t + 1, t + sl, sub, 1, sl) == -1) return t;
+    for(int t = pos; (t = indexOf(token, first, t, tl + 1)) != -1; t++) {
+      if(Arrays.mismatch(token, t + 1, t + sl, sub, 1, sl) == -1) return t;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the position of the specified byte. 8 bytes are compared at once.
+   * @param token token
+   * @param b byte to be found
+   * @param pos start position
+   * @param end end position (exclusive)
+   * @return position, or {@code -1} if byte is not found.
+   */
+  private static int indexOf(final byte[] token, final byte b, final int pos, final int end) {
+    final long pattern = (b & 0xFFL) * LOWS;
+    int t = pos;
+    for(final int wl = end - 8; t <= wl; t += 8) {
+      // bytes that match the pattern are zero; the lowest flagged byte is an exact match
+      final long word = (long) LONGS.get(token, t) ^ pattern;
+      final long found = word - LOWS & ~word & HIGHS;
+      if(found != 0) return t + (Long.numberOfTrailingZeros(found) >>> 3);
+    }
+    for(; t < end; t++) {
+      if(token[t] == b) return t;
     }
     return -1;
   }
@@ -1306,12 +1390,7 @@ public final class Token {
    * @return resulting token
    */
   public static byte[] uc(final byte[] token, final boolean ascii) {
-    if(ascii) {
-      final int tl = token.length;
-      final byte[] tmp = new byte[tl];
-      for(int t = 0; t < tl; t++) tmp[t] = (byte) uc(token[t]);
-      return tmp;
-    }
+    if(ascii) return convert(token, 'a', 'z');
     return token(string(token).toUpperCase(Locale.ENGLISH));
   }
 
@@ -1357,15 +1436,35 @@ public final class Token {
    * @return resulting token
    */
   public static byte[] lc(final byte[] token, final boolean ascii) {
-    if(ascii) {
-      final int tl = token.length;
-      final byte[] tmp = new byte[tl];
-      for(int t = 0; t < tl; t++) tmp[t] = (byte) lc(token[t]);
-      return tmp;
-    }
+    if(ascii) return convert(token, 'A', 'Z');
     return token(string(token).toLowerCase(Locale.ENGLISH));
   }
 
+  /**
+   * Toggles the case of the ASCII letters in the specified range. 8 bytes are converted at once.
+   * @param token ASCII token
+   * @param min first character to be converted
+   * @param max last character to be converted
+   * @return resulting token
+   */
+  private static byte[] convert(final byte[] token, final char min, final char max) {
+    final int tl = token.length, wl = tl & ~7;
+    final byte[] tmp = new byte[tl];
+    final long ge = (0x80 - min) * LOWS, gt = (0x7F - max) * LOWS;
+    int t = 0;
+    for(; t < wl; t += 8) {
+      // high bits are set for all bytes in the specified range
+      final long word = (long) LONGS.get(token, t);
+      final long range = (word + ge & ~(word + gt)) & HIGHS;
+      LONGS.set(tmp, t, word ^ range >>> 2);
+    }
+    for(; t < tl; t++) {
+      final byte b = token[t];
+      tmp[t] = (byte) (b >= min && b <= max ? b ^ 0x20 : b);
+    }
+    return tmp;
+  }
+
   /**
    * Converts a character to lower case.
    * @param ch character to be converted
@@ -11,6 +11,10 @@ import static java.lang.StrictMath.*;
 public final class Scoring {
   /** Logarithmic base for calculating the score value. */
   private static final double LOG = Math.E - 1;
+  /** BM25: saturation of the token frequency. */
+  private static final double K1 = 1.2;
+  /** BM25: influence of the text length. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -46,16 +50,53 @@ public final class Scoring {
   }
 
   /**
-   * Calculates the score for a text node.
-   * Used if no index score is available.
-   * @param number number of pos values
-   * @param size total number of index entries
-   * @param token token length
-   * @param length text length
+   * Calculates the BM25 relevance of a token for a text node.
+   * @param freq number of occurrences of the token in the text
+   * @param nodes number of text nodes containing the token
+   * @param total total number of indexed text nodes
+   * @param length length of the text, divided by the average length
+   * @return relevance
+   */
+  public static double bm25(final int freq, final int nodes, final int total,
+      final double length) {
+    return idf(nodes, total) * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length));
+  }
+
+  /**
+   * Returns the maximum BM25 relevance of a token for any text node.
+   * @param nodes number of text nodes containing the token
+   * @param total total number of indexed text nodes
+   * @return relevance
+   */
+  public static double bm25(final int nodes, final int total) {
+    return idf(nodes, total) * (K1 + 1);
+  }
+
+  /**
+   * Maps a relevance value to a score value between 0 and 1.
+   * @param relevance relevance (0 or larger)
    * @return score
    */
-  public static double textNode(final int number, final int size, final int token,
-      final int length) {
-    return max((double) number / size, log(token * number + 1) / log(length + 1));
+  public static double score(final double relevance) {
+    return relevance / (relevance + 1);
+  }
+
+  /**
+   * Maps a score value back to a relevance value.
+   * @param score score value (smaller than 1)
+   * @return relevance
+   */
+  public static double relevance(final double score) {
+    return score / (1 - score);
+  }
+
+  /**
+   * Calculates the inverse document frequency of a token.
+   * @param nodes number of text nodes containing the token
+   * @param total total number of indexed text nodes
+   * @return inverse document frequency
+   */
+  private static double idf(final int nodes, final int total) {
+    return log(1 + (max(nodes, total) - nodes + 0.5) / (nodes + 0.5));
   }
 }
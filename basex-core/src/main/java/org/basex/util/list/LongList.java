@@ -72,6 +72,24 @@ public final class LongList extends ElementList {
     return list[index];
   }
 
+  /**
+   * Stores an element at the specified index.
+   * @param index index of the element to replace
+   * @param element element to be stored
+   */
+  public void set(final int index, final long element) {
+    checkIndex(index);
+    long[] lst = list;
+    final int s = size, ns = index + 1;
+    if(ns > lst.length) {
+      lst = Arrays.copyOf(lst, newCapacity(ns));
+      list = lst;
+    }
+    if(index > s) Arrays.fill(lst, s, index, 0);
+    lst[index] = element;
+    size = Math.max(s, ns);
+  }
+
   /**
    * Returns the uppermost element from the stack.
    * @return the uppermost element
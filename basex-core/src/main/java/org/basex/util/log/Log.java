@@ -43,11 +43,15 @@ public final class Log implements QueryTracer {
   private final boolean maskip;
   /** Maximum length of log messages. */
   private final int maxLen;
+  /** Asynchronous writer (can be {@code null}). */
+  private final LogWriter writer;
 
   /** Log targets. */
-  private Set<LogTarget> targets;
+  private volatile Set<LogTarget> targets;
   /** Current (daily) log file. */
   LogFile file;
+  /** Indicates if the log has been closed. */
+  private boolean closed;
 
   /**
    * Constructor.
@@ -70,6 +74,8 @@ public final class Log implements QueryTracer {
     cut = pattern.apply(StaticOptions.LOGCUT);
     maxLen = sopts.get(StaticOptions.LOGMSGMAXLEN);
     maskip = sopts.get(StaticOptions.LOGMASKIP);
+    final int buffer = sopts.get(StaticOptions.LOGBUFFER);
+    writer = buffer > 0 ? new LogWriter(this, buffer) : null;
   }
 
   /**
@@ -118,14 +124,15 @@ public final class Log implements QueryTracer {
   }
 
   /**
-   * Writes an entry to the log file.
+   * Writes an entry to the log file. If asynchronous logging is enabled, the entry
+   * will be written by a background thread.
    * @param type type ({@link LogType}, HTTP status code or custom string)
    * @param info info string (can be {@code null})
    * @param perf performance object (can be {@code null})
    * @param address address/source ({@code SERVER} is written if value is {@code null})
    * @param user user ({@code admin} is written if value is {@code null})
    */
-  private synchronized void write(final Object type, final String info, final Performance perf,
+  private void write(final Object type, final String info, final Performance perf,
       final String address, final String user) {
 
     if(noTargets()) return;
@@ -155,14 +162,30 @@ public final class Log implements QueryTracer {
     entry.info = inf;
     if(perf != null) entry.runtime = perf.toString();
 
-    // write log entry to requested targets
-    for(final LogTarget target : targets) {
-      try {
-        target.write(this, entry);
-      } catch(final IOException ex) {
-        Util.stack(ex);
+    if(writer == null || !writer.add(entry)) write(List.of(entry));
+  }
+
+  /**
+   * Writes entries to the requested targets.
+   * @param entries log entries
+   */
+  synchronized void write(final List<LogEntry> entries) {
+    for(final LogEntry entry : entries) {
+      for(final LogTarget target : targets) {
+        try {
+          target.write(this, entry);
+        } catch(final IOException ex) {
+          Util.stack(ex);
+        }
       }
     }
+    try {
+      if(file != null) file.flush();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    // entries that have been written after the log was closed: close file again
+    if(closed) closeFile();
   }
 
   /**
@@ -208,21 +231,35 @@ public final class Log implements QueryTracer {
     // cache entries that may have multiple log entries (log types, HTTP status; see AdminLogs#logs)
     if(address != null && (type == LogType.REQUEST || type == LogType.OK || type == LogType.ERROR ||
         type.toString().matches("\\d+"))) {
-      // find matching entry, remove outdated entries
-      final long ms = System.currentTimeMillis();
-      final boolean cached = cache.containsKey(address);
-      cache.values().removeIf(time -> cached || ms - time >= 3_600_000);
-      if(cached) return true;
-      // cache new entry
-      if(found) cache.put(address, ms);
+      synchronized(cache) {
+        // find matching entry, remove outdated entries
+        final long ms = System.currentTimeMillis();
+        final boolean cached = cache.containsKey(address);
+        cache.values().removeIf(time -> cached || ms - time >= 3_600_000);
+        if(cached) return true;
+        // cache new entry
+        if(found) cache.put(address, ms);
+      }
     }
     return found;
   }
 
+  /**
+   * Writes buffered entries and closes the log file.
+   * Entries that are written after this call will be written synchronously.
+   */
+  public void close() {
+    if(writer != null) writer.close();
+    synchronized(this) {
+      closed = true;
+      closeFile();
+    }
+  }
+
   /**
    * Closes the log file.
    */
-  public synchronized void close() {
+  private synchronized void closeFile() {
     try {
       if(file != null) {
         file.close();
@@ -250,7 +287,7 @@ public final class Log implements QueryTracer {
    */
   public void write(final LogEntry entry) throws IOException {
     final String name = DateTime.DATE.format(entry.date);
-    if(file != null && !file.valid(name)) close();
+    if(file != null && !file.valid(name)) closeFile();
     if(file == null) file = LogFile.create(name, dir());
     file.write(Token.token(entry + Prop.NL));
   }
@@ -16,7 +16,7 @@ public final class LogFile {
   /** File reference. */
   private final IOFile file;
   /** Output stream. */
-  private FileOutputStream fos;
+  private OutputStream fos;
 
   /**
    * Creates a new writable log file for the specified date.
@@ -28,7 +28,7 @@ public final class LogFile {
   static LogFile create(final String name, final IOFile dir) throws IOException {
     final LogFile lf = new LogFile(name, dir);
     dir.md();
-    lf.fos = new FileOutputStream(lf.file.file(), true);
+    lf.fos = new BufferedOutputStream(new FileOutputStream(lf.file.file(), true));
     return lf;
   }
 
@@ -92,7 +92,16 @@ public final class LogFile {
   void write(final byte[] line) throws IOException {
     synchronized(file) {
       fos.write(line);
-      fos.flush();
+    }
+  }
+
+  /**
+   * Flushes written lines.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    synchronized(file) {
+      if(fos != null) fos.flush();
     }
   }
 
@@ -0,0 +1,101 @@
+package org.basex.util.log;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.util.*;
+
+/**
+ * Asynchronous writer for log entries. Entries are buffered in a bounded queue and written
+ * in batches by a background thread. If the queue is full, callers will wait until entries
+ * have been written. Entries that are added after the writer has been closed are rejected.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class LogWriter implements Runnable {
+  /** Marker for closing the writer. */
+  private static final LogEntry CLOSE = new LogEntry();
+
+  /** Logger. */
+  private final Log log;
+  /** Buffered entries. */
+  private final ArrayBlockingQueue<LogEntry> queue;
+  /** Writer thread. */
+  private final Thread thread;
+  /** Lock for adding entries (shared) and closing the writer (exclusive). */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Closed flag. */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param log logger
+   * @param size maximum number of buffered entries
+   */
+  LogWriter(final Log log, final int size) {
+    this.log = log;
+    queue = new ArrayBlockingQueue<>(size);
+    thread = new Thread(this, Prop.NAME + "Log");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Adds an entry.
+   * @param entry log entry
+   * @return {@code false} if the writer has been closed
+   */
+  boolean add(final LogEntry entry) {
+    lock.readLock().lock();
+    try {
+      if(closed) return false;
+      queue.put(entry);
+      return true;
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+      return false;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes all buffered entries and stops the writer thread.
+   * When this method is called, no other entries will be accepted.
+   */
+  void close() {
+    lock.writeLock().lock();
+    try {
+      if(closed) return;
+      closed = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      queue.put(CLOSE);
+      thread.join();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  @Override
+  public void run() {
+    final ArrayList<LogEntry> entries = new ArrayList<>();
+    boolean stop = false;
+    while(!stop) {
+      try {
+        entries.add(queue.take());
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+        continue;
+      }
+      queue.drainTo(entries);
+      stop = entries.remove(CLOSE);
+      log.write(entries);
+      entries.clear();
+    }
+  }
+}
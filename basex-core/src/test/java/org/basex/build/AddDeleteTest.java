@@ -233,6 +233,37 @@ public final class AddDeleteTest extends SandboxTest {
     }
   }
 
+  /**
+   * Parses the files of a directory in parallel.
+   */
+  @Test public void parallel() {
+    final IOFile dir = new IOFile(sandbox(), "parallel");
+    dir.md();
+    for(int i = 0; i < 100; i++) write(new IOFile(dir, i + IO.XMLSUFFIX), "<x n='" + i + "'/>");
+    write(new IOFile(dir, "corrupt.xml"), "<x");
+
+    final String docs = "string-join(db:get('" + NAME + "') ! (db:path(.) || x/@n), ',')";
+    try {
+      set(MainOptions.SKIPCORRUPT, true);
+      execute(new Add("", dir.path()));
+      final String expected = query(docs);
+      execute(new Delete("/"));
+
+      set(MainOptions.PARSETHREADS, 4);
+      execute(new Add("", dir.path()));
+      assertEquals(100, docs());
+      assertEquals(expected, query(docs));
+      execute(new CreateDB(NAME, FLDR));
+      assertEquals(NFLDR, docs());
+
+      set(MainOptions.SKIPCORRUPT, false);
+      assertThrows(BaseXException.class, () -> new Add("", dir.path()).execute(context));
+    } finally {
+      set(MainOptions.SKIPCORRUPT, false);
+      set(MainOptions.PARSETHREADS, 1);
+    }
+  }
+
   /**
    * Returns the number of documents in the current database.
    * @return number of documents
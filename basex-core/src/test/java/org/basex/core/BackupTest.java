@@ -0,0 +1,227 @@
+package org.basex.core;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for full and incremental backups.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class BackupTest extends SandboxTest {
+  /** Second database name. */
+  private static final String NAME2 = NAME + '2';
+  /** Size of binary resource (three full chunks, one partial chunk). */
+  private static final int SIZE = (1 << 20) * 7 / 2;
+
+  /** Resets options, drops databases and backups. */
+  @AfterEach public void clean() {
+    context.soptions.set(StaticOptions.BACKUPCHAIN, 0);
+    for(final String name : new String[] { NAME, NAME2 }) {
+      execute(new DropBackup(name));
+      execute(new DropDB(name));
+    }
+  }
+
+  /**
+   * Incremental backups.
+   * @throws IOException I/O exception
+   */
+  @Test public void incremental() throws IOException {
+    context.soptions.set(StaticOptions.BACKUPCHAIN, 2);
+    final byte[] bin1 = new byte[SIZE];
+    new Random(0).nextBytes(bin1);
+    final byte[] bin2 = bin1.clone();
+    bin2[(1 << 20) * 5 / 2] ^= 1;
+
+    // full backup
+    execute(new CreateDB(NAME, "<a/>"));
+    put(bin1);
+    execute(new CreateBackup(NAME));
+    // incremental backup: changed document, single changed chunk of binary resource
+    Performance.sleep(1000);
+    execute(new Add("b.xml", "<b/>"));
+    put(bin2);
+    execute(new CreateBackup(NAME));
+    // incremental backup: unchanged binary resource
+    Performance.sleep(1000);
+    execute(new Add("c.xml", "<c/>"));
+    execute(new CreateBackup(NAME));
+    // maximum length of chain reached: full backup
+    Performance.sleep(1000);
+    execute(new CreateBackup(NAME));
+    execute(new Close());
+
+    final StringList backups = context.databases.backups(NAME).sort();
+    assertEquals(4, backups.size());
+    try(ZipFile zip = zip(backups.get(0))) {
+      assertEquals(SIZE, zip.getEntry(NAME + "/raw/bin").getSize());
+    }
+    try(ZipFile zip = zip(backups.get(1))) {
+      assertNull(zip.getEntry(NAME + "/raw/bin"));
+      assertEquals(1 << 20, zip.getEntry(NAME + "/raw/bin.chunks").getSize());
+    }
+    try(ZipFile zip = zip(backups.get(2))) {
+      assertNull(zip.getEntry(NAME + "/raw/bin.chunks"));
+    }
+    try(ZipFile zip = zip(backups.get(3))) {
+      assertEquals(SIZE, zip.getEntry(NAME + "/raw/bin").getSize());
+    }
+
+    // restore all backups
+    restore(backups.get(0), NAME, "<a/>", bin1);
+    restore(backups.get(1), NAME, "<a/><b/>", bin2);
+    restore(backups.get(2), NAME, "<a/><b/><c/>", bin2);
+    restore(backups.get(3), NAME, "<a/><b/><c/>", bin2);
+
+    // renamed chain
+    execute(new AlterBackup(NAME, NAME2));
+    restore(NAME2 + '-' + Databases.date(backups.get(2)), NAME2, "<a/><b/><c/>", bin2);
+
+    // missing backup in chain: existing database is not dropped
+    context.soptions.dbPath(NAME2 + '-' + Databases.date(backups.get(0)) + IO.ZIPSUFFIX).delete();
+    final String backup = NAME2 + '-' + Databases.date(backups.get(1));
+    assertThrows(BaseXException.class, () -> new Restore(backup).execute(context));
+    assertTrue(context.soptions.dbExists(NAME2));
+  }
+
+  /**
+   * Backups of incremental chains.
+   * @throws IOException I/O exception
+   */
+  @Test public void chain() throws IOException {
+    context.soptions.set(StaticOptions.BACKUPCHAIN, 3);
+    execute(new CreateDB(NAME, "<a/>"));
+    execute(new CreateBackup(NAME));
+    Performance.sleep(1000);
+    execute(new CreateBackup(NAME));
+    final StringList backups = context.databases.backups(NAME).sort();
+    final String base = backups.get(0), incr = backups.get(1);
+
+    // referenced backups cannot be dropped or renamed individually
+    assertThrows(BaseXException.class, () -> new DropBackup(base).execute(context));
+    assertThrows(BaseXException.class, () -> new AlterBackup(base, NAME2).execute(context));
+    assertThrows(BaseXException.class, () -> new AlterBackup(incr, NAME2).execute(context));
+    error(_DB_DROP_BACKUP.args(base), QueryError.DB_CHAIN_X_X);
+    error(_DB_ALTER_BACKUP.args(incr, NAME2), QueryError.DB_CHAIN_X_X);
+    assertEquals(2, context.databases.backups(NAME).size());
+    // backups that are not referenced can be dropped
+    execute(new DropBackup(incr));
+
+    // missing backup in chain: create full backup
+    Performance.sleep(1000);
+    execute(new CreateBackup(NAME));
+    context.soptions.dbPath(base + IO.ZIPSUFFIX).delete();
+    Performance.sleep(1000);
+    execute(new CreateBackup(NAME));
+    final String full = context.databases.backups(NAME).get(0);
+    try(ZipFile zip = zip(full)) {
+      assertNotNull(zip.getEntry(NAME + "/tbl.basex"));
+      assertNull(zip.getEntry(NAME + "/tbl.basex.chunks"));
+    }
+  }
+
+  /**
+   * Backups can be read by standard zip tools.
+   * @throws IOException I/O exception
+   */
+  @Test public void zip() throws IOException {
+    final byte[] bin = new byte[SIZE];
+    new Random(0).nextBytes(bin);
+    execute(new CreateDB(NAME, "<a/>"));
+    put(bin);
+    put(new byte[0]);
+    execute(new CreateBackup(NAME, "comment"));
+    execute(new Close());
+
+    final String backup = context.databases.backups(NAME).get(0);
+    try(ZipFile zip = zip(backup)) {
+      assertEquals("comment", zip.getComment());
+    }
+    // stream all entries, check sizes and checksums
+    final IOFile path = context.soptions.dbPath(backup + IO.ZIPSUFFIX);
+    int entries = 0;
+    try(ZipInputStream in = new ZipInputStream(new FileInputStream(path.file()))) {
+      for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
+        final byte[] data = in.readAllBytes();
+        if(ze.getName().equals(NAME + "/raw/bin")) assertArrayEquals(bin, data);
+        entries++;
+      }
+    }
+    assertTrue(entries > 2);
+  }
+
+  /**
+   * Restores backups without manifest.
+   * @throws IOException I/O exception
+   */
+  @Test public void legacy() throws IOException {
+    execute(new CreateDB(NAME, "<a/>"));
+    execute(new Close());
+
+    final String backup = NAME + "-2020-01-01-00-00-00";
+    final IOFile dbpath = context.soptions.dbPath(NAME);
+    try(ZipOutputStream out = new ZipOutputStream(new BufferOutput(
+        context.soptions.dbPath(backup + IO.ZIPSUFFIX)))) {
+      for(final String file : context.soptions.dbFiles(NAME)) {
+        out.putNextEntry(new ZipEntry(NAME + '/' + file.replace('\\', '/')));
+        out.write(new IOFile(dbpath, file).read());
+        out.closeEntry();
+      }
+    }
+    execute(new DropDB(NAME));
+    execute(new Restore(NAME));
+    assertEquals("<a/>", query("db:get('" + NAME + "')"));
+  }
+
+  /**
+   * Stores a binary resource.
+   * @param bin contents
+   */
+  private static void put(final byte[] bin) {
+    final BinaryPut put = new BinaryPut(bin.length == 0 ? "empty" : "bin");
+    put.setInput(new ByteArrayInputStream(bin));
+    execute(put);
+  }
+
+  /**
+   * Opens a backup.
+   * @param backup name of backup
+   * @return zip file
+   * @throws IOException I/O exception
+   */
+  private static ZipFile zip(final String backup) throws IOException {
+    return new ZipFile(context.soptions.dbPath(backup + IO.ZIPSUFFIX).file());
+  }
+
+  /**
+   * Restores a backup and checks the restored database.
+   * @param backup name of backup
+   * @param db name of database
+   * @param docs expected documents
+   * @param bin expected binary resource
+   * @throws IOException I/O exception
+   */
+  private static void restore(final String backup, final String db, final String docs,
+      final byte[] bin) throws IOException {
+    execute(new Restore(backup));
+    assertEquals(docs, query("db:get('" + db + "')").replaceAll("\\s", ""));
+    assertArrayEquals(bin, new IOFile(context.soptions.dbPath(db), "raw/bin").read());
+    execute(new Close());
+  }
+}
@@ -0,0 +1,54 @@
+package org.basex.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for opened databases.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class DatasTest extends SandboxTest {
+  /**
+   * Keeps unpinned databases open.
+   * @throws BaseXException database exception
+   */
+  @Test public void keepOpen() throws BaseXException {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DBPATH, context.soptions.get(StaticOptions.DBPATH));
+    sopts.set(StaticOptions.KEEPOPEN, 1);
+    final Context ctx = new Context(sopts);
+    try {
+      new CreateDB(NAME, "<a/>").execute(ctx);
+      final Data data = ctx.data();
+      new Close().execute(ctx);
+      assertEquals(0, ctx.datas.pins(NAME));
+
+      // reuse database
+      new Open(NAME).execute(ctx);
+      assertSame(data, ctx.data());
+      assertEquals(1, ctx.datas.pins(NAME));
+      new Close().execute(ctx);
+
+      // close oldest database
+      new CreateDB(NAME + '2', "<a/>").execute(ctx);
+      new Close().execute(ctx);
+      new Open(NAME).execute(ctx);
+      assertNotSame(data, ctx.data());
+      new Close().execute(ctx);
+
+      // close database before it is dropped
+      new DropDB(NAME).execute(ctx);
+      assertFalse(ctx.soptions.dbExists(NAME));
+      new DropDB(NAME + '2').execute(ctx);
+    } finally {
+      ctx.close();
+    }
+  }
+}
@@ -5,7 +5,9 @@ import static org.basex.query.func.Function.*;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
 
@@ -22,6 +24,7 @@ public final class IndexTest extends SandboxTest {
   @AfterEach public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -199,6 +202,146 @@ public final class IndexTest extends SandboxTest {
     execute(new Delete("A"));
   }
 
+  /**
+   * Updates the IDs of existing keys, which are recorded in a delta.
+   */
+  @Test public void updindexDelta() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.TOKENINDEX, true);
+    execute(new CreateDB(NAME,
+        "<x>" + "<a>A</a><a>B</a><a c='1 2' n='5'>1</a>".repeat(100) + "</x>"));
+
+    final String x = _DB_GET.args(NAME) + "/x";
+    for(int i = 0; i < 50; i++) {
+      query("insert node <a>A</a> into " + x);
+      query("replace value of node " + x + "/a[text() = 'B'][last()] with '2'");
+      query("replace value of node (" + x + "/a/@n[. = '5'])[last()] with '6'");
+      query("delete node " + x + "/a[text() = 'A'][" + (i + 2) + ']');
+    }
+    query("replace value of node (" + x + "/a[text() = 'A'])[1] with 'C'");
+    query("replace value of node (" + x + "/a/@c)[1] with '3'");
+
+    final Runnable check = () -> {
+      query("count(" + _DB_TEXT.args(NAME, "A") + ')', 99);
+      query("count(" + _DB_TEXT.args(NAME, "B") + ')', 50);
+      query("count(" + _DB_TEXT.args(NAME, "C") + ')', 1);
+      query("count(" + _DB_TEXT_RANGE.args(NAME, "1", "2") + ')', 150);
+      query("count(" + _DB_TEXT.args(NAME, "A") + " ! parent::a[text() = 'A'])", 99);
+      query("count(" + _DB_TOKEN.args(NAME, "2") + ')', 99);
+      query("count(" + _DB_TOKEN.args(NAME, "3") + ')', 1);
+      query("count(" + x + "/a[. = ('A', 'B')])", 149);
+      query("count(" + x + "/a[@n >= 4 and @n <= 5])", 50);
+      query("count(" + x + "/a[@n >= 6 and @n <= 7])", 50);
+    };
+    check.run();
+
+    // restore pending changes from the log
+    execute(new Close());
+    execute(new Open(NAME));
+    check.run();
+    execute(new Optimize());
+    check.run();
+  }
+
+  /**
+   * Updates the full-text index.
+   */
+  @Test public void updindexFulltext() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x>" + "<a>apple banana</a><a>cherry</a>".repeat(100) + "</x>"));
+
+    final String x = _DB_GET.args(NAME) + "/x";
+    for(int i = 0; i < 50; i++) {
+      query("insert node <a>banana date</a> into " + x);
+      query("replace value of node " + x + "/a[text() = 'cherry'][last()] with 'elder apple'");
+      query("delete node " + x + "/a[text() = 'apple banana'][1]");
+    }
+
+    final Runnable check = () -> {
+      query("count(" + _FT_SEARCH.args(NAME, "apple") + ')', 100);
+      query("count(" + _FT_SEARCH.args(NAME, "banana") + ')', 100);
+      query("count(" + _FT_SEARCH.args(NAME, "cherry") + ')', 50);
+      query("count(" + _FT_SEARCH.args(NAME, "date") + ')', 50);
+      query("count(" + _FT_SEARCH.args(NAME, "elder apple", " { 'mode': 'all words' }") + ')',
+          50);
+      query("count(" + _FT_SEARCH.args(NAME, "ba.*", " { 'wildcards': true() }") + ')', 100);
+      query("count(" + _FT_SEARCH.args(NAME, "chery", " { 'fuzzy': true() }") + ')', 50);
+      query("count(" + x + "/a[text() contains text 'date'])", 50);
+      query(_FT_TOKENS.args(NAME) + "[. = 'apple']/@count/data()", 100);
+      query(_FT_TOKENS.args(NAME, "d") + "/string()", "date");
+    };
+    check.run();
+
+    // restore pending changes from the log
+    execute(new Close());
+    execute(new Open(NAME));
+    check.run();
+
+    // merge pending changes, add and remove tokens
+    final String text = "string-join((1 to 70000) ! ('t' || .), ' ')";
+    query("insert node <b>{ " + text + " }</b> into " + x);
+    query("count(" + _FT_SEARCH.args(NAME, "t12345") + ')', 1);
+    query("count(" + _FT_TOKENS.args(NAME, "t") + ')', 70000);
+    check.run();
+    query("delete node " + x + "/b");
+    query("count(" + _FT_SEARCH.args(NAME, "t12345") + ')', 0);
+    query("count(" + _FT_TOKENS.args(NAME, "t") + ')', 0);
+    check.run();
+
+    execute(new Close());
+    execute(new Open(NAME));
+    check.run();
+    // statistics for scoring are updated incrementally
+    final String scores = query(_FT_SCORE.args(_FT_SEARCH.args(NAME, " ('apple', 'date')")));
+    execute(new OptimizeAll());
+    check.run();
+    query(_FT_SCORE.args(_FT_SEARCH.args(NAME, " ('apple', 'date')")), scores);
+
+    // rebuild index with pending changes
+    query("replace value of node " + x + "/a[text() = 'cherry'][1] with 'fig'");
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    query("count(" + _FT_SEARCH.args(NAME, "fig") + ')', 1);
+    query(_FT_TOKENS.args(NAME, "fig") + "/@count/data()", 1);
+    query("count(" + _FT_SEARCH.args(NAME, "cherry") + ')', 49);
+  }
+
+  /**
+   * Opens a full-text index with PRE values, as created by previous versions.
+   */
+  @Test public void updindexFulltextLegacy() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>apple</a><a>banana</a></x>"));
+    final String x = _DB_GET.args(NAME) + "/x";
+    query("delete node " + x + "/a[1]");
+
+    // build index with PRE values, store metadata without format flag
+    final MetaData meta = context.data().meta;
+    meta.updindex = false;
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    meta.updindex = true;
+    meta.dirty = true;
+    execute(new Close());
+
+    final String info = _DB_INFO.args(NAME) + "//ftindex/text()";
+    final String search = _FT_SEARCH.args(NAME, "banana") + "/..";
+    execute(new Open(NAME));
+    query(info, true);
+    query(search, "<a>banana</a>");
+    query(x + "/a[text() contains text 'banana']", "<a>banana</a>");
+
+    // index is invalidated by updates
+    query("insert node <a>banana</a> into " + x);
+    query(info, false);
+    query("count(" + x + "/a[text() contains text 'banana'])", 2);
+
+    // new index is maintained
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    query("insert node <a>banana</a> into " + x);
+    query(info, true);
+    query("count(" + search + ')', 3);
+  }
+
   /**
    * Test.
    * @param mainmem main memory flag.
@@ -0,0 +1,80 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for functions and comparisons that atomize database texts via {@link TokenView}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenViewTest extends SandboxTest {
+  /** Tested texts: inlined, short, compressed, long, non-ASCII, numeric edge cases. */
+  private static final String[] TEXTS = {
+    "", "0", "123", "-0", "-1", "1e3", " 42 ", "INF", "-INF", "NaN", "abc", "ab", "äöü",
+    "a𝐀b", "text ".repeat(100), "x".repeat(1000) + 'ä', "1".repeat(40)
+  };
+
+  /** Creates a database with the tested texts as elements and attributes. */
+  @BeforeAll public static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(final String text : TEXTS) {
+      sb.append("<e a='").append(text).append("'>").append(text).append("</e>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+  }
+
+  /** Drops the database. */
+  @AfterAll public static void drop() {
+    execute(new DropDB(NAME));
+  }
+
+  /** Test. */
+  @Test public void stringLength() {
+    compare("string-length(.)", "string-length(string(.))");
+  }
+
+  /** Test. */
+  @Test public void number() {
+    compare("number(.)", "number(string(.))");
+    compare("xs:double(.)", "xs:double(string(.))");
+  }
+
+  /** Test. */
+  @Test public void substrings() {
+    for(final String func : new String[] { "starts-with", "ends-with", "contains" }) {
+      for(final String sub : new String[] { "", "a", "ab", "b", "1", "ä", "text", "xä" }) {
+        compare(func + "(., '" + sub + "')", func + "(string(.), '" + sub + "')");
+      }
+    }
+  }
+
+  /** Test. */
+  @Test public void comparisons() {
+    for(final String op : new String[] { "=", "!=", "<", ">", "eq", "lt", "ge" }) {
+      for(final String cmp : new String[] { "''", "'ab'", "'abc'", "'äöü'", "'123'", "'-0'" }) {
+        compare(". " + op + ' ' + cmp, "string(.) " + op + ' ' + cmp);
+      }
+    }
+    compare(". = 123", "xs:untypedAtomic(string(.)) = 123");
+  }
+
+  /**
+   * Compares the results of a database and a string-based expression.
+   * @param expr expression to be applied to database nodes
+   * @param string expression to be applied to strings
+   */
+  private static void compare(final String expr, final String string) {
+    for(final String path : new String[] { "//e", "//e/text()", "//@a" }) {
+      final String query = "db:get('" + NAME + "')" + path +
+          " ! (try { %s } catch * { $err:code }) => serialize({ 'method': 'adaptive' })";
+      assertEquals(query(String.format(query, string)), query(String.format(query, expr)),
+          expr + ", " + path);
+    }
+  }
+}
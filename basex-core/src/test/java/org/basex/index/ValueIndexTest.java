@@ -1,5 +1,6 @@
 package org.basex.index;
 
+import static org.basex.query.func.Function.*;
 import static org.basex.util.Token.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,6 +15,7 @@ import org.basex.index.query.*;
 import org.basex.index.value.*;
 import org.basex.util.hash.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
 
@@ -119,6 +121,28 @@ public final class ValueIndexTest extends SandboxTest {
     valueIndexTest(IndexType.TOKEN, tokens, paramSet);
   }
 
+  /**
+   * Builds the indexes of a larger database in parallel.
+   */
+  @Test public void parallel() {
+    final String doc = " <xml>{ (1 to 100000) ! "
+        + "<a b='{ . mod 100 }' c='{ . mod 7 } x'>{ . mod 1000 }</a> }</xml>";
+    execute(new Close());
+    for(final boolean updindex : new boolean[] { false, true }) {
+      set(MainOptions.UPDINDEX, updindex);
+      // write partial indexes if updatable indexes are built
+      query(_DB_CREATE.args(NAME, doc, "x.xml", " { 'tokenindex': true(), 'ftindex': true(), "
+          + "'splitsize': " + (updindex ? 1 : 0) + " }"));
+      query(_DB_TEXT.args(NAME, "7") + " => count()", 100);
+      query(_DB_ATTRIBUTE.args(NAME, "5", "b") + " => count()", 1000);
+      query(_DB_TOKEN.args(NAME, "x") + " => count()", 100000);
+      query(_DB_TOKEN.args(NAME, "3", "c") + " ! .. ! xs:integer(@b) => sum()", 707143);
+      query(_FT_SEARCH.args(NAME, "999") + " => count()", 100);
+      query(_DB_GET.args(NAME) + "//a[text() = '999'][@b = '99'] => count()", 100);
+      query(_DB_DROP.args(NAME));
+    }
+  }
+
   /**
    * Tests the index: fetch results for different tokens, compare whether the right node was
    * returned and verify against the expected result size.
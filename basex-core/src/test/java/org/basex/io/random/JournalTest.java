@@ -0,0 +1,178 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.Close;
+import org.basex.core.cmd.Open;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link Journal}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Name of the test file. */
+  private static final String FILE = "test" + IO.BASEXSUFFIX;
+
+  /**
+   * Redoes committed updates.
+   * @throws IOException I/O exception
+   */
+  @Test public void recover() throws IOException {
+    final IOFile dir = dir(), file = new IOFile(dir, FILE), jrn = MetaData.file(dir, DATAJRN);
+    final Journal journal = commit(dir, "1111", true);
+    assertEquals("1111", string(file));
+    final byte[] entries = jrn.read();
+    journal.close();
+    assertFalse(jrn.exists());
+
+    // committed update has not been written back
+    write(file, "0000");
+    jrn.write(entries);
+    Journal.recover(dir);
+    assertEquals("1111", string(file));
+    assertFalse(jrn.exists());
+
+    // ignore incomplete entries
+    write(file, "0000");
+    jrn.write(Arrays.copyOf(entries, entries.length + 3));
+    Journal.recover(dir);
+    assertEquals("1111", string(file));
+  }
+
+  /**
+   * Ignores updates that have not been committed.
+   * @throws IOException I/O exception
+   */
+  @Test public void uncommitted() throws IOException {
+    final IOFile dir = dir(), file = new IOFile(dir, FILE), jrn = MetaData.file(dir, DATAJRN);
+    final Journal journal = commit(dir, "1111", true);
+    final byte[] entries = jrn.read();
+    journal.close();
+
+    // drop commit entry
+    write(file, "0000");
+    jrn.write(Arrays.copyOf(entries, entries.length - 9));
+    Journal.recover(dir);
+    assertEquals("0000", string(file));
+
+    // ignore entries of a previous epoch
+    final Journal journal2 = commit(dir, "2222", true);
+    final byte[] header = Arrays.copyOf(jrn.read(), 12);
+    journal2.close();
+    write(file, "0000");
+    System.arraycopy(header, 0, entries, 0, header.length);
+    jrn.write(entries);
+    Journal.recover(dir);
+    assertEquals("0000", string(file));
+  }
+
+  /**
+   * Updates a database and opens it again.
+   */
+  @Test public void database() {
+    query(_DB_CREATE.args(NAME, " <x/>", "x.xml"));
+    execute(new Open(NAME));
+    for(int i = 0; i < 10; i++) query(_DB_GET.args(NAME) + "/x ! (insert node <y/> into .)");
+    query(_DB_GET.args(NAME) + "//y => count()", 10);
+    assertTrue(MetaData.file(context.soptions.dbPath(NAME), DATAJRN).exists());
+
+    execute(new Close());
+    assertFalse(MetaData.file(context.soptions.dbPath(NAME), DATAJRN).exists());
+    query(_DB_GET.args(NAME) + "//y => count()", 10);
+    query(_DB_DROP.args(NAME));
+  }
+
+  /**
+   * Redoes committed updates that have not been synchronized with the disk.
+   * @throws IOException I/O exception
+   */
+  @Test public void noSync() throws IOException {
+    final IOFile dir = dir(), file = new IOFile(dir, FILE), jrn = MetaData.file(dir, DATAJRN);
+    final Journal journal = commit(dir, "1111", false);
+    assertEquals("1111", string(file));
+    final byte[] entries = jrn.read();
+    journal.close();
+
+    write(file, "0000");
+    jrn.write(entries);
+    Journal.recover(dir);
+    assertEquals("1111", string(file));
+  }
+
+  /**
+   * Updates multiple databases with a single query.
+   */
+  @Test public void databases() {
+    final String name2 = NAME + '2';
+    try {
+      for(final boolean sync : new boolean[] { true, false }) {
+        set(MainOptions.SYNC, sync);
+        query(_DB_CREATE.args(NAME, " <x/>", "x.xml"));
+        query(_DB_CREATE.args(name2, " <x/>", "x.xml"));
+        for(int i = 0; i < 10; i++) {
+          query("(" + _DB_GET.args(NAME) + ", " + _DB_GET.args(name2) + ")/x ! "
+              + "(insert node <y/> into .)");
+        }
+        query("(" + _DB_GET.args(NAME) + ", " + _DB_GET.args(name2) + ")//y => count()", 20);
+      }
+    } finally {
+      set(MainOptions.SYNC, true);
+      query(_DB_DROP.args(NAME));
+      query(_DB_DROP.args(name2));
+    }
+  }
+
+  /**
+   * Resets the test file, writes new contents and commits the update.
+   * @param dir directory
+   * @param contents new contents
+   * @param sync synchronize the journal with the disk
+   * @return journal
+   * @throws IOException I/O exception
+   */
+  private static Journal commit(final IOFile dir, final String contents, final boolean sync)
+      throws IOException {
+    final IOFile file = new IOFile(dir, FILE);
+    write(file, "0000");
+    final Journal journal = new Journal(dir);
+    journal.begin();
+    journal.prepare(sync);
+    journal.write(FILE, Token.token(contents));
+    assertEquals("0000", string(file));
+    journal.commit();
+    return journal;
+  }
+
+  /**
+   * Returns the test directory.
+   * @return directory
+   */
+  private static IOFile dir() {
+    final IOFile dir = new IOFile(sandbox(), "journal");
+    dir.md();
+    return dir;
+  }
+
+  /**
+   * Returns the contents of a file.
+   * @param file file
+   * @return contents
+   * @throws IOException I/O exception
+   */
+  private static String string(final IOFile file) throws IOException {
+    return Token.string(file.read());
+  }
+}
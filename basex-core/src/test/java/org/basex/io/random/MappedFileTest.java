@@ -0,0 +1,45 @@
+package org.basex.io.random;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for memory-mapped database access.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedFileTest extends SandboxTest {
+  /** Enables memory mapping. */
+  @BeforeAll public static void init() {
+    Prop.mmap = true;
+  }
+
+  /** Disables memory mapping. */
+  @AfterAll public static void finish() {
+    Prop.mmap = false;
+  }
+
+  /** Queries and updates. */
+  @Test public void update() {
+    execute(new CreateDB(NAME, "<x>" + "<a>text</a>".repeat(10000) + "</x>"));
+    query("count(//a)", 10000);
+    query("//a[last()] ! string()", "text");
+
+    // grow table and text files, shrink text file
+    query("insert node (1 to 10000) ! <b>{ . }{ string-join(replicate('x', 100)) }</b> into /x");
+    query("sum(//b ! string-length())", 1038894);
+    query("//b[last()] ! substring(., 1, 5)", "10000");
+    query("delete node /x/b[. > '5']");
+    query("replace value of node /x/a[1] with 'new'");
+    query("(count(//b), //a[1] ! string())", "4445\nnew");
+
+    execute(new Close());
+    execute(new Open(NAME));
+    query("(count(//b), //a[1] ! string(), count(//a))", "4445\nnew\n10000");
+    execute(new DropDB(NAME));
+  }
+}
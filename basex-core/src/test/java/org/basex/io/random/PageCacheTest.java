@@ -0,0 +1,177 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link PageCache}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCacheTest {
+  /** Number of blocks of the test file. */
+  private static final int BLOCKS = 64;
+
+  /** Initializes the cache. */
+  @BeforeEach public void setUp() {
+    PageCache.size(0);
+  }
+
+  /** Resets the cache. */
+  @AfterAll public static void tearDown() {
+    PageCache.size(0);
+  }
+
+  /** Disabled cache. */
+  @Test public void disabled() {
+    final long id = PageCache.id();
+    final byte[] page = new byte[IO.BLOCKSIZE];
+    PageCache.add(id, page);
+    assertFalse(PageCache.read(id, page));
+    assertEquals(0, PageCache.stats()[1]);
+  }
+
+  /** Frequently accessed pages are not displaced by scans. */
+  @Test public void scan() {
+    PageCache.size(16L << IO.BLOCKPOWER);
+    final long id = PageCache.id();
+    final byte[] page = new byte[IO.BLOCKSIZE];
+
+    // pages requested twice: second request occurs after eviction from the FIFO queue
+    for(int p = 0; p < 4; p++) add(id + p, page);
+    for(int p = 100; p < 116; p++) add(id + p, page);
+    for(int p = 0; p < 4; p++) add(id + p, page);
+
+    // scan: hot pages remain in the cache
+    for(int p = 200; p < 1200; p++) add(id + p, page);
+    for(int p = 0; p < 4; p++) assertTrue(PageCache.read(id + p, page), "Page " + p);
+    assertFalse(PageCache.read(id + 200, page));
+    assertEquals(16L << IO.BLOCKPOWER, PageCache.stats()[1]);
+  }
+
+  /**
+   * Reads and writes data via the cache.
+   * @throws IOException I/O exception
+   */
+  @Test public void dataAccess() throws IOException {
+    PageCache.size((long) BLOCKS << IO.BLOCKPOWER);
+    final IOFile file = new IOFile(Prop.TEMPDIR, "pagecache" + IO.BASEXSUFFIX);
+    try {
+      try(DataAccess da = new DataAccess(file)) {
+        for(int b = 0; b < BLOCKS; b++) da.write4((long) b << IO.BLOCKPOWER, b);
+      }
+      try(DataAccess da = new DataAccess(file)) {
+        final long hits = PageCache.stats()[2];
+        for(int r = 0; r < 2; r++) {
+          for(int b = 0; b < BLOCKS; b++) assertEquals(b, da.read4((long) b << IO.BLOCKPOWER));
+        }
+        assertTrue(PageCache.stats()[2] - hits >= BLOCKS - 16);
+
+        // overwrite cached page, write back buffers, read updated page
+        da.write4(0, -1);
+        for(int b = 1; b < BLOCKS; b++) assertEquals(b, da.read4((long) b << IO.BLOCKPOWER));
+        assertEquals(-1, da.read4(0));
+      }
+      try(DataAccess da = new DataAccess(file)) {
+        assertEquals(-1, da.read4(0));
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Pages of a file are removed when the file is closed.
+   * @throws IOException I/O exception
+   */
+  @Test public void close() throws IOException {
+    PageCache.size((long) BLOCKS << IO.BLOCKPOWER);
+    final IOFile file = new IOFile(Prop.TEMPDIR, "pagecache" + IO.BASEXSUFFIX);
+    try {
+      try(DataAccess da = new DataAccess(file)) {
+        for(int b = 0; b < BLOCKS; b++) da.write4((long) b << IO.BLOCKPOWER, b);
+      }
+      try(DataAccess da = new DataAccess(file)) {
+        for(int b = 0; b < BLOCKS; b++) assertEquals(b, da.read4((long) b << IO.BLOCKPOWER));
+        assertTrue(PageCache.stats()[1] > 0);
+      }
+      assertEquals(0, PageCache.stats()[1]);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /** Ids of closed files are reused, pages of other files are kept. */
+  @Test public void reuse() {
+    PageCache.size(16L << IO.BLOCKPOWER);
+    final long id1 = PageCache.id(), id2 = PageCache.id();
+    final byte[] page = new byte[IO.BLOCKSIZE];
+    for(int p = 0; p < 4; p++) {
+      PageCache.add(id1 + p, page);
+      PageCache.add(id2 + p, page);
+    }
+    PageCache.drop(id1);
+    PageCache.drop(id1);
+    assertEquals(4L << IO.BLOCKPOWER, PageCache.stats()[1]);
+
+    final long id3 = PageCache.id();
+    assertEquals(id1, id3);
+    assertNotEquals(id3, PageCache.id());
+    assertFalse(PageCache.read(id3, page));
+    assertTrue(PageCache.read(id2, page));
+    PageCache.drop(id2);
+    assertEquals(0, PageCache.stats()[1]);
+  }
+
+  /**
+   * Concurrent access to a cache with multiple segments.
+   * @throws Exception exception
+   */
+  @Test public void segments() throws Exception {
+    final int pages = 1 << 14;
+    PageCache.size((long) pages << IO.BLOCKPOWER);
+    assertEquals((long) pages << IO.BLOCKPOWER, PageCache.stats()[0]);
+
+    final long id = PageCache.id();
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final ArrayList<Future<?>> futures = new ArrayList<>();
+      for(int t = 0; t < 8; t++) {
+        futures.add(pool.submit(() -> {
+          final byte[] page = new byte[IO.BLOCKSIZE];
+          for(int p = 0; p < pages << 1; p++) {
+            if(PageCache.read(id + p, page)) {
+              assertEquals((byte) p, page[0]);
+            } else {
+              Arrays.fill(page, (byte) p);
+              PageCache.add(id + p, page);
+            }
+          }
+        }));
+      }
+      for(final Future<?> future : futures) future.get();
+    } finally {
+      pool.shutdown();
+    }
+    assertTrue(PageCache.stats()[1] <= (long) pages << IO.BLOCKPOWER);
+    PageCache.drop(id);
+    assertEquals(0, PageCache.stats()[1]);
+  }
+
+  /**
+   * Requests a page and adds it to the cache if it is not found.
+   * @param key key
+   * @param page page
+   */
+  private static void add(final long key, final byte[] page) {
+    if(!PageCache.read(key, page)) PageCache.add(key, page);
+  }
+}
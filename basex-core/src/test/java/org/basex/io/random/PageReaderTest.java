@@ -0,0 +1,158 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.core.jobs.*;
+import org.basex.data.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for concurrent read access ({@link PageReader}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class PageReaderTest extends SandboxTest {
+  /** Number of concurrent readers. */
+  private static final int READERS = 8;
+
+  /** Creates the test database. */
+  @BeforeEach public void setUp() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 20000; i++) sb.append("<a b='").append(i).append("'>text ").append(i)
+      .append(" ").append("abcdefghij".repeat(i % 10)).append("</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /** Drops the test database. */
+  @AfterEach public void cleanUp() {
+    Prop.mmap = false;
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Concurrent reads.
+   * @throws Exception exception
+   */
+  @Test public void read() throws Exception {
+    read(context.data());
+  }
+
+  /**
+   * Concurrent reads, using memory-mapped files.
+   * @throws Exception exception
+   */
+  @Test public void mapped() throws Exception {
+    Prop.mmap = true;
+    execute(new Close());
+    execute(new Open(NAME));
+    read(context.data());
+  }
+
+  /**
+   * Concurrent reads after an update.
+   * @throws Exception exception
+   */
+  @Test public void update() throws Exception {
+    read(context.data());
+    query("for $a in //a[@b mod 2 = 0] return replace value of node $a with 'updated'");
+    query("insert node <a b='new'>new text</a> into /x");
+    read(context.data());
+  }
+
+  /**
+   * Interrupting a reader does not affect other readers and writers.
+   * @throws Exception exception
+   */
+  @Test public void interrupt() throws Exception {
+    final Data data = context.data();
+    final String expected = read(data, 0);
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicInteger interrupts = new AtomicInteger();
+    final Thread reader = new Thread(() -> {
+      while(!done.get()) {
+        try {
+          read(data, 1);
+        } catch(final JobException ex) {
+          Thread.interrupted();
+          interrupts.incrementAndGet();
+        }
+      }
+    });
+    reader.start();
+
+    final ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      final Future<String> result = pool.submit(() -> {
+        String string = null;
+        for(int r = 0; r < 20; r++) string = read(data, 2);
+        return string;
+      });
+      while(!result.isDone()) {
+        reader.interrupt();
+        Performance.sleep(1);
+      }
+      assertEquals(expected, result.get());
+    } finally {
+      done.set(true);
+      reader.join();
+      pool.shutdown();
+    }
+    assertTrue(interrupts.get() > 0);
+
+    // database can still be read and updated
+    assertEquals(expected, read(data, 0));
+    query("insert node <a b='new'>new text</a> into /x");
+    assertEquals("new text", query("/x/a[last()]/text()"));
+  }
+
+  /**
+   * Compares the results of concurrent reads with the results of a single reader.
+   * @param data data reference
+   * @throws Exception exception
+   */
+  private static void read(final Data data) throws Exception {
+    final String expected = read(data, 0);
+    final ExecutorService pool = Executors.newFixedThreadPool(READERS);
+    try {
+      final ArrayList<Future<String>> results = new ArrayList<>();
+      for(int r = 0; r < READERS; r++) {
+        final int offset = r;
+        results.add(pool.submit(() -> read(data, offset)));
+      }
+      for(final Future<String> result : results) assertEquals(expected, result.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Reads the node properties and texts of a database.
+   * @param data data reference
+   * @param offset start offset (readers start at different positions)
+   * @return string representation
+   */
+  private static String read(final Data data, final int offset) {
+    final int nodes = data.nodes(), start = offset * nodes / READERS;
+    final String[] strings = new String[nodes];
+    for(int n = 0; n < nodes; n++) {
+      final int pre = (start + n) % nodes, kind = data.kind(pre);
+      final StringBuilder sb = new StringBuilder().append(kind).append(data.size(pre, kind));
+      sb.append(data.parent(pre, kind));
+      if(kind == Data.TEXT || kind == Data.ATTR) {
+        final boolean text = kind == Data.TEXT;
+        sb.append(Token.string(data.text(pre, text))).append(data.textLen(pre, text));
+      }
+      strings[pre] = sb.toString();
+    }
+    return String.join("\n", strings);
+  }
+}
@@ -0,0 +1,156 @@
+package org.basex.query;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the cache of query plans.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCacheTest extends SandboxTest {
+  /** Statistics at the start of a test. */
+  private long[] start;
+
+  /** Enables the cache, creates a test database (which is not opened in the session context). */
+  @BeforeEach public void init() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 4);
+    execute(new CreateDB(NAME, "<a><b>1</b><b>2</b></a>"));
+    execute(new Close());
+    start = context.queries.stats();
+  }
+
+  /** Disables the cache, drops the test database. */
+  @AfterEach public void clean() {
+    context.soptions.set(StaticOptions.QUERYCACHE, StaticOptions.QUERYCACHE.value());
+    context.queries.clear();
+    execute(new DropDB(NAME));
+  }
+
+  /** Plans are reused. */
+  @Test public void hits() {
+    final String query = _DB_GET.args(NAME) + "//b[. = '2'] ! string()";
+    query(query, 2);
+    assertEquals(1, stats()[1]);
+    for(int i = 0; i < 3; i++) query(query, 2);
+    assertEquals(3, stats()[2]);
+
+    // different query string, different options
+    query("(" + query + ")", 2);
+    assertEquals(2, stats()[1]);
+    final int limit = context.options.get(MainOptions.INLINELIMIT);
+    set(MainOptions.INLINELIMIT, limit + 1);
+    try {
+      query(query, 2);
+      assertEquals(3, stats()[1]);
+    } finally {
+      set(MainOptions.INLINELIMIT, limit);
+    }
+  }
+
+  /** Cached plans are evaluated concurrently. */
+  @Test public void parallel() {
+    final String query = "sum(" + _DB_GET.args(NAME) + "//b ! (for $i in 1 to . return $i))";
+    query(query, 4);
+    IntStream.range(0, 100).parallel().forEach(i -> query(query, 4));
+    assertEquals(1, stats()[1]);
+    assertEquals(100, stats()[2]);
+  }
+
+  /** Plans are discarded if a referenced database is updated. */
+  @Test public void update() {
+    final String query = "count(" + _DB_GET.args(NAME) + "//b)";
+    query(query, 2);
+    execute(new Open(NAME));
+    execute(new Add("c.xml", "<a><b/></a>"));
+    execute(new Close());
+    query(query, 3);
+    query(_DB_ADD.args(NAME, " <b/>", "d.xml"));
+    query(query, 4);
+    assertEquals(0, stats()[2]);
+  }
+
+  /** Databases that are referenced by cached plans can be dropped and replaced. */
+  @Test public void drop() {
+    final String query = "count(" + _DB_GET.args(NAME) + "//b)";
+    query(query, 2);
+    execute(new Close());
+    execute(new DropDB(NAME));
+    assertEquals(0, stats()[1]);
+    execute(new CreateDB(NAME, "<b/>"));
+    execute(new Close());
+    query(query, 1);
+    query(_DB_DROP.args(NAME));
+    error(query, QueryError.DB_GET2_X);
+  }
+
+  /** Bound values are part of the key. */
+  @Test public void bindings() throws QueryException {
+    final String query = "declare variable $v external; " + _DB_GET.args(NAME) + "//b[. = $v]";
+    for(int i = 0; i < 2; i++) {
+      for(final String v : new String[] { "1", "2", "3" }) {
+        try(QueryProcessor qp = new QueryProcessor(query, context)) {
+          qp.variable("v", v);
+          assertEquals(v.equals("3") ? 0 : 1, qp.value().size());
+        }
+      }
+    }
+    assertEquals(3, stats()[1]);
+    assertEquals(3, stats()[2]);
+  }
+
+  /**
+   * Plans are discarded if a module is changed.
+   * @throws Exception exception
+   */
+  @Test public void module() throws Exception {
+    final IOFile file = new IOFile(sandbox(), "m.xqm");
+    write(file, "module namespace m = 'm'; declare function m:f() { 1 };");
+    final String query = "import module namespace m = 'm' at '" + file.path() + "'; m:f()";
+    query(query, 1);
+    query(query, 1);
+    assertEquals(1, stats()[2]);
+
+    write(file, "module namespace m = 'm'; declare function m:f() { 2 };");
+    file.file().setLastModified(file.timeStamp() + 2000);
+    query(query, 2);
+    assertEquals(1, stats()[2]);
+  }
+
+  /** Plans of some queries are not cached. */
+  @Test public void skip() {
+    query("current-dateTime() = current-dateTime()", true);
+    query(_DB_GET.args(NAME) + "//b ! " + _DB_DELETE.args(NAME, "x"));
+    query(_DB_GET.args(" <_>" + NAME + "</_>") + "//b => count()", 2);
+    query("doc('" + new IOFile("src/test/resources/input.xml").path() + "') ! 1", 1);
+    assertEquals(0, stats()[1]);
+  }
+
+  /** The least recently used plans are evicted. */
+  @Test public void evict() {
+    for(int i = 0; i < 6; i++) query(i + " + " + _DB_GET.args(NAME) + "//b[1]", i + 1);
+    assertEquals(4, stats()[1]);
+    assertEquals(2, stats()[4]);
+  }
+
+  /**
+   * Returns the current number of entries, and the number of hits, misses and evictions
+   * since the start of the test.
+   * @return statistics
+   */
+  private long[] stats() {
+    final long[] stats = context.queries.stats();
+    for(int s = 2; s < stats.length; s++) stats[s] -= start[s];
+    return stats;
+  }
+}
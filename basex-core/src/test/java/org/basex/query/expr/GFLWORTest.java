@@ -5,6 +5,7 @@ import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.query.expr.constr.*;
 import org.basex.query.expr.gflwor.*;
 import org.basex.query.up.expr.*;
@@ -546,4 +547,110 @@ public final class GFLWORTest extends SandboxTest {
     query("for $x in (1, 2) for $y in (for $a in (1, 2, 3) while $a < 3 return $a) return ($x, $y)",
         "1\n1\n1\n2\n2\n1\n2\n2");
   }
+
+  /** Order by clauses with a positional limit (top-k). */
+  @Test public void orderByLimit() {
+    final String flwor = "for $i in 1 to 1000 let $k := $i mod 7 order by $k descending return $i";
+    check("head(" + flwor + ")", 6, exists("OrderBy[@limit = 1]"));
+    check("subsequence(" + flwor + ", 1, 3)", "6\n13\n20", exists("OrderBy[@limit = 3]"));
+    check("(" + flwor + ")[position() <= 3]", "6\n13\n20", exists("OrderBy[@limit = 3]"));
+    check("(" + flwor + ")[5]", 34, exists("OrderBy[@limit = 5]"));
+    check("subsequence(" + flwor + ", 140, 3)", "979\n986\n993",
+        exists("OrderBy[@limit = 142]"));
+    query("count(subsequence(" + flwor + ", 990, 20))", 11);
+
+    // limit must not be applied to shared or inlined expressions
+    query("let $f := " + flwor + " return (head($f), count($f))", "6\n1000");
+    query("declare function local:f() { " + flwor + " };"
+        + "head(local:f()), count(local:f()), local:f()[last()]", "6\n1000\n994");
+    query("for $n in (1, 1000) return count(subsequence(" + flwor + ", 1, $n))", "1\n1000");
+
+    // number of results may differ from number of tuples
+    check("subsequence(for $i in 1 to 5 order by -$i return ($i, $i), 1, 3)", "5\n5\n4",
+        empty("OrderBy[@limit]"));
+    check("subsequence(for $i in 1 to 5 order by -$i for $j in 1 to 2 return $i, 1, 3)",
+        "5\n5\n4", empty("OrderBy[@limit]"));
+    error("head(for $i in (1, 'a', 2) order by $i return $i)", CMPTYPES_X_X_X_X);
+  }
+
+  /** Order by clauses with a large number of tuples (parallel sort). */
+  @Test public void orderByParallel() {
+    query("deep-equal(for $i in 1 to 100000 order by -$i return $i, reverse(1 to 100000))", true);
+    query("deep-equal(for $i in 1 to 100000 order by $i mod 2, $i return $i, "
+        + "((1 to 100000)[. mod 2 = 0], (1 to 100000)[. mod 2 = 1]))", true);
+    error("for $i in (1 to 100000, 'a') order by $i return $i", CMPTYPES_X_X_X_X);
+  }
+
+  /** Order by clauses with tuples that are spilled to disk. */
+  @Test public void orderBySpill() {
+    final String[] queries = {
+      "for $i in 1 to 1000 order by $i mod 10, -$i return $i",
+      "for $i in 1 to 1000 order by $i mod 3 descending return $i",
+      "for $i in 1 to 1000 let $s := string($i) order by $s return ($s, xs:double($i))",
+      "for $i in 1 to 1000 let $e := (1 to $i mod 3) order by $i mod 5 return $e",
+      "for $i in 1 to 1000 let $n := <a>{ $i }</a> order by $i mod 10 return $n",
+      "for $a in " + _DB_GET.args(NAME) + "//a order by $a mod 10 return $a/../name()",
+      "for $a in " + _DB_GET.args(NAME) + "//a order by $a mod 10 return $a ! string()"
+    };
+    query(_DB_CREATE.args(NAME, " <x>{ (1 to 900) ! <a>{ . mod 3 + 1 }</a> }</x>", "x.xml"));
+    try {
+      final String[] expected = new String[queries.length];
+      for(int q = 0; q < queries.length; q++) expected[q] = query(queries[q]);
+      set(MainOptions.SORTLIMIT, 100);
+      for(int q = 0; q < queries.length; q++) query(queries[q], expected[q]);
+
+      // non-spillable tuples after spilled runs
+      set(MainOptions.SORTLIMIT, 10);
+      query("for $x in (1 to 14, (15 to 30) ! <a>{ . }</a>) order by -number($x) return $x",
+          "<a>30</a>\n<a>29</a>\n<a>28</a>\n<a>27</a>\n<a>26</a>\n<a>25</a>\n<a>24</a>\n"
+          + "<a>23</a>\n<a>22</a>\n<a>21</a>\n<a>20</a>\n<a>19</a>\n<a>18</a>\n<a>17</a>\n"
+          + "<a>16</a>\n<a>15</a>\n14\n13\n12\n11\n10\n9\n8\n7\n6\n5\n4\n3\n2\n1");
+    } finally {
+      set(MainOptions.SORTLIMIT, 0);
+      query(_DB_DROP.args(NAME));
+    }
+  }
+
+  /** Group by clauses with a large number of tuples (parallel aggregation). */
+  @Test public void groupByParallel() {
+    query("for $i in 1 to 100000 group by $k := $i mod 1000 "
+        + "where $k < 3 return $k || ':' || count($i) || ':' || sum($i)",
+        "1:100:4950100\n2:100:4950200\n0:100:5050000");
+    query("count(for $i in 1 to 100000 group by $i return $i)", 100000);
+    query("deep-equal(for $i in 1 to 100000 group by $k := $i * -1 return $k, "
+        + "(1 to 100000) ! (. * -1))", true);
+    query("for $i in 1 to 100000 let $s := string($i mod 3) group by $s, $b := $i mod 2 = 0 "
+        + "return $s || $b", "1false\n2true\n0false\n1true\n2false\n0true");
+    query("for $i in 1 to 100000 let $s := if($i mod 2 = 0) then 'a' else 'A' "
+        + "group by $s collation '?lang=en;strength=primary' return count($i)", 100000);
+    query("head(for $i in 1 to 100000 group by $k := $i mod 2 return $i[last()])", 99999);
+  }
+
+  /** Group by clauses with tuples that are spilled to disk. */
+  @Test public void groupBySpill() {
+    final String[] queries = {
+      "for $i in 1 to 1000 group by $k := $i mod 10 return ($k, sum($i))",
+      "for $i in 1 to 1000 group by $k := $i mod 10 return string-join($i, ',')",
+      "for $i in 1 to 1000 group by $k := $i mod 700 return $k || ':' || count($i)",
+      "for $i in 1 to 1000 let $s := string($i mod 3) group by $k := $i mod 4, $s "
+        + "return [ $k, $s, $i[1], count($i) ]",
+      "for $i in 1 to 1000 let $e := (1 to $i mod 3) group by $k := $i mod 5 return sum($e)",
+      "for $i in 1 to 1000 let $n := <a>{ $i }</a> group by $k := $i mod 10 "
+        + "return ($k, $n[last()] ! string())",
+      "for $i in 1 to 1000 let $n := if($i > 500) then <a/> else $i group by $k := $i mod 10 "
+        + "return ($k, count($n))",
+      "for $a in " + _DB_GET.args(NAME) + "//a group by $k := $a mod 10 "
+        + "return ($k, count($a/..), $a[1] ! string())"
+    };
+    query(_DB_CREATE.args(NAME, " <x>{ (1 to 900) ! <a>{ . mod 3 + 1 }</a> }</x>", "x.xml"));
+    try {
+      final String[] expected = new String[queries.length];
+      for(int q = 0; q < queries.length; q++) expected[q] = query(queries[q]);
+      set(MainOptions.GROUPLIMIT, 100);
+      for(int q = 0; q < queries.length; q++) query(queries[q], expected[q]);
+    } finally {
+      set(MainOptions.GROUPLIMIT, 0);
+      query(_DB_DROP.args(NAME));
+    }
+  }
 }
@@ -1,8 +1,10 @@
 package org.basex.query.expr;
 
+import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.var.*;
@@ -359,4 +361,46 @@ public final class PathTest extends SandboxTest {
     query(f.replace("%type", "document-node(*)").replace("%of", "document-node(a)"), true);
     query(f.replace("%type", "document-node(*)").replace("%of", "document-node(b)"), false);
   }
+
+  /** Parallel evaluation of paths over multiple documents. */
+  @Test public void parallel() {
+    execute(new CreateDB(NAME));
+    query("for $i in 1 to 500 return " + _DB_PUT.args(NAME,
+        " <doc><record id='{ $i }'><a>{ $i }</a></record></doc>", " $i || '.xml'"));
+    final String db = _DB_GET.args(NAME);
+    final String even = db + "//record[@id mod 2 = 0]";
+
+    set(MainOptions.PARALLELPATHS, 1);
+    try {
+      check(even + " ! string(@id)", query("(1 to 500)[. mod 2 = 0]"),
+          exists("IterPath[@parallel = 'true']"));
+      check("count(" + db + "//a/..)", 500, exists("CachedPath[@parallel = 'true']"));
+      check("sum(" + db + "//record[a > 490]/a)", 4955, exists("*[@parallel = 'true']"));
+      query("count(" + db + "//record[last()])", 500);
+      query("count(" + db + "//record[position() = 1]/a)", 500);
+
+      // no parallel evaluation: variable references, nondeterministic code
+      check("for $i in 1 to 2 return count(" + db + "//record[@id = $i])", "1\n1",
+          empty("*[@parallel]"));
+      check("count(" + db + "//record[" + _RANDOM_DOUBLE.args() + " < 2])", 500,
+          empty("*[@parallel]"));
+
+      // errors are passed on
+      error(db + "//record[1 idiv (xs:integer(@id) - 250)]", DIVZERO_X);
+
+      // iterative evaluation: results are consumed in parts
+      final String div = db + "/doc/record[1 idiv (xs:integer(@id) - 250) != 2]";
+      check("(" + div + ")[position() < 3] ! string(@id)", "1\n2",
+          exists("IterPath[@parallel = 'true']"));
+      check("(for $r in " + div + " return string($r/@id))[1]", 1,
+          exists("IterPath[@parallel = 'true']"));
+      error("count(" + div + ")", DIVZERO_X);
+
+      // threshold exceeds number of nodes
+      set(MainOptions.PARALLELPATHS, 1_000_000);
+      check(even, query(even), empty("*[@parallel]"));
+    } finally {
+      set(MainOptions.PARALLELPATHS, 0);
+    }
+  }
 }
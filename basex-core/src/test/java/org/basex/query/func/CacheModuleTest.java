@@ -253,6 +253,27 @@ public final class CacheModuleTest extends SandboxTest {
     query(func.args("unknown"));
   }
 
+  /** Concurrent access. */
+  @Test public void concurrent() {
+    query(_CACHE_INIT.args(" { 'max-entries': 1000 }"));
+    query(_XQUERY_FORK_JOIN.args(" (1 to 8) ! fn() { (1 to 5000) ! (" +
+        _CACHE_PUT.args(" string(. mod 2000)", " .") + ", " +
+        _CACHE_GET.args(" string(. * 7 mod 3000)") + ") }"));
+    query(_CACHE_SIZE.args(), 1000);
+    query(_CACHE_INFO.args() + " => map:get('entries')", 1000);
+    query(_CACHE_INFO.args() + " ! (?hits + ?misses)", 40000);
+    query(_CACHE_KEYS.args() + " => count()", 1000);
+
+    // least recently used entries are evicted
+    query(_CACHE_INIT.args(" { 'max-entries': 10 }"));
+    query(_CACHE_SIZE.args(), 10);
+    query("(1 to 10) ! " + _CACHE_PUT.args(" string()", " ."));
+    query(_CACHE_GET.args("1"), 1);
+    query("(101 to 109) ! " + _CACHE_PUT.args(" string()", " ."));
+    query(_CACHE_KEYS.args() + " ! xs:integer(.) => sort()",
+        "1\n101\n102\n103\n104\n105\n106\n107\n108\n109");
+  }
+
   /** Test method. */
   @Test public void ttl() {
     query(_CACHE_INIT.args(" { 'ttl': 1 }"));
@@ -244,8 +244,13 @@ public final class FtModuleTest extends SandboxTest {
   /** Test method. */
   @Test public void score() {
     final Function func = _FT_SCORE;
-    query(func.args(_FT_SEARCH.args(NAME, "2")), 1);
-    query(func.args(_FT_SEARCH.args(NAME, "XML")), "1\n0.5");
+    query(func.args(_FT_SEARCH.args(NAME, "2")) + " ! (. > 0 and . < 1)", true);
+    // shorter texts are more relevant
+    query("let $s := " + func.args(_FT_SEARCH.args(NAME, "XML")) + " return $s[1] > $s[2]",
+        true);
+    // texts containing more tokens and rarer tokens are more relevant
+    query("let $s := " + func.args(_FT_SEARCH.args(NAME, " ('exercise', '2')")) +
+        " return $s[1] < $s[2]", true);
   }
 
   /** Test method. */
@@ -304,6 +309,47 @@ public final class FtModuleTest extends SandboxTest {
     error(func.args(NAME, "x", " 1"), INVTYPE_X);
   }
 
+  /** Test method. */
+  @Test public void searchLimit() {
+    final Function func = _FT_SEARCH;
+
+    query(func.args(NAME, "XML", " { 'limit': 1 }"), "XML");
+    query(func.args(NAME, "XML", " { 'limit': 0 }"), "XML\nDatabases and XML");
+    query(func.args(NAME, " ('exercise', '2')", " { 'limit': 1 }"), "Exercise 2");
+    query(func.args(NAME, " ('exercise', 'xml')", " { 'limit': 3 }"),
+        "XML\nExercise 1\nExercise 2");
+    query(func.args(NAME, "exercise", " { 'limit': 5 }"), "Exercise 1\nExercise 2");
+    query(_FT_SCORE.args(func.args(NAME, "XML", " { 'limit': 1 }")) + " = " +
+        _FT_SCORE.args(func.args(NAME, "XML")), true);
+    query(_FT_MARK.args(func.args(NAME, "XML", " { 'limit': 1 }") + "/.."),
+        "<title><mark>XML</mark></title>");
+
+    // compare results with sorted results (tokens with different frequencies)
+    execute(new CreateDB(NAME, "<x>{ for $i in 1 to 2000 return <t>{ string-join(" +
+        "for $j in 1 to $i mod 7 + 1 return ('a', 'b', 'b', 'c', 'c', 'c', 'd', 'e', 'f', 'f')" +
+        "[($i * $j * 7 + $j * $j) mod 10 + 1], ' ') }</t> }</x>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    for(final String query : new String[] {
+      "'c'", "('a', 'd')", "('a', 'b', 'c', 'd', 'e', 'f')", "'a b'", "'a x'", "'e*'"
+    }) {
+      for(final String options : new String[] {
+        "", "'mode': 'all words'", "'mode': 'any word'", "'wildcards': true()"
+      }) {
+        for(final int limit : new int[] { 1, 10, 100, 5000 }) {
+          final String args = "{ " + options + " }", limited = "{ 'limit': " + limit +
+              (options.isEmpty() ? "" : ", " + options) + " }";
+          query("let $a := " + func.args(NAME, " " + query, " " + limited) +
+              " let $b := (for $n score $s in " + func.args(NAME, " " + query, " " + args) +
+              " order by $s descending return $n)[position() <= " + limit + "]" +
+              " return deep-equal($a ! db:node-pre(.), sort($b ! db:node-pre(.)))", true);
+        }
+      }
+    }
+
+    error(func.args(NAME, "x", " { 'limit': 'x' }"), INVALIDOPTION_X_X_X_X);
+    error(_FT_CONTAINS.args("x", "x", " { 'limit': 1 }"), INVALIDOPTION_X);
+  }
+
   /** Test method. */
   @Test public void thesaurus() {
     final Function func = _FT_THESAURUS;
@@ -8,6 +8,9 @@ import java.util.stream.*;
 
 import org.basex.*;
 import org.basex.query.util.regex.*;
+import org.basex.query.util.regex.parse.*;
+import org.basex.util.*;
+import org.basex.util.Token;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
@@ -19,6 +22,9 @@ import org.junit.jupiter.params.provider.*;
  * @author Gunther Rademacher
  */
 public final class RegexTest extends SandboxTest {
+  /** Flags for randomly generated expressions. */
+  private static final String[] FLAGS = { "", "i", "s", "m" };
+
   /**
    * Test.
    * @param regex regular expression
@@ -59,6 +65,203 @@ public final class RegexTest extends SandboxTest {
     );
   }
 
+  /**
+   * Compares the results of the automaton with those of the backtracking engine.
+   * @throws Exception exception
+   */
+  @Test public void automaton() throws Exception {
+    final String[] inputs = { "", "a", "aaa", "ab", "abcd", "aabbcc", "abab", "xAbCx",
+      "a\nb\r\nc\rd\n", "\n\n", "hello world, hello XML!", "a1b22c333", "\u00c4\u00e4\u00df",
+      "\ud835\udc00x\ud835\udc01", "mississippi", "KkK", "babA", "Abb" };
+    final String[][] regexes = {
+      { "" }, { "a" }, { "a*" }, { "a+?" }, { "(a|ab)(c|bcd)(d*)" },
+      { "x{2,4}?" }, { "a{2}" }, { "(a{1,2}){2}" }, { "(?:a|b)+c?" }, { "((a)|b)+" },
+      { "^" }, { "$" }, { "^a" }, { "d$" }, { "^.*$", "m" }, { "^", "m" }, { "$", "m" },
+      { ".", "s" }, { ".+" }, { "[a-c]+", "i" }, { "k", "i" }, { "\\p{Lu}+", "i" },
+      { "[a-z-[aeiou]]+" }, { "\\d+|[a-z]" }, { "(?<w>\\w+)\\s*" }, { "hello", "i" },
+      { "(l+)(o?)" }, { "s{2}|p+" }, { "i(ss)+?i" }, { "(\\p{L})(\\P{L}*)" },
+      { "a b", "x" }, { "[^\\n]*\\n?" }, { ".*?" }, { "^|b+", "m" },
+      { "\ud835\udc01|x+" }, { "(a|ab)(c|bcd)?$" }, { "(|b)" }
+    };
+    for(final String[] regex : regexes) {
+      final String flags = regex.length > 1 ? regex[1] : "";
+      final RegExpr nfa = regExpr(regex[0], flags, true), java = regExpr(regex[0], flags, false);
+      for(final String input : inputs) compare(nfa, java, regex[0] + ", " + flags, input);
+    }
+
+    // repetitions of subexpressions that match empty strings: backtracking engine is used
+    final String[][] empty = {
+      { "(a|)*" }, { "(a*)*b" }, { "(()|a)+" }, { "()*" }, { "(a?){2}" }, { "(?:a?)?" },
+      { "(?:|b{0,2}a?|[ab]*){1,3}?a+?", "i" }, { "^(?:[ab]?(|$)+(?:[^a]+?)*?){0,2}b", "s" }
+    };
+    for(final String[] regex : empty) {
+      assertNull(automaton(regex[0], regex.length > 1 ? regex[1] : ""), regex[0]);
+    }
+    query("replace('babA', '(?:|b{0,2}a?|[ab]*){1,3}?a+?', 'X', 'i')", "X");
+    query("replace('Abb', '^(?:[ab]?(|$)+(?:[^a]+?)*?){0,2}b', 'X', 's')", "X");
+    query("analyze-string('a', '()*')//*:group", "");
+  }
+
+  /**
+   * Compares the results of the automaton with those of the backtracking engine for randomly
+   * generated expressions and inputs.
+   * @throws Exception exception
+   */
+  @Test public void automatonRandom() throws Exception {
+    final Random rnd = new Random(0x5EED);
+    int compiled = 0;
+    for(int r = 0; r < 3000; r++) {
+      final String regex = random(rnd, 2), flags = FLAGS[rnd.nextInt(FLAGS.length)];
+      final RegExpr java;
+      final NFA automaton;
+      try {
+        java = regExpr(regex, flags, false);
+        automaton = automaton(regex, flags);
+      } catch(final Exception ex) {
+        // skip invalid expressions
+        Util.debug(ex);
+        continue;
+      }
+      if(automaton == null) continue;
+      compiled++;
+      final RegExpr nfa = new RegExpr(java.pattern, automaton);
+      for(int i = 0; i < 20; i++) {
+        final StringBuilder input = new StringBuilder();
+        for(int l = rnd.nextInt(7); l > 0; l--) input.append("abAB1\n".charAt(rnd.nextInt(6)));
+        compare(nfa, java, regex + ", " + flags, input.toString());
+      }
+    }
+    assertTrue(compiled > 1000, "Compiled expressions: " + compiled);
+  }
+
+  /**
+   * Generates a random regular expression.
+   * @param rnd random number generator
+   * @param depth maximum depth of nested groups
+   * @return regular expression
+   */
+  private static String random(final Random rnd, final int depth) {
+    final String[] atoms = { "a", "b", "A", ".", "[ab]", "[^a]", "\\d", "^", "$" };
+    final String[] quantifiers = { "", "", "*", "+", "?", "{2}", "{0,2}", "{1,3}", "{2,}" };
+    final StringBuilder sb = new StringBuilder();
+    for(int b = rnd.nextInt(3); b >= 0; b--) {
+      for(int p = rnd.nextInt(4); p > 0; p--) {
+        final int a = rnd.nextInt(atoms.length + 2);
+        if(a < atoms.length || depth == 0) {
+          sb.append(atoms[a % atoms.length]);
+        } else {
+          sb.append(a == atoms.length ? "(" : "(?:").append(random(rnd, depth - 1)).append(')');
+        }
+        final String quantifier = quantifiers[rnd.nextInt(quantifiers.length)];
+        sb.append(quantifier);
+        if(!quantifier.isEmpty() && rnd.nextBoolean()) sb.append('?');
+      }
+      if(b > 0) sb.append('|');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Compares the matches, groups and replacements of two compiled expressions.
+   * @param nfa expression to be tested
+   * @param java expression matched by the backtracking engine
+   * @param regex expression and flags
+   * @param input input string
+   */
+  private static void compare(final RegExpr nfa, final RegExpr java, final String regex,
+      final String input) {
+    final String info = regex + ", " + input;
+    final RegExMatcher m1 = nfa.matcher(input), m2 = java.matcher(input);
+    assertEquals(m2.groupCount(), m1.groupCount(), info);
+    while(true) {
+      final boolean found = m2.find();
+      assertEquals(found, m1.find(), info);
+      if(!found) break;
+      for(int g = 0; g <= m2.groupCount(); g++) {
+        assertEquals(m2.start(g), m1.start(g), info + ", group " + g);
+        assertEquals(m2.end(g), m1.end(g), info + ", group " + g);
+      }
+    }
+    final String replace = nfa.matcher(input).groupCount() > 0 ? "[$1\\$$0]" : "[$0]";
+    assertEquals(java.matcher(input).replaceAll(replace),
+        nfa.matcher(input).replaceAll(replace), info);
+  }
+
+  /** Expressions with back-references and assertions are matched by the backtracking engine. */
+  @Test public void automatonFallback() {
+    query("matches('abab', '(ab)\\1')", true);
+    query("matches('ab', 'a(?=b)')", true);
+    query("replace('a b', '\\b', '|')", "|a| |b|");
+    query("tokenize('a1b2c', '\\d')", "a\nb\nc");
+  }
+
+  /** Catastrophic backtracking is avoided. */
+  @Test public void automatonLinear() {
+    final String input = "string-join((1 to 100000) ! 'a')";
+    query("matches(" + input + ", '(a+)+b')", false);
+    query("matches(" + input + ", '(a|aa)*c')", false);
+    query("matches(" + input + ", '(a+)*c')", false);
+    query("replace(" + input + " || 'b', '(a*)*b', 'x')", "x");
+    query("count(tokenize(" + input + ", '(a|a)*b'))", 1);
+    query("analyze-string(" + input + ", '(a?){30}a{30}c')//*:match", "");
+    // more states than can be cached
+    query("count(analyze-string(string-join((1 to 20000) ! (if(. mod 7 < 3) then 'a' else 'b')),"
+        + " '[ab]*a[ab]{12}')//*:match)", 1);
+  }
+
+  /**
+   * Compiles a regular expression.
+   * @param regex regular expression
+   * @param flags flags
+   * @param nfa create automaton
+   * @return compiled expression
+   * @throws Exception exception
+   */
+  private static RegExpr regExpr(final String regex, final String flags, final boolean nfa)
+      throws Exception {
+    final Pattern pattern = Pattern.compile(parse(regex, flags).toString(), flags(flags));
+    if(!nfa) return new RegExpr(pattern);
+    final NFA automaton = automaton(regex, flags);
+    assertNotNull(automaton, regex);
+    return new RegExpr(pattern, automaton);
+  }
+
+  /**
+   * Compiles a regular expression to an automaton.
+   * @param regex regular expression
+   * @param flags flags
+   * @return automaton, or {@code null} if the expression is matched by the backtracking engine
+   * @throws Exception exception
+   */
+  private static NFA automaton(final String regex, final String flags) throws Exception {
+    return NFA.get(parse(regex, flags), flags(flags));
+  }
+
+  /**
+   * Parses a regular expression.
+   * @param regex regular expression
+   * @param flags flags
+   * @return parsed expression
+   * @throws Exception exception
+   */
+  private static RegExp parse(final String regex, final String flags) throws Exception {
+    return new RegExParser(Token.token(regex), flags.contains("x"), false,
+        flags.contains("s"), flags.contains("m"), flags.contains("i")).parse();
+  }
+
+  /**
+   * Returns the flags of the compiled pattern.
+   * @param flags flags
+   * @return pattern flags
+   */
+  private static int flags(final String flags) {
+    int fl = 0;
+    if(flags.contains("i")) fl |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    if(flags.contains("m")) fl |= Pattern.MULTILINE;
+    if(flags.contains("s")) fl |= Pattern.DOTALL;
+    return fl;
+  }
+
   /** Test method. */
   @Test public void gh2328() {
     query("for $p in ('[^0', '[^0-') return try {matches('a', $p)} catch * {}", "");
@@ -1,8 +1,11 @@
 package org.basex.query.util;
 
 import static org.basex.query.QueryError.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 import org.basex.*;
+import org.basex.query.util.collation.*;
 import org.basex.query.util.collation.BaseXCollationOptions.*;
 import org.junit.jupiter.api.*;
 
@@ -111,4 +114,15 @@ public final class CollationTest extends SandboxTest {
     query(PROLOG + "doc('<X>&#xe4;</X>')/X/text()[. = 'a']", "\u00e4");
     query(PROLOG + "doc('<X>&#xe4;</X>')/X[text() = 'a']", "<X>\u00e4</X>");
   }
+
+  /** Caches collation keys of short strings. */
+  @Test public void keys() {
+    Collation.KEYS.clear();
+    final String string = "a".repeat(1000);
+    query(COLLATION_KEY.args(string, COLLATION) + " = " +
+        COLLATION_KEY.args(string.toUpperCase(), COLLATION), true);
+    assertEquals(0, Collation.KEYS.stats()[1]);
+    query(COLLATION_KEY.args("a", COLLATION) + " = " + COLLATION_KEY.args("A", COLLATION), true);
+    assertEquals(2, Collation.KEYS.stats()[1]);
+  }
 }
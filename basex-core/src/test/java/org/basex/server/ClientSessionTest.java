@@ -3,8 +3,11 @@ package org.basex.server;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.*;
+import java.util.stream.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.junit.jupiter.api.*;
 
@@ -44,4 +47,56 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Retrieves query results while they are sent by the server.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryResults() throws IOException {
+    try(ClientQuery query = (ClientQuery) session.query("(1 to 100000) ! string(), 'X'")) {
+      try(ClientResults results = query.results()) {
+        for(int c = 1; c <= 100000; c++) assertEquals(Integer.toString(c), results.next());
+        assertEquals("X", results.next());
+        assertSame(BasicType.STRING, results.type());
+        assertFalse(results.hasNext());
+      }
+
+      // skip remaining results
+      try(ClientResults results = query.results()) {
+        assertEquals("1", results.next());
+      }
+      try(Stream<String> stream = query.stream()) {
+        assertEquals(100001, stream.count());
+      }
+      try(Stream<String> stream = query.stream()) {
+        assertEquals("1", stream.findFirst().get());
+      }
+    }
+    assertEqual("1", session.execute("xquery 1"));
+
+    // query error
+    try(ClientQuery query = (ClientQuery) session.query("1, error()")) {
+      try(ClientResults results = query.results()) {
+        assertEquals("1", results.next());
+        assertThrows(UncheckedIOException.class, results::hasNext);
+      }
+    }
+    assertEqual("1", session.execute("xquery 1"));
+  }
+
+  /**
+   * Cancels the iteration of query results.
+   * @throws IOException I/O exception
+   */
+  @Test public void cancelResults() throws IOException {
+    try(ClientQuery query = (ClientQuery) session.query("(1 to 1000000000) ! string()")) {
+      for(int i = 0; i < 3; i++) {
+        try(ClientResults results = query.results()) {
+          assertEquals("1", results.next());
+          assertEquals("2", results.next());
+        }
+      }
+    }
+    assertEqual("1", session.execute("xquery 1"));
+  }
 }
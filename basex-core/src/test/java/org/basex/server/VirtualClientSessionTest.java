@@ -0,0 +1,62 @@
+package org.basex.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * This class tests clients that are served by virtual threads.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class VirtualClientSessionTest extends SandboxTest {
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeAll public static void startServer() throws IOException {
+    final String name = Prop.DBPREFIX + StaticOptions.VIRTUALTHREADS.name();
+    System.setProperty(name, Boolean.toString(true));
+    try {
+      server = createServer();
+    } finally {
+      System.clearProperty(name);
+    }
+    assertTrue(server.context.soptions.get(StaticOptions.VIRTUALTHREADS));
+  }
+
+  /**
+   * Stops the server.
+   * @throws IOException I/O exception
+   */
+  @AfterAll public static void stop() throws IOException {
+    stopServer(server);
+  }
+
+  /**
+   * Keeps many idle sessions open.
+   * @throws IOException I/O exception
+   */
+  @Test public void idleSessions() throws IOException {
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    try {
+      for(int s = 0; s < 500; s++) sessions.add(createClient());
+      // sessions are registered after the client has been notified
+      for(final ClientSession cs : sessions) assertEquals("1", cs.execute("xquery 1"));
+      assertEquals(500, server.context.sessions.size());
+    } finally {
+      for(final ClientSession cs : sessions) cs.close();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package org.basex.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for {@link BoundedCache}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class BoundedCacheTest {
+  /** Hits and misses. */
+  @Test public void stats() {
+    final BoundedCache<String, String> cache = new BoundedCache<>(8);
+    assertNull(cache.get("a"));
+    assertEquals("A", cache.add("a", "A"));
+    assertEquals("A", cache.add("a", "B"));
+    assertEquals("A", cache.get("a"));
+    assertArrayEquals(new long[] { 8, 1, 1, 1, 0 }, cache.stats());
+  }
+
+  /** Least recently used entries are evicted. */
+  @Test public void evict() {
+    final BoundedCache<Integer, Integer> cache = new BoundedCache<>(16);
+    for(int i = 0; i < 16; i++) cache.add(i, i);
+    // access first entry
+    assertEquals(0, cache.get(0));
+    cache.add(16, 16);
+
+    final long[] stats = cache.stats();
+    assertTrue(stats[1] <= 16);
+    assertEquals(17 - stats[1], stats[4]);
+    assertEquals(0, cache.get(0));
+    assertEquals(16, cache.get(16));
+    assertNull(cache.get(1));
+  }
+
+  /**
+   * Concurrent access.
+   * @throws Exception exception
+   */
+  @Test public void concurrent() throws Exception {
+    final BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final Future<?>[] futures = new Future<?>[4];
+      for(int f = 0; f < futures.length; f++) {
+        futures[f] = pool.submit(() -> {
+          for(int i = 0; i < 10000; i++) {
+            final int key = i % 250;
+            final Integer value = cache.get(key);
+            assertEquals(key, value != null ? value : cache.add(key, key));
+          }
+        });
+      }
+      for(final Future<?> future : futures) future.get();
+    } finally {
+      pool.shutdown();
+    }
+    final long[] stats = cache.stats();
+    assertTrue(stats[1] <= 100);
+    assertEquals(40000, stats[2] + stats[3]);
+  }
+}
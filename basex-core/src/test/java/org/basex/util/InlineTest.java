@@ -99,6 +99,9 @@ public final class InlineTest extends SandboxTest {
       }
       fail(sb.toString());
     }
+    final byte[] bytes = new byte[16];
+    final int length = Inline.unpack(packed, bytes);
+    assertArrayEquals(token, Arrays.copyOf(bytes, length), string);
   }
 
   /**
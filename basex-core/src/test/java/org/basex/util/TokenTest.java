@@ -0,0 +1,112 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Token tests.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenTest {
+  /** Test. */
+  @Test public void ascii() {
+    assertTrue(Token.ascii(EMPTY));
+    assertTrue(Token.ascii(token("abcdefghijklmnopq")));
+    assertFalse(Token.ascii(token("abcdefghijklmnopä")));
+    assertFalse(Token.ascii(token("abcdefgähijklmnop")));
+    assertFalse(Token.ascii(token("ä")));
+  }
+
+  /** Test. */
+  @Test public void indexOf() {
+    assertEquals(-1, Token.indexOf(EMPTY, 'a'));
+    assertEquals(0, Token.indexOf(token("abcdefghijk"), 'a'));
+    assertEquals(9, Token.indexOf(token("abcdefghijk"), 'j'));
+    assertEquals(10, Token.indexOf(token("abcdefghijk"), 'k'));
+    assertEquals(-1, Token.indexOf(token("abcdefghijk"), 'a', 1));
+    assertEquals(8, Token.indexOf(token("abcdefghäijk"), 'ä'));
+    assertEquals(0, Token.indexOf(token("abc"), EMPTY));
+    assertEquals(6, Token.indexOf(token("abcabcabcabc"), token("abc"), 4));
+    assertEquals(9, Token.indexOf(token("abcabcabcabc"), token("abc"), 7));
+    assertEquals(-1, Token.indexOf(token("abcabcabcabc"), token("abc"), 10));
+    assertEquals(8, Token.indexOf(token("abcdefghäijk"), token("äi")));
+  }
+
+  /** Test. */
+  @Test public void lcUc() {
+    assertEquals("abcdefghijklmnopqrstuvwxyz@[`{",
+        string(lc(token("ABCDEFGHIJKLMNOPQRSTUVWXYZ@[`{"))));
+    assertEquals("ABCDEFGHIJKLMNOPQRSTUVWXYZ@[`{",
+        string(uc(token("abcdefghijklmnopqrstuvwxyz@[`{"))));
+    assertEquals("abcä", string(lc(token("ABCÄ"))));
+  }
+
+  /** Test. */
+  @Test public void toDouble() {
+    assertEquals(900.5, Token.toDouble(token("900.5")));
+    assertEquals(-0.1, Token.toDouble(token("-.1")));
+    assertEquals(1, Token.toDouble(token("+1.")));
+    assertEquals(-0d, Token.toDouble(token("-0.0")));
+    assertEquals(0.1234567890123456, Token.toDouble(token("0.1234567890123456")));
+    assertEquals(1.5e3, Token.toDouble(token(" 1.5e3 ")));
+    assertTrue(Double.isNaN(Token.toDouble(token("-."))));
+    assertTrue(Double.isNaN(Token.toDouble(token("1.2.3"))));
+    assertEquals(12.5, Token.toDouble(token("x12.5y"), 1, 5));
+    assertTrue(Double.isNaN(Token.toDouble(token("x12.5y"), 0, 5)));
+
+    final Random rnd = new Random(0);
+    for(int i = 0; i < 100000; i++) {
+      final String string = BigDecimal.valueOf(rnd.nextLong() >> rnd.nextInt(64),
+          rnd.nextInt(20)).toPlainString();
+      assertEquals(Double.parseDouble(string), Token.toDouble(token(string)), string);
+    }
+  }
+
+  /** Compares the results with simple implementations. */
+  @Test public void random() {
+    final Random rnd = new Random(0);
+    for(int i = 0; i < 10000; i++) {
+      final byte[] token = new byte[rnd.nextInt(40)];
+      for(int t = 0; t < token.length; t++) {
+        token[t] = (byte) (rnd.nextInt(8) == 0 ? 0x80 + rnd.nextInt(0x80) :
+          rnd.nextInt(4) == 0 ? 'A' + rnd.nextInt(6) : 0x20 + rnd.nextInt(0x60));
+      }
+
+      boolean ascii = true;
+      for(final byte b : token) ascii &= b >= 0;
+      assertEquals(ascii, Token.ascii(token));
+
+      final byte[] sub = Arrays.copyOf(token.length > 0 ? Arrays.copyOfRange(token,
+          rnd.nextInt(token.length), token.length) : token, rnd.nextInt(3));
+      assertEquals(Collections.indexOfSubList(list(token), list(sub)), Token.indexOf(token, sub));
+
+      if(ascii) {
+        final String string = string(token);
+        assertEquals(string.toLowerCase(Locale.ENGLISH), string(lc(token)));
+        assertEquals(string.toUpperCase(Locale.ENGLISH), string(uc(token)));
+        if(token.length > 0) {
+          final int ch = token[rnd.nextInt(token.length)];
+          assertEquals(string.indexOf(ch), Token.indexOf(token, ch));
+        }
+      }
+    }
+  }
+
+  /**
+   * Converts a token to a list.
+   * @param token token
+   * @return list
+   */
+  private static List<Byte> list(final byte[] token) {
+    final ArrayList<Byte> list = new ArrayList<>(token.length);
+    for(final byte b : token) list.add(b);
+    return list;
+  }
+}
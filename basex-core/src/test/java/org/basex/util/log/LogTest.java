@@ -0,0 +1,113 @@
+package org.basex.util.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for writing log entries.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of threads. */
+  private static final int THREADS = 4;
+  /** Number of entries per thread. */
+  private static final int ENTRIES = 1000;
+
+  /**
+   * Writes log entries synchronously.
+   * @throws Exception exception
+   */
+  @Test public void sync() throws Exception {
+    write(0);
+  }
+
+  /**
+   * Writes log entries asynchronously.
+   * @throws Exception exception
+   */
+  @Test public void async() throws Exception {
+    write(16);
+  }
+
+  /**
+   * Closes the log while entries are written asynchronously.
+   * @throws Exception exception
+   */
+  @Test public void close() throws Exception {
+    final Log log = log(16);
+    final ArrayList<Thread> threads = threads(log);
+    threads.add(new Thread(log::close));
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    assertNull(log.file);
+    check(log);
+  }
+
+  /**
+   * Writes log entries in parallel and checks if all entries have been written.
+   * @param buffer size of log buffer
+   * @throws Exception exception
+   */
+  private static void write(final int buffer) throws Exception {
+    final Log log = log(buffer);
+    final ArrayList<Thread> threads = threads(log);
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    log.close();
+    check(log);
+  }
+
+  /**
+   * Creates a logger.
+   * @param buffer size of log buffer
+   * @return logger
+   */
+  private static Log log(final int buffer) {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.DBPATH, sandbox().path());
+    sopts.set(StaticOptions.LOG, "data");
+    sopts.set(StaticOptions.LOGPATH, "logs" + buffer);
+    sopts.set(StaticOptions.LOGBUFFER, buffer);
+    return new Log(sopts);
+  }
+
+  /**
+   * Creates threads that write log entries.
+   * @param log logger
+   * @return threads
+   */
+  private static ArrayList<Thread> threads(final Log log) {
+    final ArrayList<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < THREADS; t++) {
+      final int id = t;
+      threads.add(new Thread(() -> {
+        for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, id + ":" + e);
+      }));
+    }
+    return threads;
+  }
+
+  /**
+   * Checks if all entries have been written, deletes the log files.
+   * @param log logger
+   * @throws IOException I/O exception
+   */
+  private static void check(final Log log) throws IOException {
+    final HashSet<String> infos = new HashSet<>();
+    for(final IOFile file : log.files()) {
+      for(final String line : file.readString().split(Prop.NL)) infos.add(line.split("\t")[4]);
+    }
+    assertEquals(THREADS * ENTRIES, infos.size());
+    for(final IOFile file : log.files()) assertTrue(file.delete());
+  }
+}